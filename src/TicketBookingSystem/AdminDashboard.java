@@ -1,5 +1,6 @@
 package TicketBookingSystem;
 
+import java.time.LocalDate;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Map;
@@ -21,11 +22,16 @@ public class AdminDashboard {
      */
     public void showMenu(Scanner sc) {
         while (true) {
+            bookingSystem.evictIdleBookings();
             Utils.clearScreen();
             Utils.printBanner("Admin Dashboard");
             System.out.println(Utils.YELLOW_BOLD + "1." + Utils.RESET + Utils.CYAN + " View All Bookings" + Utils.RESET);
             System.out.println(Utils.YELLOW_BOLD + "2." + Utils.RESET + Utils.CYAN + " View All Users" + Utils.RESET);
             System.out.println(Utils.YELLOW_BOLD + "3." + Utils.RESET + Utils.CYAN + " Cancel Any Booking" + Utils.RESET);
+            System.out.println(Utils.YELLOW_BOLD + "4." + Utils.RESET + Utils.CYAN + " Search Trip Archive" + Utils.RESET);
+            System.out.println(Utils.YELLOW_BOLD + "5." + Utils.RESET + Utils.CYAN + " Archive Completed Trips" + Utils.RESET);
+            System.out.println(Utils.YELLOW_BOLD + "6." + Utils.RESET + Utils.CYAN + " Route Data Status" + Utils.RESET);
+            System.out.println(Utils.YELLOW_BOLD + "7." + Utils.RESET + Utils.CYAN + " Routes by Provider" + Utils.RESET);
             // Add more admin options here later (e.g., Manage Vehicles, Manage Routes)
             System.out.println(Utils.YELLOW_BOLD + "0." + Utils.RESET + Utils.CYAN + " Logout Admin Session" + Utils.RESET);
             System.out.print(Utils.WHITE_BOLD + "Choose an option: " + Utils.RESET);
@@ -54,9 +60,24 @@ public class AdminDashboard {
                     viewAllUsers(sc);
                     break;
                 case 3:
-                    cancelAnyBooking(sc);
-                    // Save immediately after admin cancellation
-                    StorageManager.saveBookings(bookingSystem.getPlanes(), bookingSystem.getTrains(), bookingSystem.getBuses());
+                    cancelAnyBooking(sc); // Cancellation is journaled by the vehicle manager
+                    break;
+                case 4:
+                    searchArchive(sc);
+                    break;
+                case 5:
+                    archiveCompletedTrips(sc);
+                    break;
+                case 6:
+                    Utils.clearScreen();
+                    bookingSystem.getRouteDataManager().displayStatus();
+                    Utils.pause(sc);
+                    break;
+                case 7:
+                    Utils.clearScreen();
+                    String provider = prompt(sc, "Provider or operator (e.g. IndiGo; blank lists operators)");
+                    bookingSystem.getRouteDataManager().displayProviderRoutes(provider == null ? "" : provider);
+                    Utils.pause(sc);
                     break;
                 case 0:
                     System.out.println(Utils.GREEN + "Logging out from admin dashboard..." + Utils.RESET);
@@ -75,6 +96,7 @@ public class AdminDashboard {
     private void viewAllBookings(Scanner sc) {
         Utils.clearScreen();
         Utils.printBanner("View All Bookings");
+        bookingSystem.loadAllBookings(); // Bring in partitions outside the booking horizon
         boolean foundAnyBookings = false;
 
         System.out.println(Utils.CYAN_BOLD + "\n--- All Plane Bookings ---" + Utils.RESET);
@@ -121,12 +143,7 @@ public class AdminDashboard {
     private void displayBookingMap(Map<String, ?> bookingsMap) {
         if (bookingsMap == null || bookingsMap.isEmpty()) return; // Nothing to display
 
-        // Print header
-        String columns = String.format(Utils.BLUE_BOLD + "%-10s | %-15s | %-20s | %-25s | %-11s | %-10s | %-8s | %s" + Utils.RESET,
-                "Booking ID", "User", "Route", "Service/Provider", "Travel Date", "Price", "Seat", "Class");
-        String separator = Utils.CYAN + "-----------+-----------------+----------------------+---------------------------+-------------+------------+----------+---------------------" + Utils.RESET;
-        System.out.println(columns);
-        System.out.println(separator);
+        printBookingHeader();
 
         // Iterate and print details using reflection/casting carefully
         for (Map.Entry<String, ?> entry : bookingsMap.entrySet()) {
@@ -144,8 +161,7 @@ public class AdminDashboard {
                 Seat seat = (Seat) bookingObj.getClass().getMethod("getSeat").invoke(bookingObj);
                 String seatClass = (String) bookingObj.getClass().getMethod("getSeatClass").invoke(bookingObj);
 
-                System.out.printf(Utils.YELLOW_BOLD + "%-10s" + Utils.RESET + " | " + Utils.MAGENTA + "%-15s" + Utils.RESET + " | " + Utils.MAGENTA + "%-20s" + Utils.RESET + " | " + Utils.CYAN + "%-25.25s" + Utils.RESET + " | " + Utils.MAGENTA + "%-11s" + Utils.RESET + " | " + Utils.GREEN_BOLD + "Rs. %-7.2f" + Utils.RESET + " | " + Utils.YELLOW_BOLD + "%-8s" + Utils.RESET + " | " + Utils.MAGENTA + "%s" + Utils.RESET + "\n",
-                        bookingId, username, startCity + "->" + destCity, provider, travelDate, price, seat.getSeatId(), seatClass);
+                printBookingRow(bookingId, username, startCity + "->" + destCity, provider, travelDate, price, seat.getSeatId(), seatClass);
 
             } catch (Exception e) {
                 // Fallback or error message if reflection fails
@@ -154,6 +170,78 @@ public class AdminDashboard {
         }
     }
 
+    private static void printBookingHeader() {
+        String columns = String.format(Utils.BLUE_BOLD + "%-10s | %-15s | %-20s | %-25s | %-11s | %-10s | %-8s | %s" + Utils.RESET,
+                "Booking ID", "User", "Route", "Service/Provider", "Travel Date", "Price", "Seat", "Class");
+        String separator = Utils.CYAN + "-----------+-----------------+----------------------+---------------------------+-------------+------------+----------+---------------------" + Utils.RESET;
+        System.out.println(columns);
+        System.out.println(separator);
+    }
+
+    private static void printBookingRow(String bookingId, String username, String route, String provider, String travelDate, double price, String seatId, String seatClass) {
+        System.out.printf(Utils.YELLOW_BOLD + "%-10s" + Utils.RESET + " | " + Utils.MAGENTA + "%-15s" + Utils.RESET + " | " + Utils.MAGENTA + "%-20s" + Utils.RESET + " | " + Utils.CYAN + "%-25.25s" + Utils.RESET + " | " + Utils.MAGENTA + "%-11s" + Utils.RESET + " | " + Utils.GREEN_BOLD + "Rs. %-7.2f" + Utils.RESET + " | " + Utils.YELLOW_BOLD + "%-8s" + Utils.RESET + " | " + Utils.MAGENTA + "%s" + Utils.RESET + "\n",
+                bookingId, username, route, provider, travelDate, price, seatId, seatClass);
+    }
+
+    /**
+     * Searches archived (completed) trips. Blank answers match anything; the archive is
+     * streamed block by block, so this works without loading it into memory.
+     * @param sc Scanner for input.
+     */
+    private void searchArchive(Scanner sc) {
+        Utils.clearScreen();
+        Utils.printBanner("Search Trip Archive");
+        System.out.println(Utils.GREY + "Leave a field blank to match anything." + Utils.RESET);
+        String bookingId = prompt(sc, "Booking ID: ");
+        String username = prompt(sc, "Username: ");
+        String city = prompt(sc, "City (origin or destination): ");
+        LocalDate from = promptDate(sc, "From travel date (DD-MM-YYYY): ");
+        LocalDate to = promptDate(sc, "To travel date (DD-MM-YYYY): ");
+
+        BookingArchive.ArchiveQuery query = new BookingArchive.ArchiveQuery(bookingId, username, city, from, to);
+        long start = System.nanoTime();
+        boolean[] headerPrinted = {false};
+        BookingArchive.SearchStats stats = BookingArchive.search(query, record -> {
+            if (!headerPrinted[0]) { printBookingHeader(); headerPrinted[0] = true; }
+            printBookingRow(record.bookingId(), record.username(), record.startCity() + "->" + record.destCity(), record.provider(),
+                    record.travelDate(), record.price(), record.row() + record.column(), record.seatClass());
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        if (stats.matches() == 0) System.out.println(Utils.YELLOW + "No archived bookings match." + Utils.RESET);
+        System.out.println(Utils.GREY + stats.matches() + " match(es) in " + stats.segments() + " segment(s); "
+                + stats.blocksRead() + " block(s) read, " + stats.blocksSkipped() + " skipped by index, " + millis + " ms." + Utils.RESET);
+        Utils.pause(sc);
+    }
+
+    private static String prompt(Scanner sc, String label) {
+        System.out.print(Utils.WHITE_BOLD + label + Utils.RESET);
+        String value = sc.nextLine().trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate promptDate(Scanner sc, String label) {
+        while (true) {
+            String value = prompt(sc, label);
+            if (value == null) return null;
+            LocalDate date = Utils.parseTravelDate(value);
+            if (date != null) return date;
+            System.out.println(Utils.RED + "Invalid date. Use DD-MM-YYYY or leave blank." + Utils.RESET);
+        }
+    }
+
+    /**
+     * Moves every booking whose travel date has passed into the archive.
+     * @param sc Scanner for pausing.
+     */
+    private void archiveCompletedTrips(Scanner sc) {
+        Utils.clearScreen();
+        Utils.printBanner("Archive Completed Trips");
+        int archived = bookingSystem.archiveCompletedTrips();
+        if (archived > 0) System.out.println(Utils.GREEN + archived + " completed trip(s) archived." + Utils.RESET);
+        else if (archived == 0) System.out.println(Utils.YELLOW + "No completed trips to archive." + Utils.RESET);
+        Utils.pause(sc);
+    }
 
     /**
      * Displays all registered users.
@@ -176,6 +264,7 @@ public class AdminDashboard {
         Utils.printBanner("Cancel Any Booking (Admin)");
         System.out.print(Utils.WHITE_BOLD + "Enter Booking ID to cancel (e.g., P1, T1, B1): " + Utils.RESET);
         String bookingId = sc.nextLine().toUpperCase(); // Use uppercase for consistency
+        bookingSystem.loadAllBookings(); // The booking may be in a partition that is not loaded
         boolean canceled = false;
 
         // Iterate through all vehicle types and their booking maps
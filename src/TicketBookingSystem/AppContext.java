@@ -0,0 +1,119 @@
+package TicketBookingSystem;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Wires the application's managers exactly once and owns their startup and shutdown.
+ * The user store loads on a helper thread while the route files and then the booking store load:
+ * routes on a helper thread, bookings on the calling thread once the routes are published (train
+ * seats are held per leg only for stop lists the published routes keep to, see TrainStops). Cold
+ * start is then bounded by the slower of the users and routes plus bookings; a phase-timing report is printed at the end.
+ */
+public final class AppContext implements AutoCloseable {
+    private final RouteDataManager routeDataManager;
+    private final UserManager userManager;
+    private final BookingSystem bookingSystem;
+    private boolean closed;
+
+    private AppContext(RouteDataManager routeDataManager, UserManager userManager, BookingSystem bookingSystem) {
+        this.routeDataManager = routeDataManager;
+        this.userManager = userManager;
+        this.bookingSystem = bookingSystem;
+    }
+
+    /**
+     * Loads everything and returns the wired context.
+     * @throws IllegalStateException if one of the loads fails unexpectedly.
+     */
+    public static AppContext start() {
+        long start = System.nanoTime();
+        RouteDataManager routes = new RouteDataManager(false);
+        BookingSystem bookings = new BookingSystem(routes);
+
+        ExecutorService loaders = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "startup-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<Long> routeLoad = loaders.submit(() -> timed(routes::load));
+            long[] userNanos = new long[1]; // Written by the loader, read after get()
+            Future<UserManager> userLoad = loaders.submit(() -> {
+                long userStart = System.nanoTime();
+                UserManager loaded = new UserManager();
+                userNanos[0] = System.nanoTime() - userStart;
+                return loaded;
+            });
+            long routeNanos = routeLoad.get();
+            long bookingNanos = timed(bookings::loadBookings);
+            UserManager users = userLoad.get();
+            routes.startWatching();
+
+            long total = System.nanoTime() - start;
+            printTiming(List.of(new Phase("Routes", routeNanos), new Phase("Users", userNanos[0]), new Phase("Bookings", bookingNanos)), total);
+            return new AppContext(routes, users, bookings);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Startup interrupted", e);
+        } catch (ExecutionException e) {
+            System.err.println(Utils.RED_BOLD + "Startup failed: " + Utils.RESET + Utils.RED + e.getCause() + Utils.RESET);
+            throw new IllegalStateException("Startup failed", e.getCause());
+        } finally {
+            loaders.shutdown();
+        }
+    }
+
+    private record Phase(String name, long nanos) {}
+
+    private static long timed(Runnable step) {
+        long start = System.nanoTime();
+        step.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void printTiming(List<Phase> phases, long totalNanos) {
+        Phase slowest = phases.get(0);
+        System.out.println(Utils.GREY + "Startup timing:" + Utils.RESET);
+        for (Phase phase : phases) {
+            System.out.printf(Utils.GREY + "  %-9s %8.1f ms" + Utils.RESET + "%n", phase.name(), phase.nanos() / 1e6);
+            if (phase.nanos() > slowest.nanos()) slowest = phase;
+        }
+        System.out.printf(Utils.GREY + "  %-9s %8.1f ms (slowest phase: %s)" + Utils.RESET + "%n", "Total", totalNanos / 1e6, slowest.name());
+    }
+
+    public RouteDataManager getRouteDataManager() { return routeDataManager; }
+
+    public UserManager getUserManager() { return userManager; }
+
+    public BookingSystem getBookingSystem() { return bookingSystem; }
+
+    /**
+     * Shuts down in dependency order: stop background checkpoints, the route watcher and seat-hold expiry,
+     * fold the user log, write the final booking snapshot, then close the journal and the passenger manifest.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        BookingCheckpointer.shutdown(); // Let any running checkpoint finish before the final save
+        routeDataManager.stopWatching();
+        bookingSystem.getSeatHolds().close();
+        // Save Users (registrations are already on disk; this folds the log into users.txt)
+        try {
+            userManager.close();
+        } catch (Exception e) { System.err.println(Utils.RED + "Error saving user data: " + e.getMessage() + Utils.RESET); }
+        // Save Bookings
+        try {
+            List<PlaneBooking> planes = bookingSystem.getPlanes();
+            List<TrainBooking> trains = bookingSystem.getTrains();
+            List<BusBooking> buses = bookingSystem.getBuses();
+            if (planes != null && trains != null && buses != null) StorageManager.saveBookings(planes, trains, buses);
+        } catch (Exception e) { System.err.println(Utils.RED + "Error saving booking data: " + e.getMessage() + Utils.RESET); }
+        BookingJournal.close();
+        PassengerManifest.close();
+    }
+}
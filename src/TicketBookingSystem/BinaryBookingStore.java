@@ -0,0 +1,432 @@
+package TicketBookingSystem;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Alternative binary booking storage. Bookings are fixed-width records in bookings.bin,
+ * accessed through a MappedByteBuffer so a single booking can be read or updated in place
+ * by its offset. Usernames, cities, providers, seat classes and manager IDs are stored as
+ * dictionary IDs; the dictionaries live in bookings.dict (one "KIND|value" line per entry,
+ * IDs assigned in file order). Enable with -Dbookings.format=binary after running the
+ * converter (java TicketBookingSystem.BinaryBookingStore).
+ *
+ * Header (32 bytes): magic, version, record size, record count, journal sequence covered.
+ * Record (56 bytes):
+ *   0 status (0 live, 1 cancelled) | 1 transport (P/T/B) | 2 row (short) | 4 booking number
+ *   8 username | 12 start city | 16 dest city | 20 seat class | 24 manager ID | 28 provider
+ *   32 travel date (epoch day) | 36 seat column (char) | 40 price (double) | 48 CRC32C of bytes 0-47 (52-55 unused)
+ * Every in-place update re-seals the record's checksum. On open, trailing records that fail
+ * their checksum (a torn append) are dropped; damaged records elsewhere are skipped when loading.
+ */
+public class BinaryBookingStore implements Closeable {
+    static final String BINARY_FILE = "bookings.bin";
+    static final String DICT_FILE = "bookings.dict";
+
+    private static final int MAGIC = 0x534B5942; // "SKYB"
+    private static final short VERSION = 2;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 56;
+    private static final int CHECKED_BYTES = 48; // Record bytes covered by the checksum
+    private static final int INITIAL_CAPACITY = 1024; // Records mapped up front; doubles as needed
+    private static final int NO_DATE = Integer.MIN_VALUE; // Stored for "N/A" travel dates
+
+    private static final byte LIVE = 0;
+    private static final byte CANCELLED = 1;
+
+    // Header field offsets
+    private static final int H_MAGIC = 0, H_VERSION = 4, H_RECORD_SIZE = 6, H_COUNT = 8, H_SEQ = 16;
+    // Record field offsets
+    private static final int F_STATUS = 0, F_TRANSPORT = 1, F_ROW = 2, F_NUMBER = 4, F_USER = 8, F_START = 12,
+            F_DEST = 16, F_CLASS = 20, F_VEHICLE = 24, F_PROVIDER = 28, F_DATE = 32, F_COLUMN = 36, F_PRICE = 40, F_CRC = 48;
+
+    /** Append-only string dictionary for one kind of value. */
+    private static final class Dictionary {
+        final String kind;
+        final List<String> values = new ArrayList<>();
+        final Map<String, Integer> ids = new HashMap<>();
+        Dictionary(String kind) { this.kind = kind; }
+        String get(int id) { return values.get(id); }
+    }
+
+    private final String dictPath;
+    private boolean dictDirty; // Entries appended since the dictionary file was last synced
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity; // Records that fit in the current mapping
+    private int count;
+    private final Map<String, Integer> indexById = new HashMap<>();
+
+    private final Dictionary users = new Dictionary("USER");
+    private final Dictionary cities = new Dictionary("CITY");
+    private final Dictionary providers = new Dictionary("PROVIDER");
+    private final Dictionary classes = new Dictionary("CLASS");
+    private final Dictionary vehicles = new Dictionary("VEHICLE");
+
+    private BinaryBookingStore(String binPath, String dictPath) throws IOException {
+        this.dictPath = dictPath;
+        this.channel = FileChannel.open(Paths.get(binPath), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            openFile(binPath);
+        } catch (IOException | RuntimeException e) {
+            buffer = null;
+            channel.close(); // Not returned to the caller, so nobody else would close it
+            throw e;
+        }
+    }
+
+    /** Loads the dictionaries, checks or writes the header and indexes the records. */
+    private void openFile(String binPath) throws IOException {
+        loadDictionaries();
+        if (channel.size() == 0) {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(H_MAGIC, MAGIC); buffer.putShort(H_VERSION, VERSION); buffer.putShort(H_RECORD_SIZE, (short) RECORD_SIZE);
+            buffer.putInt(H_COUNT, 0); buffer.putLong(H_SEQ, 0);
+        } else {
+            map((int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE));
+            if (buffer.getInt(H_MAGIC) != MAGIC) throw new IOException(binPath + " is not a binary booking file");
+            if (buffer.getShort(H_VERSION) != VERSION || buffer.getShort(H_RECORD_SIZE) != RECORD_SIZE) throw new IOException("Unsupported binary booking file version in " + binPath);
+            count = Math.min(buffer.getInt(H_COUNT), capacity);
+            int torn = 0;
+            while (count > 0 && !checksumMatches(buffer, count - 1)) { count--; torn++; }
+            if (torn > 0) {
+                buffer.putInt(H_COUNT, count); // The journal still holds these bookings
+                System.err.println(Utils.YELLOW + "Warning: Dropped " + torn + " torn record(s) at the end of " + binPath + "." + Utils.RESET);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (checksumMatches(buffer, i)) indexById.put(bookingIdAt(i), i); // A damaged record is rewritten by a later BOOK
+        }
+    }
+
+    /** Opens (or creates) a binary store and its dictionary file. */
+    public static BinaryBookingStore open(String binPath, String dictPath) throws IOException {
+        return new BinaryBookingStore(binPath, dictPath);
+    }
+
+    /** Maps the file with room for the given number of records. */
+    private void map(int recordCapacity) throws IOException {
+        capacity = Math.max(recordCapacity, 1);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+
+    private static int offset(int index) { return HEADER_SIZE + index * RECORD_SIZE; }
+
+    // --- Checksums ---
+
+    private static int checksum(ByteBuffer records, int off) {
+        CRC32C crc = new CRC32C();
+        crc.update(records.duplicate().limit(off + CHECKED_BYTES).position(off));
+        return (int) crc.getValue();
+    }
+
+    /** Returns true if the record at the index matches its stored checksum. */
+    static boolean checksumMatches(ByteBuffer records, int index) {
+        return records.getInt(offset(index) + F_CRC) == checksum(records, offset(index));
+    }
+
+    /** Recomputes the checksum of a record after it changed. */
+    private void seal(int index) {
+        buffer.putInt(offset(index) + F_CRC, checksum(buffer, offset(index)));
+    }
+
+    /**
+     * Reads the record count from the header of a mapped store file, checking magic and version.
+     * Used by BookingStoreVerifier, which checks records without opening the store.
+     */
+    static int recordCount(ByteBuffer mapped) throws IOException {
+        if (mapped.capacity() < HEADER_SIZE || mapped.getInt(H_MAGIC) != MAGIC) throw new IOException("Not a binary booking file");
+        if (mapped.getShort(H_VERSION) != VERSION || mapped.getShort(H_RECORD_SIZE) != RECORD_SIZE) throw new IOException("Unsupported version " + mapped.getShort(H_VERSION));
+        return mapped.getInt(H_COUNT);
+    }
+
+    // --- Lookup and in-place access ---
+
+    /** Number of records in the file (live and cancelled). */
+    public int size() { return count; }
+
+    /** Returns the record index of a booking ID, or -1 if it is not stored. */
+    public int indexOf(String bookingId) {
+        Integer index = indexById.get(bookingId.toUpperCase());
+        return index == null ? -1 : index;
+    }
+
+    /** Returns true if the record at the index has been cancelled. */
+    public boolean isCancelled(int index) { return buffer.get(offset(index) + F_STATUS) == CANCELLED; }
+
+    /** Decodes the record at the index. */
+    public BookingRecord read(int index) {
+        int off = offset(index);
+        int epochDay = buffer.getInt(off + F_DATE);
+        String travelDate = epochDay == NO_DATE ? "N/A" : Utils.formatTravelDate(LocalDate.ofEpochDay(epochDay));
+        return new BookingRecord(bookingIdAt(index), users.get(buffer.getInt(off + F_USER)),
+                cities.get(buffer.getInt(off + F_START)), cities.get(buffer.getInt(off + F_DEST)),
+                buffer.getDouble(off + F_PRICE), classes.get(buffer.getInt(off + F_CLASS)),
+                buffer.getShort(off + F_ROW), String.valueOf(buffer.getChar(off + F_COLUMN)),
+                vehicles.get(buffer.getInt(off + F_VEHICLE)), travelDate, providers.get(buffer.getInt(off + F_PROVIDER)));
+    }
+
+    private String bookingIdAt(int index) {
+        int off = offset(index);
+        return (char) buffer.get(off + F_TRANSPORT) + String.valueOf(buffer.getInt(off + F_NUMBER));
+    }
+
+    /** Updates the travel date of the record at the index in place. */
+    public void updateTravelDate(int index, String travelDate) {
+        buffer.putInt(offset(index) + F_DATE, encodeDate(travelDate));
+        seal(index);
+    }
+
+    /** Marks the record at the index as cancelled in place. */
+    public void markCancelled(int index) {
+        buffer.put(offset(index) + F_STATUS, CANCELLED);
+        seal(index);
+    }
+
+    /**
+     * Stores a booking: overwrites the record of the same ID in place if one exists (a date
+     * move re-books the same ID), otherwise appends a new record. Booking numbers are never
+     * reused (see BookingJournal.maxBookingNumber), so an overwrite is always the same booking.
+     * @return The record index.
+     * @throws IllegalArgumentException if the booking cannot be represented (e.g. non-numeric ID).
+     */
+    public int write(BookingRecord record) throws IOException {
+        String id = record.bookingId().toUpperCase();
+        if (record.transportType() == null) throw new IllegalArgumentException("Unknown booking ID prefix: " + id);
+        int number = Integer.parseInt(id.substring(1));
+        if (record.column().length() != 1) throw new IllegalArgumentException("Seat column must be one character: " + record.column());
+        if (record.row() < 0 || record.row() > Short.MAX_VALUE) throw new IllegalArgumentException("Seat row out of range: " + record.row());
+
+        int index = indexOf(id);
+        if (index < 0) {
+            if (count == capacity) map(capacity * 2);
+            index = count++;
+            buffer.putInt(H_COUNT, count);
+            indexById.put(id, index);
+        }
+        int off = offset(index);
+        buffer.put(off + F_STATUS, LIVE);
+        buffer.put(off + F_TRANSPORT, (byte) id.charAt(0));
+        buffer.putShort(off + F_ROW, (short) record.row());
+        buffer.putInt(off + F_NUMBER, number);
+        buffer.putInt(off + F_USER, intern(users, record.username()));
+        buffer.putInt(off + F_START, intern(cities, record.startCity()));
+        buffer.putInt(off + F_DEST, intern(cities, record.destCity()));
+        buffer.putInt(off + F_CLASS, intern(classes, record.seatClass()));
+        buffer.putInt(off + F_VEHICLE, intern(vehicles, record.vehicleId()));
+        buffer.putInt(off + F_PROVIDER, intern(providers, record.provider()));
+        buffer.putInt(off + F_DATE, encodeDate(record.travelDate()));
+        buffer.putChar(off + F_COLUMN, record.column().charAt(0));
+        buffer.putDouble(off + F_PRICE, record.price());
+        seal(index);
+        return index;
+    }
+
+    private static int encodeDate(String travelDate) {
+        LocalDate date = Utils.parseTravelDate(travelDate);
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    /** Journal sequence number already applied to this file. */
+    public long getSnapshotSeq() { return buffer.getLong(H_SEQ); }
+
+    /**
+     * Records that the file covers the journal through seq. A mapped buffer gives no write order,
+     * so the records (and the dictionary) are forced first and the header only afterwards: after a
+     * crash the header never claims records that did not reach the disk.
+     */
+    public void commitSnapshotSeq(long seq) throws IOException {
+        force();
+        buffer.putLong(H_SEQ, seq);
+        buffer.force();
+    }
+
+    /**
+     * Applies a booking journal operation (see BookingJournal) to the file in place.
+     */
+    void apply(String op, String payload) {
+        try {
+            switch (op) {
+                case BookingJournal.OP_BOOK: write(BookingRecord.parse(payload)); break;
+                case BookingJournal.OP_CANCEL:
+                case BookingJournal.OP_ARCHIVE: {
+                    int index = indexOf(payload.split(":")[0]);
+                    if (index >= 0) markCancelled(index);
+                    break;
+                }
+                case BookingJournal.OP_MODIFY: {
+                    String[] parts = payload.split(":");
+                    int index = indexOf(parts[0]);
+                    if (index >= 0 && parts.length == 3) updateTravelDate(index, parts[2]);
+                    break;
+                }
+                default: throw new IllegalArgumentException("Unknown journal operation '" + op + "'");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Flushes mapped changes to disk, syncing new dictionary entries first so no record on disk names a missing one. */
+    public void force() throws IOException {
+        syncDictionary();
+        buffer.force();
+    }
+
+    /**
+     * Adds all live bookings to the manager objects.
+     * @return The number of bookings loaded.
+     */
+    public int loadInto(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        int loaded = 0;
+        Map<String, Object> managers = StorageManager.indexManagers(planes, trains, buses);
+        for (int i = 0; i < count; i++) {
+            if (!checksumMatches(buffer, i)) {
+                System.err.println(Utils.YELLOW + "Warning: Skipping corrupt record " + i + " (checksum mismatch)." + Utils.RESET);
+                continue;
+            }
+            if (isCancelled(i)) continue;
+            BookingRecord record;
+            try {
+                record = read(i);
+            } catch (IndexOutOfBoundsException e) { // Written before its dictionary entry reached disk
+                System.err.println(Utils.YELLOW + "Warning: Skipping binary booking record " + i + " (dictionary ID out of range)." + Utils.RESET);
+                continue;
+            }
+            if (StorageManager.applyBooking(record, managers)) loaded++;
+        }
+        return loaded;
+    }
+
+    /** Forces pending changes and trims the file to the records actually used. */
+    @Override
+    public void close() throws IOException {
+        force();
+        buffer = null; // Allow the mapping to be released before truncating
+        channel.truncate(HEADER_SIZE + (long) count * RECORD_SIZE);
+        channel.close();
+    }
+
+    // --- Dictionaries ---
+
+    private void loadDictionaries() throws IOException {
+        File file = new File(dictPath);
+        if (!file.exists()) return;
+        Map<String, Dictionary> byKind = dictionariesByKind();
+        String torn = null;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // IDs are positional, so only a damaged last line (a torn append) can be dropped
+                if (torn != null) throw new IOException("Corrupt dictionary line in " + dictPath + ": " + torn);
+                String framed = line;
+                line = RecordFrame.unframe(line);
+                if (line == null) { torn = framed; continue; }
+                int sep = line.indexOf('|');
+                Dictionary dict = sep > 0 ? byKind.get(line.substring(0, sep)) : null;
+                if (dict == null) throw new IOException("Malformed dictionary line in " + dictPath + ": " + line);
+                String value = line.substring(sep + 1);
+                dict.ids.put(value, dict.values.size());
+                dict.values.add(value);
+            }
+        }
+        if (torn != null) {
+            System.err.println(Utils.YELLOW + "Warning: Dropping torn last line of " + dictPath + "." + Utils.RESET);
+            rewriteDictionaries(); // So the next entry does not land on the end of the partial line
+        }
+    }
+
+    /** Rewrites the dictionary file from memory (IDs are positional within each kind, so kind order is free). */
+    private void rewriteDictionaries() throws IOException {
+        File tempFile = new File(dictPath + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out))) {
+            for (Dictionary dict : dictionariesByKind().values()) {
+                for (String value : dict.values) { writer.write(RecordFrame.frame(dict.kind + "|" + value)); writer.newLine(); }
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        StorageManager.replaceAtomically(tempFile, new File(dictPath));
+    }
+
+    /** Syncs entries appended by intern since the last sync (once per checkpoint rather than per entry). */
+    private void syncDictionary() throws IOException {
+        if (!dictDirty) return;
+        try (FileOutputStream out = new FileOutputStream(dictPath, true)) {
+            out.getFD().sync();
+        }
+        dictDirty = false;
+    }
+
+    private Map<String, Dictionary> dictionariesByKind() {
+        Map<String, Dictionary> byKind = new LinkedHashMap<>();
+        for (Dictionary d : new Dictionary[]{users, cities, providers, classes, vehicles}) byKind.put(d.kind, d);
+        return byKind;
+    }
+
+    /** Returns the ID of a value, appending it to the dictionary file if it is new. */
+    private int intern(Dictionary dict, String value) throws IOException {
+        Integer id = dict.ids.get(value);
+        if (id != null) return id;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(dictPath, true))) {
+            writer.write(RecordFrame.frame(dict.kind + "|" + value)); writer.newLine();
+        }
+        dictDirty = true;
+        int newId = dict.values.size();
+        dict.values.add(value);
+        dict.ids.put(value, newId);
+        return newId;
+    }
+
+    // --- One-time conversion from bookings.txt ---
+
+    /**
+     * Converts the text snapshot plus any journal tail into a fresh binary store.
+     * Existing binary and dictionary files are replaced.
+     * @return The number of bookings converted.
+     */
+    public static int convertFromText(String binPath, String dictPath) throws IOException {
+        Map<String, BookingRecord> live = new LinkedHashMap<>();
+        long coveredSeq = BookingCheckpointer.readLiveBookings(live);
+        if (coveredSeq < 0) throw new IOException("Could not read " + StorageManager.BOOKINGS_FILE);
+        new File(binPath).delete();
+        new File(dictPath).delete();
+        int converted = 0;
+        try (BinaryBookingStore store = open(binPath, dictPath)) {
+            for (BookingRecord record : live.values()) {
+                try {
+                    store.write(record);
+                    converted++;
+                } catch (IllegalArgumentException e) {
+                    System.err.println(Utils.YELLOW + "Warning: Skipping booking " + record.bookingId() + ": " + e.getMessage() + Utils.RESET);
+                }
+            }
+            // The text journal has been folded in, so the binary file covers everything written so far
+            store.commitSnapshotSeq(coveredSeq);
+        }
+        return converted;
+    }
+
+    /** Command-line entry point for the one-time conversion. */
+    public static void main(String[] args) {
+        try {
+            int converted = convertFromText(BINARY_FILE, DICT_FILE);
+            System.out.println(Utils.GREEN + "Converted " + converted + " bookings to " + BINARY_FILE + " (dictionary: " + DICT_FILE + ")." + Utils.RESET);
+            System.out.println(Utils.GREY + "Run with -Dbookings.format=binary to use it." + Utils.RESET);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Conversion failed: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+    }
+}
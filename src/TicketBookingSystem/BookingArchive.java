@@ -0,0 +1,274 @@
+package TicketBookingSystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cold storage for completed trips. Bookings whose travel date has passed are written to
+ * compressed archive segments in booking_archive/ and removed from the live store through
+ * an ARCHIVE journal record, so they are no longer loaded, checkpointed or kept on the heap.
+ *
+ * Segment layout (one file per archiving run):
+ *   header  - magic, version
+ *   blocks  - up to RECORDS_PER_BLOCK booking lines each, Deflater-compressed independently
+ *   index   - per block: offset, compressed/uncompressed length, record count,
+ *             min/max travel date (epoch day) and min/max booking number
+ *   footer  - index offset, block count, magic
+ * Records are sorted by travel date before writing, so date searches skip most blocks
+ * using the index alone. Searches stream one block at a time and never load a whole segment.
+ */
+public class BookingArchive {
+    static final String ARCHIVE_DIR = "booking_archive";
+    private static final String SEGMENT_PREFIX = "archive-";
+    private static final String SEGMENT_SUFFIX = ".arc";
+    private static final int MAGIC = 0x534B5941; // "SKYA"
+    private static final short VERSION = 1;
+    private static final int RECORDS_PER_BLOCK = 512;
+    private static final int INDEX_ENTRY_SIZE = 8 + 4 * 7;
+    private static final int FOOTER_SIZE = 8 + 4 + 4;
+
+    /**
+     * Search criteria; null fields match anything.
+     * @param city Matches either end of the route (case-insensitive).
+     * @param from First travel date to include.
+     * @param to Last travel date to include.
+     */
+    record ArchiveQuery(String bookingId, String username, String city, LocalDate from, LocalDate to) {
+        boolean matches(BookingRecord record) {
+            if (bookingId != null && !bookingId.equalsIgnoreCase(record.bookingId())) return false;
+            if (username != null && !username.equals(record.username())) return false;
+            if (city != null && !city.equalsIgnoreCase(record.startCity()) && !city.equalsIgnoreCase(record.destCity())) return false;
+            LocalDate date = Utils.parseTravelDate(record.travelDate());
+            if (from != null && (date == null || date.isBefore(from))) return false;
+            if (to != null && (date == null || date.isAfter(to))) return false;
+            return true;
+        }
+
+        /** False if no record in a block with these index bounds can match. */
+        boolean mayMatch(BlockIndex block) {
+            if (from != null && block.maxEpochDay() < from.toEpochDay()) return false;
+            if (to != null && block.minEpochDay() > to.toEpochDay()) return false;
+            if (bookingId != null) {
+                int number = bookingNumber(bookingId);
+                if (number < block.minNumber() || number > block.maxNumber()) return false;
+            }
+            return true;
+        }
+    }
+
+    /** Index entry for one compressed block. */
+    record BlockIndex(long offset, int compressedLength, int uncompressedLength, int recordCount,
+                      int minEpochDay, int maxEpochDay, int minNumber, int maxNumber) {}
+
+    /** Outcome of a search. */
+    record SearchStats(int segments, int blocksRead, int blocksSkipped, int matches) {}
+
+    // --- Archiving ---
+
+    /**
+     * Moves bookings with a travel date before today from the managers into a new archive
+     * segment. The segment is forced to disk before the ARCHIVE records are journaled, so a
+     * crash in between can at worst archive a booking twice, never lose it. Their passengers are
+     * then dropped from the passenger manifest.
+     * @return The number of bookings archived, or -1 if the segment or the journal could not be written.
+     */
+    public static int archiveCompleted(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        LocalDate today = LocalDate.now();
+        List<BookingRecord> completed = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (PlaneBooking plane : planes) plane.getBookings().forEach((id, b) -> { if (isCompleted(b.getTravelDate(), today)) ids.add(id); });
+        for (TrainBooking train : trains) train.getBookings().forEach((id, b) -> { if (isCompleted(b.getTravelDate(), today)) ids.add(id); });
+        for (BusBooking bus : buses) bus.getBookings().forEach((id, b) -> { if (isCompleted(b.getTravelDate(), today)) ids.add(id); });
+        if (ids.isEmpty()) return 0;
+        for (String id : ids) completed.add(StorageManager.findBookingRecord(id, planes, trains, buses));
+        completed.sort(Comparator.comparingLong(r -> Utils.parseTravelDate(r.travelDate()).toEpochDay()));
+
+        File segment;
+        try {
+            segment = writeSegment(completed);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error writing trip archive: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return -1;
+        }
+        if (!BookingJournal.recordArchived(completed)) {
+            segment.delete(); // The bookings stay live; the next run archives them again
+            return -1;
+        }
+        System.out.println(Utils.GREY + "Archived " + completed.size() + " completed trips to " + segment.getPath() + "." + Utils.RESET);
+        for (BookingRecord record : completed) StorageManager.removeBooking(record.bookingId(), planes, trains, buses);
+        PassengerManifest.forget(completed.stream().map(BookingRecord::bookingId).toList());
+        return completed.size();
+    }
+
+    private static boolean isCompleted(String travelDate, LocalDate today) {
+        LocalDate date = Utils.parseTravelDate(travelDate);
+        return date != null && date.isBefore(today); // N/A dates stay live
+    }
+
+    /** Writes the records (sorted by date) as a new segment via a temp file and rename. */
+    static File writeSegment(List<BookingRecord> records) throws IOException {
+        File dir = new File(ARCHIVE_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Could not create " + ARCHIVE_DIR);
+        File segment = new File(dir, SEGMENT_PREFIX + System.currentTimeMillis() + SEGMENT_SUFFIX);
+        for (int n = 1; segment.exists(); n++) segment = new File(dir, SEGMENT_PREFIX + System.currentTimeMillis() + "-" + n + SEGMENT_SUFFIX);
+        File tempFile = new File(segment.getPath() + ".tmp");
+
+        List<BlockIndex> index = new ArrayList<>();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            byte[] compressed = new byte[64 * 1024];
+            for (int start = 0; start < records.size(); start += RECORDS_PER_BLOCK) {
+                List<BookingRecord> block = records.subList(start, Math.min(records.size(), start + RECORDS_PER_BLOCK));
+                StringBuilder text = new StringBuilder();
+                int minDay = Integer.MAX_VALUE, maxDay = Integer.MIN_VALUE, minNumber = Integer.MAX_VALUE, maxNumber = Integer.MIN_VALUE;
+                for (BookingRecord record : block) {
+                    text.append(record.toLine()).append('\n');
+                    int day = (int) Utils.parseTravelDate(record.travelDate()).toEpochDay();
+                    int number = bookingNumber(record.bookingId());
+                    minDay = Math.min(minDay, day); maxDay = Math.max(maxDay, day);
+                    minNumber = Math.min(minNumber, number); maxNumber = Math.max(maxNumber, number);
+                }
+                byte[] raw = text.toString().getBytes(StandardCharsets.UTF_8);
+                long offset = out.size();
+                deflater.reset();
+                deflater.setInput(raw);
+                deflater.finish();
+                int compressedLength = 0;
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(compressed);
+                    out.write(compressed, 0, n);
+                    compressedLength += n;
+                }
+                index.add(new BlockIndex(offset, compressedLength, raw.length, block.size(), minDay, maxDay, minNumber, maxNumber));
+            }
+            long indexOffset = out.size();
+            for (BlockIndex block : index) {
+                out.writeLong(block.offset()); out.writeInt(block.compressedLength()); out.writeInt(block.uncompressedLength());
+                out.writeInt(block.recordCount()); out.writeInt(block.minEpochDay()); out.writeInt(block.maxEpochDay());
+                out.writeInt(block.minNumber()); out.writeInt(block.maxNumber());
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(index.size());
+            out.writeInt(MAGIC);
+            out.flush();
+            fileOut.getFD().sync(); // Must be durable before the bookings leave the live store
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        StorageManager.replaceAtomically(tempFile, segment);
+        return segment;
+    }
+
+    // --- Reading ---
+
+    /**
+     * Streams every archived booking matching the query to the visitor, one decompressed
+     * block at a time, skipping blocks whose index rules them out.
+     */
+    public static SearchStats search(ArchiveQuery query, Consumer<BookingRecord> visitor) {
+        int segments = 0, blocksRead = 0, blocksSkipped = 0, matches = 0;
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        Inflater inflater = new Inflater();
+        byte[] compressed = new byte[0], raw = new byte[0];
+        try {
+            for (File segment : listSegments()) {
+                try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+                    List<BlockIndex> index = readIndex(file);
+                    segments++;
+                    for (int blockNumber = 0; blockNumber < index.size(); blockNumber++) {
+                        BlockIndex block = index.get(blockNumber);
+                        if (!query.mayMatch(block)) { blocksSkipped++; continue; }
+                        if (compressed.length < block.compressedLength()) compressed = new byte[block.compressedLength()];
+                        if (raw.length < block.uncompressedLength()) raw = new byte[block.uncompressedLength()];
+                        file.seek(block.offset());
+                        file.readFully(compressed, 0, block.compressedLength());
+                        inflater.reset();
+                        inflater.setInput(compressed, 0, block.compressedLength());
+                        int length = 0;
+                        while (length < block.uncompressedLength() && !inflater.finished()) {
+                            int inflated = inflater.inflate(raw, length, block.uncompressedLength() - length);
+                            // A truncated or damaged block stops producing output; it would never finish
+                            if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) throw new IOException("Block #" + blockNumber + " of " + segment.getName() + " is truncated or damaged");
+                            length += inflated;
+                        }
+                        if (length != block.uncompressedLength()) throw new IOException("Block #" + blockNumber + " of " + segment.getName() + " holds " + length + " bytes, its index says " + block.uncompressedLength());
+                        blocksRead++;
+                        for (int pos = 0; pos < length; ) {
+                            int end = pos;
+                            while (end < length && raw[end] != '\n') end++;
+                            BookingRecord record = tokenizer.parseBooking(raw, pos, end);
+                            if (query.matches(record)) { matches++; visitor.accept(record); }
+                            pos = end + 1;
+                        }
+                    }
+                } catch (IOException | DataFormatException | IllegalArgumentException e) {
+                    System.err.println(Utils.RED + "Error reading archive segment " + segment.getName() + ": " + e.getMessage() + Utils.RESET);
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+        return new SearchStats(segments, blocksRead, blocksSkipped, matches);
+    }
+
+    /**
+     * Highest booking number in the archive (from the block indexes only), so booking IDs
+     * are never reused after the bookings holding them were archived.
+     */
+    public static int maxBookingNumber() {
+        int max = 0;
+        for (File segment : listSegments()) {
+            try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+                for (BlockIndex block : readIndex(file)) max = Math.max(max, block.maxNumber());
+            } catch (IOException e) {
+                System.err.println(Utils.RED + "Error reading archive segment " + segment.getName() + ": " + e.getMessage() + Utils.RESET);
+            }
+        }
+        return max;
+    }
+
+    private static List<BlockIndex> readIndex(RandomAccessFile file) throws IOException {
+        if (file.length() < 6 + FOOTER_SIZE) throw new IOException("File too short");
+        file.seek(0);
+        if (file.readInt() != MAGIC || file.readShort() != VERSION) throw new IOException("Not a version " + VERSION + " archive segment");
+        file.seek(file.length() - FOOTER_SIZE);
+        long indexOffset = file.readLong();
+        int blockCount = file.readInt();
+        if (file.readInt() != MAGIC || indexOffset + (long) blockCount * INDEX_ENTRY_SIZE != file.length() - FOOTER_SIZE) throw new IOException("Corrupt archive footer");
+        List<BlockIndex> index = new ArrayList<>(blockCount);
+        file.seek(indexOffset);
+        for (int i = 0; i < blockCount; i++) {
+            index.add(new BlockIndex(file.readLong(), file.readInt(), file.readInt(), file.readInt(),
+                    file.readInt(), file.readInt(), file.readInt(), file.readInt()));
+        }
+        return index;
+    }
+
+    private static List<File> listSegments() {
+        List<File> segments = new ArrayList<>();
+        File[] files = new File(ARCHIVE_DIR).listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) return segments;
+        for (File file : files) segments.add(file);
+        segments.sort(Comparator.comparing(File::getName));
+        return segments;
+    }
+
+    private static int bookingNumber(String bookingId) {
+        try { return Integer.parseInt(bookingId.substring(1)); }
+        catch (NumberFormatException | IndexOutOfBoundsException e) { return -1; }
+    }
+}
@@ -0,0 +1,233 @@
+package TicketBookingSystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background checkpointer that compacts the booking journal into the bookings snapshot.
+ * A checkpoint folds the current snapshot file and the journal records after it into the
+ * set of live bookings (cancelled ones dropped), writes that to a temp file, renames it over
+ * bookings.txt, and then truncates the journal prefix it covered. It works purely from the
+ * files, so the interactive menu thread never waits on it.
+ */
+public class BookingCheckpointer {
+    // How often the checkpointer looks at the journal, and how many records trigger a checkpoint early
+    private static final long CHECK_INTERVAL_SECONDS = 30;
+    private static final long MAX_CHECKPOINT_AGE_SECONDS = 300;
+    private static final long MAX_PENDING_RECORDS = 1000;
+
+    private static ScheduledExecutorService scheduler;
+    private static long lastCheckpointSeq = -1;
+    private static long lastCheckpointTime = System.currentTimeMillis();
+
+    /** Starts the background checkpoint thread (no-op if already running). */
+    public static synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "booking-checkpointer");
+            t.setDaemon(true); // Never keep the application alive
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(BookingCheckpointer::checkpointIfDue, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        System.out.println(Utils.GREY + "Booking checkpointer started." + Utils.RESET);
+    }
+
+    /** Stops the background thread, waiting for a checkpoint in progress to finish. */
+    public static synchronized void shutdown() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) System.err.println(Utils.YELLOW + "Warning: Booking checkpointer did not stop in time." + Utils.RESET);
+        } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        scheduler = null;
+    }
+
+    /** Runs a checkpoint if enough journal records are pending or the last one is old enough. */
+    private static void checkpointIfDue() {
+        try {
+            long pending = BookingJournal.getDurableSeq() - Math.max(lastCheckpointSeq, 0);
+            long ageSeconds = (System.currentTimeMillis() - lastCheckpointTime) / 1000;
+            if (pending >= MAX_PENDING_RECORDS || (pending > 0 && ageSeconds >= MAX_CHECKPOINT_AGE_SECONDS)) checkpoint();
+        } catch (Exception e) { // Keep the scheduler alive whatever happens
+            System.err.println(Utils.RED + "Checkpoint failed: " + e.getMessage() + Utils.RESET);
+        }
+    }
+
+    /**
+     * Writes a compact snapshot of all live bookings and truncates the journal it covers.
+     * Serialized with StorageManager.saveBookings, which writes the same snapshot file.
+     * @return true if a new snapshot was written.
+     */
+    public static boolean checkpoint() {
+        synchronized (StorageManager.class) {
+            long throughSeq = BookingJournal.getDurableSeq(); // Every record up to here is already on disk
+            if (StorageManager.isBinaryFormat()) return checkpointBinary(throughSeq);
+            if (StorageManager.isPartitionedFormat()) return checkpointPartitioned(throughSeq);
+            Map<String, BookingRecord> live = new LinkedHashMap<>();
+            long snapshotSeq = readSnapshot(live);
+            if (snapshotSeq < 0) return false; // Snapshot unreadable or damaged; leave everything as is
+            if (throughSeq <= snapshotSeq) { lastCheckpointSeq = snapshotSeq; return false; }
+
+            BookingJournal.forEachRecord(snapshotSeq, throughSeq, (seq, op, payload) -> fold(live, op, payload));
+
+            if (!writeSnapshot(new File(StorageManager.BOOKINGS_FILE), throughSeq, live.values())) return false;
+            // The snapshot now covers throughSeq; a crash before this point just replays a little more
+            BookingJournal.truncateThrough(throughSeq);
+            lastCheckpointSeq = throughSeq;
+            lastCheckpointTime = System.currentTimeMillis();
+            return true; // Stay quiet on success so the menu on screen is not disturbed
+        }
+    }
+
+    /**
+     * Writes a snapshot (sequence header plus one framed line per booking, see RecordFrame)
+     * to a temp file, forces it to disk and renames it over the target, so a crash leaves
+     * either the old file or the complete new one.
+     * @return false if either step failed (reported on stderr).
+     */
+    static boolean writeSnapshot(File target, long seq, Collection<BookingRecord> bookings) {
+        File tempFile = new File(target.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(RecordFrame.frame(StorageManager.SEQ_HEADER + seq)); writer.newLine();
+            for (BookingRecord record : bookings) { writer.write(RecordFrame.frame(record.toLine())); writer.newLine(); }
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error writing booking checkpoint: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            tempFile.delete();
+            return false;
+        }
+        try {
+            StorageManager.replaceAtomically(tempFile, target);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error swapping in booking checkpoint: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Binary-format checkpoint: applies the journal records in place to bookings.bin
+     * (see BinaryBookingStore), records the covered sequence in its header, and truncates the journal.
+     */
+    private static boolean checkpointBinary(long throughSeq) {
+        long coveredSeq;
+        try (BinaryBookingStore store = BinaryBookingStore.open(BinaryBookingStore.BINARY_FILE, BinaryBookingStore.DICT_FILE)) {
+            long snapshotSeq = store.getSnapshotSeq();
+            if (throughSeq <= snapshotSeq) { lastCheckpointSeq = snapshotSeq; return false; }
+            BookingJournal.forEachRecord(snapshotSeq, throughSeq, (seq, op, payload) -> store.apply(op, payload));
+            store.commitSnapshotSeq(throughSeq); // Records forced before the header, and both before truncating
+            coveredSeq = throughSeq;
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error writing binary booking checkpoint: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return false;
+        }
+        BookingJournal.truncateThrough(coveredSeq);
+        lastCheckpointSeq = coveredSeq;
+        lastCheckpointTime = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Partitioned-format checkpoint: folds journal records into the month partitions they
+     * touch (see BookingPartitions), then truncates the journal.
+     */
+    private static boolean checkpointPartitioned(long throughSeq) {
+        long baseSeq = BookingPartitions.readBaseSeq();
+        if (throughSeq <= baseSeq) { lastCheckpointSeq = baseSeq; return false; }
+        if (!BookingPartitions.writeCheckpoint(baseSeq, throughSeq)) return false;
+        BookingJournal.truncateThrough(throughSeq);
+        lastCheckpointSeq = throughSeq;
+        lastCheckpointTime = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Folds the snapshot and every journal record after it into the map of live bookings,
+     * without touching any files. Used when converting to another storage format.
+     * @return The journal sequence number the result covers, or -1 if the snapshot could not be read.
+     */
+    static long readLiveBookings(Map<String, BookingRecord> live) {
+        synchronized (StorageManager.class) {
+            long snapshotSeq = readSnapshot(live);
+            if (snapshotSeq < 0) return -1;
+            long journalSeq = BookingJournal.forEachRecord(snapshotSeq, Long.MAX_VALUE, (seq, op, payload) -> fold(live, op, payload));
+            return Math.max(snapshotSeq, journalSeq);
+        }
+    }
+
+    /** Reads the current bookings.txt snapshot into the given map (see {@link #readSnapshot(File, Map, boolean)}). */
+    private static long readSnapshot(Map<String, BookingRecord> live) {
+        return readSnapshot(new File(StorageManager.BOOKINGS_FILE), live, true);
+    }
+
+    /**
+     * Reads a snapshot file (header line plus booking lines) into the given map, keyed by booking ID.
+     * Records whose frame does not check out are skipped; in strict mode (before the file is
+     * rewritten) they fail the read instead, so a checkpoint never silently drops a damaged booking.
+     * @return The snapshot's sequence number, 0 if there is no snapshot, or -1 on read error.
+     */
+    static long readSnapshot(File file, Map<String, BookingRecord> live, boolean strict) {
+        if (!file.exists()) return 0;
+        long snapshotSeq = 0;
+        int lineNumber = 0, corrupt = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = RecordFrame.unframe(line);
+                if (line == null) {
+                    if (corrupt++ == 0) System.err.println(Utils.YELLOW + "Warning: Corrupt record (checksum mismatch) on line #" + lineNumber + " of " + file.getPath() + Utils.RESET);
+                    continue;
+                }
+                if (line.startsWith(StorageManager.SEQ_HEADER)) {
+                    try { snapshotSeq = Long.parseLong(line.substring(StorageManager.SEQ_HEADER.length()).trim()); } catch (NumberFormatException e) { /* Treat as 0 */ }
+                    continue;
+                }
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                try {
+                    BookingRecord record = BookingRecord.parse(line);
+                    live.put(record.bookingId(), record);
+                } catch (IllegalArgumentException e) { /* Loader already reports malformed lines; drop them here */ }
+            }
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error reading bookings for checkpoint: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return -1;
+        }
+        if (corrupt > 0 && strict) {
+            System.err.println(Utils.RED_BOLD + "Not rewriting " + file.getPath() + ": " + Utils.RESET + Utils.RED + corrupt + " corrupt record(s); the journal keeps the changes. Run BookingStoreVerifier for details." + Utils.RESET);
+            return -1;
+        }
+        return snapshotSeq;
+    }
+
+    /** Applies one journal record to the live booking map. */
+    static void fold(Map<String, BookingRecord> live, String op, String payload) {
+        switch (op) {
+            case BookingJournal.OP_BOOK: {
+                BookingRecord record = BookingRecord.parse(payload);
+                live.put(record.bookingId(), record);
+                break;
+            }
+            case BookingJournal.OP_CANCEL:
+            case BookingJournal.OP_ARCHIVE:
+                live.remove(payload.split(":")[0].toUpperCase());
+                break;
+            case BookingJournal.OP_MODIFY: {
+                String[] parts = payload.split(":");
+                BookingRecord record = live.get(parts[0].toUpperCase());
+                if (record != null && parts.length == 3) live.put(record.bookingId(), record.withTravelDate(parts[2]));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown journal operation '" + op + "'");
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package TicketBookingSystem;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal of booking changes. Each book, cancel or date change appends one
+ * small record instead of rewriting the whole bookings file. On startup the journal tail
+ * is replayed on top of the bookings snapshot loaded by StorageManager.
+ * Record format: Seq:Op:Payload where Op is one of
+ *   BOOK   - payload is a full booking line (see BookingRecord)
+ *   CANCEL - payload is BookingID:TravelDate
+ *   MODIFY - payload is BookingID:OldTravelDate:NewTravelDate
+ *   ARCHIVE - payload is BookingID:TravelDate (moved to the trip archive, see BookingArchive)
+ *   GROUP  - payload is several Op:Payload records separated by GROUP_SEPARATOR, all under the
+ *            group's Seq: changes that must survive a crash together (a party's bookings, the
+ *            cancellation of a PNR, a date move, an archive run) are one line, so a torn write
+ *            loses all of them or none
+ * Each record line is framed with its length and CRC32C (see RecordFrame). On first use a
+ * recovery scan cuts off a torn tail left by a crash mid-write, so new records never follow
+ * a partial line; the dropped bytes are kept in bookings.journal.torn.
+ * Before records are truncated, the highest booking number they booked is kept in bookings.ids
+ * (one framed "# maxId=" line), so with the journal that covers every booking number ever
+ * handed out and IDs are never reused (see maxBookingNumber).
+ * Records are written through a GroupCommitWriter, so concurrent sessions share one fsync
+ * per batch. Batch size and wait window can be tuned with the journal.batchSize and
+ * journal.maxWaitMicros system properties.
+ */
+public class BookingJournal {
+    static final String JOURNAL_FILE = "bookings.journal";
+    static final String TORN_FILE = JOURNAL_FILE + ".torn";
+    static final String HIGH_WATER_FILE = "bookings.ids";
+    private static final String MAX_ID_HEADER = "# maxId=";
+    private static final String DELIMITER = ":";
+
+    static final String OP_BOOK = "BOOK";
+    static final String OP_CANCEL = "CANCEL";
+    static final String OP_MODIFY = "MODIFY";
+    static final String OP_ARCHIVE = "ARCHIVE";
+    static final String OP_GROUP = "GROUP";
+    static final char GROUP_SEPARATOR = '\u001e'; // ASCII record separator, never part of a record
+
+    private static final int BATCH_SIZE = Integer.getInteger("journal.batchSize", 64);
+    private static final long MAX_WAIT_MICROS = Long.getLong("journal.maxWaitMicros", 1000);
+
+    // Highest sequence number assigned to (or replayed from) the journal
+    private static long lastSeq = 0;
+    // Highest sequence number known to be forced to disk
+    private static final AtomicLong durableSeq = new AtomicLong(0);
+    private static GroupCommitWriter writer;
+    private static boolean recovered;
+
+    // Every record* method returns false if the change could not be made durable (the error is
+    // reported here); the caller must then undo the change in memory or not make it.
+
+    /** Journals a newly confirmed booking. */
+    public static boolean recordBooking(BookingRecord record) {
+        return append(OP_BOOK, record.toLine());
+    }
+
+    /** Journals the bookings of a multi-passenger booking together, as a single record. */
+    public static boolean recordBookings(List<BookingRecord> records) {
+        if (records.isEmpty()) return true;
+        List<String> ops = new ArrayList<>(), payloads = new ArrayList<>();
+        for (BookingRecord record : records) { ops.add(OP_BOOK); payloads.add(record.toLine()); }
+        return append(ops, payloads);
+    }
+
+    /** Journals the cancellation of one or more bookings (booking ID -> travel date), as a single record. */
+    public static boolean recordCancellations(Map<String, String> travelDates) {
+        if (travelDates.isEmpty()) return true;
+        List<String> ops = new ArrayList<>(), payloads = new ArrayList<>();
+        travelDates.forEach((bookingId, travelDate) -> { ops.add(OP_CANCEL); payloads.add(bookingId.toUpperCase() + DELIMITER + travelDate); });
+        return append(ops, payloads);
+    }
+
+    /** Journals a travel date change for a booking. */
+    public static boolean recordDateChange(String bookingId, String oldTravelDate, String newTravelDate) {
+        return append(OP_MODIFY, bookingId.toUpperCase() + DELIMITER + oldTravelDate + DELIMITER + newTravelDate);
+    }
+
+    /**
+     * Journals a travel date change that moves a booking to another storage partition, as a
+     * cancellation under the old date plus the booking under the new one, in a single record.
+     */
+    public static boolean recordDateMove(BookingRecord current, String newTravelDate) {
+        return append(List.of(OP_CANCEL, OP_BOOK),
+                List.of(current.bookingId() + DELIMITER + current.travelDate(), current.withTravelDate(newTravelDate).toLine()));
+    }
+
+    /** Journals that completed bookings were moved to the trip archive, as a single record. */
+    public static boolean recordArchived(List<BookingRecord> archived) {
+        if (archived.isEmpty()) return true;
+        List<String> ops = new ArrayList<>(), payloads = new ArrayList<>();
+        for (BookingRecord record : archived) { ops.add(OP_ARCHIVE); payloads.add(record.bookingId() + DELIMITER + record.travelDate()); }
+        return append(ops, payloads);
+    }
+
+    /** Returns the highest sequence number assigned or replayed so far. */
+    public static synchronized long getLastSeq() { return lastSeq; }
+
+    /** Returns the highest sequence number whose record is durable in the journal file. */
+    public static long getDurableSeq() { return durableSeq.get(); }
+
+    /** Returns group commit statistics, or null if nothing has been written yet. */
+    public static synchronized GroupCommitWriter.Stats getCommitStats() {
+        return writer == null ? null : writer.getStats();
+    }
+
+    /**
+     * Appends one record with the next sequence number and waits until its batch has been
+     * forced to disk. Sequence numbers are assigned in queue order, so the file stays ordered.
+     */
+    private static boolean append(String op, String payload) {
+        return append(List.of(op), List.of(payload));
+    }
+
+    /**
+     * Appends several records as one GROUP record (or one plain record), so they are durable
+     * together or not at all.
+     * @return false if the journal could not be opened or the write failed (reported here). A
+     *         failed write's sequence number is not reused, and the writer is dropped so the next
+     *         append runs the recovery scan first and never follows a partial line.
+     */
+    private static boolean append(List<String> ops, List<String> payloads) {
+        CompletableFuture<Void> committed;
+        GroupCommitWriter target;
+        synchronized (BookingJournal.class) {
+            try {
+                if (writer == null) {
+                    recover(); // Never append after a partial line
+                    writer = new GroupCommitWriter(Paths.get(JOURNAL_FILE), BATCH_SIZE, MAX_WAIT_MICROS);
+                }
+            } catch (IOException e) {
+                System.err.println(Utils.RED_BOLD + "Error opening booking journal: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+                return false;
+            }
+            StringBuilder record = new StringBuilder();
+            record.append(++lastSeq).append(DELIMITER);
+            if (ops.size() == 1) record.append(ops.get(0)).append(DELIMITER).append(payloads.get(0));
+            else {
+                record.append(OP_GROUP).append(DELIMITER);
+                for (int i = 0; i < ops.size(); i++) {
+                    if (i > 0) record.append(GROUP_SEPARATOR);
+                    record.append(ops.get(i)).append(DELIMITER).append(payloads.get(i));
+                }
+            }
+            long seq = lastSeq;
+            committed = writer.submit(RecordFrame.frame(record.toString()))
+                    .thenRun(() -> durableSeq.accumulateAndGet(seq, Math::max));
+            target = writer;
+        }
+        try {
+            committed.join(); // Wait outside the lock so other sessions can join the same batch
+            return true;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println(Utils.RED_BOLD + "Error writing booking journal: " + Utils.RESET + Utils.RED + cause.getMessage() + Utils.RESET);
+            discardWriter(target);
+            return false;
+        }
+    }
+
+    /** Closes a writer whose batch failed; the next append reopens the journal after a new recovery scan. */
+    private static synchronized void discardWriter(GroupCommitWriter failed) {
+        if (writer != failed) return; // Another session already did
+        writer = null;
+        recovered = false;
+        try {
+            failed.close();
+        } catch (IOException e) { /* The write error has been reported */ }
+    }
+
+    /** Commits anything still queued and closes the journal file, reporting commit statistics. */
+    public static synchronized void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+            System.out.println(Utils.GREY + "Journal commits: " + writer.getStats() + Utils.RESET);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error closing booking journal: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+        writer = null;
+    }
+
+    /** Callback for records read back from the journal. */
+    interface RecordVisitor {
+        void visit(long seq, String op, String payload);
+    }
+
+    /**
+     * Replays journal records newer than the snapshot into the manager objects.
+     * @param snapshotSeq Sequence number already covered by the loaded snapshot.
+     */
+    public static synchronized void replay(long snapshotSeq, List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        lastSeq = Math.max(lastSeq, snapshotSeq);
+        int[] applied = {0};
+        long maxSeq = forEachRecord(snapshotSeq, Long.MAX_VALUE, (seq, op, payload) -> {
+            if (apply(op, payload, planes, trains, buses)) applied[0]++;
+            else System.err.println(Utils.YELLOW + "Warning: Journal record seq " + seq + " (" + op + ") had no effect." + Utils.RESET);
+        });
+        markReplayed(maxSeq);
+        if (applied[0] > 0) System.out.println(Utils.GREEN + "Replayed " + applied[0] + " journal records from " + JOURNAL_FILE + "." + Utils.RESET);
+    }
+
+    /**
+     * Notes that everything up to seq is already on disk, so new records continue after it.
+     * Used by loaders that read the journal themselves instead of calling replay.
+     */
+    static synchronized void markReplayed(long seq) {
+        lastSeq = Math.max(lastSeq, seq);
+        durableSeq.accumulateAndGet(lastSeq, Math::max);
+    }
+
+    /**
+     * Reads journal records with afterSeq < seq <= throughSeq in file order. The file is
+     * ordered by sequence number, so reading stops at the first record past throughSeq and
+     * never touches a record the group commit writer may still be appending.
+     * The records of a GROUP are visited one by one, with the group's sequence number.
+     * Malformed records and records the visitor rejects are reported and skipped.
+     * @return The highest sequence number read from the journal, or 0.
+     */
+    static synchronized long forEachRecord(long afterSeq, long throughSeq, RecordVisitor visitor) {
+        recover();
+        File file = new File(JOURNAL_FILE);
+        if (!file.exists()) return 0;
+
+        int lineNumber = 0; long maxSeq = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+                String record = RecordFrame.unframe(line);
+                if (record == null) { System.err.println(Utils.YELLOW + "Warning: Skipping corrupt journal record #" + lineNumber + " (checksum mismatch)" + Utils.RESET); continue; }
+                String[] head = record.split(DELIMITER, 3); // Seq, Op, Payload
+                if (head.length != 3) { System.err.println(Utils.YELLOW + "Warning: Skipping malformed journal record #" + lineNumber + Utils.RESET); continue; }
+                try {
+                    long seq = Long.parseLong(head[0]);
+                    if (seq > throughSeq) break;
+                    maxSeq = Math.max(maxSeq, seq);
+                    if (seq <= afterSeq) continue;
+                    if (!head[1].equals(OP_GROUP)) { visitor.visit(seq, head[1], head[2]); continue; }
+                    String[] members = head[2].split(String.valueOf(GROUP_SEPARATOR));
+                    for (String member : members) if (member.indexOf(DELIMITER) <= 0) throw new IllegalArgumentException("Malformed GROUP member '" + member + "'");
+                    for (String member : members) {
+                        String[] parts = member.split(DELIMITER, 2); // Op, Payload
+                        visitor.visit(seq, parts[0], parts[1]);
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println(Utils.YELLOW + "Warning: Skipping journal record #" + lineNumber + ": " + e.getMessage() + Utils.RESET);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error reading booking journal: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+        return maxSeq;
+    }
+
+    /**
+     * Crash recovery scan, run once before the journal is first read or appended to. Finds
+     * the end of the last record whose frame checks out; anything after it is a torn tail
+     * from an interrupted write and is moved to bookings.journal.torn. Corrupt records
+     * followed by valid ones are not a torn write, so they are only reported (and skipped
+     * when read).
+     */
+    static synchronized void recover() {
+        if (recovered) return;
+        recovered = true;
+        File file = new File(JOURNAL_FILE);
+        if (!file.exists()) return;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size(), validEnd = 0, position = 0;
+            int corrupt = 0, corruptSinceValid = 0;
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+            byte[] line = new byte[256];
+            int lineLength = 0;
+            while (position < size) {
+                chunk.clear();
+                int read = channel.read(chunk, position);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    byte c = chunk.get(i);
+                    if (c != '\n') {
+                        if (lineLength == line.length) line = Arrays.copyOf(line, line.length * 2);
+                        line[lineLength++] = c;
+                        continue;
+                    }
+                    if (isValidRecord(line, lineLength)) { validEnd = position + i + 1; corruptSinceValid = 0; }
+                    else { corrupt++; corruptSinceValid++; }
+                    lineLength = 0;
+                }
+                position += read;
+            }
+            // An unterminated last line is always torn, even if its frame happens to check out
+            corrupt -= corruptSinceValid;
+            if (corrupt > 0) System.err.println(Utils.YELLOW + "Warning: " + corrupt + " corrupt record(s) in the middle of " + JOURNAL_FILE + " will be skipped (run BookingStoreVerifier for details)." + Utils.RESET);
+            if (validEnd == size) return;
+
+            ByteBuffer tail = ByteBuffer.allocate((int) Math.min(size - validEnd, Integer.MAX_VALUE - 8));
+            channel.read(tail, validEnd);
+            try (FileOutputStream torn = new FileOutputStream(TORN_FILE, true)) { torn.write(tail.array(), 0, tail.position()); }
+            channel.truncate(validEnd);
+            channel.force(true);
+            System.err.println(Utils.YELLOW + "Warning: Dropped a torn tail of " + (size - validEnd) + " bytes from " + JOURNAL_FILE + " (saved to " + TORN_FILE + ")." + Utils.RESET);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error checking booking journal: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+    }
+
+    /** True if a complete journal line is blank or a well-formed record with a matching frame. */
+    private static boolean isValidRecord(byte[] line, int length) {
+        if (RecordTokenizer.isBlank(line, 0, length)) return true;
+        int start = RecordFrame.payloadStart(line, 0, length);
+        if (start == RecordFrame.CORRUPT) return false;
+        int sep = RecordTokenizer.indexOfDelimiter(line, start, length);
+        if (sep <= start) return false;
+        for (int i = start; i < sep; i++) if (line[i] < '0' || line[i] > '9') return false; // Seq
+        return RecordTokenizer.indexOfDelimiter(line, sep + 1, length) > sep + 1;
+    }
+
+    /** Applies a single journal operation to the manager objects. */
+    static boolean apply(String op, String payload, List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        switch (op) {
+            case OP_BOOK:
+                return StorageManager.applyBooking(BookingRecord.parse(payload), planes, trains, buses);
+            case OP_CANCEL:
+            case OP_ARCHIVE: {
+                String[] parts = payload.split(DELIMITER);
+                return StorageManager.removeBooking(parts[0], planes, trains, buses);
+            }
+            case OP_MODIFY: {
+                String[] parts = payload.split(DELIMITER);
+                if (parts.length != 3) throw new IllegalArgumentException("Expected 3 MODIFY fields, found " + parts.length);
+                return StorageManager.changeTravelDate(parts[0], parts[2], planes, trains, buses);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown journal operation '" + op + "'");
+        }
+    }
+
+    /**
+     * Drops all records with a sequence number up to and including the given one,
+     * keeping any newer records. Called once a snapshot covering them has been written.
+     * The passenger manifest is compacted to match (see PassengerManifest.forget).
+     * The remaining tail is written to a temp file and renamed over the journal.
+     */
+    public static synchronized void truncateThrough(long seq) {
+        recover();
+        // Bookings these records cancel or archive for good are dropped from the passenger manifest
+        // first, so a crash in between leaves them to the next checkpoint instead of forgetting them
+        Set<String> removed = new HashSet<>();
+        int[] maxNumber = {0};
+        forEachRecord(0, seq, (recordSeq, op, payload) -> {
+            String bookingId = payload.substring(0, Math.max(0, payload.indexOf(DELIMITER)));
+            if (op.equals(OP_BOOK)) {
+                removed.remove(bookingId); // A date move re-books the same ID
+                maxNumber[0] = Math.max(maxNumber[0], bookingNumber(bookingId));
+            } else if (op.equals(OP_CANCEL) || op.equals(OP_ARCHIVE)) removed.add(bookingId);
+        });
+        // The snapshot may no longer hold these booking numbers (cancelled ones are dropped); keep them counted
+        int highWater = readHighWater();
+        if (maxNumber[0] > highWater && !writeHighWater(maxNumber[0])) return; // Keep the records; retried next checkpoint
+        PassengerManifest.forget(removed);
+        try {
+            // Swap the file with the writer's channel closed so later batches land in the new file
+            if (writer != null) writer.runExclusive(() -> rewriteTail(seq));
+            else rewriteTail(seq);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error truncating booking journal: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+    }
+
+    /**
+     * Highest booking number ever handed out, cancelled or not: the high-water mark saved when
+     * records were truncated, or a BOOK record still in the journal (before or after the
+     * snapshot). Booking ID counters must start above it.
+     */
+    public static synchronized int maxBookingNumber() {
+        int[] max = {readHighWater()};
+        forEachRecord(0, Long.MAX_VALUE, (seq, op, payload) -> {
+            if (op.equals(OP_BOOK)) max[0] = Math.max(max[0], bookingNumber(payload.substring(0, Math.max(0, payload.indexOf(DELIMITER)))));
+        });
+        return max[0];
+    }
+
+    private static int bookingNumber(String bookingId) {
+        try { return Integer.parseInt(bookingId.substring(1)); }
+        catch (NumberFormatException | IndexOutOfBoundsException e) { return 0; }
+    }
+
+    /** Reads the saved high-water mark, or 0 if there is none or it is unreadable (reported). */
+    private static int readHighWater() {
+        File file = new File(HIGH_WATER_FILE);
+        if (!file.exists()) return 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            String record = line == null ? null : RecordFrame.unframe(line);
+            if (record != null && record.startsWith(MAX_ID_HEADER)) return Integer.parseInt(record.substring(MAX_ID_HEADER.length()).trim());
+            System.err.println(Utils.YELLOW + "Warning: Ignoring corrupt " + HIGH_WATER_FILE + Utils.RESET);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println(Utils.RED_BOLD + "Error reading " + HIGH_WATER_FILE + ": " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+        return 0;
+    }
+
+    /** Saves the high-water mark to a synced temp file renamed over bookings.ids. */
+    private static boolean writeHighWater(int maxNumber) {
+        File file = new File(HIGH_WATER_FILE);
+        File tempFile = new File(HIGH_WATER_FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile);
+             BufferedWriter tempWriter = new BufferedWriter(new OutputStreamWriter(out))) {
+            tempWriter.write(RecordFrame.frame(MAX_ID_HEADER + maxNumber)); tempWriter.newLine();
+            tempWriter.flush();
+            out.getFD().sync(); // Must be on disk before the records it replaces are truncated
+        } catch (IOException e) {
+            tempFile.delete();
+            System.err.println(Utils.RED_BOLD + "Error writing " + HIGH_WATER_FILE + ": " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return false;
+        }
+        try {
+            StorageManager.replaceAtomically(tempFile, file);
+            return true;
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error swapping in " + HIGH_WATER_FILE + ": " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return false;
+        }
+    }
+
+    /** Copies records newer than seq to a synced temp file and renames it over the journal. */
+    private static void rewriteTail(long seq) throws IOException {
+        File file = new File(JOURNAL_FILE);
+        if (!file.exists()) return;
+        File tempFile = new File(JOURNAL_FILE + ".tmp");
+        try (BufferedReader reader = new BufferedReader(new FileReader(file));
+             FileOutputStream out = new FileOutputStream(tempFile);
+             BufferedWriter tempWriter = new BufferedWriter(new OutputStreamWriter(out))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String record = RecordFrame.unframe(line);
+                if (record == null) continue; // Reported when the journal was read
+                int sep = record.indexOf(DELIMITER);
+                try {
+                    if (sep > 0 && Long.parseLong(record.substring(0, sep)) > seq) { tempWriter.write(line); tempWriter.newLine(); }
+                } catch (NumberFormatException e) { /* Drop unreadable records */ }
+            }
+            tempWriter.flush();
+            out.getFD().sync(); // The kept records were acknowledged as durable; they must survive the rename
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+        StorageManager.replaceAtomically(tempFile, file);
+    }
+}
@@ -0,0 +1,104 @@
+package TicketBookingSystem;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares the line-based booking parser (BufferedReader.readLine + BookingRecord.parse)
+ * with RecordTokenizer on the same synthetic bookings data, reporting bytes allocated and
+ * time per record. Run with: java TicketBookingSystem.BookingParserBenchmark [records]
+ * Allocation figures use com.sun.management.ThreadMXBean, available on HotSpot JVMs.
+ */
+public class BookingParserBenchmark {
+    private static final int DEFAULT_RECORDS = 200_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static volatile Object sink; // Keeps parsed results alive so the JIT cannot drop the work
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RECORDS;
+        byte[] data = generate(records);
+        System.out.println(Utils.CYAN_BOLD + "Booking parser benchmark: " + records + " records, " + data.length / 1024 + " KB" + Utils.RESET);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) { parseWithSplit(data); parseWithTokenizer(data); }
+
+        report("split (current)", records, measure(() -> parseWithSplit(data)));
+        report("byte tokenizer", records, measure(() -> parseWithTokenizer(data)));
+    }
+
+    private interface Run { int run() throws IOException; }
+
+    /** Returns {allocated bytes, elapsed nanos} summed over the measured rounds. */
+    private static long[] measure(Run run) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytes = 0, nanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            run.run();
+            nanos += System.nanoTime() - start;
+            bytes += threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        }
+        return new long[]{bytes, nanos};
+    }
+
+    private static void report(String name, int records, long[] result) {
+        double perRecord = (double) records * MEASURED_ROUNDS;
+        System.out.printf("  %-16s %8.1f bytes/record %8.1f ns/record%n", name, result[0] / perRecord, result[1] / perRecord);
+    }
+
+    /** The current path: one String per line, then a regex split and per-field parsing. */
+    private static int parseWithSplit(byte[] data) throws IOException {
+        int parsed = 0; double checksum = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                BookingRecord record = BookingRecord.parse(line);
+                checksum += record.price() + record.row();
+                sink = record;
+                parsed++;
+            }
+        }
+        sink = checksum;
+        return parsed;
+    }
+
+    /** The tokenizer path over the same bytes. */
+    private static int parseWithTokenizer(byte[] data) {
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        int parsed = 0, pos = 0; double checksum = 0;
+        while (pos < data.length) {
+            int end = pos;
+            while (end < data.length && data[end] != '\n') end++;
+            BookingRecord record = tokenizer.parseBooking(data, pos, end);
+            checksum += record.price() + record.row();
+            sink = record;
+            parsed++;
+            pos = end + 1;
+        }
+        sink = checksum;
+        return parsed;
+    }
+
+    /** Builds a bookings file image with realistic repetition of users, cities and providers. */
+    private static byte[] generate(int records) {
+        String[] cities = {"DELHI", "MUMBAI", "CHENNAI", "KOLKATA", "BANGALORE", "HYDERABAD", "PUNE", "JAIPUR"};
+        String[] providers = {"IndiGo", "Air India", "Vistara", "SpiceJet"};
+        String[] classes = {"Economy", "Business", "First"};
+        StringBuilder sb = new StringBuilder(records * 90);
+        for (int i = 0; i < records; i++) {
+            BookingRecord record = new BookingRecord("P" + (100000 + i), "user" + (i % 5000),
+                    cities[i % cities.length], cities[(i * 7 + 3) % cities.length], 1500 + (i % 997) * 1.25,
+                    classes[i % classes.length], i % 10 + 1, String.valueOf((char) ('A' + i % 9)),
+                    "PLANE-MANAGER-1", String.format("%02d-%02d-2027", i % 28 + 1, i % 12 + 1), providers[i % providers.length]);
+            sb.append(record.toLine()).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,382 @@
+package TicketBookingSystem;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking storage partitioned by travel month. Each month's bookings live in their own
+ * snapshot file (booking_partitions/bookings-YYYY-MM.txt, plus bookings-undated.txt for "N/A"
+ * dates), each with the usual "# seq=" header. Only the partitions from the current month up
+ * to the booking horizon are loaded at startup; others are loaded on demand when a user's or
+ * the admin's bookings are needed, and evicted again once idle. The shared journal keeps
+ * working as before: a partition's state is its file plus the journal records routed to it
+ * by travel date, and the checkpointer folds records into the partitions they touch.
+ *
+ * A manifest (booking_partitions/manifest.txt) records the journal sequence every partition
+ * covers, the highest booking number per partition and which users have bookings in which
+ * partitions, so lazy loading and booking ID generation work without reading every file:
+ *   BASE|seq   PARTITION|key|maxBookingNumber   USER|key|username
+ * Enable with -Dbookings.format=partitioned; an existing bookings.txt is split on first use.
+ */
+public class BookingPartitions {
+    static final String PARTITION_DIR = "booking_partitions";
+    private static final String MANIFEST_FILE = "manifest.txt";
+    private static final String FILE_PREFIX = "bookings-";
+    private static final String FILE_SUFFIX = ".txt";
+    static final String UNDATED_KEY = "undated";
+    private static final String SEP = "|";
+    private static final DateTimeFormatter KEY_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM");
+
+    // Months after the current one that are always kept loaded, and how long other partitions may sit idle
+    private static final int HORIZON_MONTHS = Integer.getInteger("bookings.horizonMonths", 3);
+    private static final long IDLE_EVICT_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("bookings.partitionIdleSeconds", 600));
+
+    /** Contents of the manifest file. */
+    private static final class Manifest {
+        long baseSeq; // Journal records up to here are folded into the partition files
+        final Map<String, Integer> maxNumbers = new TreeMap<>();
+        final Map<String, Set<String>> users = new TreeMap<>();
+
+        /** Recomputes a partition's entry from its live bookings. */
+        void describe(String key, Collection<BookingRecord> bookings) {
+            int max = 0; Set<String> names = new TreeSet<>();
+            for (BookingRecord record : bookings) { max = Math.max(max, bookingNumber(record.bookingId())); names.add(record.username()); }
+            maxNumbers.merge(key, max, Math::max); // Never lower it, so IDs are not reused
+            users.put(key, names);
+        }
+    }
+
+    /** A journal record collected for a checkpoint. */
+    private record PendingRecord(long seq, String op, String payload) {}
+
+    private final List<PlaneBooking> planes;
+    private final List<TrainBooking> trains;
+    private final List<BusBooking> buses;
+
+    private final Set<String> eagerKeys = new HashSet<>();          // Never evicted
+    private final Map<String, Long> lastAccess = new HashMap<>();   // Loaded partition -> last use (ms)
+    private final Set<String> knownKeys = new TreeSet<>();          // Every partition that may hold bookings
+    private final Map<String, Set<String>> keysByUser = new HashMap<>();
+    private int maxBookingNumber;
+
+    public BookingPartitions(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        this.planes = planes;
+        this.trains = trains;
+        this.buses = buses;
+    }
+
+    // --- Startup and on-demand loading ---
+
+    /**
+     * Reads the manifest and journal tail, then loads the partitions from the current month
+     * up to the booking horizon. Splits bookings.txt into partitions first if there are none yet.
+     */
+    public void loadStartup() {
+        if (!new File(PARTITION_DIR).isDirectory()) convertFromText();
+
+        Manifest manifest = readManifest();
+        manifest.maxNumbers.forEach((key, max) -> { knownKeys.add(key); maxBookingNumber = Math.max(maxBookingNumber, max); });
+        manifest.users.forEach((key, names) -> names.forEach(name -> noteUser(name, key)));
+        knownKeys.addAll(listPartitionFiles());
+        // Bookings still only in the journal
+        long maxSeq = BookingJournal.forEachRecord(manifest.baseSeq, Long.MAX_VALUE, (seq, op, payload) -> {
+            if (!op.equals(BookingJournal.OP_BOOK)) return;
+            BookingRecord record = BookingRecord.parse(payload);
+            String key = partitionKey(record.travelDate());
+            knownKeys.add(key);
+            noteUser(record.username(), key);
+            maxBookingNumber = Math.max(maxBookingNumber, bookingNumber(record.bookingId()));
+        });
+        BookingJournal.markReplayed(Math.max(manifest.baseSeq, maxSeq));
+
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= HORIZON_MONTHS; i++) eagerKeys.add(month.plusMonths(i).format(KEY_FORMAT));
+        eagerKeys.add(UNDATED_KEY);
+        System.out.println(Utils.GREY + "Loading booking partitions " + month.format(KEY_FORMAT) + " to " + month.plusMonths(HORIZON_MONTHS).format(KEY_FORMAT) + " (" + knownKeys.size() + " partitions on disk)..." + Utils.RESET);
+        load(eagerKeys);
+    }
+
+    /** Highest booking number in any partition or the journal, loaded or not. */
+    public int getMaxBookingNumber() { return maxBookingNumber; }
+
+    /** Makes sure the partition holding the given travel date is loaded (e.g. before booking on that date). */
+    public void ensureLoadedForDate(String travelDate) {
+        load(List.of(partitionKey(travelDate)));
+    }
+
+    /** Loads every partition the user has bookings in. */
+    public void ensureLoadedForUser(String username) {
+        load(keysByUser.getOrDefault(username, Collections.emptySet()));
+    }
+
+    /** Loads every partition (admin views). */
+    public void ensureAllLoaded() {
+        load(knownKeys);
+    }
+
+    /** Records that a user now has a booking on the given date, so later lookups find its partition. */
+    public void noteBooking(String username, String travelDate) {
+        String key = partitionKey(travelDate);
+        knownKeys.add(key);
+        noteUser(username, key);
+        lastAccess.computeIfPresent(key, (k, t) -> System.currentTimeMillis());
+    }
+
+    private void noteUser(String username, String key) {
+        keysByUser.computeIfAbsent(username, u -> new HashSet<>()).add(key);
+    }
+
+    /**
+     * Loads the given partitions that are not already in memory: each partition file is
+     * folded with the journal records routed to it, and the result added to the managers.
+     * Bookings already in memory are left alone, since they reflect a newer state (e.g. a
+     * booking that has since moved to another month). Holds the StorageManager lock so a
+     * concurrent checkpoint cannot truncate the journal between the file and journal reads.
+     */
+    private void load(Collection<String> keys) {
+        long now = System.currentTimeMillis();
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            if (lastAccess.containsKey(key)) lastAccess.put(key, now);
+            else missing.add(key);
+        }
+        if (missing.isEmpty()) return;
+
+        long start = System.nanoTime();
+        Map<String, Map<String, BookingRecord>> liveByKey = new HashMap<>();
+        Map<String, Long> coveredSeq = new HashMap<>();
+        int filesRead = 0; // Months in the horizon with no file yet are loaded from the journal alone
+        synchronized (StorageManager.class) {
+            long baseSeq = readBaseSeq();
+            for (String key : missing) {
+                Map<String, BookingRecord> live = new LinkedHashMap<>();
+                File file = partitionFile(key);
+                if (file.exists()) filesRead++;
+                long fileSeq = BookingCheckpointer.readSnapshot(file, live, false); // Skip damaged records, keep loading
+                if (fileSeq < 0) continue; // Error already reported; try again next time
+                liveByKey.put(key, live);
+                coveredSeq.put(key, Math.max(fileSeq, baseSeq));
+            }
+            if (liveByKey.isEmpty()) return;
+            long fromSeq = Collections.min(coveredSeq.values());
+            BookingJournal.forEachRecord(fromSeq, Long.MAX_VALUE, (seq, op, payload) -> {
+                String key = recordKey(op, payload);
+                Long covered = coveredSeq.get(key);
+                if (covered != null && seq > covered) BookingCheckpointer.fold(liveByKey.get(key), op, payload);
+            });
+        }
+
+        Map<String, Object> managers = StorageManager.indexManagers(planes, trains, buses);
+        int loadedCount = 0;
+        for (Map.Entry<String, Map<String, BookingRecord>> entry : liveByKey.entrySet()) {
+            for (BookingRecord record : entry.getValue().values()) {
+                if (isInMemory(record.bookingId())) continue;
+                if (StorageManager.applyBooking(record, managers)) loadedCount++;
+            }
+            lastAccess.put(entry.getKey(), now);
+        }
+        System.out.println(Utils.GREY + "Loaded " + loadedCount + " bookings from " + filesRead + " partition file(s) in " + (System.nanoTime() - start) / 1_000_000 + " ms." + Utils.RESET);
+    }
+
+    private boolean isInMemory(String bookingId) {
+        for (PlaneBooking plane : planes) if (plane.getBookings().containsKey(bookingId)) return true;
+        for (TrainBooking train : trains) if (train.getBookings().containsKey(bookingId)) return true;
+        for (BusBooking bus : buses) if (bus.getBookings().containsKey(bookingId)) return true;
+        return false;
+    }
+
+    /**
+     * Drops the bookings of partitions outside the horizon that have not been used for a while.
+     * Every change is already in the journal, so they are rebuilt exactly when loaded again.
+     * Called between menu actions, never in the middle of one.
+     */
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        Set<String> idle = new HashSet<>();
+        for (Map.Entry<String, Long> entry : lastAccess.entrySet()) {
+            if (!eagerKeys.contains(entry.getKey()) && now - entry.getValue() > IDLE_EVICT_MILLIS) idle.add(entry.getKey());
+        }
+        if (idle.isEmpty()) return;
+        int before = countBookings();
+        for (PlaneBooking plane : planes) plane.removeBookingsIf(b -> idle.contains(partitionKey(b.getTravelDate())));
+        for (TrainBooking train : trains) train.removeBookingsIf(b -> idle.contains(partitionKey(b.getTravelDate())));
+        for (BusBooking bus : buses) bus.removeBookingsIf(b -> idle.contains(partitionKey(b.getTravelDate())));
+        idle.forEach(lastAccess::remove);
+        System.out.println(Utils.GREY + "Evicted " + (before - countBookings()) + " bookings from idle partitions " + new TreeSet<>(idle) + "." + Utils.RESET);
+    }
+
+    private int countBookings() {
+        int count = 0;
+        for (PlaneBooking plane : planes) count += plane.getBookings().size();
+        for (TrainBooking train : trains) count += train.getBookings().size();
+        for (BusBooking bus : buses) count += bus.getBookings().size();
+        return count;
+    }
+
+    // --- Routing ---
+
+    /** Partition key for a travel date: "YYYY-MM", or "undated" for N/A or unparseable dates. */
+    static String partitionKey(String travelDate) {
+        LocalDate date = Utils.parseTravelDate(travelDate);
+        return date == null ? UNDATED_KEY : date.format(KEY_FORMAT);
+    }
+
+    /**
+     * Partition a journal record belongs to, from the travel date it carries. Date changes
+     * across months are journaled as a cancel plus a new booking, so MODIFY stays in one partition.
+     */
+    static String recordKey(String op, String payload) {
+        switch (op) {
+            case BookingJournal.OP_BOOK:
+                return partitionKey(BookingRecord.parse(payload).travelDate());
+            case BookingJournal.OP_CANCEL:
+            case BookingJournal.OP_MODIFY:
+            case BookingJournal.OP_ARCHIVE: {
+                String[] parts = payload.split(":");
+                return partitionKey(parts.length > 1 ? parts[1] : null);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown journal operation '" + op + "'");
+        }
+    }
+
+    static File partitionFile(String key) {
+        return new File(PARTITION_DIR, FILE_PREFIX + key + FILE_SUFFIX);
+    }
+
+    private static List<String> listPartitionFiles() {
+        List<String> keys = new ArrayList<>();
+        String[] names = new File(PARTITION_DIR).list();
+        if (names == null) return keys;
+        for (String name : names) {
+            if (name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX)) keys.add(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        }
+        return keys;
+    }
+
+    private static int bookingNumber(String bookingId) {
+        try { return Integer.parseInt(bookingId.substring(1)); }
+        catch (NumberFormatException | IndexOutOfBoundsException e) { return 0; }
+    }
+
+    // --- Checkpoint and conversion (called with the StorageManager lock held) ---
+
+    /** Journal sequence number covered by all partitions (0 if there is no manifest yet). */
+    static long readBaseSeq() {
+        return readManifest().baseSeq;
+    }
+
+    /**
+     * Folds journal records in (baseSeq, throughSeq] into the partitions they touch and
+     * records throughSeq as the new base in the manifest. The caller truncates the journal.
+     * @return false if a partition or the manifest could not be written.
+     */
+    static boolean writeCheckpoint(long baseSeq, long throughSeq) {
+        Map<String, List<PendingRecord>> byKey = new TreeMap<>();
+        BookingJournal.forEachRecord(baseSeq, throughSeq, (seq, op, payload) ->
+                byKey.computeIfAbsent(recordKey(op, payload), k -> new ArrayList<>()).add(new PendingRecord(seq, op, payload)));
+
+        Manifest manifest = readManifest();
+        for (Map.Entry<String, List<PendingRecord>> entry : byKey.entrySet()) {
+            String key = entry.getKey();
+            File file = partitionFile(key);
+            Map<String, BookingRecord> live = new LinkedHashMap<>();
+            long fileSeq = BookingCheckpointer.readSnapshot(file, live, true);
+            if (fileSeq < 0) return false;
+            for (PendingRecord record : entry.getValue()) {
+                if (record.seq() > fileSeq) BookingCheckpointer.fold(live, record.op(), record.payload());
+            }
+            if (live.isEmpty()) {
+                file.delete(); // Loading a missing partition falls back to the manifest base
+                manifest.users.remove(key);
+            } else {
+                if (!BookingCheckpointer.writeSnapshot(file, throughSeq, live.values())) return false;
+                manifest.describe(key, live.values());
+            }
+        }
+        manifest.baseSeq = throughSeq;
+        return writeManifest(manifest);
+    }
+
+    /**
+     * Splits the live bookings (bookings.txt plus journal) into month partitions.
+     * @return The number of bookings written, or -1 on error.
+     */
+    static int convertFromText() {
+        Map<String, BookingRecord> live = new LinkedHashMap<>();
+        long seq = BookingCheckpointer.readLiveBookings(live);
+        if (seq < 0) return -1;
+        File dir = new File(PARTITION_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println(Utils.RED_BOLD + "Error: Could not create " + PARTITION_DIR + Utils.RESET);
+            return -1;
+        }
+        Map<String, List<BookingRecord>> byKey = new TreeMap<>();
+        for (BookingRecord record : live.values()) byKey.computeIfAbsent(partitionKey(record.travelDate()), k -> new ArrayList<>()).add(record);
+
+        Manifest manifest = new Manifest();
+        for (Map.Entry<String, List<BookingRecord>> entry : byKey.entrySet()) {
+            if (!BookingCheckpointer.writeSnapshot(partitionFile(entry.getKey()), seq, entry.getValue())) return -1;
+            manifest.describe(entry.getKey(), entry.getValue());
+        }
+        manifest.baseSeq = seq;
+        if (!writeManifest(manifest)) return -1;
+        System.out.println(Utils.GREEN + "Split " + live.size() + " bookings into " + byKey.size() + " partitions in " + PARTITION_DIR + "." + Utils.RESET);
+        return live.size();
+    }
+
+    private static Manifest readManifest() {
+        Manifest manifest = new Manifest();
+        File file = new File(PARTITION_DIR, MANIFEST_FILE);
+        if (!file.exists()) return manifest;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\\|", 3);
+                try {
+                    switch (parts[0]) {
+                        case "BASE": manifest.baseSeq = Long.parseLong(parts[1]); break;
+                        case "PARTITION": manifest.maxNumbers.put(parts[1], Integer.parseInt(parts[2])); break;
+                        case "USER": manifest.users.computeIfAbsent(parts[1], k -> new TreeSet<>()).add(parts[2]); break;
+                        default: if (!line.trim().isEmpty()) System.err.println(Utils.YELLOW + "Warning: Ignoring manifest line: " + line + Utils.RESET);
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    System.err.println(Utils.YELLOW + "Warning: Ignoring malformed manifest line: " + line + Utils.RESET);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error reading partition manifest: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+        return manifest;
+    }
+
+    private static boolean writeManifest(Manifest manifest) {
+        File file = new File(PARTITION_DIR, MANIFEST_FILE);
+        File tempFile = new File(PARTITION_DIR, MANIFEST_FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out))) {
+            writer.write("BASE" + SEP + manifest.baseSeq); writer.newLine();
+            for (Map.Entry<String, Integer> entry : manifest.maxNumbers.entrySet()) { writer.write("PARTITION" + SEP + entry.getKey() + SEP + entry.getValue()); writer.newLine(); }
+            for (Map.Entry<String, Set<String>> entry : manifest.users.entrySet()) {
+                for (String name : entry.getValue()) { writer.write("USER" + SEP + entry.getKey() + SEP + name); writer.newLine(); }
+            }
+            writer.flush();
+            out.getFD().sync(); // The journal is truncated on the strength of this manifest, so it must be on disk first
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error writing partition manifest: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            tempFile.delete();
+            return false;
+        }
+        try {
+            StorageManager.replaceAtomically(tempFile, file);
+            return true;
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error swapping in partition manifest: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package TicketBookingSystem;
+
+/**
+ * Record holding one persisted booking, shared by the snapshot file and the booking journal.
+ * Format: BookingID:Username:Start:Dest:Price:SeatClass:Row:Col:VehicleID:Date:Provider
+ */
+record BookingRecord(String bookingId, String username, String startCity, String destCity, double price,
+                     String seatClass, int row, String column, String vehicleId, String travelDate, String provider) {
+
+    static final String DELIMITER = ":";
+    static final int FIELD_COUNT = 11;
+
+    /** Formats this booking as a single delimited line (no trailing newline). */
+    String toLine() {
+        return String.join(DELIMITER,
+                bookingId, username, startCity, destCity,
+                String.format("%.2f", price), seatClass,
+                String.valueOf(row), column, vehicleId, travelDate, provider);
+    }
+
+    /**
+     * Parses a delimited booking line.
+     * @throws NumberFormatException if price or row are not numeric.
+     * @throws IllegalArgumentException if the line does not have exactly 11 parts.
+     */
+    static BookingRecord parse(String line) {
+        String[] parts = line.split(DELIMITER);
+        if (parts.length != FIELD_COUNT) {
+            throw new IllegalArgumentException("Expected " + FIELD_COUNT + " parts, found " + parts.length);
+        }
+        return new BookingRecord(parts[0].toUpperCase(), parts[1], parts[2], parts[3], Double.parseDouble(parts[4]),
+                parts[5], Integer.parseInt(parts[6]), parts[7], parts[8], parts[9], parts[10]);
+    }
+
+    /** Returns a copy of this booking with a different travel date. */
+    BookingRecord withTravelDate(String newTravelDate) {
+        return new BookingRecord(bookingId, username, startCity, destCity, price, seatClass, row, column, vehicleId, newTravelDate, provider);
+    }
+
+    /** Derives the transport type from the booking ID prefix (P, T, B), or null if unknown. */
+    String transportType() {
+        if (bookingId.startsWith("P")) return "Plane";
+        if (bookingId.startsWith("T")) return "Train";
+        if (bookingId.startsWith("B")) return "Bus";
+        return null;
+    }
+}
@@ -0,0 +1,256 @@
+package TicketBookingSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Offline consistency check (fsck) for the booking store. Verifies the length and CRC32C of
+ * every record in bookings.txt, bookings.journal, the month partitions and bookings.bin, and
+ * that each record parses, without loading anything into the booking managers. Files are
+ * split into line-aligned ranges that are checked in parallel on the common ForkJoinPool.
+ * Reports runs of damaged records by byte range and line (or record) number.
+ * Run with: java TicketBookingSystem.BookingStoreVerifier [data directory]
+ * Exits with status 1 if anything is corrupt.
+ */
+public class BookingStoreVerifier {
+    private static final int BINARY_CHUNKS_PER_THREAD = 4;
+
+    private enum Kind { SNAPSHOT, JOURNAL, BINARY }
+
+    /** A run of consecutive damaged records; items are line numbers, or record indexes for bookings.bin. */
+    record CorruptRange(long startByte, long endByte, long firstItem, long lastItem, String reason) {}
+
+    /** Outcome of checking one range of a file. Item numbers are local until merged. */
+    private static final class Chunk {
+        final List<CorruptRange> corrupt = new ArrayList<>();
+        long records, unframed, items;
+        String error;
+
+        void bad(long startByte, long endByte, long item, String reason) {
+            CorruptRange last = corrupt.isEmpty() ? null : corrupt.get(corrupt.size() - 1);
+            if (last != null && last.lastItem() == item - 1 && last.reason().equals(reason)) {
+                corrupt.set(corrupt.size() - 1, new CorruptRange(last.startByte(), endByte, last.firstItem(), item, reason));
+            } else {
+                corrupt.add(new CorruptRange(startByte, endByte, item, item, reason));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        File dir = new File(args.length > 0 ? args[0] : ".");
+        List<File> files = new ArrayList<>();
+        List<Kind> kinds = new ArrayList<>();
+        addIfExists(files, kinds, new File(dir, StorageManager.BOOKINGS_FILE), Kind.SNAPSHOT);
+        addIfExists(files, kinds, new File(dir, BookingJournal.JOURNAL_FILE), Kind.JOURNAL);
+        addIfExists(files, kinds, new File(dir, BinaryBookingStore.BINARY_FILE), Kind.BINARY);
+        File[] partitions = new File(dir, BookingPartitions.PARTITION_DIR).listFiles((d, name) -> name.startsWith("bookings-") && name.endsWith(".txt"));
+        if (partitions != null) for (File partition : partitions) addIfExists(files, kinds, partition, Kind.SNAPSHOT);
+        if (files.isEmpty()) { System.out.println(Utils.YELLOW + "No booking files found in " + dir.getPath() + "." + Utils.RESET); return; }
+
+        long start = System.nanoTime();
+        boolean clean = true;
+        // Split every file first and submit all ranges together, so small files do not serialize the run
+        List<Callable<Chunk>> tasks = new ArrayList<>();
+        int[] firstTask = new int[files.size() + 1];
+        for (int f = 0; f < files.size(); f++) {
+            firstTask[f] = tasks.size();
+            try {
+                tasks.addAll(plan(files.get(f), kinds.get(f)));
+            } catch (IOException e) {
+                Chunk failed = new Chunk(); failed.error = e.getMessage();
+                tasks.add(() -> failed);
+            }
+        }
+        firstTask[files.size()] = tasks.size();
+
+        List<Chunk> results = new ArrayList<>();
+        try {
+            for (Future<Chunk> result : ForkJoinPool.commonPool().invokeAll(tasks)) results.add(result.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            System.err.println(Utils.RED_BOLD + "Verification failed: " + Utils.RESET + Utils.RED + e.getCause() + Utils.RESET);
+            System.exit(1);
+        }
+
+        for (int f = 0; f < files.size(); f++) {
+            clean &= report(files.get(f), kinds.get(f), results.subList(firstTask[f], firstTask[f + 1]));
+        }
+        System.out.printf(Utils.GREY + "Checked %d file(s) in %d ms using %d task(s)." + Utils.RESET + "%n",
+                files.size(), (System.nanoTime() - start) / 1_000_000, tasks.size());
+        if (!clean) System.exit(1);
+    }
+
+    private static void addIfExists(List<File> files, List<Kind> kinds, File file, Kind kind) {
+        if (file.isFile()) { files.add(file); kinds.add(kind); }
+    }
+
+    /** Splits a file into independently checkable ranges. */
+    private static List<Callable<Chunk>> plan(File file, Kind kind) throws IOException {
+        List<Callable<Chunk>> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (kind == Kind.BINARY) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after close
+                int count = BinaryBookingStore.recordCount(mapped);
+                long available = (channel.size() - BinaryBookingStore.HEADER_SIZE) / BinaryBookingStore.RECORD_SIZE;
+                if (available < count) throw new IOException("Header claims " + count + " records but the file holds " + available);
+                int chunks = Math.max(1, Math.min(count, ForkJoinPool.getCommonPoolParallelism() * BINARY_CHUNKS_PER_THREAD));
+                for (int i = 0; i < chunks; i++) {
+                    int from = (int) ((long) count * i / chunks), to = (int) ((long) count * (i + 1) / chunks);
+                    tasks.add(() -> checkBinary(mapped, from, to));
+                }
+            } else {
+                long[] bounds = ParallelBookingLoader.split(channel);
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    long from = bounds[i], to = bounds[i + 1];
+                    tasks.add(() -> checkText(file, kind, from, to));
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /** Checks the lines in [from, to) of a snapshot or journal file. */
+    private static Chunk checkText(File file, Kind kind, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) break;
+            }
+        }
+        byte[] bytes = buffer.array();
+        int length = buffer.position();
+
+        Chunk chunk = new Chunk();
+        RecordTokenizer tokenizer = new RecordTokenizer();
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && bytes[lineEnd] != '\n') lineEnd++;
+            int start = pos, end = lineEnd > pos && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            boolean terminated = lineEnd < length;
+            pos = lineEnd + 1;
+            long item = ++chunk.items;
+            if (RecordTokenizer.isBlank(bytes, start, end)) continue;
+
+            String problem = null;
+            int payload = RecordFrame.payloadStart(bytes, start, end);
+            if (payload == RecordFrame.CORRUPT) problem = "length/checksum mismatch";
+            else {
+                if (!RecordFrame.isFramed(bytes, start, end)) chunk.unframed++;
+                problem = kind == Kind.JOURNAL ? checkJournalRecord(tokenizer, bytes, payload, end) : checkSnapshotRecord(tokenizer, bytes, payload, end);
+            }
+            if (problem == null && kind == Kind.JOURNAL && !terminated) problem = "torn tail (no line terminator)";
+            if (problem != null) chunk.bad(from + start, from + Math.min(lineEnd + 1, length), item, problem);
+            else chunk.records++;
+        }
+        return chunk;
+    }
+
+    private static String checkSnapshotRecord(RecordTokenizer tokenizer, byte[] b, int start, int end) {
+        if (b[start] == '#') return null; // Sequence header or comment
+        try {
+            if (tokenizer.parseBooking(b, start, end).transportType() == null) return "unknown booking ID prefix";
+            return null;
+        } catch (IllegalArgumentException e) { // Includes NumberFormatException
+            return "malformed booking";
+        }
+    }
+
+    private static String checkJournalRecord(RecordTokenizer tokenizer, byte[] b, int start, int end) {
+        int seqEnd = RecordTokenizer.indexOfDelimiter(b, start, end);
+        if (seqEnd <= start) return "malformed journal record";
+        for (int i = start; i < seqEnd; i++) if (b[i] < '0' || b[i] > '9') return "malformed journal record";
+        int opEnd = RecordTokenizer.indexOfDelimiter(b, seqEnd + 1, end);
+        if (opEnd < 0) return "malformed journal record";
+        if (opEnd - seqEnd - 1 != BookingJournal.OP_GROUP.length() || !RecordTokenizer.startsWith(b, seqEnd + 1, opEnd, BookingJournal.OP_GROUP)) {
+            return checkJournalOp(tokenizer, b, seqEnd + 1, opEnd, end);
+        }
+        for (int member = opEnd + 1; member < end; ) { // Op:Payload members separated by GROUP_SEPARATOR
+            int memberEnd = member;
+            while (memberEnd < end && b[memberEnd] != BookingJournal.GROUP_SEPARATOR) memberEnd++;
+            int memberOpEnd = RecordTokenizer.indexOfDelimiter(b, member, memberEnd);
+            String problem = memberOpEnd <= member ? "malformed journal record" : checkJournalOp(tokenizer, b, member, memberOpEnd, memberEnd);
+            if (problem != null) return problem + " in GROUP";
+            member = memberEnd + 1;
+        }
+        return b[end - 1] == BookingJournal.GROUP_SEPARATOR || opEnd + 1 == end ? "malformed GROUP payload" : null;
+    }
+
+    /** Checks one operation and its payload: op in [opStart, opEnd), payload in (opEnd, end). */
+    private static String checkJournalOp(RecordTokenizer tokenizer, byte[] b, int opStart, int opEnd, int end) {
+        int payload = opEnd + 1;
+        if (opEnd - opStart == BookingJournal.OP_BOOK.length() && RecordTokenizer.startsWith(b, opStart, opEnd, BookingJournal.OP_BOOK)) {
+            return checkSnapshotRecord(tokenizer, b, payload, end) == null ? null : "malformed BOOK payload";
+        }
+        for (String op : new String[]{BookingJournal.OP_CANCEL, BookingJournal.OP_MODIFY, BookingJournal.OP_ARCHIVE}) {
+            if (opEnd - opStart == op.length() && RecordTokenizer.startsWith(b, opStart, opEnd, op)) {
+                return RecordTokenizer.indexOfDelimiter(b, payload, end) > payload ? null : "malformed " + op + " payload";
+            }
+        }
+        return "unknown journal operation";
+    }
+
+    /** Checks the checksums of records [from, to) of a mapped bookings.bin. */
+    private static Chunk checkBinary(ByteBuffer mapped, int from, int to) {
+        Chunk chunk = new Chunk();
+        for (int i = from; i < to; i++) {
+            if (BinaryBookingStore.checksumMatches(mapped, i)) chunk.records++;
+            else {
+                long offset = BinaryBookingStore.HEADER_SIZE + (long) i * BinaryBookingStore.RECORD_SIZE;
+                chunk.bad(offset, offset + BinaryBookingStore.RECORD_SIZE, i, "checksum mismatch");
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Merges the chunk results of one file (renumbering lines and joining ranges that span
+     * chunk boundaries) and prints them.
+     * @return true if the file is clean.
+     */
+    private static boolean report(File file, Kind kind, List<Chunk> chunks) {
+        List<CorruptRange> corrupt = new ArrayList<>();
+        long records = 0, unframed = 0, itemOffset = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.error != null) {
+                System.out.println(Utils.RED_BOLD + file.getPath() + ": " + Utils.RESET + Utils.RED + chunk.error + Utils.RESET);
+                return false;
+            }
+            records += chunk.records; unframed += chunk.unframed;
+            for (CorruptRange range : chunk.corrupt) {
+                long first = range.firstItem() + (kind == Kind.BINARY ? 0 : itemOffset), last = range.lastItem() + (kind == Kind.BINARY ? 0 : itemOffset);
+                CorruptRange previous = corrupt.isEmpty() ? null : corrupt.get(corrupt.size() - 1);
+                if (previous != null && previous.lastItem() == first - 1 && previous.reason().equals(range.reason())) {
+                    corrupt.set(corrupt.size() - 1, new CorruptRange(previous.startByte(), range.endByte(), previous.firstItem(), last, range.reason()));
+                } else {
+                    corrupt.add(new CorruptRange(range.startByte(), range.endByte(), first, last, range.reason()));
+                }
+            }
+            itemOffset += chunk.items;
+        }
+
+        String unit = kind == Kind.BINARY ? "record" : "line";
+        if (corrupt.isEmpty()) {
+            System.out.println(Utils.GREEN + file.getPath() + ": OK (" + records + " records" + (unframed > 0 ? ", " + unframed + " without checksum" : "") + ")" + Utils.RESET);
+            return true;
+        }
+        System.out.println(Utils.RED_BOLD + file.getPath() + ": " + corrupt.size() + " corrupt range(s), " + records + " good records" + Utils.RESET);
+        for (CorruptRange range : corrupt) {
+            String items = range.firstItem() == range.lastItem() ? unit + " " + range.firstItem() : unit + "s " + range.firstItem() + "-" + range.lastItem();
+            System.out.println(Utils.RED + "  bytes [" + range.startByte() + ", " + range.endByte() + ") " + items + ": " + range.reason() + Utils.RESET);
+        }
+        return false;
+    }
+}
@@ -1,7 +1,6 @@
 package TicketBookingSystem;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Map;
@@ -19,13 +18,20 @@ public class BookingSystem {
     // Instance of RouteDataManager to access route info
     private final RouteDataManager routeDataManager;
 
+    // Lazily loaded month partitions; null unless -Dbookings.format=partitioned
+    private BookingPartitions partitions;
+
+    // Seat occupancy per trip, shared by all booking managers
+    private final SeatInventory seatInventory = new SeatInventory();
+    private final SeatHolds seatHolds = new SeatHolds(seatInventory);
+
     /**
      * Constructor for BookingSystem.
-     * Initializes vehicle lists, loads route data, and loads existing bookings.
+     * Initializes vehicle lists; bookings are loaded by loadBookings().
+     * @param routeDataManager The shared route data (see AppContext); it may still be loading.
      */
-    public BookingSystem() {
-        // Initialize RouteDataManager first to load data files
-        routeDataManager = new RouteDataManager();
+    public BookingSystem(RouteDataManager routeDataManager) {
+        this.routeDataManager = routeDataManager;
 
         // Initialize vehicle lists (these act as booking managers/templates)
         planes = new ArrayList<>();
@@ -39,12 +45,31 @@ public class BookingSystem {
         buses.add(new BusBooking("BUS-MANAGER-1", this));
         // Example: Add more if you want to simulate multiple physical planes/trains/buses
         // planes.add(new PlaneBooking("PLANE-MANAGER-2", this));
+    }
 
+    /**
+     * Loads existing bookings, archives completed trips and starts background checkpoints.
+     * Needs no route data, so AppContext runs it while the route files load.
+     */
+    void loadBookings() {
         // Load existing bookings from storage into the respective manager objects
-        StorageManager.loadBookings(planes, trains, buses);
+        if (StorageManager.isPartitionedFormat()) {
+            partitions = new BookingPartitions(planes, trains, buses);
+            partitions.loadStartup(); // Only the months around today; the rest load on demand
+        } else {
+            StorageManager.loadBookings(planes, trains, buses);
+        }
+
+        // Move trips that have already happened to the compressed archive (in partitioned mode, only loaded months)
+        if (Boolean.parseBoolean(System.getProperty("bookings.archiveOnStartup", "true"))) {
+            BookingArchive.archiveCompleted(planes, trains, buses);
+        }
 
         // Set the booking ID counter based on loaded bookings
         updateBookingIdCounter();
+
+        // Compact the booking journal in the background while the menus run
+        BookingCheckpointer.start();
     }
 
     /**
@@ -75,6 +100,12 @@ public class BookingSystem {
                 }
             }
         }
+        // Bookings in partitions that are not loaded still count
+        if (partitions != null) maxId = Math.max(maxId, partitions.getMaxBookingNumber());
+        // So do archived bookings, so their IDs are never handed out again
+        maxId = Math.max(maxId, BookingArchive.maxBookingNumber());
+        // And cancelled ones: the journal and its saved high-water mark cover every ID handed out
+        maxId = Math.max(maxId, BookingJournal.maxBookingNumber());
         // Set the counter to one greater than the highest found ID
         this.bookingIdCounter = maxId + 1;
         System.out.println(Utils.GREY + "Booking ID counter initialized to: " + this.bookingIdCounter + Utils.RESET);
@@ -97,17 +128,57 @@ public class BookingSystem {
         return bookingIdCounter++;
     }
 
+    /** Makes sure every booking is in memory (admin views); a no-op unless bookings are partitioned. */
+    public void loadAllBookings() {
+        if (partitions != null) partitions.ensureAllLoaded();
+    }
+
+    /**
+     * Archives every booking whose travel date has passed (loading all partitions first).
+     * @return The number of bookings archived, or -1 on error.
+     */
+    public int archiveCompletedTrips() {
+        loadAllBookings();
+        return BookingArchive.archiveCompleted(planes, trains, buses);
+    }
+
+    /** Releases partitions nobody has looked at for a while (call between menu actions). */
+    public void evictIdleBookings() {
+        if (partitions != null) partitions.evictIdle();
+    }
+
+    /** Loads the partitions holding the logged-in user's bookings, if bookings are partitioned. */
+    private void loadUserBookings() {
+        if (partitions != null) partitions.ensureLoadedForUser(loggedInUser);
+    }
+
+    /** Loads the partition for a travel date before seats are shown or booked on it. */
+    private void loadBookingsForDate(String travelDate) {
+        if (partitions != null) partitions.ensureLoadedForDate(travelDate);
+    }
+
+    /** Tells the partition index the logged-in user may now have a booking on this date. */
+    private void noteBooking(String travelDate) {
+        if (partitions != null) partitions.noteBooking(loggedInUser, travelDate);
+    }
+
     // --- Getters for vehicle lists (needed for saving data in Main and for AdminDashboard) ---
     public List<PlaneBooking> getPlanes() { return this.planes; }
     public List<TrainBooking> getTrains() { return this.trains; }
     public List<BusBooking> getBuses() { return this.buses; }
 
+    /** Route data used by the booking flows (also reports reload status to the admin dashboard). */
+    public RouteDataManager getRouteDataManager() { return this.routeDataManager; }
+    SeatInventory getSeatInventory() { return seatInventory; }
+    SeatHolds getSeatHolds() { return seatHolds; }
+
     /**
      * Starts the main booking menu loop for the logged-in user.
      * @param sc Scanner object for user input.
      */
     public void startBooking(Scanner sc) {
         while (true) {
+            evictIdleBookings();
             Utils.clearScreen();
             Utils.printBanner(loggedInUser + "'s Booking Menu");
             System.out.println(Utils.YELLOW_BOLD + "1." + Utils.RESET + Utils.CYAN + " Book a Ticket" + Utils.RESET);
@@ -135,20 +206,16 @@ public class BookingSystem {
 
             switch (choice) {
                 case 1:
-                    bookTicket(sc); // Handles its own flow and returns
-                    // Save after a booking attempt, whether successful or cancelled within bookTicket's sub-flow
-                    StorageManager.saveBookings(planes, trains, buses);
+                    bookTicket(sc); // Handles its own flow and returns (confirmed bookings are journaled)
                     break;
                 case 2:
                     viewBookings(sc);
                     break;
                 case 3:
-                    cancelBooking(sc);
-                    StorageManager.saveBookings(planes, trains, buses); // Save immediately after cancel attempt
+                    cancelBooking(sc); // Cancellations are journaled by the manager
                     break;
                 case 4: // New: Modify Booking Date
-                    modifyBookingDate(sc);
-                    StorageManager.saveBookings(planes, trains, buses); // Save after modification attempt
+                    modifyBookingDate(sc); // Date changes are journaled on success
                     break;
                 case 5: // Logout
                     System.out.println(Utils.GREEN + "\nLogging out..." + Utils.RESET);
@@ -211,47 +278,50 @@ public class BookingSystem {
      * @return Object array [String originCityName, String destinationCityName, RouteDetail routeDetail] or null.
      */
     private Object[] selectValidRoute(Scanner sc, String transportType) {
-        Map<String, LocationInfo> locationData; String locationTypeName;
+        int mode; String locationTypeName;
         switch (transportType) {
-            case "Plane": locationData = routeDataManager.getAirportData(); locationTypeName = "Airport"; break;
-            case "Train": locationData = routeDataManager.getTrainStationData(); locationTypeName = "Train Station"; break;
-            case "Bus": locationData = routeDataManager.getBusStationData(); locationTypeName = "Bus Station"; break;
+            case "Plane": mode = RouteDataManager.PLANE; break;
+            case "Train": mode = RouteDataManager.TRAIN; break;
+            case "Bus": mode = RouteDataManager.BUS; break;
             default: System.err.println(Utils.RED_BOLD + "Internal Error: Invalid transport." + Utils.RESET); return null;
         }
-        if (locationData == null || locationData.isEmpty()) { System.out.println(Utils.RED + "Error: No " + locationTypeName + " data." + Utils.RESET); Utils.pause(sc); return null; }
+        CompiledRoutes routes = routeDataManager.getCompiledRoutes(); locationTypeName = CompiledRoutes.LOCATION_TYPES[mode];
+        List<Integer> originCities = new ArrayList<>(); // City IDs are already in alphabetical order
+        for (int city = 0; city < routes.cityCount(); city++) if (routes.serves(city, mode)) originCities.add(city);
+        if (originCities.isEmpty()) { System.out.println(Utils.RED + "Error: No " + locationTypeName + " data." + Utils.RESET); Utils.pause(sc); return null; }
 
-        List<String> originCityKeys = new ArrayList<>(locationData.keySet()); Collections.sort(originCityKeys);
-        LocationInfo selectedOriginInfo = null;
-        while (selectedOriginInfo == null) { // Origin Selection Loop
+        int selectedOrigin = -1;
+        while (selectedOrigin < 0) { // Origin Selection Loop
             Utils.clearScreen(); Utils.printBanner("Select Origin " + locationTypeName);
             System.out.println(Utils.YELLOW_BOLD + "0." + Utils.RESET + Utils.CYAN + " Back" + Utils.RESET);
-            for (int i = 0; i < originCityKeys.size(); i++) { LocationInfo info = locationData.get(originCityKeys.get(i)); System.out.printf(Utils.YELLOW_BOLD + "%d." + Utils.RESET + Utils.CYAN + " %s (%s)" + Utils.RESET + "\n", i + 1, info.city(), info.primaryName()); }
+            for (int i = 0; i < originCities.size(); i++) { int city = originCities.get(i); System.out.printf(Utils.YELLOW_BOLD + "%d." + Utils.RESET + Utils.CYAN + " %s (%s)" + Utils.RESET + "\n", i + 1, routes.cityName(city), routes.primaryName(city, mode)); }
             System.out.print(Utils.WHITE_BOLD + "Choose origin city number: " + Utils.RESET);
             try {
                 int originChoice = sc.nextInt(); sc.nextLine(); if (originChoice == 0) return null;
-                if (originChoice >= 1 && originChoice <= originCityKeys.size()) { selectedOriginInfo = locationData.get(originCityKeys.get(originChoice - 1)); if (selectedOriginInfo.routes() == null || selectedOriginInfo.routes().isEmpty()) { System.out.println(Utils.YELLOW + "No routes from " + selectedOriginInfo.city() + "." + Utils.RESET); selectedOriginInfo = null; Utils.pause(sc); } }
+                if (originChoice >= 1 && originChoice <= originCities.size()) { selectedOrigin = originCities.get(originChoice - 1); if (routes.firstEdge(selectedOrigin, mode) == routes.endEdge(selectedOrigin, mode)) { System.out.println(Utils.YELLOW + "No routes from " + routes.cityName(selectedOrigin) + "." + Utils.RESET); selectedOrigin = -1; Utils.pause(sc); } }
                 else { System.out.println(Utils.RED + "Invalid choice." + Utils.RESET); Utils.pause(sc); }
             } catch (InputMismatchException e) { System.out.println(Utils.RED + "Invalid input." + Utils.RESET); sc.nextLine(); Utils.pause(sc); }
             catch (Exception e) { System.out.println(Utils.RED + "Error: " + e.getMessage() + Utils.RESET); sc.nextLine(); Utils.pause(sc); }
         }
 
-        Map<String, RouteDetail> availableRoutes = selectedOriginInfo.routes(); List<String> destinationKeys = new ArrayList<>(availableRoutes.keySet()); Collections.sort(destinationKeys);
-        RouteDetail selectedRouteDetail = null;
-        while (selectedRouteDetail == null) { // Destination Selection Loop
-            Utils.clearScreen(); Utils.printBanner("Select Destination from " + selectedOriginInfo.city());
+        int selectedEdge = -1; // Edges in the origin's row are already sorted by destination
+        while (selectedEdge < 0) { // Destination Selection Loop
+            Utils.clearScreen(); Utils.printBanner("Select Destination from " + routes.cityName(selectedOrigin));
             System.out.println(Utils.YELLOW_BOLD + "0." + Utils.RESET + Utils.CYAN + " Back to Origin Selection" + Utils.RESET);
-            int validRouteCount = 0; List<String> displayOrderDestKeys = new ArrayList<>();
-            for (String destKey : destinationKeys) { RouteDetail route = availableRoutes.get(destKey); boolean isAvailable = route.distance() > -1 || !route.eta().equalsIgnoreCase("Not Available"); if (isAvailable) { validRouteCount++; displayOrderDestKeys.add(destKey); System.out.printf(Utils.YELLOW_BOLD + "%d." + Utils.RESET + Utils.CYAN + " %s (" + Utils.BLUE_BOLD + "Dist:" + Utils.MAGENTA_BOLD + " %d km" + Utils.CYAN + ", ETA: " + Utils.GREEN_BOLD + "%s" + Utils.CYAN + ")" + Utils.RESET + "\n", validRouteCount, route.destinationCity(), route.distance(), route.eta()); } }
+            List<Integer> displayOrderEdges = new ArrayList<>();
+            for (int e = routes.firstEdge(selectedOrigin, mode); e < routes.endEdge(selectedOrigin, mode); e++) { if (routes.available(e)) { displayOrderEdges.add(e); System.out.printf(Utils.YELLOW_BOLD + "%d." + Utils.RESET + Utils.CYAN + " %s (" + Utils.BLUE_BOLD + "Dist:" + Utils.MAGENTA_BOLD + " %d km" + Utils.CYAN + ", ETA: " + Utils.GREEN_BOLD + "%s" + Utils.CYAN + ")" + Utils.RESET + "\n", displayOrderEdges.size(), routes.cityName(routes.target(e)), routes.distance(e), routes.eta(e)); } }
+            int validRouteCount = displayOrderEdges.size();
             if (validRouteCount == 0) { System.out.println(Utils.YELLOW + "No valid destinations." + Utils.RESET); Utils.pause(sc); return selectValidRoute(sc, transportType); }
             System.out.print(Utils.WHITE_BOLD + "Choose destination city number: " + Utils.RESET);
             try {
                 int destChoice = sc.nextInt(); sc.nextLine(); if (destChoice == 0) return selectValidRoute(sc, transportType); // Go back to origin selection
-                if (destChoice >= 1 && destChoice <= validRouteCount) { String selectedDestCityKey = displayOrderDestKeys.get(destChoice - 1); selectedRouteDetail = availableRoutes.get(selectedDestCityKey); }
+                if (destChoice >= 1 && destChoice <= validRouteCount) { selectedEdge = displayOrderEdges.get(destChoice - 1); }
                 else { System.out.println(Utils.RED + "Invalid choice." + Utils.RESET); Utils.pause(sc); }
             } catch (InputMismatchException e) { System.out.println(Utils.RED + "Invalid input." + Utils.RESET); sc.nextLine(); Utils.pause(sc); }
             catch (Exception e) { System.out.println(Utils.RED + "Error: " + e.getMessage() + Utils.RESET); sc.nextLine(); Utils.pause(sc); }
         }
-        return new Object[]{selectedOriginInfo.city(), selectedRouteDetail.destinationCity(), selectedRouteDetail};
+        RouteDetail selectedRouteDetail = routes.routeDetail(selectedEdge);
+        return new Object[]{routes.cityName(selectedOrigin), selectedRouteDetail.destinationCity(), selectedRouteDetail};
     }
 
     /** Handles Plane booking flow. */
@@ -281,7 +351,9 @@ public class BookingSystem {
 
         if (planes.isEmpty()) { System.out.println(Utils.RED + "No planes configured." + Utils.RESET); Utils.pause(sc); return; }
         PlaneBooking bookingManagerPlane = planes.get(0); // Use first plane manager
+        loadBookingsForDate(travelDate);
         bookingManagerPlane.book(sc, loggedInUser, startCity, destCity, finalRoutePrice, seatClass, travelDate, selectedProvider);
+        noteBooking(travelDate);
         Utils.pause(sc);
     }
 
@@ -293,7 +365,7 @@ public class BookingSystem {
         String tDate = Utils.getValidTravelDate(sc); if(tDate==null){System.out.println(Utils.YELLOW+"Cancelled."+Utils.RESET);Utils.pause(sc);return;}
         double cMult=1.0; String sClass=""; while(sClass.isEmpty()){System.out.println("\n"+Utils.CYAN_BOLD+"Class:"+Utils.RESET); System.out.printf(Utils.YELLOW_BOLD+"1."+Utils.RESET+Utils.CYAN+" 1A (Rs.%.2f)\n",bPrice*2.5);System.out.printf(Utils.YELLOW_BOLD+"2."+Utils.RESET+Utils.CYAN+" 2A (Rs.%.2f)\n",bPrice*2.0);System.out.printf(Utils.YELLOW_BOLD+"3."+Utils.RESET+Utils.CYAN+" 3A (Rs.%.2f)\n",bPrice*1.5);System.out.printf(Utils.YELLOW_BOLD+"4."+Utils.RESET+Utils.CYAN+" SL (Rs.%.2f)\n",bPrice*1.0);System.out.printf(Utils.YELLOW_BOLD+"5."+Utils.RESET+Utils.CYAN+" CC (Rs.%.2f)\n",bPrice*0.8);System.out.printf(Utils.YELLOW_BOLD+"6."+Utils.RESET+Utils.CYAN+" 2S (Rs.%.2f)\n",bPrice*0.5);System.out.println(Utils.YELLOW_BOLD+"0."+Utils.RESET+Utils.CYAN+" Back"+Utils.RESET);System.out.print(Utils.WHITE_BOLD+"Choice: "+Utils.RESET);try{int ch=sc.nextInt();sc.nextLine();switch(ch){case 1:sClass="AC First Class (1A)";cMult=2.5;break;case 2:sClass="Second AC (2A)";cMult=2.0;break;case 3:sClass="Third AC (3A)";cMult=1.5;break;case 4:sClass="Sleeper Class (SL)";cMult=1.0;break;case 5:sClass="Chair Car (CC)";cMult=0.8;break;case 6:sClass="Second Seater (2S)";cMult=0.5;break;case 0:System.out.println(Utils.YELLOW+"Cancelled."+Utils.RESET);Utils.pause(sc);return;default:System.out.println(Utils.RED+"Invalid."+Utils.RESET);Utils.pause(sc);}}catch(Exception e){System.out.println(Utils.RED+"Invalid."+Utils.RESET);sc.nextLine();Utils.pause(sc);}}if(sClass.isEmpty())return; double fPrice = bPrice*cMult;
         String selProv="N/A"; if(provs!=null&&!provs.isEmpty()){/*Provider selection*/Utils.printBanner("Select Train/Service");System.out.println(Utils.YELLOW_BOLD+"0."+Utils.RESET+Utils.CYAN+" Back"+Utils.RESET);for(int i=0;i<provs.size();i++)System.out.println(Utils.YELLOW_BOLD+(i+1)+"."+Utils.RESET+Utils.CYAN+" "+provs.get(i)+Utils.RESET);System.out.print(Utils.WHITE_BOLD+"Choice: "+Utils.RESET);selProv=null;while(selProv==null){try{int ch=sc.nextInt();sc.nextLine();if(ch==0){System.out.println(Utils.YELLOW+"Cancelled."+Utils.RESET);Utils.pause(sc);return;}if(ch>=1&&ch<=provs.size())selProv=provs.get(ch-1);else{System.out.println(Utils.RED+"Invalid."+Utils.RESET);System.out.print(Utils.WHITE_BOLD+"Choice: "+Utils.RESET);}}catch(Exception e){System.out.println(Utils.RED+"Invalid."+Utils.RESET);sc.nextLine();System.out.print(Utils.WHITE_BOLD+"Choice: "+Utils.RESET);}}}else{System.out.println(Utils.YELLOW+"No specific trains."+Utils.RESET);}if(selProv==null&&(provs!=null&&!provs.isEmpty()))return;
-        if(trains.isEmpty()){System.out.println(Utils.RED+"No trains."+Utils.RESET);Utils.pause(sc);return;} TrainBooking bmTrain=trains.get(0); bmTrain.book(sc,loggedInUser,sC,dC,fPrice,sClass,tDate,selProv); Utils.pause(sc);
+        if(trains.isEmpty()){System.out.println(Utils.RED+"No trains."+Utils.RESET);Utils.pause(sc);return;} TrainBooking bmTrain=trains.get(0); loadBookingsForDate(tDate); bmTrain.book(sc,loggedInUser,sC,dC,fPrice,sClass,tDate,selProv); noteBooking(tDate); Utils.pause(sc);
     }
 
     /** Handles Bus booking flow. */
@@ -304,7 +376,7 @@ public class BookingSystem {
         String tDate = Utils.getValidTravelDate(sc); if(tDate==null){System.out.println(Utils.YELLOW+"Cancelled."+Utils.RESET);Utils.pause(sc);return;}
         String sClass="Standard"; System.out.println("\n"+Utils.CYAN_BOLD+"Class:"+Utils.CYAN+" Standard"+Utils.RESET); System.out.printf(Utils.BLUE_BOLD+"Price: "+Utils.GREEN_BOLD+"Rs. %.2f"+Utils.RESET+"\n",rPrice);
         String selProv="N/A"; if(provs!=null&&!provs.isEmpty()){/*Provider selection*/Utils.printBanner("Select Bus Operator");System.out.println(Utils.YELLOW_BOLD+"0."+Utils.RESET+Utils.CYAN+" Back"+Utils.RESET);for(int i=0;i<provs.size();i++)System.out.println(Utils.YELLOW_BOLD+(i+1)+"."+Utils.RESET+Utils.CYAN+" "+provs.get(i)+Utils.RESET);System.out.print(Utils.WHITE_BOLD+"Choice: "+Utils.RESET);selProv=null;while(selProv==null){try{int ch=sc.nextInt();sc.nextLine();if(ch==0){System.out.println(Utils.YELLOW+"Cancelled."+Utils.RESET);Utils.pause(sc);return;}if(ch>=1&&ch<=provs.size())selProv=provs.get(ch-1);else{System.out.println(Utils.RED+"Invalid."+Utils.RESET);System.out.print(Utils.WHITE_BOLD+"Choice: "+Utils.RESET);}}catch(Exception e){System.out.println(Utils.RED+"Invalid."+Utils.RESET);sc.nextLine();System.out.print(Utils.WHITE_BOLD+"Choice: "+Utils.RESET);}}}else{System.out.println(Utils.YELLOW+"No specific operators."+Utils.RESET);}if(selProv==null&&(provs!=null&&!provs.isEmpty()))return;
-        if(buses.isEmpty()){System.out.println(Utils.RED+"No buses."+Utils.RESET);Utils.pause(sc);return;} BusBooking bmBus=buses.get(0); bmBus.book(sc,loggedInUser,sC,dC,rPrice,sClass,tDate,selProv); Utils.pause(sc);
+        if(buses.isEmpty()){System.out.println(Utils.RED+"No buses."+Utils.RESET);Utils.pause(sc);return;} BusBooking bmBus=buses.get(0); loadBookingsForDate(tDate); bmBus.book(sc,loggedInUser,sC,dC,rPrice,sClass,tDate,selProv); noteBooking(tDate); Utils.pause(sc);
     }
 
     /** Allows user to modify the travel date of an existing booking. */
@@ -312,6 +384,7 @@ public class BookingSystem {
         Utils.clearScreen(); Utils.printBanner("Modify Booking Travel Date");
         System.out.print(Utils.WHITE_BOLD + "Enter Booking ID to modify: " + Utils.RESET);
         String bookingIdInput = sc.nextLine().toUpperCase();
+        loadUserBookings();
 
         Object bookingToModify = null; // Will hold the actual Booking object
         String currentTravelDate = ""; String vehicleTypeLabel = "";
@@ -344,18 +417,36 @@ public class BookingSystem {
                 if (newDate == null || newDate.equalsIgnoreCase("cancel")) { System.out.println(Utils.YELLOW + "Modification cancelled." + Utils.RESET); }
                 else if (newDate.equals(currentTravelDate)) { System.out.println(Utils.YELLOW + "New date is same as current. No changes." + Utils.RESET); }
                 else {
-                    // Use reflection to call setTravelDate on the specific Booking object type
-                    bookingToModify.getClass().getMethod("setTravelDate", String.class).invoke(bookingToModify, newDate);
-                    System.out.println(Utils.GREEN_BOLD + "\nTravel date for Booking " + bookingIdInput + " updated to " + newDate + "." + Utils.RESET);
+                    boolean changesPartition = partitions != null && !BookingPartitions.partitionKey(currentTravelDate).equals(BookingPartitions.partitionKey(newDate));
+                    BookingRecord current = changesPartition ? StorageManager.findBookingRecord(bookingIdInput, planes, trains, buses) : null;
+                    if (changesPartition) loadBookingsForDate(newDate);
+                    // The seat moves with the booking, so the new date's trip must have it free
+                    if (!moveBooking(bookingManager, bookingIdInput, newDate)) {
+                        System.out.println(Utils.RED + "\nSeat " + seat.getSeatId() + " is already taken on " + newDate + ". Travel date not changed." + Utils.RESET);
+                    } else if (!(current != null ? BookingJournal.recordDateMove(current, newDate) // Moves to another month's partition
+                            : BookingJournal.recordDateChange(bookingIdInput, currentTravelDate, newDate))) {
+                        moveBooking(bookingManager, bookingIdInput, currentTravelDate); // Could not be saved: undo
+                        System.out.println(Utils.RED + "\nThe change could not be saved. Travel date not changed." + Utils.RESET);
+                    } else {
+                        if (current != null) noteBooking(newDate);
+                        System.out.println(Utils.GREEN_BOLD + "\nTravel date for Booking " + bookingIdInput + " updated to " + newDate + "." + Utils.RESET);
+                    }
                 }
             } catch (Exception e) { System.out.println(Utils.RED + "Error displaying/modifying booking: " + e.getMessage() + Utils.RESET); e.printStackTrace(); }
         } else { System.out.println(Utils.RED + "Booking ID '" + bookingIdInput + "' not found or not yours." + Utils.RESET); }
         Utils.pause(sc);
     }
 
+    /** Moves a booking of the given manager to another travel date, seat included (see PlaneBooking.moveBooking). */
+    private static boolean moveBooking(Object bookingManager, String bookingId, String newDate) {
+        return bookingManager instanceof PlaneBooking plane ? plane.moveBooking(bookingId, newDate)
+                : bookingManager instanceof TrainBooking train ? train.moveBooking(bookingId, newDate)
+                : ((BusBooking) bookingManager).moveBooking(bookingId, newDate);
+    }
+
     /** Displays current user's bookings. */
     private void viewBookings(Scanner sc) { /* ... (as before, styled) ... */
-        Utils.clearScreen(); Utils.printBanner("Your Bookings for " + loggedInUser); boolean found=false;
+        Utils.clearScreen(); loadUserBookings(); Utils.printBanner("Your Bookings for " + loggedInUser); boolean found=false;
         for(PlaneBooking p:planes) if(p.displayUserBookings(loggedInUser)) found=true;
         for(TrainBooking t:trains) if(t.displayUserBookings(loggedInUser)) found=true;
         for(BusBooking b:buses) if(b.displayUserBookings(loggedInUser)) found=true;
@@ -364,13 +455,21 @@ public class BookingSystem {
 
     /** Handles cancellation of user's own booking. */
     private void cancelBooking(Scanner sc) { /* ... (as before, styled) ... */
-        Utils.clearScreen(); Utils.printBanner("Cancel Booking"); System.out.print(Utils.WHITE_BOLD + "Enter Booking ID: " + Utils.RESET); String bId = sc.nextLine().toUpperCase(); boolean done = false;
-        if(bId.startsWith("P")){for(PlaneBooking p:planes)if(p.cancelBooking(bId,loggedInUser)){done=true;break;}}
-        else if(bId.startsWith("T")){for(TrainBooking t:trains)if(t.cancelBooking(bId,loggedInUser)){done=true;break;}}
-        else if(bId.startsWith("B")){for(BusBooking b:buses)if(b.cancelBooking(bId,loggedInUser)){done=true;break;}}
+        Utils.clearScreen(); Utils.printBanner("Cancel Booking"); System.out.print(Utils.WHITE_BOLD + "Enter Booking ID or PNR: " + Utils.RESET); String bId = sc.nextLine().trim().toUpperCase(); boolean done = false; loadUserBookings();
+        if(GroupBooking.isPnr(bId)){List<String> ids=PassengerManifest.bookingsOf(bId); done=ids!=null&&cancelOwnBookings(ids);} // Every seat booked under the PNR, in one journal record
+        else if(bId.startsWith("P")||bId.startsWith("T")||bId.startsWith("B")){done=cancelOwnBookings(List.of(bId));}
         else{System.out.println(Utils.RED+"Invalid ID format."+Utils.RESET);Utils.pause(sc);return;}
         if(done){System.out.println(Utils.GREEN_BOLD+"\nBooking "+bId+" cancelled."+Utils.RESET);System.out.println(Utils.GREY+"(Changes saved)"+Utils.RESET);}
         else{System.out.println(Utils.RED+"\nBooking "+bId+" not found or not yours."+Utils.RESET);} Utils.pause(sc);
     }
 
+    /** Cancels bookings of the logged-in user (one ID, or the seats of a PNR, all of one type) through the manager for their type. */
+    private boolean cancelOwnBookings(List<String> bIds) {
+        String bId=bIds.get(0);
+        if(bId.startsWith("P")){for(PlaneBooking p:planes)if(p.cancelBookings(bIds,loggedInUser))return true;}
+        else if(bId.startsWith("T")){for(TrainBooking t:trains)if(t.cancelBookings(bIds,loggedInUser))return true;}
+        else if(bId.startsWith("B")){for(BusBooking b:buses)if(b.cancelBookings(bIds,loggedInUser))return true;}
+        return false;
+    }
+
 } // End of BookingSystem class
\ No newline at end of file
@@ -0,0 +1,357 @@
+package TicketBookingSystem;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact, read-only form of the route data, built once after the route files are parsed.
+ * Cities are interned to dense int IDs in alphabetical order; every route is an edge in
+ * compressed-sparse-row arrays. Row (city * MODES.length + mode) holds that city's routes for
+ * one mode, sorted by destination, so a city's routes for all modes are one contiguous range.
+ * Edge attributes live in parallel primitive arrays; providers and ETA labels are indexes into
+ * shared string pools, as the same names repeat on almost every route.
+ * The arrays can be written to and read back from the binary route catalog (see RouteCatalog).
+ */
+final class CompiledRoutes {
+    static final String[] MODES = {"Plane", "Train", "Bus"};
+    static final String[] LOCATION_TYPES = {"Airport", "Train Station", "Bus Station"};
+
+    private final String[] cityKeys;   // UPPERCASE, sorted; index is the city ID
+    private final String[] cityNames;  // Display names
+    private final String[][] primaryNames;     // [mode][city], null if the mode does not serve it
+    private final String[][][] alternateNames; // [mode][city]
+
+    private final int[] rowStart;      // CSR offsets, length cities * MODES + 1
+    private final int[] sources;       // Edge arrays, indexed by edge ID
+    private final int[] targets;
+    private final int[] distances;     // -1 for NoBus / NoTrain markers
+    private final int[] etaMinutes;    // -1 if not parseable
+    private final int[] etaLabels;     // Index into etaPool
+    private final int[] providerStart; // Range into providerRefs, length edges + 1
+    private final int[] providerRefs;  // Indexes into providerPool
+    private final String[] etaPool;
+    private final String[] providerPool;
+
+    private final int[] inStart;       // Reverse CSR: edges arriving at each city
+    private final int[] inEdges;
+
+    private CompiledRoutes(String[] cityKeys, String[] cityNames, String[][] primaryNames, String[][][] alternateNames,
+                           int[] rowStart, int[] sources, int[] targets, int[] distances, int[] etaMinutes, int[] etaLabels,
+                           int[] providerStart, int[] providerRefs, String[] etaPool, String[] providerPool) {
+        this.cityKeys = cityKeys;
+        this.cityNames = cityNames;
+        this.primaryNames = primaryNames;
+        this.alternateNames = alternateNames;
+        this.rowStart = rowStart;
+        this.sources = sources;
+        this.targets = targets;
+        this.distances = distances;
+        this.etaMinutes = etaMinutes;
+        this.etaLabels = etaLabels;
+        this.providerStart = providerStart;
+        this.providerRefs = providerRefs;
+        this.etaPool = etaPool;
+        this.providerPool = providerPool;
+
+        // Counting sort of edges by target gives the reverse rows
+        inStart = new int[cityKeys.length + 1];
+        for (int target : targets) inStart[target + 1]++;
+        for (int c = 0; c < cityKeys.length; c++) inStart[c + 1] += inStart[c];
+        inEdges = new int[targets.length];
+        int[] fill = Arrays.copyOf(inStart, cityKeys.length);
+        for (int e = 0; e < targets.length; e++) inEdges[fill[targets[e]]++] = e;
+    }
+
+    /**
+     * Compiles parsed location maps (as produced by RouteDataManager) into CSR form.
+     * @param networks One map per entry of MODES, keyed by UPPERCASE city.
+     */
+    static CompiledRoutes compile(List<Map<String, LocationInfo>> networks) {
+        // Intern every city that appears as an origin or a destination, sorted by key
+        TreeMap<String, String> names = new TreeMap<>();
+        for (Map<String, LocationInfo> network : networks) {
+            for (LocationInfo info : network.values()) {
+                names.putIfAbsent(info.city().trim().toUpperCase(), info.city().trim());
+                if (info.routes() == null) continue;
+                for (RouteDetail route : info.routes().values()) {
+                    names.putIfAbsent(route.destinationCity().trim().toUpperCase(), route.destinationCity().trim());
+                }
+            }
+        }
+        String[] keys = names.keySet().toArray(new String[0]);
+        String[] display = names.values().toArray(new String[0]);
+        int cities = keys.length, modes = MODES.length;
+
+        String[][] primary = new String[modes][cities];
+        String[][][] alternates = new String[modes][cities][];
+        int edgeCount = 0;
+        for (Map<String, LocationInfo> network : networks) {
+            for (LocationInfo info : network.values()) edgeCount += info.routes() == null ? 0 : info.routes().size();
+        }
+
+        int[] rowStart = new int[cities * modes + 1];
+        int[] sources = new int[edgeCount], targets = new int[edgeCount], distances = new int[edgeCount];
+        int[] etaMinutes = new int[edgeCount], etaLabels = new int[edgeCount], providerStart = new int[edgeCount + 1];
+        List<Integer> providerRefs = new ArrayList<>();
+        Map<String, Integer> etaIds = new HashMap<>(), providerIds = new HashMap<>();
+        List<String> etaPool = new ArrayList<>(), providerPool = new ArrayList<>();
+
+        int edge = 0;
+        for (int city = 0; city < cities; city++) {
+            for (int mode = 0; mode < modes; mode++) {
+                rowStart[city * modes + mode] = edge;
+                LocationInfo info = networks.get(mode).get(keys[city]);
+                if (info == null) continue;
+                primary[mode][city] = info.primaryName();
+                alternates[mode][city] = info.alternateNames().toArray(new String[0]);
+                if (info.routes() == null) continue;
+                List<RouteDetail> routes = new ArrayList<>(info.routes().values());
+                routes.sort((r1, r2) -> r1.destinationCity().compareToIgnoreCase(r2.destinationCity()));
+                for (RouteDetail route : routes) {
+                    sources[edge] = city;
+                    targets[edge] = Arrays.binarySearch(keys, route.destinationCity().trim().toUpperCase());
+                    distances[edge] = route.distance();
+                    etaMinutes[edge] = route.etaMinutes();
+                    etaLabels[edge] = intern(route.eta(), etaIds, etaPool);
+                    providerStart[edge] = providerRefs.size();
+                    for (String provider : route.providers()) providerRefs.add(intern(provider, providerIds, providerPool));
+                    edge++;
+                }
+            }
+        }
+        rowStart[cities * modes] = edge;
+        providerStart[edge] = providerRefs.size();
+        int[] refs = new int[providerRefs.size()];
+        for (int i = 0; i < refs.length; i++) refs[i] = providerRefs.get(i);
+
+        return new CompiledRoutes(keys, display, primary, alternates, rowStart,
+                Arrays.copyOf(sources, edge), Arrays.copyOf(targets, edge), Arrays.copyOf(distances, edge),
+                Arrays.copyOf(etaMinutes, edge), Arrays.copyOf(etaLabels, edge), Arrays.copyOf(providerStart, edge + 1),
+                refs, etaPool.toArray(new String[0]), providerPool.toArray(new String[0]));
+    }
+
+    private static int intern(String value, Map<String, Integer> ids, List<String> pool) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = pool.size();
+            ids.put(value, id);
+            pool.add(value);
+        }
+        return id;
+    }
+
+    // --- Catalog encoding ---
+
+    /** Writes the compiled form: counts, string tables, then the int arrays. */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(cityKeys.length);
+        out.writeInt(targets.length);
+        for (String name : cityNames) writeString(out, name);
+        for (int mode = 0; mode < MODES.length; mode++) {
+            for (int city = 0; city < cityKeys.length; city++) {
+                writeString(out, primaryNames[mode][city]);
+                String[] alternates = alternateNames[mode][city];
+                out.writeInt(alternates == null ? -1 : alternates.length);
+                if (alternates != null) for (String name : alternates) writeString(out, name);
+            }
+        }
+        writeStrings(out, etaPool);
+        writeStrings(out, providerPool);
+        writeInts(out, rowStart);
+        writeInts(out, sources);
+        writeInts(out, targets);
+        writeInts(out, distances);
+        writeInts(out, etaMinutes);
+        writeInts(out, etaLabels);
+        writeInts(out, providerStart);
+        writeInts(out, providerRefs);
+    }
+
+    /**
+     * Reads the form written by writeTo; the int arrays are bulk-copied out of the buffer.
+     * @throws RuntimeException (BufferUnderflow, NegativeArraySize...) if the data is malformed.
+     */
+    static CompiledRoutes readFrom(ByteBuffer in) {
+        int cities = in.getInt();
+        int edges = in.getInt();
+        String[] names = new String[cities], keys = new String[cities];
+        for (int city = 0; city < cities; city++) {
+            names[city] = readString(in);
+            keys[city] = names[city].toUpperCase();
+        }
+        String[][] primary = new String[MODES.length][cities];
+        String[][][] alternates = new String[MODES.length][cities][];
+        for (int mode = 0; mode < MODES.length; mode++) {
+            for (int city = 0; city < cities; city++) {
+                primary[mode][city] = readString(in);
+                int count = in.getInt();
+                if (count < 0) continue;
+                alternates[mode][city] = new String[count];
+                for (int i = 0; i < count; i++) alternates[mode][city][i] = readString(in);
+            }
+        }
+        String[] etaPool = readStrings(in);
+        String[] providerPool = readStrings(in);
+        int[] rowStart = readInts(in), sources = readInts(in), targets = readInts(in), distances = readInts(in);
+        int[] etaMinutes = readInts(in), etaLabels = readInts(in), providerStart = readInts(in), providerRefs = readInts(in);
+        if (rowStart.length != cities * MODES.length + 1 || targets.length != edges || providerStart.length != edges + 1) {
+            throw new IllegalStateException("Inconsistent route catalog sections");
+        }
+        return new CompiledRoutes(keys, names, primary, alternates, rowStart, sources, targets, distances,
+                etaMinutes, etaLabels, providerStart, providerRefs, etaPool, providerPool);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) { out.writeInt(-1); return; }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) writeString(out, value);
+    }
+
+    private static String[] readStrings(ByteBuffer in) {
+        String[] values = new String[in.getInt()];
+        for (int i = 0; i < values.length; i++) values[i] = readString(in);
+        return values;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    private static int[] readInts(ByteBuffer in) {
+        int[] values = new int[in.getInt()];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    // --- Cities ---
+
+    int cityCount() { return cityKeys.length; }
+
+    /** Returns the ID of a city (case-insensitive), or -1 if it appears in no route file. */
+    int cityId(String city) {
+        int id = Arrays.binarySearch(cityKeys, city.trim().toUpperCase());
+        return id < 0 ? -1 : id;
+    }
+
+    String cityName(int city) { return cityNames[city]; }
+
+    /** Returns true if the city has a location (airport, station) of this mode. */
+    boolean serves(int city, int mode) { return primaryNames[mode][city] != null; }
+
+    String primaryName(int city, int mode) { return primaryNames[mode][city]; }
+
+    List<String> alternateNames(int city, int mode) {
+        String[] names = alternateNames[mode][city];
+        return names == null ? Collections.emptyList() : Arrays.asList(names);
+    }
+
+    // --- Edges ---
+
+    int edgeCount() { return targets.length; }
+
+    /** First edge of a city's routes for one mode. */
+    int firstEdge(int city, int mode) { return rowStart[city * MODES.length + mode]; }
+
+    /** One past the last edge of a city's routes for one mode. */
+    int endEdge(int city, int mode) { return rowStart[city * MODES.length + mode + 1]; }
+
+    /** First edge of a city's routes over all modes. */
+    int firstEdge(int city) { return rowStart[city * MODES.length]; }
+
+    /** One past the last edge of a city's routes over all modes. */
+    int endEdge(int city) { return rowStart[(city + 1) * MODES.length]; }
+
+    int firstIncoming(int city) { return inStart[city]; }
+
+    int endIncoming(int city) { return inStart[city + 1]; }
+
+    /** Edge ID of the i-th incoming edge (between firstIncoming and endIncoming). */
+    int incomingEdge(int i) { return inEdges[i]; }
+
+    int source(int edge) { return sources[edge]; }
+
+    int target(int edge) { return targets[edge]; }
+
+    int distance(int edge) { return distances[edge]; }
+
+    int etaMinutes(int edge) { return etaMinutes[edge]; }
+
+    String eta(int edge) { return etaPool[etaLabels[edge]]; }
+
+    /** Mode index of an edge, found from its row. */
+    int mode(int edge) {
+        int row = Arrays.binarySearch(rowStart, edge);
+        if (row < 0) {
+            row = -row - 2;
+        } else {
+            while (row + 1 < rowStart.length && rowStart[row + 1] == edge) row++; // Skip empty rows
+        }
+        return row % MODES.length;
+    }
+
+    /** Returns true unless the edge is a NoBus / NoTrain marker. */
+    boolean available(int edge) { return distances[edge] >= 0; }
+
+    List<String> providers(int edge) {
+        int from = providerStart[edge], to = providerStart[edge + 1];
+        List<String> list = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) list.add(providerPool[providerRefs[i]]);
+        return list;
+    }
+
+    /** Number of distinct provider names; provider IDs are indexes below this. */
+    int providerCount() { return providerPool.length; }
+
+    String providerName(int provider) { return providerPool[provider]; }
+
+    /** First position of an edge's providers (read with providerAt). */
+    int firstProvider(int edge) { return providerStart[edge]; }
+
+    /** One past the last position of an edge's providers. */
+    int endProvider(int edge) { return providerStart[edge + 1]; }
+
+    /** Provider ID at a position between firstProvider and endProvider. */
+    int providerAt(int i) { return providerRefs[i]; }
+
+    /** Materialises an edge as the RouteDetail used by the booking flow. */
+    RouteDetail routeDetail(int edge) {
+        return new RouteDetail(cityNames[targets[edge]], distances[edge], eta(edge), etaMinutes[edge], providers(edge));
+    }
+
+    /** Rebuilds the map view of one mode (city key to LocationInfo) for callers that still want it. */
+    Map<String, LocationInfo> toLocationMap(int mode) {
+        Map<String, LocationInfo> map = new HashMap<>();
+        for (int city = 0; city < cityKeys.length; city++) {
+            if (!serves(city, mode)) continue;
+            Map<String, RouteDetail> routes = new HashMap<>();
+            for (int e = firstEdge(city, mode); e < endEdge(city, mode); e++) routes.put(cityKeys[targets[e]], routeDetail(e));
+            map.put(cityKeys[city], new LocationInfo(cityNames[city], primaryNames[mode][city], alternateNames(city, mode), routes, LOCATION_TYPES[mode]));
+        }
+        return map;
+    }
+}
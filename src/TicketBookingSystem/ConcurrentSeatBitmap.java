@@ -0,0 +1,100 @@
+package TicketBookingSystem;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free seat state of one trip: 64 seats per word of an AtomicLongArray, indexed like SeatBitmap.
+ * Every change is a compare-and-set on the word holding the seat, so concurrent sessions can never
+ * both win the same seat and none of them blocks another.
+ */
+final class ConcurrentSeatBitmap {
+    private final SeatLayout layout;
+    private final AtomicLongArray words;
+
+    ConcurrentSeatBitmap(SeatLayout layout) {
+        this.layout = layout;
+        this.words = new AtomicLongArray((layout.seatCount() + 63) >>> 6);
+    }
+
+    SeatLayout layout() { return layout; }
+
+    boolean isReserved(int index) {
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /** @return true if this call took the seat; false if it was already taken. */
+    boolean tryReserve(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & bit) != 0) return false;
+            if (words.compareAndSet(word, current, current | bit)) return true;
+        }
+    }
+
+    /** @return true if this call freed the seat; false if it was already free. */
+    boolean release(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & bit) == 0) return false;
+            if (words.compareAndSet(word, current, current & ~bit)) return true;
+        }
+    }
+
+    /**
+     * Takes every seat in mask (bit i of mask[w] = seat w * 64 + i), or none of them.
+     * Each word is taken with one compare-and-set; if a later word has a seat already taken, the
+     * words taken so far are released again.
+     * @return true if all the seats were free and are now taken by this call.
+     */
+    boolean tryReserveAll(long[] mask) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] != 0 && !tryReserveWord(w, mask[w])) {
+                for (int undo = 0; undo < w; undo++) if (mask[undo] != 0) releaseWord(undo, mask[undo]);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Frees every seat in mask; seats already free are left alone. */
+    void releaseAll(long[] mask) {
+        for (int w = 0; w < mask.length; w++) if (mask[w] != 0) releaseWord(w, mask[w]);
+    }
+
+    private boolean tryReserveWord(int word, long bits) {
+        while (true) {
+            long current = words.get(word);
+            if ((current & bits) != 0) return false;
+            if (words.compareAndSet(word, current, current | bits)) return true;
+        }
+    }
+
+    private void releaseWord(int word, long bits) {
+        while (true) {
+            long current = words.get(word);
+            if (words.compareAndSet(word, current, current & ~bits)) return;
+        }
+    }
+
+    int reservedCount() {
+        int count = 0;
+        for (int w = 0; w < words.length(); w++) count += Long.bitCount(words.get(w));
+        return count;
+    }
+
+    boolean isEmpty() {
+        for (int w = 0; w < words.length(); w++) if (words.get(w) != 0) return false;
+        return true;
+    }
+
+    /** A plain copy for display; each word is read atomically, the words one after another. */
+    SeatBitmap snapshot() {
+        long[] copy = new long[words.length()];
+        for (int w = 0; w < copy.length; w++) copy[w] = words.get(w);
+        return new SeatBitmap(layout, copy);
+    }
+}
@@ -0,0 +1,179 @@
+package TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.Consumer;
+
+/**
+ * Multi-passenger booking: several seats on one trip under a single PNR, shared by the three booking
+ * managers. The seats are held all-or-nothing (a seat lost to another session gives back the ones
+ * already held), the passengers are entered one per seat, the holds are confirmed together
+ * (SeatHolds.confirmAll) and then one payment covers the party, so a failure at any step books nothing. The party's
+ * bookings are journaled as one record and the passengers stored in one PassengerManifest line.
+ * Each seat is still an ordinary booking with its own ID, so viewing, date changes and archiving work
+ * as before; the PNR is "G" + the first booking ID (e.g. GP12) and cancels the whole party, again in one record.
+ */
+final class GroupBooking {
+    static final int MAX_PARTY = 9;
+
+    /**
+     * Adds the manager's booking for one confirmed seat (seat state, booking ID, booking map).
+     * @return The record to journal.
+     */
+    interface SeatBooker {
+        BookingRecord book(Seat seat);
+    }
+
+    private GroupBooking() {}
+
+    static String pnrOf(String leadBookingId) { return "G" + leadBookingId.toUpperCase(); }
+
+    static boolean isPnr(String id) { return id.startsWith("G"); }
+
+    /**
+     * Asks how many passengers to book, at most MAX_PARTY and the free seats in the map.
+     * @return The party size, 1 without asking if only one seat could be booked, or 0 to go back.
+     */
+    static int promptPartySize(Scanner sc, SeatBitmap seats) {
+        int max = Math.min(MAX_PARTY, seats.layout().seatCount() - seats.reservedCount());
+        if (max <= 1) return 1;
+        while (true) {
+            System.out.print(Utils.WHITE_BOLD + "Number of passengers (1-" + max + ", Enter for 1, 0 to go back): " + Utils.RESET);
+            String input = sc.nextLine().trim();
+            if (input.isEmpty()) return 1;
+            try {
+                int party = Integer.parseInt(input);
+                if (party >= 0 && party <= max) return party;
+            } catch (NumberFormatException e) { /* Reported below */ }
+            System.out.println(Utils.RED + "Enter a number from 0 to " + max + "." + Utils.RESET);
+        }
+    }
+
+    /**
+     * Runs the booking flow for a party on one trip.
+     * @param seats The session's seat map of the trip (updated as seats are taken).
+     * @param price Price per seat.
+     * @param unbook Removes one of those bookings and frees its seat, if the bookings cannot be journaled.
+     * @param booker Creates the manager's booking for each seat once everything is confirmed.
+     * @return The PNR, or null if nothing was booked.
+     */
+    static String book(Scanner sc, SeatHolds holds, TripKey trip, SeatBitmap seats, String mode, String seatClass, double price, int party, Consumer<String> unbook, SeatBooker booker) {
+        List<SeatHolds.Hold> held = chooseSeats(sc, holds, trip, seats, seatClass, party);
+        if (held == null) return null;
+        StringBuilder seatIds = new StringBuilder();
+        for (SeatHolds.Hold hold : held) seatIds.append(seatIds.length() > 0 ? ", " : "").append(hold.getSeatId());
+        System.out.printf(Utils.BLUE + "\nSelected Seats: " + Utils.MAGENTA_BOLD + "%s" + Utils.BLUE + ", Price: Rs. " + Utils.GREEN_BOLD + "%.2f" + Utils.BLUE + " x %d" + Utils.RESET + "\n", seatIds, price, party);
+        System.out.println(Utils.GREY + "(Seats held for you for " + holds.ttlLabel() + " while you complete the booking)" + Utils.RESET);
+
+        List<Passenger> passengers = new ArrayList<>();
+        for (SeatHolds.Hold hold : held) {
+            System.out.println("\n" + Utils.CYAN_BOLD + "Passenger " + (passengers.size() + 1) + " of " + party + " (Seat " + hold.getSeatId() + ")" + Utils.RESET);
+            String name = ""; while (name.isEmpty()) { System.out.print(Utils.WHITE_BOLD + "Passenger Name: " + Utils.RESET); name = sc.nextLine().trim(); if (name.isEmpty()) System.out.println(Utils.RED + "Name cannot be empty." + Utils.RESET); }
+            int age = Utils.getValidAge(sc);
+            String gender = Utils.getValidGender(sc);
+            String email = Utils.getValidEmail(sc);
+            if (email == null) { holds.releaseAll(held); System.out.println(Utils.YELLOW + "\nBooking cancelled (email step)." + Utils.RESET); return null; }
+            passengers.add(new Passenger(name, age, gender, email, new Seat(hold.row, hold.column, seatClass, mode, price)));
+        }
+
+        if (!holds.confirmAll(held)) { // Before charging, so an expired hold never costs the user anything
+            System.out.println(Utils.RED_BOLD + "\nThe hold on some of the seats expired; no seats were booked and nothing was charged. Please book again." + Utils.RESET);
+            return null;
+        }
+        double total = price * party;
+        if (!Utils.simulatePayment(sc, total)) {
+            holds.releaseAll(held);
+            System.out.println(Utils.RED_BOLD + "\nBooking Failed (Payment Cancelled/Failed)." + Utils.RESET);
+            return null;
+        }
+
+        List<BookingRecord> records = new ArrayList<>();
+        List<String> bookingIds = new ArrayList<>();
+        for (Passenger passenger : passengers) {
+            BookingRecord record = booker.book(passenger.getBookedSeat());
+            records.add(record);
+            bookingIds.add(record.bookingId());
+        }
+        if (!BookingJournal.recordBookings(records)) {
+            bookingIds.forEach(unbook);
+            System.out.printf(Utils.RED_BOLD + "\nThe booking could not be saved, so no seats were booked. Rs. %.2f has been refunded." + Utils.RESET + "\n", total);
+            return null;
+        }
+        String pnr = pnrOf(bookingIds.get(0));
+        PassengerManifest.record(pnr, bookingIds, passengers);
+        printConfirmation(pnr, records.get(0), bookingIds, passengers, total);
+        return pnr;
+    }
+
+    /**
+     * Lets the user type the party's seats or have them assigned, and holds them.
+     * @return The holds in the order entered, or null if the user went back or the trip is too full.
+     */
+    private static List<SeatHolds.Hold> chooseSeats(Scanner sc, SeatHolds holds, TripKey trip, SeatBitmap seats, String seatClass, int party) {
+        SeatLayout layout = seats.layout();
+        while (true) {
+            System.out.println("\n" + Utils.YELLOW + "Example: To book Row 2 Seats C and D, enter: 2 C, 2 D (or 'auto' to have the best free seats picked)" + Utils.RESET);
+            System.out.print(Utils.WHITE_BOLD + "Enter " + party + " seats (or 'auto' / 'back'): " + Utils.RESET);
+            String inputLine = sc.nextLine().trim();
+            if (inputLine.equalsIgnoreCase("back")) { System.out.println(Utils.YELLOW + "Seat selection cancelled." + Utils.RESET); return null; }
+            if (inputLine.equalsIgnoreCase("auto")) {
+                List<SeatHolds.Hold> picked = SeatAssigner.holdBest(holds, trip, seats, party, SeatAssigner.promptPreferences(sc, party));
+                if (picked == null) { System.out.println(Utils.RED + "Fewer than " + party + " free seats left in " + seatClass + "." + Utils.RESET); return null; }
+                StringBuilder assigned = new StringBuilder();
+                for (SeatHolds.Hold hold : picked) assigned.append(assigned.length() > 0 ? ", " : "").append(hold.getSeatId());
+                System.out.println(Utils.GREEN + "Assigned seats " + assigned + "." + Utils.RESET);
+                return picked;
+            }
+
+            String[] entries = inputLine.split(",");
+            if (entries.length != party) { System.out.println(Utils.RED + "Enter exactly " + party + " seats, separated by commas." + Utils.RESET); continue; }
+            int[] indices = new int[party];
+            String error = null;
+            for (int i = 0; i < party && error == null; i++) {
+                String[] parts = entries[i].trim().split("\\s+");
+                if (parts.length != 2) { error = "Invalid format (e.g., 2 C, 2 D)."; break; }
+                try {
+                    int row = Integer.parseInt(parts[0]); String col = parts[1].toUpperCase();
+                    indices[i] = layout.index(row, col);
+                    if (indices[i] < 0) error = "Seat " + row + col + " not found in " + seatClass + ".";
+                    else if (seats.isReserved(indices[i])) error = "Seat " + row + col + " is reserved.";
+                    for (int j = 0; j < i && error == null; j++) if (indices[j] == indices[i]) error = "Seat " + row + col + " is entered twice.";
+                } catch (NumberFormatException e) { error = "Invalid row format."; }
+            }
+            if (error != null) { System.out.println(Utils.RED + error + Utils.RESET); continue; }
+
+            List<SeatHolds.Hold> held = new ArrayList<>();
+            for (int index : indices) {
+                SeatHolds.Hold hold = holds.place(trip, layout.rowOf(index), layout.columnOf(index));
+                if (hold == null) {
+                    holds.releaseAll(held); // All or nothing
+                    seats.reserve(index);
+                    System.out.println(Utils.RED + "Seat " + layout.seatId(index) + " was just taken by another booking." + Utils.RESET);
+                    held = null;
+                    break;
+                }
+                held.add(hold);
+            }
+            if (held != null) return held;
+        }
+    }
+
+    private static void printConfirmation(String pnr, BookingRecord trip, List<String> bookingIds, List<Passenger> passengers, double total) {
+        System.out.println("\n" + Utils.GREEN_BOLD + "================ BOOKING CONFIRMED ================" + Utils.RESET);
+        System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.YELLOW_BOLD + "%s\n" + Utils.RESET, "PNR", pnr);
+        System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.CYAN + "%s\n" + Utils.RESET, "Service", trip.provider());
+        System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.CYAN + "%s -> %s\n" + Utils.RESET, "Route", trip.startCity(), trip.destCity());
+        System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.CYAN + "%s\n" + Utils.RESET, "Class", trip.seatClass());
+        System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.CYAN + "%s\n" + Utils.RESET, "Travel Date", trip.travelDate());
+        System.out.printf(Utils.BLUE_BOLD + "%-10s | %-6s | %-20s | %-4s | %s\n" + Utils.RESET, "Booking ID", "Seat", "Passenger", "Age", "Gender");
+        for (int i = 0; i < passengers.size(); i++) {
+            Passenger passenger = passengers.get(i);
+            System.out.printf(Utils.YELLOW_BOLD + "%-10s" + Utils.RESET + " | " + Utils.YELLOW_BOLD + "%-6s" + Utils.RESET + " | " + Utils.MAGENTA + "%-20.20s" + Utils.RESET + " | " + Utils.MAGENTA + "%-4d" + Utils.RESET + " | " + Utils.MAGENTA + "%s\n" + Utils.RESET,
+                    bookingIds.get(i), passenger.getBookedSeat().getSeatId(), passenger.getName(), passenger.getAge(), passenger.getGender());
+        }
+        System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.GREEN_BOLD + "Rs. %.2f\n" + Utils.RESET, "Amount Paid", total);
+        System.out.println(Utils.GREY + "(Cancel the PNR to cancel every seat, or a booking ID for one passenger)" + Utils.RESET);
+        System.out.println(Utils.GREEN_BOLD + "===============================================" + Utils.RESET);
+    }
+}
@@ -0,0 +1,118 @@
+package TicketBookingSystem;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.Scanner;
+
+/**
+ * Booking a party of five as one multi-passenger booking (GroupBooking) versus five sequential single
+ * bookings, through the real flow: PlaneBooking.book driven by a scripted Scanner, with seats picked by
+ * 'auto', the holds, payment, BookingJournal and PassengerManifest as in the application.
+ * sequential - per passenger: one PlaneBooking.book of a single seat (one journal write, one manifest line);
+ * group      - per party: one PlaneBooking.book of the whole party (one journal record, one manifest line).
+ * Each session has its own BookingSystem and books trips of its own, moving to the next day when a trip is
+ * full; the journal and manifest are shared, so concurrent sessions share their fsyncs.
+ * The payment delay is turned off unless -Dpayment.delayMillis is given. The benchmark writes
+ * bookings.journal and passengers.dat in the working directory (it refuses to run if they exist)
+ * and deletes them after each run.
+ * Run with: java TicketBookingSystem.GroupBookingBenchmark [threads] [millis] [party]
+ */
+public class GroupBookingBenchmark {
+    private static final String PAYMENT = "3\nbench@upi\n"; // UPI
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+
+    /** One booking session: its own BookingSystem and plane manager. */
+    private static final class Session {
+        final BookingSystem bookingSystem = new BookingSystem(new RouteDataManager(false));
+        final PlaneBooking manager = bookingSystem.getPlanes().get(0);
+        int day;
+
+        /** Travel date of a trip with room for the party (and always two seats, so the party size is asked). */
+        String travelDate(int party) {
+            while (true) {
+                String travelDate = Utils.formatTravelDate(FIRST_DAY.plusDays(day));
+                TripKey trip = new TripKey("Plane", "BenchAir", "Delhi", "Mumbai", travelDate, "Economy");
+                if (bookingSystem.getSeatInventory().seatMap(trip).layout().seatCount() - bookingSystem.getSeatInventory().reservedCount(trip) >= Math.max(2, party)) return travelDate;
+                day++;
+            }
+        }
+
+        void book(String script, int party) {
+            manager.book(new Scanner(script), "bench", "Delhi", "Mumbai", 4500, "Economy", travelDate(party), "BenchAir");
+        }
+    }
+
+    private interface Booker { void book(Session session, int party); }
+
+    private static String passengers(int party) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 1; i <= party; i++) lines.append("Bench Passenger ").append(i).append("\n35\nFemale\nbench@example.com\n");
+        return lines.toString();
+    }
+
+    private static void sequential(Session session, int party) {
+        String script = "\nauto\n\n" + passengers(1) + PAYMENT; // Party of one, any seat
+        for (int i = 0; i < party; i++) session.book(script, 1);
+    }
+
+    private static void group(Session session, int party) {
+        session.book(party + "\nauto\nt\n" + passengers(party) + PAYMENT, party); // Seats together
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        int party = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        if (new File(BookingJournal.JOURNAL_FILE).exists() || new File(PassengerManifest.MANIFEST_FILE).exists()) {
+            System.err.println(Utils.RED_BOLD + "Run the benchmark in a directory without " + BookingJournal.JOURNAL_FILE + " or " + PassengerManifest.MANIFEST_FILE + "; it would overwrite them." + Utils.RESET);
+            System.exit(1);
+        }
+        if (System.getProperty("payment.delayMillis") == null) System.setProperty("payment.delayMillis", "0");
+        System.out.println(Utils.CYAN_BOLD + "Group booking benchmark: parties of " + party + ", " + millis + " ms per run" + Utils.RESET);
+
+        String[] names = {"sequential x" + party, "group of " + party};
+        Booker[] bookers = {GroupBookingBenchmark::sequential, GroupBookingBenchmark::group};
+        for (int i = 0; i < names.length; i++) run(names[i], bookers[i], 1, millis / 4, party, false); // Warm-up
+        for (int sessions : new int[]{1, threads}) {
+            System.out.println(Utils.BLUE_BOLD + "\n" + sessions + " session(s):" + Utils.RESET);
+            for (int i = 0; i < names.length; i++) run(names[i], bookers[i], sessions, millis, party, true);
+        }
+    }
+
+    private static void run(String name, Booker booker, int sessions, long millis, int party, boolean print) throws Exception {
+        Session[] running = new Session[sessions];
+        for (int t = 0; t < sessions; t++) running[t] = new Session();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // The booking screens
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        Thread[] workers = new Thread[sessions];
+        long began = System.nanoTime();
+        for (int t = 0; t < sessions; t++) {
+            Session session = running[t];
+            workers[t] = new Thread(() -> { while (System.nanoTime() < deadline) booker.book(session, party); });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        GroupCommitWriter.Stats journalStats = BookingJournal.getCommitStats();
+        BookingJournal.close();
+        PassengerManifest.close();
+        System.setOut(console);
+        File journal = new File(BookingJournal.JOURNAL_FILE), manifest = new File(PassengerManifest.MANIFEST_FILE);
+        long bytes = journal.length() + manifest.length(), passengers = 0;
+        journal.delete();
+        manifest.delete();
+        for (Session session : running) {
+            passengers += session.manager.getBookings().size();
+            session.bookingSystem.getSeatHolds().close();
+        }
+        if (!print) return;
+        long parties = Math.max(1, passengers / party);
+        System.out.printf("  %-15s %9.0f passengers/s %8.3f ms/party %6.1f journal fsyncs/party %6.0f bytes/party%n", name,
+                passengers / seconds, sessions * seconds * 1000 / parties,
+                journalStats == null ? 0 : (double) journalStats.batches() / parties, (double) bytes / parties);
+    }
+}
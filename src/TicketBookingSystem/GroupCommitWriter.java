@@ -0,0 +1,206 @@
+package TicketBookingSystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends text records to a file using group commit: records submitted by many callers
+ * are collected into one buffer, written together and made durable with a single
+ * FileChannel.force per batch. Each caller's future completes only after its batch is forced.
+ * Once a write or force fails the writer stays failed: the file may end in a partial line, so
+ * every queued and later record fails too. The owner must close it and open a new writer after
+ * its own recovery scan to resume appending.
+ */
+public class GroupCommitWriter implements Closeable {
+
+    /**
+     * Snapshot of commit statistics.
+     * @param batches Number of batches forced to disk.
+     * @param records Number of records committed.
+     * @param meanBatchSize Average records per batch.
+     * @param meanCommitLatencyMicros Average time from submit to durable, per record.
+     * @param meanForceMicros Average time spent in write + force, per batch.
+     */
+    record Stats(long batches, long records, double meanBatchSize, double meanCommitLatencyMicros, double meanForceMicros) {
+        @Override
+        public String toString() {
+            return String.format("%d records in %d batches (mean batch %.2f, mean commit latency %.1f us, mean force %.1f us)",
+                    records, batches, meanBatchSize, meanCommitLatencyMicros, meanForceMicros);
+        }
+    }
+
+    /** Action run while the writer's channel is closed (see {@link #runExclusive}). */
+    interface FileAction {
+        void run() throws IOException;
+    }
+
+    /** A record waiting to be committed. */
+    private static final class PendingWrite {
+        final byte[] bytes;
+        final long submittedNanos = System.nanoTime();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        PendingWrite(byte[] bytes) { this.bytes = bytes; }
+    }
+
+    private final Path file;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Object channelLock = new Object(); // Held while a batch is written or the file is swapped
+    private final Object submitLock = new Object();  // Makes the closed/failed check and the enqueue atomic with close()
+    private final Thread committer;
+    private FileChannel channel;
+    private volatile boolean running = true;         // Written under submitLock
+    private volatile IOException failure;             // First write or force error; written under channelLock
+
+    // Statistics (only updated by the committer thread, read under channelLock)
+    private long batchCount, recordCount, commitLatencyNanos, forceNanos;
+
+    /**
+     * Opens the file for appending and starts the committer thread.
+     * @param maxBatchSize Maximum records per batch.
+     * @param maxWaitMicros How long the committer waits for more records after the first one arrives.
+     */
+    public GroupCommitWriter(Path file, int maxBatchSize, long maxWaitMicros) throws IOException {
+        this.file = file;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxWaitMicros));
+        this.channel = openChannel();
+        this.committer = new Thread(this::commitLoop, "group-commit-" + file.getFileName());
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Queues a line (a newline is appended) for the next batch.
+     * @return A future completed once the line has been forced to disk.
+     */
+    public CompletableFuture<Void> submit(String line) {
+        PendingWrite write = new PendingWrite((line + "\n").getBytes(StandardCharsets.UTF_8));
+        synchronized (submitLock) {
+            if (!running) write.done.completeExceptionally(new IOException("Writer for " + file + " is closed"));
+            else if (failure != null) write.done.completeExceptionally(failed());
+            else queue.add(write);
+        }
+        return write.done;
+    }
+
+    /**
+     * Runs an action with the channel closed, then reopens it in append mode. Used when the
+     * file is replaced (e.g. journal truncation), so later batches go to the new file.
+     * A failed writer stays failed; reopening the channel does not resume appending.
+     */
+    public void runExclusive(FileAction action) throws IOException {
+        synchronized (channelLock) {
+            channel.close();
+            try { action.run(); }
+            finally { channel = openChannel(); }
+        }
+    }
+
+    /** Returns the commit statistics collected so far. */
+    public Stats getStats() {
+        synchronized (channelLock) {
+            return new Stats(batchCount, recordCount,
+                    batchCount == 0 ? 0 : (double) recordCount / batchCount,
+                    recordCount == 0 ? 0 : commitLatencyNanos / 1000.0 / recordCount,
+                    batchCount == 0 ? 0 : forceNanos / 1000.0 / batchCount);
+        }
+    }
+
+    /**
+     * Commits anything still queued (or fails it if the writer has failed), stops the committer
+     * thread and closes the file. Records the committer did not get to are failed, never left pending.
+     * The committer is not interrupted: FileChannel is interruptible, so an interrupt during a write
+     * or force would close the channel and fail the batch. It sees running go false within one poll
+     * timeout instead, drains the queue and exits.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (submitLock) { running = false; }
+        try { committer.join(TimeUnit.SECONDS.toMillis(10)); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        synchronized (channelLock) {
+            channel.close();
+            PendingWrite left;
+            while ((left = queue.poll()) != null) left.done.completeExceptionally(new IOException("Writer for " + file + " closed before the record was written"));
+        }
+    }
+
+    /** The exception queued and later records fail with once a batch has failed. */
+    private IOException failed() {
+        return new IOException("Writer for " + file + " stopped after a failed write: " + failure.getMessage(), failure);
+    }
+
+    /** Committer thread: gathers batches and forces each one with a single call. */
+    private void commitLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = running ? queue.poll(100, TimeUnit.MILLISECONDS) : queue.poll();
+                if (first == null) continue;
+                batch.add(first);
+                // Keep collecting until the batch is full or the wait window closes
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = (remaining > 0 && running) ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Not used to stop us (see close); loop again and drain whatever is queued
+            }
+            if (!batch.isEmpty()) { commit(batch); batch.clear(); }
+        }
+    }
+
+    /**
+     * Writes one batch as a single buffer, forces it, then completes the callers' futures.
+     * After a failure nothing more is written; the batch is failed instead.
+     */
+    private void commit(List<PendingWrite> batch) {
+        int size = 0;
+        for (PendingWrite w : batch) size += w.bytes.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (PendingWrite w : batch) buffer.put(w.bytes);
+        buffer.flip();
+
+        synchronized (channelLock) {
+            if (failure != null) {
+                for (PendingWrite w : batch) w.done.completeExceptionally(failed());
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(false);
+            } catch (IOException e) {
+                failure = e; // The file may now end in a partial line; never append after it
+                for (PendingWrite w : batch) w.done.completeExceptionally(e);
+                return;
+            }
+            long end = System.nanoTime();
+            batchCount++;
+            recordCount += batch.size();
+            forceNanos += end - start;
+            for (PendingWrite w : batch) commitLatencyNanos += end - w.submittedNanos;
+        }
+        for (PendingWrite w : batch) w.done.complete(null);
+    }
+}
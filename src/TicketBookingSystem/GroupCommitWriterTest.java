@@ -0,0 +1,56 @@
+package TicketBookingSystem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Checks that close() commits every record submitted before it: each round submits a burst of
+ * records to a fresh GroupCommitWriter, closes it straight away, and expects every future to have
+ * completed normally and every line to be in the file. Exits with status 1 on the first failure.
+ * Run with: java TicketBookingSystem.GroupCommitWriterTest [rounds] [records]
+ */
+public class GroupCommitWriterTest {
+
+    public static void main(String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int records = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Path dir = Files.createTempDirectory("group-commit-test");
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                String problem = closeCommitsQueued(dir.resolve("round-" + round + ".log"), records);
+                if (problem != null) {
+                    System.err.println(Utils.RED_BOLD + "FAILED" + Utils.RESET + Utils.RED + " in round " + round + ": " + problem + Utils.RESET);
+                    System.exit(1);
+                }
+            }
+        } finally {
+            try (var files = Files.list(dir)) { for (Path file : files.toList()) Files.deleteIfExists(file); }
+            Files.deleteIfExists(dir);
+        }
+        System.out.println(Utils.GREEN + "OK: " + rounds + " rounds of " + records + " records, every record committed by close()." + Utils.RESET);
+    }
+
+    /** @return null if every record was committed, otherwise what went wrong. */
+    private static String closeCommitsQueued(Path file, int records) throws IOException {
+        GroupCommitWriter writer = new GroupCommitWriter(file, 16, 1000);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) futures.add(writer.submit("record " + i));
+        writer.close();
+        for (int i = 0; i < records; i++) {
+            CompletableFuture<Void> future = futures.get(i);
+            if (!future.isDone()) return "record " + i + " still pending after close";
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                return "record " + i + " failed: " + e.getCause();
+            }
+        }
+        long lines = Files.readAllLines(file).size();
+        return lines == records ? null : lines + " of " + records + " lines in the file";
+    }
+}
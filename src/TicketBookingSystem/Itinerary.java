@@ -0,0 +1,9 @@
+package TicketBookingSystem;
+
+import java.util.List;
+
+/**
+ * A complete origin to destination itinerary and its totals.
+ * @param etaMinutes Sum of the leg times, -1 if any leg has no parsed ETA.
+ */
+record Itinerary(List<ItineraryLeg> legs, int distance, int etaMinutes, double price) {}
@@ -0,0 +1,10 @@
+package TicketBookingSystem;
+
+import java.util.List;
+
+/**
+ * One hop of an itinerary.
+ * @param transportType "Plane", "Train", or "Bus".
+ * @param etaMinutes Parsed travel time in minutes, -1 if the ETA string could not be parsed.
+ */
+record ItineraryLeg(String transportType, String origin, String destination, int distance, int etaMinutes, String eta, List<String> providers, double price) {}
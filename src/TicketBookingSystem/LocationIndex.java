@@ -0,0 +1,299 @@
+package TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Search index over city names, airport/station names, their alternate names and the codes in
+ * parentheses ("DEL", "NDLS"), built once per route snapshot.
+ * Names are normalized (upper case, punctuation to spaces) and kept as a sorted term array, with
+ * every word of a multi-word name indexed as well. A prefix query is a binary search for the
+ * range of terms starting with it, which is the node range a trie would reach, without the
+ * per-node objects. Typos are matched through a trigram index over the distinct terms (kept as
+ * sorted primitive postings): only terms sharing enough trigrams with the query are checked with
+ * a bounded edit distance.
+ */
+final class LocationIndex {
+    private static final Pattern CODE = Pattern.compile("\\(([A-Za-z]{2,5})\\)");
+    // Kinds, best first when ranking hits of equal quality
+    private static final int CITY = 0, CODE_KIND = 1, NAME = 2, WORD = 3;
+    private static final int MAX_PREFIX_SCAN = 4096;
+
+    private final CompiledRoutes routes;
+    private final String[] terms;   // Normalized, sorted
+    private final int[] termCity;
+    private final byte[] termKind;
+    private final byte[] termMode;  // Mode of a NAME/WORD/CODE term, -1 for a city name
+    private final String[] termLabel; // The original text the term came from
+    // Distinct terms: entries [distinctStart[d], distinctStart[d + 1]) all have the text of distinct term d
+    private final int[] distinctStart;
+    // Trigram postings over distinct terms, CSR style: gramKeys sorted, ids of gram g in [gramStart[g], gramStart[g + 1])
+    private final int[] gramKeys;
+    private final int[] gramStart;
+    private final int[] gramTerms;
+
+    private record Entry(String term, int city, int kind, int mode, String label) {}
+
+    LocationIndex(CompiledRoutes routes) {
+        this.routes = routes;
+        List<Entry> entries = new ArrayList<>();
+        for (int city = 0; city < routes.cityCount(); city++) {
+            add(entries, routes.cityName(city), city, CITY, -1, routes.cityName(city));
+            for (int mode = 0; mode < CompiledRoutes.MODES.length; mode++) {
+                if (!routes.serves(city, mode)) continue;
+                List<String> names = new ArrayList<>();
+                names.add(routes.primaryName(city, mode));
+                names.addAll(routes.alternateNames(city, mode));
+                for (String name : names) {
+                    add(entries, name, city, NAME, mode, name);
+                    Matcher code = CODE.matcher(name);
+                    while (code.find()) add(entries, code.group(1), city, CODE_KIND, mode, name);
+                    String withoutCodes = CODE.matcher(name).replaceAll(" ");
+                    if (!withoutCodes.equals(name)) add(entries, withoutCodes, city, NAME, mode, name);
+                    String[] words = normalize(name).split(" ");
+                    if (words.length > 1) for (String word : words) if (word.length() > 2) add(entries, word, city, WORD, mode, name);
+                }
+            }
+        }
+        entries.sort((a, b) -> a.term.equals(b.term) ? Integer.compare(a.kind, b.kind) : a.term.compareTo(b.term));
+
+        int n = entries.size();
+        terms = new String[n];
+        termCity = new int[n];
+        termKind = new byte[n];
+        termMode = new byte[n];
+        termLabel = new String[n];
+        int distinct = 0;
+        int[] starts = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            Entry e = entries.get(i);
+            terms[i] = e.term;
+            termCity[i] = e.city;
+            termKind[i] = (byte) e.kind;
+            termMode[i] = (byte) e.mode;
+            termLabel[i] = e.label;
+            if (i == 0 || !terms[i - 1].equals(e.term)) starts[distinct++] = i;
+        }
+        starts[distinct] = n;
+        distinctStart = Arrays.copyOf(starts, distinct + 1);
+
+        // Sort (trigram, distinct term) pairs packed in longs, then group them by trigram
+        int pairCount = 0;
+        for (int d = 0; d < distinct; d++) pairCount += terms[distinctStart[d]].length();
+        long[] pairs = new long[pairCount];
+        int p = 0;
+        for (int d = 0; d < distinct; d++) {
+            for (int gram : trigramsOf(terms[distinctStart[d]])) pairs[p++] = ((long) gram << 32) | d;
+        }
+        Arrays.sort(pairs);
+        int[] keys = new int[pairCount], keyStart = new int[pairCount + 1], ids = new int[pairCount];
+        int groups = 0, idCount = 0;
+        for (int i = 0; i < pairCount; i++) {
+            int gram = (int) (pairs[i] >> 32), d = (int) pairs[i];
+            if (i > 0 && pairs[i] == pairs[i - 1]) continue; // Trigram repeated within a term
+            if (groups == 0 || keys[groups - 1] != gram) {
+                keys[groups] = gram;
+                keyStart[groups++] = idCount;
+            }
+            ids[idCount++] = d;
+        }
+        keyStart[groups] = idCount;
+        gramKeys = Arrays.copyOf(keys, groups);
+        gramStart = Arrays.copyOf(keyStart, groups + 1);
+        gramTerms = Arrays.copyOf(ids, idCount);
+    }
+
+    private static void add(List<Entry> entries, String text, int city, int kind, int mode, String label) {
+        String term = normalize(text);
+        if (!term.isEmpty()) entries.add(new Entry(term, city, kind, mode, label));
+    }
+
+    /** Upper case, letters and digits only, single spaces between words. */
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toUpperCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (space && sb.length() > 0) sb.append(' ');
+                sb.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Trigrams of " term ", hashed to ints. A hash collision can only add a candidate (later
+     * rejected by the edit distance check), never lose one.
+     */
+    private static int[] trigramsOf(String term) {
+        String padded = " " + term + " ";
+        int[] grams = new int[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((padded.charAt(i) * 31 + padded.charAt(i + 1)) * 31 + padded.charAt(i + 2)) & 0x7fffffff;
+        }
+        return grams;
+    }
+
+    /**
+     * Resolves a query naming exactly one city: a city name, an airport or station name
+     * (primary or alternate) or a code such as "DEL".
+     * @return The city ID, or -1 if nothing matches exactly (or the match is ambiguous).
+     */
+    int resolve(String query) {
+        String term = normalize(query);
+        if (term.isEmpty()) return -1;
+        int i = lowerBound(term), city = -1;
+        for (; i < terms.length && terms[i].equals(term); i++) {
+            if (termKind[i] == WORD) continue;
+            if (city >= 0 && termCity[i] != city) return -1;
+            city = termCity[i];
+        }
+        return city;
+    }
+
+    /**
+     * Prefix completion: cities with a name, code or name word starting with the query.
+     * Ranked by kind (city name, code, station name, word) then by shorter completion.
+     * @return Up to limit matches, one per city.
+     */
+    List<LocationMatch> complete(String prefix, int limit) {
+        String term = normalize(prefix);
+        List<LocationMatch> result = new ArrayList<>();
+        if (term.isEmpty() || limit <= 0) return result;
+        List<Integer> hits = new ArrayList<>();
+        for (int i = lowerBound(term); i < terms.length && hits.size() < MAX_PREFIX_SCAN && terms[i].startsWith(term); i++) hits.add(i);
+        hits.sort((a, b) -> termKind[a] != termKind[b] ? Integer.compare(termKind[a], termKind[b])
+                : terms[a].length() != terms[b].length() ? Integer.compare(terms[a].length(), terms[b].length())
+                : terms[a].compareTo(terms[b]));
+        boolean[] seen = new boolean[routes.cityCount()];
+        for (int i : hits) {
+            if (seen[termCity[i]]) continue;
+            seen[termCity[i]] = true;
+            result.add(match(i, 0));
+            if (result.size() == limit) break;
+        }
+        return result;
+    }
+
+    /**
+     * Typo-tolerant lookup: cities with a name or code within a small edit distance of the query
+     * (1 for up to 4 characters, 2 up to 8, 3 beyond).
+     * @return Up to limit matches, one per city, closest first.
+     */
+    List<LocationMatch> fuzzy(String query, int limit) {
+        String term = normalize(query);
+        List<LocationMatch> result = new ArrayList<>();
+        if (term.isEmpty() || limit <= 0) return result;
+        int maxDistance = term.length() <= 4 ? 1 : term.length() <= 8 ? 2 : 3;
+
+        // Each edit changes at most three trigrams, so a match shares at least this many; short queries
+        // still need one shared trigram, which only gives up matches that are mostly edits anyway
+        int[] grams = Arrays.stream(trigramsOf(term)).distinct().toArray();
+        int needed = Math.max(1, grams.length - 3 * maxDistance);
+
+        // Gather the touched postings and count runs after sorting, so the work stays proportional to them
+        int total = 0;
+        int[] found = new int[grams.length];
+        for (int q = 0; q < grams.length; q++) {
+            found[q] = Arrays.binarySearch(gramKeys, grams[q]);
+            if (found[q] >= 0) total += gramStart[found[q] + 1] - gramStart[found[q]];
+        }
+        int[] touched = new int[total];
+        int t = 0;
+        for (int g : found) {
+            if (g < 0) continue;
+            System.arraycopy(gramTerms, gramStart[g], touched, t, gramStart[g + 1] - gramStart[g]);
+            t += gramStart[g + 1] - gramStart[g];
+        }
+        Arrays.sort(touched);
+        int count = 0;
+        for (int run = 0; run < total; ) {
+            int end = run;
+            while (end < total && touched[end] == touched[run]) end++;
+            if (end - run >= needed) touched[count++] = touched[run];
+            run = end;
+        }
+
+        Map<Integer, Integer> bestTerm = new HashMap<>(); // City -> its closest term
+        Map<Integer, Integer> best = new HashMap<>();     // City -> that term's distance
+        for (int c = 0; c < count; c++) {
+            int d = touched[c];
+            String candidate = terms[distinctStart[d]];
+            if (Math.abs(candidate.length() - term.length()) > maxDistance) continue;
+            int distance = editDistance(term, candidate, maxDistance);
+            if (distance > maxDistance) continue;
+            for (int i = distinctStart[d]; i < distinctStart[d + 1]; i++) {
+                int city = termCity[i];
+                Integer current = best.get(city);
+                if (current == null || distance < current || (distance == current && termKind[i] < termKind[bestTerm.get(city)])) {
+                    best.put(city, distance);
+                    bestTerm.put(city, i);
+                }
+            }
+        }
+        List<Integer> cities = new ArrayList<>(best.keySet());
+        cities.sort((a, b) -> !best.get(a).equals(best.get(b)) ? Integer.compare(best.get(a), best.get(b))
+                : termKind[bestTerm.get(a)] != termKind[bestTerm.get(b)] ? Integer.compare(termKind[bestTerm.get(a)], termKind[bestTerm.get(b)])
+                : Integer.compare(a, b));
+        for (int city : cities) {
+            result.add(match(bestTerm.get(city), best.get(city)));
+            if (result.size() == limit) break;
+        }
+        return result;
+    }
+
+    /** Prefix completions first, topped up with typo matches for cities not already found. */
+    List<LocationMatch> search(String query, int limit) {
+        List<LocationMatch> result = complete(query, limit);
+        if (result.size() < limit) {
+            for (LocationMatch m : fuzzy(query, limit)) {
+                if (result.size() == limit) break;
+                if (result.stream().noneMatch(r -> r.city().equals(m.city()))) result.add(m);
+            }
+        }
+        return result;
+    }
+
+    private LocationMatch match(int i, int distance) {
+        String kind = termKind[i] == CITY ? "City" : termKind[i] == CODE_KIND ? "Code" : CompiledRoutes.LOCATION_TYPES[termMode[i]];
+        String matched = termKind[i] == CODE_KIND ? terms[i] + " - " + termLabel[i] : termLabel[i];
+        return new LocationMatch(routes.cityName(termCity[i]), matched, kind, distance);
+    }
+
+    private int lowerBound(String term) {
+        int lo = 0, hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].compareTo(term) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Levenshtein distance, giving up (returning max + 1) once every cell of a row exceeds max. */
+    static int editDistance(String a, String b, int max) {
+        int[] prev = new int[b.length() + 1], cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] swap = prev; prev = cur; cur = swap;
+        }
+        return prev[b.length()];
+    }
+}
@@ -0,0 +1,14 @@
+package TicketBookingSystem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record to hold information about a location (Airport, Bus Station, Train Station).
+ * @param city The name of the city.
+ * @param primaryName The primary name of the station/airport (e.g., "Indira Gandhi International Airport (DEL)").
+ * @param alternateNames Additional names or codes associated with the location.
+ * @param routes A map of routes originating from this location, keyed by destination city (UPPERCASE).
+ * @param type The type of location ("Airport", "Bus Station", "Train Station").
+ */
+record LocationInfo(String city, String primaryName, List<String> alternateNames, Map<String, RouteDetail> routes, String type) {}
@@ -0,0 +1,10 @@
+package TicketBookingSystem;
+
+/**
+ * One hit of a location search.
+ * @param city Display name of the city the hit belongs to.
+ * @param matched The name or code that matched (e.g. "Indira Gandhi International Airport (DEL)" or "DEL").
+ * @param kind What was matched: "City", "Code" or the location type ("Airport", "Train Station", "Bus Station").
+ * @param distance Edit distance from the query; 0 for exact and prefix hits.
+ */
+record LocationMatch(String city, String matched, String kind, int distance) {}
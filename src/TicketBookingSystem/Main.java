@@ -4,32 +4,27 @@ import java.util.InputMismatchException;
 import java.util.Scanner;
 import java.io.Console;
 import java.util.List;
-import java.util.HashMap;
 
 public class Main {
     // Define the admin username
     private static final String ADMIN_USERNAME = "admin";
 
-    // Instantiate Managers once
-    private static RouteDataManager routeDataManager = new RouteDataManager();
-    private static UserManager userManager = new UserManager();
-    private static BookingSystem bookingSystem = new BookingSystem();
-
     public static void main(String[] args) {
         Scanner sc = new Scanner(System.in);
-        // Managers are already instantiated above
-
-        UserManager userManager = new UserManager();
-        BookingSystem bookingSystem = new BookingSystem();
+        // Instantiate Managers once, loading routes, users and bookings concurrently
+        AppContext context = AppContext.start();
+        RouteDataManager routeDataManager = context.getRouteDataManager();
+        UserManager userManager = context.getUserManager();
+        BookingSystem bookingSystem = context.getBookingSystem();
 
         // Add a default admin user if not present AFTER loading users
-        if (!userManager.getUsersMap().containsKey(ADMIN_USERNAME)) {
+        if (!userManager.userExists(ADMIN_USERNAME)) {
             System.out.println(Utils.YELLOW + "Creating default admin user ('admin'/'admin')..." + Utils.RESET);
             // This call will now succeed because the check inside register was removed
             boolean created = userManager.register(ADMIN_USERNAME, "admin");
             if (created) {
                 System.out.println(Utils.GREEN + "Default admin user created." + Utils.RESET);
-                // StorageManager.saveUsers(userManager.getUsersMap()); // Save is already done inside register
+                // Save is already done inside register
             } else {
                 // This might happen if hashing fails or another issue occurs in register
                 System.out.println(Utils.RED + "Failed to create default admin user." + Utils.RESET);
@@ -81,22 +76,11 @@ public class Main {
                     }
                     break;
                 case 3:
-                    showRouteInformationMenu(sc);
+                    showRouteInformationMenu(sc, routeDataManager);
                     break;
                 case 4: // Exit case
                     System.out.println(Utils.GREEN + "\nSaving data and exiting..." + Utils.RESET);
-                    // Save Users
-                    try {
-                        HashMap<String, String> usersToSave = userManager.getUsersMap();
-                        if (usersToSave != null) StorageManager.saveUsers(usersToSave);
-                    } catch (Exception e) { System.err.println(Utils.RED + "Error saving user data: " + e.getMessage() + Utils.RESET); }
-                    // Save Bookings
-                    try {
-                        List<PlaneBooking> planes = bookingSystem.getPlanes();
-                        List<TrainBooking> trains = bookingSystem.getTrains();
-                        List<BusBooking> buses = bookingSystem.getBuses();
-                        if (planes != null && trains != null && buses != null) StorageManager.saveBookings(planes, trains, buses);
-                    } catch (Exception e) { System.err.println(Utils.RED + "Error saving booking data: " + e.getMessage() + Utils.RESET); }
+                    context.close(); // Folds the user log, writes the booking snapshot, closes the journal
                     System.out.println(Utils.GREEN_BOLD + "\nThank you for using SkyRoute Booking System. Goodbye!" + Utils.RESET);
                     sc.close();
                     return; // Exit application
@@ -133,7 +117,7 @@ public class Main {
         }
         if (userManager.register(username, password)) { System.out.println(Utils.GREEN_BOLD + "\nRegistration successful!" + Utils.RESET); }
         else { /* ... handle failure (username exists) ... */
-            if (userManager.getUsersMap().containsKey(username)) { System.out.println(Utils.RED + "\nUsername '" + username + "' already exists." + Utils.RESET); }
+            if (userManager.userExists(username)) { System.out.println(Utils.RED + "\nUsername '" + username + "' already exists." + Utils.RESET); }
             else { System.out.println(Utils.RED + "\nRegistration failed." + Utils.RESET); }
         }
         Utils.pause(sc);
@@ -174,13 +158,17 @@ public class Main {
     }
 
     // showRouteInformationMenu remains the same
-    private static void showRouteInformationMenu(Scanner sc) {
+    private static void showRouteInformationMenu(Scanner sc, RouteDataManager routeDataManager) {
         // ... (implementation as before) ...
         if (routeDataManager == null) { /* ... handle error ... */ return; }
         while (true) {
             Utils.clearScreen(); Utils.printBanner("Route Information Menu");
             System.out.println(Utils.YELLOW_BOLD + "1." + Utils.RESET + Utils.CYAN + " View All Airports" + Utils.RESET);
             // ... other options ...
+            System.out.println(Utils.YELLOW_BOLD + "5." + Utils.RESET + Utils.CYAN + " Plan Multi-Leg Itinerary" + Utils.RESET);
+            System.out.println(Utils.YELLOW_BOLD + "6." + Utils.RESET + Utils.CYAN + " Search Cities & Stations" + Utils.RESET);
+            System.out.println(Utils.YELLOW_BOLD + "7." + Utils.RESET + Utils.CYAN + " Compare Providers Between Cities" + Utils.RESET);
+            System.out.println(Utils.YELLOW_BOLD + "8." + Utils.RESET + Utils.CYAN + " Fastest / Shortest / Cheapest From a City" + Utils.RESET);
             System.out.println(Utils.YELLOW_BOLD + "0." + Utils.RESET + Utils.CYAN + " Back to Main Menu" + Utils.RESET);
             System.out.print(Utils.WHITE_BOLD + "Choose an option: " + Utils.RESET);
             int choice = -1;
@@ -194,9 +182,102 @@ public class Main {
                     if (!city.isEmpty()) routeDataManager.displayInfoForCity(city, sc); // Pause inside
                     else { System.out.println(Utils.RED + "City name empty." + Utils.RESET); Utils.pause(sc); }
                     break;
+                case 5: planItinerary(sc, routeDataManager); break;
+                case 6: searchLocations(sc, routeDataManager); break;
+                case 7:
+                    Utils.clearScreen();
+                    System.out.print(Utils.WHITE_BOLD + "From city: " + Utils.RESET); String from = sc.nextLine().trim();
+                    System.out.print(Utils.WHITE_BOLD + "To city: " + Utils.RESET); String to = sc.nextLine().trim();
+                    routeDataManager.displayRoutesBetween(from, to); Utils.pause(sc);
+                    break;
+                case 8: rankRoutes(sc, routeDataManager); break;
                 case 0: return;
                 default: System.out.println(Utils.RED + "Invalid option." + Utils.RESET); Utils.pause(sc);
             }
         }
     }
-}
\ No newline at end of file
+
+    /** Asks for two cities and a ranking, then lists the best bus/train/plane itineraries between them. */
+    private static void planItinerary(Scanner sc, RouteDataManager routeDataManager) {
+        Utils.clearScreen(); Utils.printBanner("Plan Multi-Leg Itinerary");
+        RouteGraph graph = routeDataManager.getRouteGraph();
+        System.out.print(Utils.WHITE_BOLD + "From city: " + Utils.RESET); String from = sc.nextLine().trim();
+        System.out.print(Utils.WHITE_BOLD + "To city: " + Utils.RESET); String to = sc.nextLine().trim();
+        String origin = routeDataManager.resolveCity(from), destination = routeDataManager.resolveCity(to); // Names or codes like "DEL"
+        if (origin == null || destination == null) {
+            String unknown = origin == null ? from : to;
+            System.out.println(Utils.RED + "No routes found for " + unknown + "." + Utils.RESET);
+            routeDataManager.printSuggestions(routeDataManager.searchLocations(unknown, 5));
+            Utils.pause(sc); return;
+        }
+        System.out.print(Utils.WHITE_BOLD + "Rank by (1) Time, (2) Distance, (3) Price [1]: " + Utils.RESET);
+        String rank = sc.nextLine().trim();
+        RouteGraph.Metric metric = rank.equals("2") ? RouteGraph.Metric.DISTANCE : rank.equals("3") ? RouteGraph.Metric.PRICE : RouteGraph.Metric.TIME;
+
+        List<Itinerary> itineraries = graph.findItineraries(origin, destination, 5, metric);
+        if (itineraries.isEmpty()) {
+            System.out.println(Utils.YELLOW + "No itinerary connects " + origin + " to " + destination + "." + Utils.RESET); Utils.pause(sc); return;
+        }
+        Utils.printBanner(origin + " to " + destination + " by " + metric.name().toLowerCase());
+        for (int i = 0; i < itineraries.size(); i++) {
+            Itinerary it = itineraries.get(i);
+            System.out.printf("\n" + Utils.YELLOW_BOLD + "%d." + Utils.RESET + Utils.BLUE_BOLD + " %d leg(s)" + Utils.RESET + " | " + Utils.MAGENTA_BOLD + "%d km" + Utils.RESET + " | ETA: " + Utils.GREEN_BOLD + "%s" + Utils.RESET + " | Base Price: " + Utils.YELLOW_BOLD + "Rs. %.2f" + Utils.RESET + "\n",
+                    i + 1, it.legs().size(), it.distance(), Utils.formatEtaMinutes(it.etaMinutes()), it.price());
+            for (ItineraryLeg leg : it.legs()) {
+                System.out.printf("   " + Utils.CYAN + "%-5s" + Utils.RESET + " %s -> %s (%d km, %s) " + Utils.GREY + "%s" + Utils.RESET + "\n",
+                        leg.transportType(), leg.origin(), leg.destination(), leg.distance(), leg.eta(),
+                        leg.providers().isEmpty() ? "N/A" : String.join(", ", leg.providers()));
+            }
+        }
+        Utils.pause(sc);
+    }
+
+    /** Lists the top direct routes from a city by time, distance or fare, optionally for one mode. */
+    private static void rankRoutes(Scanner sc, RouteDataManager routeDataManager) {
+        Utils.clearScreen(); Utils.printBanner("Fastest / Shortest / Cheapest");
+        System.out.print(Utils.WHITE_BOLD + "From city: " + Utils.RESET); String from = sc.nextLine().trim();
+        String origin = routeDataManager.resolveCity(from);
+        if (origin == null) {
+            System.out.println(Utils.RED + "No routes found for " + from + "." + Utils.RESET);
+            routeDataManager.printSuggestions(routeDataManager.searchLocations(from, 5));
+            Utils.pause(sc); return;
+        }
+        System.out.print(Utils.WHITE_BOLD + "Rank by (1) Time, (2) Distance, (3) Price [1]: " + Utils.RESET);
+        String rank = sc.nextLine().trim();
+        RouteGraph.Metric metric = rank.equals("2") ? RouteGraph.Metric.DISTANCE : rank.equals("3") ? RouteGraph.Metric.PRICE : RouteGraph.Metric.TIME;
+        System.out.print(Utils.WHITE_BOLD + "Mode (0) All, (1) Plane, (2) Train, (3) Bus [0]: " + Utils.RESET);
+        String modeChoice = sc.nextLine().trim();
+        String mode = modeChoice.equals("1") ? "Plane" : modeChoice.equals("2") ? "Train" : modeChoice.equals("3") ? "Bus" : null;
+
+        // All modes: one line per destination (its best route); one mode: that mode's routes
+        List<RankedRoute> ranked = mode == null ? routeDataManager.rankDestinations(origin, metric, 10)
+                : routeDataManager.rankRoutes(origin, mode, metric, 10);
+        if (ranked.isEmpty()) {
+            System.out.println(Utils.YELLOW + "No " + (mode == null ? "" : mode.toLowerCase() + " ") + "routes from " + origin + "." + Utils.RESET); Utils.pause(sc); return;
+        }
+        Utils.printBanner("From " + origin + " by " + metric.name().toLowerCase() + (mode == null ? "" : " (" + mode + ")"));
+        for (int i = 0; i < ranked.size(); i++) {
+            RankedRoute r = ranked.get(i);
+            System.out.printf(Utils.YELLOW_BOLD + "%2d." + Utils.RESET + " " + Utils.CYAN + "%-5s" + Utils.RESET + " to " + Utils.BLUE_BOLD + "%-14s" + Utils.RESET
+                            + " %5d km | ETA: " + Utils.GREEN_BOLD + "%-7s" + Utils.RESET + " | Base Price: " + Utils.YELLOW_BOLD + "Rs. %.2f" + Utils.RESET + "\n",
+                    i + 1, r.mode(), r.to(), r.distance(), r.eta(), r.fare());
+        }
+        Utils.pause(sc);
+    }
+
+    /** Looks up cities, airports and stations by name prefix, code or approximate spelling. */
+    private static void searchLocations(Scanner sc, RouteDataManager routeDataManager) {
+        Utils.clearScreen(); Utils.printBanner("Search Cities & Stations");
+        System.out.print(Utils.WHITE_BOLD + "Name, code or first letters: " + Utils.RESET); String query = sc.nextLine().trim();
+        List<LocationMatch> matches = query.isEmpty() ? List.of() : routeDataManager.searchLocations(query, 10);
+        if (matches.isEmpty()) {
+            System.out.println(Utils.YELLOW + "No city or station matches '" + query + "'." + Utils.RESET); Utils.pause(sc); return;
+        }
+        for (int i = 0; i < matches.size(); i++) {
+            LocationMatch m = matches.get(i);
+            System.out.printf(Utils.YELLOW_BOLD + "%d." + Utils.RESET + Utils.CYAN + " %s" + Utils.RESET + Utils.GREY + " (%s: %s%s)" + Utils.RESET + "\n",
+                    i + 1, m.city(), m.kind(), m.matched(), m.distance() > 0 ? ", spelling differs" : "");
+        }
+        Utils.pause(sc);
+    }
+}
@@ -0,0 +1,164 @@
+package TicketBookingSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the bookings snapshot file in parallel. The file is split into byte ranges aligned
+ * to line boundaries, each range is parsed into its own list of records on the common
+ * ForkJoinPool, and the lists are then merged into the managers in file order through a
+ * vehicleId -> manager map. Prints the time spent in each phase.
+ */
+public class ParallelBookingLoader {
+    private static final long MIN_CHUNK_BYTES = 1 << 20; // Smaller files are parsed as a single chunk
+    private static final long MAX_CHUNK_BYTES = 256L << 20; // Each chunk is read into a single array
+    private static final int CHUNKS_PER_THREAD = 4; // Extra chunks even out uneven parse times
+
+    /** Records and warnings parsed from one byte range of the file. */
+    private static final class Chunk {
+        final List<BookingRecord> records = new ArrayList<>();
+        final List<String> warnings = new ArrayList<>(); // Line numbers are filled in at merge time
+        final List<Integer> warningLines = new ArrayList<>();
+        long snapshotSeq = -1; // Set if this chunk holds the sequence header
+        int lineCount;
+
+        void warn(int localLine, String message) { warningLines.add(localLine); warnings.add(message); }
+    }
+
+    /**
+     * Loads the snapshot file into the manager objects.
+     * @return The journal sequence number the snapshot covers (0 if none recorded).
+     */
+    public static long load(File file, List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) throws IOException {
+        long start = System.nanoTime();
+        List<Chunk> chunks = new ArrayList<>();
+        long splitEnd, parseEnd;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = split(channel);
+            splitEnd = System.nanoTime();
+
+            List<Callable<Chunk>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long from = bounds[i], to = bounds[i + 1];
+                tasks.add(() -> parse(channel, from, to));
+            }
+            try {
+                for (Future<Chunk> result : ForkJoinPool.commonPool().invokeAll(tasks)) chunks.add(result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + file, e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+            parseEnd = System.nanoTime();
+        }
+
+        // Merge sequentially: manager booking maps are not thread-safe, and file order decides duplicates
+        Map<String, Object> managers = StorageManager.indexManagers(planes, trains, buses);
+        long snapshotSeq = 0; int loadedCount = 0, lineOffset = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.snapshotSeq >= 0) snapshotSeq = chunk.snapshotSeq;
+            for (int i = 0; i < chunk.warnings.size(); i++) {
+                System.err.println(Utils.YELLOW + "Warning: " + chunk.warnings.get(i) + " on line #" + (lineOffset + chunk.warningLines.get(i)) + Utils.RESET);
+            }
+            for (BookingRecord record : chunk.records) {
+                if (StorageManager.applyBooking(record, managers)) loadedCount++;
+            }
+            lineOffset += chunk.lineCount;
+        }
+        long end = System.nanoTime();
+
+        System.out.println(Utils.GREEN + "Bookings data loaded successfully (" + loadedCount + " bookings)." + Utils.RESET);
+        System.out.printf(Utils.GREY + "Booking load: %d ms total (split %d ms, parse %d ms in %d chunks, merge %d ms)" + Utils.RESET + "%n",
+                millis(end - start), millis(splitEnd - start), millis(parseEnd - splitEnd), chunks.size(), millis(end - parseEnd));
+        return snapshotSeq;
+    }
+
+    private static long millis(long nanos) { return nanos / 1_000_000; }
+
+    /**
+     * Computes chunk boundaries: roughly equal byte ranges, each moved forward to just
+     * after the next newline so that no line is split between two chunks.
+     */
+    static long[] split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        long wanted = Math.min((long) threads * CHUNKS_PER_THREAD, size / MIN_CHUNK_BYTES);
+        int chunkCount = (int) Math.max(Math.max(1, wanted), size / MAX_CHUNK_BYTES + 1);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < chunkCount; i++) {
+            long pos = Math.max(size * i / chunkCount, bounds.get(bounds.size() - 1));
+            long lineStart = -1;
+            while (lineStart < 0 && pos < size) {
+                probe.clear();
+                int read = channel.read(probe, pos);
+                if (read <= 0) break;
+                for (int j = 0; j < read; j++) {
+                    if (probe.get(j) == '\n') { lineStart = pos + j + 1; break; }
+                }
+                pos += read;
+            }
+            if (lineStart < 0 || lineStart >= size) break; // No more line breaks; the last chunk takes the rest
+            if (lineStart > bounds.get(bounds.size() - 1)) bounds.add(lineStart);
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    /** Reads and parses the lines in [from, to) straight from the bytes (see RecordTokenizer). */
+    private static Chunk parse(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) break;
+        }
+        byte[] bytes = buffer.array();
+        int length = buffer.position();
+
+        Chunk chunk = new Chunk();
+        RecordTokenizer tokenizer = new RecordTokenizer(); // One per chunk, so no sharing between threads
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && bytes[lineEnd] != '\n') lineEnd++;
+            int start = pos, end = lineEnd > pos && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            pos = lineEnd + 1;
+            int lineNumber = ++chunk.lineCount;
+
+            if (RecordTokenizer.isBlank(bytes, start, end)) continue;
+            int payload = RecordFrame.payloadStart(bytes, start, end);
+            if (payload == RecordFrame.CORRUPT) { chunk.warn(lineNumber, "Skipping corrupt booking record (checksum mismatch)"); continue; }
+            start = payload;
+            if (RecordTokenizer.startsWith(bytes, start, end, StorageManager.SEQ_HEADER)) {
+                String value = RecordTokenizer.string(bytes, start + StorageManager.SEQ_HEADER.length(), end).trim();
+                try { chunk.snapshotSeq = Long.parseLong(value); }
+                catch (NumberFormatException e) { chunk.warn(lineNumber, "Ignoring invalid sequence header"); }
+                continue;
+            }
+            if (RecordTokenizer.isBlank(bytes, start, end) || bytes[start] == '#') continue;
+            try {
+                BookingRecord record = tokenizer.parseBooking(bytes, start, end);
+                if (record.transportType() == null) { chunk.warn(lineNumber, "Unknown booking ID prefix"); continue; }
+                chunk.records.add(record);
+            } catch (NumberFormatException e) {
+                chunk.warn(lineNumber, "Skipping booking with invalid number (" + e.getMessage() + ")");
+            } catch (IllegalArgumentException e) {
+                chunk.warn(lineNumber, "Skipping malformed booking (" + e.getMessage() + ")");
+            }
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,211 @@
+package TicketBookingSystem;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Passenger details of confirmed bookings, kept in passengers.dat. Every booking (one seat) belongs to
+ * a PNR: a single booking is its own PNR, the seats of a multi-passenger booking share one PNR
+ * (see GroupBooking). One framed line per PNR (see RecordFrame):
+ *   PNR:BookingId,BookingId,...:Passenger|Passenger|...   with Passenger = Name;Age;Gender;Email
+ * in seat order, so a party of five costs one short line. The line is appended after the bookings
+ * have been journaled: a crash in between leaves bookings without passenger details, never a PNR
+ * pointing at booking IDs that could be handed out again (booking numbers are never reused, see
+ * BookingJournal.maxBookingNumber). Lines go through a GroupCommitWriter like
+ * the journal, so concurrent sessions share one fsync. After a failed write the writer is dropped,
+ * and the next one is only opened once a partial last line has been cut off (see trimTornTail).
+ * Cancelled and archived bookings are dropped from the file (see forget) when the journal records
+ * that removed them are truncated after a checkpoint, and right after an archive run.
+ */
+final class PassengerManifest {
+    static final String MANIFEST_FILE = "passengers.dat";
+    private static final String DELIMITER = ":";
+
+    private static GroupCommitWriter writer;
+    private static Map<String, List<String>> bookingsByPnr; // Loaded on first lookup
+
+    private PassengerManifest() {}
+
+    /** Stores the passengers of a PNR, one per booking, in the same order. */
+    static void record(String pnr, List<String> bookingIds, List<Passenger> passengers) {
+        String line = toLine(pnr, bookingIds, passengers);
+        GroupCommitWriter target;
+        synchronized (PassengerManifest.class) {
+            try {
+                if (writer == null) {
+                    trimTornTail(); // Never append after a partial line
+                    writer = new GroupCommitWriter(Paths.get(MANIFEST_FILE), 64, 1000);
+                }
+            } catch (IOException e) {
+                System.err.println(Utils.RED_BOLD + "Error opening passenger manifest: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+                return;
+            }
+            if (bookingsByPnr != null) bookingsByPnr.put(pnr.toUpperCase(), List.copyOf(bookingIds));
+            target = writer;
+        }
+        try {
+            target.submit(RecordFrame.frame(line)).join(); // Wait outside the lock so other sessions share the fsync
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println(Utils.RED_BOLD + "Error writing passenger manifest: " + Utils.RESET + Utils.RED + cause.getMessage() + Utils.RESET);
+            discardWriter(target);
+        }
+    }
+
+    /** Closes a writer whose batch failed; the next record reopens the file after trimming its tail. */
+    private static synchronized void discardWriter(GroupCommitWriter failed) {
+        if (writer != failed) return; // Another session already did
+        writer = null;
+        try {
+            failed.close();
+        } catch (IOException e) { /* The write error has been reported */ }
+    }
+
+    /** Cuts off an unterminated last line left by a failed or interrupted write. */
+    private static void trimTornTail() throws IOException {
+        File file = new File(MANIFEST_FILE);
+        if (!file.exists()) return;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteBuffer one = ByteBuffer.allocate(1);
+            while (end > 0) {
+                one.clear();
+                channel.read(one, end - 1);
+                if (one.get(0) == '\n') break;
+                end--;
+            }
+            if (end == channel.size()) return;
+            System.err.println(Utils.YELLOW + "Warning: Dropped a torn tail of " + (channel.size() - end) + " bytes from " + MANIFEST_FILE + "." + Utils.RESET);
+            channel.truncate(end);
+            channel.force(true);
+        }
+    }
+
+    /** Formats one manifest line (no frame, no line terminator). */
+    static String toLine(String pnr, List<String> bookingIds, List<Passenger> passengers) {
+        StringBuilder line = new StringBuilder(64 * passengers.size());
+        line.append(pnr.toUpperCase()).append(DELIMITER).append(String.join(",", bookingIds)).append(DELIMITER);
+        for (int i = 0; i < passengers.size(); i++) {
+            Passenger passenger = passengers.get(i);
+            if (i > 0) line.append('|');
+            line.append(clean(passenger.getName())).append(';').append(passenger.getAge()).append(';')
+                .append(clean(passenger.getGender())).append(';').append(clean(passenger.getEmail()));
+        }
+        return line.toString();
+    }
+
+    /** Keeps the field separators out of free text such as names. */
+    private static String clean(String value) {
+        return value.replaceAll("[:;|\\r\\n]", " ").trim();
+    }
+
+    /**
+     * The booking IDs of a PNR, in seat order.
+     * @return The IDs, or null if the PNR is unknown.
+     */
+    static synchronized List<String> bookingsOf(String pnr) {
+        if (bookingsByPnr == null) bookingsByPnr = load();
+        return bookingsByPnr.get(pnr.trim().toUpperCase());
+    }
+
+    private static Map<String, List<String>> load() {
+        Map<String, List<String>> loaded = new HashMap<>();
+        File file = new File(MANIFEST_FILE);
+        if (!file.exists()) return loaded;
+        int lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+                String record = RecordFrame.unframe(line);
+                String[] parts = record == null ? null : record.split(DELIMITER, 3); // PNR, BookingIds, Passengers
+                if (parts == null || parts.length != 3) { System.err.println(Utils.YELLOW + "Warning: Skipping corrupt passenger manifest line #" + lineNumber + Utils.RESET); continue; }
+                loaded.put(parts[0], List.of(parts[1].split(",")));
+            }
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error reading passenger manifest: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops bookings that were cancelled or archived: their IDs and passengers are removed from their
+     * PNR lines, and PNRs left without bookings are removed. The file is rewritten to a temp file and
+     * renamed over passengers.dat, with the writer's channel closed like a journal truncation.
+     */
+    static synchronized void forget(Collection<String> bookingIds) {
+        if (bookingIds.isEmpty()) return;
+        Set<String> removed = new HashSet<>(bookingIds);
+        if (bookingsByPnr != null) {
+            bookingsByPnr.replaceAll((pnr, ids) -> ids.stream().filter(id -> !removed.contains(id)).toList());
+            bookingsByPnr.values().removeIf(List::isEmpty);
+        }
+        try {
+            if (writer != null) writer.runExclusive(() -> rewrite(removed));
+            else rewrite(removed);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error compacting passenger manifest: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+    }
+
+    /** Copies the manifest without the removed bookings to a synced temp file and renames it over passengers.dat. */
+    private static void rewrite(Set<String> removed) throws IOException {
+        File file = new File(MANIFEST_FILE);
+        if (!file.exists()) return;
+        File tempFile = new File(MANIFEST_FILE + ".tmp");
+        try (BufferedReader reader = new BufferedReader(new FileReader(file));
+             FileOutputStream out = new FileOutputStream(tempFile);
+             BufferedWriter tempWriter = new BufferedWriter(new OutputStreamWriter(out))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String record = RecordFrame.unframe(line);
+                String[] parts = record == null ? null : record.split(DELIMITER, 3); // PNR, BookingIds, Passengers
+                if (parts == null || parts.length != 3) { tempWriter.write(line); tempWriter.newLine(); continue; } // Reported when read; kept as is
+                String[] ids = parts[1].split(","), passengers = parts[2].split("\\|", -1);
+                StringBuilder keptIds = new StringBuilder(), keptPassengers = new StringBuilder();
+                for (int i = 0; i < ids.length; i++) {
+                    if (removed.contains(ids[i])) continue;
+                    keptIds.append(keptIds.length() > 0 ? "," : "").append(ids[i]);
+                    if (i < passengers.length) keptPassengers.append(keptPassengers.length() > 0 ? "|" : "").append(passengers[i]);
+                }
+                if (keptIds.length() == 0) continue; // Every booking of the PNR is gone
+                tempWriter.write(keptIds.length() == parts[1].length() ? line : RecordFrame.frame(parts[0] + DELIMITER + keptIds + DELIMITER + keptPassengers));
+                tempWriter.newLine();
+            }
+            tempWriter.flush();
+            out.getFD().sync(); // passengers.dat is replaced wholesale, so the copy must be on disk first
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+        StorageManager.replaceAtomically(tempFile, file);
+    }
+
+    /** Commits anything still queued and closes the manifest file. */
+    static synchronized void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error closing passenger manifest: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+        writer = null;
+    }
+}
@@ -5,162 +5,135 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.InputMismatchException;
 import java.util.List;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Predicate;
 
 /**
  * Manages bookings and seat layout for a specific plane instance/slot.
  */
 public class PlaneBooking {
-    // Seats list for the current booking transaction's display
-    private final CustomLinkedList<Seat> seats = new CustomLinkedList<>();
+    // Seat map of the trip in the current booking transaction (a copy from the inventory)
+    private SeatBitmap seats;
+    private TripKey seatsTrip;
+    private String seatsClass;
     // Persistent storage of bookings associated with this specific PlaneBooking object
     private Map<String, Booking> bookings = new HashMap<>();
 
     private final String flightId; // The generic ID of this plane object (e.g., PLANE-MANAGER-1)
     private final BookingSystem bookingSystem; // Reference to the main system
+    private final SeatInventory inventory; // Seat occupancy per trip, shared with the other managers
+    private final SeatHolds holds; // Time-limited holds on seats chosen in an unfinished booking
 
     public PlaneBooking(String flightId, BookingSystem bookingSystem) {
         this.flightId = flightId;
         this.bookingSystem = bookingSystem;
+        this.inventory = bookingSystem.getSeatInventory();
+        this.holds = bookingSystem.getSeatHolds();
     }
 
-    private void initializeSeats(String seatClass, double finalSeatPrice) {
-        seats.clear();
-        switch (seatClass.toLowerCase()) {
-            case "economy":
-                generateLayout(10, new char[]{'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I'}, finalSeatPrice, seatClass);
-                break;
-            case "business":
-                generateLayout(8, new char[]{'A', 'B', 'C', 'D'}, finalSeatPrice, seatClass);
-                break;
-            case "first":
-                generateLayout(5, new char[]{'A', 'B'}, finalSeatPrice, seatClass);
-                break;
-            default:
-                System.out.println(Utils.RED + "Error: Invalid seat class '" + seatClass + "' for seat initialization." + Utils.RESET);
-                return;
-        }
-        markExistingBookings(seatClass);
-    }
-
-    private void generateLayout(int rows, char[] columns, double price, String seatClass) {
-        for (int i = 1; i <= rows; i++) {
-            for (char c : columns) {
-                seats.add(new Seat(i, String.valueOf(c), seatClass, "Plane", price));
-            }
-        }
+    private void initializeSeats(String seatClass, TripKey trip) {
+        seats = inventory.seatMap(trip);
+        seatsTrip = trip;
+        seatsClass = seatClass;
+        if (seats == null) System.out.println(Utils.RED + "Error: Invalid seat class '" + seatClass + "' for seat initialization." + Utils.RESET);
     }
 
-    private void markExistingBookings(String seatClass) {
-        for (Booking booked : this.bookings.values()) {
-            if (booked.getSeatClass().equalsIgnoreCase(seatClass)) {
-                Seat seatInLayout = findSeat(booked.getSeat().getRow(), booked.getSeat().getColumn());
-                if (seatInLayout != null && !seatInLayout.isReserved()) {
-                    seatInLayout.reserve();
-                }
-            }
-        }
+    private static TripKey tripOf(Booking booking) {
+        return new TripKey("Plane", booking.getProvider(), booking.getStartCity(), booking.getDestCity(), booking.getTravelDate(), booking.getSeatClass());
     }
 
     public void displaySeats() {
-        if (seats.isEmpty()) {
+        if (seats == null) {
             System.out.println(Utils.YELLOW + "Seat layout not initialized or no seats available." + Utils.RESET);
             return;
         }
-        String seatClass = seats.getHead().data.getSeatClass();
-        System.out.println("\n" + Utils.CYAN_BOLD + "Plane Seat Layout - " + seatClass + " (Aircraft ID: " + flightId + ")" + Utils.RESET);
-
-        char firstCol = ' '; char lastCol = ' ';
-        if (!seats.isEmpty()) {
-            firstCol = seats.getHead().data.getColumn().charAt(0); lastCol = firstCol;
-            CustomLinkedList.Node<Seat> node = seats.getHead();
-            while(node != null && node.data.getRow() == seats.getHead().data.getRow()) { // Corrected loop condition
-                lastCol = node.data.getColumn().charAt(0);
-                node = node.next;
-            }
-        } else { return; }
-
-        int[] aisleAfterIndices = new int[]{};
-        if (seatClass.equalsIgnoreCase("Economy")) aisleAfterIndices = new int[]{2, 5};
-        else if (seatClass.equalsIgnoreCase("Business")) aisleAfterIndices = new int[]{0, 2};
-        else if (seatClass.equalsIgnoreCase("First")) aisleAfterIndices = new int[]{0};
-
-        System.out.print("     ");
-        for (char c = firstCol; c <= lastCol; c++) {
-            System.out.print(Utils.YELLOW_BOLD + " " + c + " " + Utils.RESET);
-            int colIndex = c - firstCol;
-            for (int aisleIndex : aisleAfterIndices) {
-                if (colIndex == aisleIndex) { System.out.print("   "); break; }
-            }
-        }
-        System.out.println();
-
-        CustomLinkedList.Node<Seat> temp = seats.getHead(); int currentRow = -1; StringBuilder rowDisplay = new StringBuilder();
-        while (temp != null) {
-            Seat seat = temp.data;
-            if (seat.getRow() != currentRow) {
-                if (currentRow != -1) System.out.println(rowDisplay);
-                rowDisplay = new StringBuilder(Utils.YELLOW_BOLD + String.format("Row %2d:", seat.getRow()) + Utils.RESET);
-                currentRow = seat.getRow();
-            }
-            rowDisplay.append(" ").append(seat.toString());
-            int colIndex = seat.getColumn().charAt(0) - firstCol;
-            for (int aisleIndex : aisleAfterIndices) {
-                if (colIndex == aisleIndex) { rowDisplay.append("  "); break; }
-            }
-            temp = temp.next;
-        }
-        if (!rowDisplay.isEmpty()) System.out.println(rowDisplay);
-
-        System.out.println("\n" + Utils.BLUE_BOLD + "Seat Legend:" + Utils.RESET);
-        System.out.println(" " + Utils.GREEN + "O" + Utils.RESET + "(RowCol) - Available");
-        System.out.println(" " + Utils.RED + "X" + Utils.RESET + "(RowCol) - Reserved");
+        System.out.println("\n" + Utils.CYAN_BOLD + "Plane Seat Layout - " + seatsClass + " (Aircraft ID: " + flightId + ")" + Utils.RESET);
+        SeatMap.print(seats);
     }
 
     public void book(Scanner sc, String username, String startCity, String destCity, double finalSeatPrice, String seatClass, String travelDate, String selectedProvider) {
-        initializeSeats(seatClass, finalSeatPrice);
-        if (seats.isEmpty()) { System.out.println(Utils.RED + "Failed to initialize seats." + Utils.RESET); return; }
+        TripKey trip = new TripKey("Plane", selectedProvider, startCity, destCity, travelDate, seatClass);
+        initializeSeats(seatClass, trip);
+        if (seats == null) { System.out.println(Utils.RED + "Failed to initialize seats." + Utils.RESET); return; }
 
         System.out.printf("\n" + Utils.BLUE_BOLD + "Booking Service: " + Utils.CYAN + "%s" + Utils.RESET + "\n", selectedProvider);
         System.out.printf(Utils.BLUE_BOLD + "Price (" + Utils.CYAN + "%s" + Utils.BLUE_BOLD + "/seat): Rs. " + Utils.GREEN_BOLD + "%.2f" + Utils.RESET + "\n", seatClass, finalSeatPrice);
         displaySeats();
 
-        Seat selectedSeat = null;
+        int party = GroupBooking.promptPartySize(sc, seats);
+        if (party == 0) { System.out.println(Utils.YELLOW + "Booking cancelled." + Utils.RESET); return; }
+        if (party > 1) {
+            String pnr = GroupBooking.book(sc, holds, trip, seats, "Plane", seatClass, finalSeatPrice, party, this::removeBooking, seat -> {
+                seat.reserve();
+                seats.reserve(seats.layout().index(seat.getRow(), seat.getColumn()));
+                String bookingId = "P" + bookingSystem.getNextBookingId("P");
+                Booking newBooking = new Booking(username, startCity, destCity, seat.getPrice(), seat.getSeatClass(), seat, travelDate, selectedProvider);
+                bookings.put(bookingId, newBooking);
+                return new BookingRecord(bookingId, username, startCity, destCity, seat.getPrice(), seat.getSeatClass(), seat.getRow(), seat.getColumn(), flightId, newBooking.getTravelDate(), newBooking.getProvider());
+            });
+            if (pnr != null) displaySeats();
+            return;
+        }
+
+        Seat selectedSeat = null; SeatHolds.Hold hold = null;
         while (selectedSeat == null) {
-            System.out.println("\n" + Utils.YELLOW + "Example: To book Row 2 Seat C, enter: 2 C" + Utils.RESET);
-            System.out.print(Utils.WHITE_BOLD + "Enter row & seat (or 'back'): " + Utils.RESET);
+            System.out.println("\n" + Utils.YELLOW + "Example: To book Row 2 Seat C, enter: 2 C (or 'auto' to have the best free seat picked)" + Utils.RESET);
+            System.out.print(Utils.WHITE_BOLD + "Enter row & seat (or 'auto' / 'back'): " + Utils.RESET);
             String inputLine = sc.nextLine().trim();
             if (inputLine.equalsIgnoreCase("back")) { System.out.println(Utils.YELLOW + "Seat selection cancelled." + Utils.RESET); return; }
+            if (inputLine.equalsIgnoreCase("auto")) {
+                List<SeatHolds.Hold> picked = SeatAssigner.holdBest(holds, trip, seats, 1, SeatAssigner.promptPreferences(sc, 1));
+                if (picked == null) { System.out.println(Utils.RED + "No free seats left in " + seatClass + "." + Utils.RESET); return; }
+                hold = picked.get(0);
+                selectedSeat = new Seat(hold.row, hold.column, seatClass, "Plane", finalSeatPrice);
+                System.out.println(Utils.GREEN + "Assigned seat " + hold.getSeatId() + "." + Utils.RESET);
+                continue;
+            }
             String[] parts = inputLine.split("\\s+");
             if (parts.length == 2) {
                 try {
                     int row = Integer.parseInt(parts[0]); String col = parts[1].toUpperCase();
-                    Seat potSeat = findSeat(row, col);
-                    if (potSeat == null) System.out.println(Utils.RED + "Seat " + row + col + " not found." + Utils.RESET);
-                    else if (potSeat.isReserved()) System.out.println(Utils.RED + "Seat " + potSeat.getSeatId() + " is reserved." + Utils.RESET);
-                    else if (!potSeat.getSeatClass().equalsIgnoreCase(seatClass)) System.out.println(Utils.RED + "Seat " + potSeat.getSeatId() + " not in class " + seatClass + "." + Utils.RESET);
-                    else selectedSeat = potSeat;
+                    int index = seats.layout().index(row, col);
+                    if (index < 0) System.out.println(Utils.RED + "Seat " + row + col + " not found in " + seatClass + "." + Utils.RESET);
+                    else if (seats.isReserved(index)) System.out.println(Utils.RED + "Seat " + row + col + " is reserved." + Utils.RESET);
+                    else if ((hold = holds.place(trip, row, col)) == null) { seats.reserve(index); System.out.println(Utils.RED + "Seat " + row + col + " was just taken by another booking." + Utils.RESET); }
+                    else selectedSeat = new Seat(row, col, seatClass, "Plane", finalSeatPrice);
                 } catch (NumberFormatException e) { System.out.println(Utils.RED + "Invalid row format." + Utils.RESET); }
                 catch (Exception e) { System.out.println(Utils.RED + "Invalid input: " + e.getMessage() + Utils.RESET); }
             } else { System.out.println(Utils.RED + "Invalid format (e.g., 2 C)." + Utils.RESET); }
         }
 
         System.out.printf(Utils.BLUE + "\nSelected Seat: " + Utils.MAGENTA_BOLD + "%s" + Utils.BLUE + ", Price: Rs. " + Utils.GREEN_BOLD + "%.2f" + Utils.RESET + "\n", selectedSeat.getSeatId(), selectedSeat.getPrice());
+        System.out.println(Utils.GREY + "(Seat held for you for " + holds.ttlLabel() + " while you complete the booking)" + Utils.RESET);
         String name = ""; while (name.isEmpty()) { System.out.print(Utils.WHITE_BOLD + "Passenger Name: " + Utils.RESET); name = sc.nextLine().trim(); if(name.isEmpty()) System.out.println(Utils.RED+"Name cannot be empty."+Utils.RESET); }
         int age = Utils.getValidAge(sc);
         String gender = Utils.getValidGender(sc);
         String email = Utils.getValidEmail(sc);
-        if (email == null) { System.out.println(Utils.YELLOW + "\nBooking cancelled (email step)." + Utils.RESET); return; }
+        if (email == null) { holds.release(hold); System.out.println(Utils.YELLOW + "\nBooking cancelled (email step)." + Utils.RESET); return; }
 
+        if (!holds.confirm(hold)) { // Before charging, so an expired hold never costs the user anything
+            System.out.println(Utils.RED_BOLD + "\nThe hold on seat " + selectedSeat.getSeatId() + " expired; nothing was charged. Please book again." + Utils.RESET);
+            return;
+        }
         boolean paymentOk = Utils.simulatePayment(sc, selectedSeat.getPrice());
+        if (!paymentOk) holds.release(hold);
         if (paymentOk) {
             Passenger passenger = new Passenger(name, age, gender, email, selectedSeat);
-            selectedSeat.reserve();
             String bookingId = "P" + bookingSystem.getNextBookingId("P");
             String mapKey = bookingId.toUpperCase();
             Booking newBooking = new Booking(username, startCity, destCity, selectedSeat.getPrice(), seatClass, selectedSeat, travelDate, selectedProvider);
             bookings.put(mapKey, newBooking);
+            if (!BookingJournal.recordBooking(new BookingRecord(mapKey, username, startCity, destCity, selectedSeat.getPrice(), seatClass, selectedSeat.getRow(), selectedSeat.getColumn(), flightId, newBooking.getTravelDate(), newBooking.getProvider()))) {
+                removeBooking(mapKey); // Frees the seat again
+                System.out.printf(Utils.RED_BOLD + "\nThe booking could not be saved, so it was not made. Rs. %.2f has been refunded." + Utils.RESET + "\n", selectedSeat.getPrice());
+                return;
+            }
+            selectedSeat.reserve();
+            seats.reserve(seats.layout().index(selectedSeat.getRow(), selectedSeat.getColumn()));
+            PassengerManifest.record(mapKey, List.of(mapKey), List.of(passenger));
 
             System.out.println("\n" + Utils.GREEN_BOLD + "================ BOOKING CONFIRMED ================" + Utils.RESET);
             System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.YELLOW_BOLD + "%s\n" + Utils.RESET, "Booking ID", bookingId);
@@ -203,37 +176,87 @@ public class PlaneBooking {
     }
 
     public boolean cancelBooking(String bookingId, String username) {
-        String mapKey = bookingId.toUpperCase();
-        Booking booking = bookings.get(mapKey);
-        if (booking != null && (username == null || booking.getUsername().equals(username))) { // Admin check (username == null)
-            bookings.remove(mapKey);
-            Seat seatToUnreserve = findSeat(booking.getSeat().getRow(), booking.getSeat().getColumn());
-            if (seatToUnreserve != null && seatToUnreserve.isReserved()) {
-                seatToUnreserve.unreserve();
-                System.out.println(Utils.GREY + "(Seat " + seatToUnreserve.getSeatId() + " marked available in current view)" + Utils.RESET);
+        return cancelBookings(List.of(bookingId), username);
+    }
+
+    /**
+     * Cancels several bookings (the seats of a PNR) with a single journal record, so a crash cancels
+     * all of them or none. IDs that are no longer booked here are skipped.
+     * @return false if none of them is the user's booking, or the cancellation could not be saved.
+     */
+    public boolean cancelBookings(List<String> bookingIds, String username) {
+        Map<String, String> travelDates = new LinkedHashMap<>(); // Booking ID -> travel date
+        for (String bookingId : bookingIds) {
+            Booking booking = bookings.get(bookingId.toUpperCase());
+            if (booking != null && (username == null || booking.getUsername().equals(username))) travelDates.put(bookingId.toUpperCase(), booking.getTravelDate()); // Admin check (username == null)
+        }
+        if (travelDates.isEmpty()) return false;
+        if (!BookingJournal.recordCancellations(travelDates)) {
+            System.out.println(Utils.RED + "The cancellation of " + String.join(", ", travelDates.keySet()) + " could not be saved; nothing was cancelled." + Utils.RESET);
+            return false;
+        }
+        for (String mapKey : travelDates.keySet()) {
+            Booking booking = bookings.remove(mapKey);
+            inventory.release(tripOf(booking), booking.getSeat().getRow(), booking.getSeat().getColumn());
+            int index = seats != null && tripOf(booking).equals(seatsTrip) ? seats.layout().index(booking.getSeat().getRow(), booking.getSeat().getColumn()) : -1;
+            if (index >= 0 && seats.release(index)) {
+                System.out.println(Utils.GREY + "(Seat " + booking.getSeat().getSeatId() + " marked available in current view)" + Utils.RESET);
             }
-            return true;
-        } else { return false; }
+        }
+        return true;
     }
 
-    public void addBooking(String bookingId, String username, String startCity, String destCity, double price, String seatClass, Seat seat, String travelDate, String provider) {
-        seat.reserve();
+    /**
+     * Adds a stored booking (loading, replay) and takes its seat. A booking ID added again replaces its earlier state.
+     * @return false if the seat is already taken on that trip by another booking; nothing is added then.
+     */
+    public boolean addBooking(String bookingId, String username, String startCity, String destCity, double price, String seatClass, Seat seat, String travelDate, String provider) {
+        String mapKey = bookingId.toUpperCase();
+        removeBooking(mapKey);
         Booking loadedBooking = new Booking(username, startCity, destCity, price, seatClass, seat, travelDate, provider);
-        bookings.put(bookingId.toUpperCase(), loadedBooking);
+        if (!inventory.reserve(tripOf(loadedBooking), seat.getRow(), seat.getColumn())) return false;
+        seat.reserve();
+        bookings.put(mapKey, loadedBooking);
+        return true;
     }
 
-    public Map<String, Booking> getBookings() { return bookings; }
+    /** Removes a booking without an ownership check or journal entry (replay, archiving) and frees its seat. */
+    public Booking removeBooking(String bookingId) {
+        Booking removed = bookings.remove(bookingId.toUpperCase());
+        if (removed != null) inventory.release(tripOf(removed), removed.getSeat().getRow(), removed.getSeat().getColumn());
+        return removed;
+    }
 
-    private Seat findSeat(int row, String col) {
-        CustomLinkedList.Node<Seat> temp = seats.getHead();
-        while (temp != null) {
-            Seat seat = temp.data;
-            if (seat.getRow() == row && seat.getColumn().equalsIgnoreCase(col)) return seat;
-            temp = temp.next;
+    /** Removes the bookings matching the filter (partition eviction) and frees their seats. */
+    public void removeBookingsIf(Predicate<Booking> filter) {
+        for (Iterator<Booking> it = bookings.values().iterator(); it.hasNext(); ) {
+            Booking booking = it.next();
+            if (!filter.test(booking)) continue;
+            it.remove();
+            inventory.release(tripOf(booking), booking.getSeat().getRow(), booking.getSeat().getColumn());
         }
-        return null;
     }
 
+    /**
+     * Moves a booking to another travel date, keeping its seat.
+     * @return false if the booking is unknown or its seat is already taken on that date's trip (nothing changes then).
+     */
+    public boolean moveBooking(String bookingId, String newTravelDate) {
+        Booking booking = bookings.get(bookingId.toUpperCase());
+        if (booking == null) return false;
+        TripKey from = tripOf(booking);
+        TripKey to = new TripKey("Plane", booking.getProvider(), booking.getStartCity(), booking.getDestCity(), newTravelDate, booking.getSeatClass());
+        int row = booking.getSeat().getRow(); String column = booking.getSeat().getColumn();
+        if (!to.equals(from)) {
+            if (!inventory.reserve(to, row, column)) return false;
+            inventory.release(from, row, column);
+        }
+        booking.setTravelDate(newTravelDate);
+        return true;
+    }
+
+    public Map<String, Booking> getBookings() { return bookings; }
+
     public String getFlightId() { return flightId; }
 
     static class Booking {
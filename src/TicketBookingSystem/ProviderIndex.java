@@ -0,0 +1,138 @@
+package TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from provider names ("IndiGo 6E-201", "Rajdhani Express", "KSRTC Airavat") to the
+ * routes they serve, built once per route snapshot.
+ * Each provider's edges are one range of a CSR array, in edge order. Provider names are also kept
+ * sorted case-insensitively, so an operator prefix such as "IndiGo" or "Air India" is a
+ * binary-searched range of names rather than a scan of every route.
+ */
+final class ProviderIndex {
+    private final CompiledRoutes routes;
+    private final String[] keys;     // Provider names in upper case, sorted
+    private final int[] keyProvider; // Provider ID of each key
+    private final int[] edgeStart;   // CSR by provider ID, length providerCount + 1
+    private final int[] edges;
+    private final Map<String, Integer> operatorRoutes; // Operator -> number of routes, by name
+
+    ProviderIndex(CompiledRoutes routes) {
+        this.routes = routes;
+        int providers = routes.providerCount();
+
+        // Counting sort of (provider, edge) pairs; walking the edges in order keeps every range sorted
+        edgeStart = new int[providers + 1];
+        for (int e = 0; e < routes.edgeCount(); e++) {
+            for (int i = routes.firstProvider(e); i < routes.endProvider(e); i++) edgeStart[routes.providerAt(i) + 1]++;
+        }
+        for (int p = 0; p < providers; p++) edgeStart[p + 1] += edgeStart[p];
+        edges = new int[edgeStart[providers]];
+        int[] fill = Arrays.copyOf(edgeStart, providers);
+        for (int e = 0; e < routes.edgeCount(); e++) {
+            for (int i = routes.firstProvider(e); i < routes.endProvider(e); i++) edges[fill[routes.providerAt(i)]++] = e;
+        }
+
+        Integer[] order = new Integer[providers];
+        for (int p = 0; p < providers; p++) order[p] = p;
+        Arrays.sort(order, (a, b) -> routes.providerName(a).toUpperCase().compareTo(routes.providerName(b).toUpperCase()));
+        keys = new String[providers];
+        keyProvider = new int[providers];
+        for (int i = 0; i < providers; i++) {
+            keyProvider[i] = order[i];
+            keys[i] = routes.providerName(order[i]).toUpperCase();
+        }
+
+        Map<String, List<Integer>> byOperator = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int p = 0; p < providers; p++) byOperator.computeIfAbsent(operatorOf(routes.providerName(p)), k -> new ArrayList<>()).add(p);
+        Map<String, Integer> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<Integer>> operator : byOperator.entrySet()) {
+            counts.put(operator.getKey(), edgesOf(operator.getValue().stream().mapToInt(Integer::intValue).toArray()).length);
+        }
+        operatorRoutes = Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * The operator part of a provider name: trailing service numbers such as "6E-201" or "AI-687"
+     * are dropped, so "Air India AI-687" belongs to "Air India". Names without one are their own operator.
+     */
+    static String operatorOf(String provider) {
+        String[] words = provider.trim().split("\\s+");
+        int end = words.length;
+        while (end > 1 && words[end - 1].chars().anyMatch(Character::isDigit)) end--;
+        return String.join(" ", Arrays.asList(words).subList(0, end));
+    }
+
+    /** Operators with the number of routes each serves, sorted by name. */
+    Map<String, Integer> operators() {
+        return operatorRoutes;
+    }
+
+    /**
+     * Edges served by every provider whose name starts with the query (case-insensitive), so a
+     * full name finds that service and an operator name finds all of its services.
+     * @return Sorted, distinct edge IDs.
+     */
+    int[] edges(String query) {
+        return edgesOf(matchingProviders(query));
+    }
+
+    /**
+     * Routes served by providers whose name starts with the query, in edge order (origin city, then
+     * mode, then destination). Each route lists only the providers that matched.
+     */
+    List<ProviderRoute> routes(String query) {
+        String prefix = query.trim().toUpperCase();
+        List<ProviderRoute> result = new ArrayList<>();
+        for (int e : edges(query)) {
+            List<String> matched = new ArrayList<>();
+            for (int i = routes.firstProvider(e); i < routes.endProvider(e); i++) {
+                String name = routes.providerName(routes.providerAt(i));
+                if (name.toUpperCase().startsWith(prefix)) matched.add(name);
+            }
+            result.add(toRoute(routes, e, String.join(", ", matched)));
+        }
+        return result;
+    }
+
+    static ProviderRoute toRoute(CompiledRoutes routes, int edge, String providers) {
+        return new ProviderRoute(providers, CompiledRoutes.MODES[routes.mode(edge)], routes.cityName(routes.source(edge)),
+                routes.cityName(routes.target(edge)), routes.distance(edge), routes.eta(edge));
+    }
+
+    private int[] matchingProviders(String query) {
+        String prefix = query.trim().toUpperCase();
+        if (prefix.isEmpty()) return new int[0];
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        int end = lo;
+        while (end < keys.length && keys[end].startsWith(prefix)) end++;
+        return Arrays.copyOfRange(keyProvider, lo, end);
+    }
+
+    private int[] edgesOf(int[] providers) {
+        if (providers.length == 1) {
+            int p = providers[0];
+            return Arrays.stream(edges, edgeStart[p], edgeStart[p + 1]).distinct().toArray(); // Already sorted
+        }
+        int total = 0;
+        for (int p : providers) total += edgeStart[p + 1] - edgeStart[p];
+        int[] merged = new int[total];
+        int n = 0;
+        for (int p : providers) {
+            System.arraycopy(edges, edgeStart[p], merged, n, edgeStart[p + 1] - edgeStart[p]);
+            n += edgeStart[p + 1] - edgeStart[p];
+        }
+        Arrays.sort(merged);
+        return Arrays.stream(merged).distinct().toArray();
+    }
+}
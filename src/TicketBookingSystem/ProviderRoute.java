@@ -0,0 +1,12 @@
+package TicketBookingSystem;
+
+/**
+ * One route as seen from a provider search.
+ * @param providers The route's providers that matched (all of them for a city-pair lookup), comma separated.
+ * @param mode "Plane", "Train" or "Bus".
+ * @param from Origin city.
+ * @param to Destination city.
+ * @param distance Distance in kilometers.
+ * @param eta ETA label (e.g. "2h30m").
+ */
+record ProviderRoute(String providers, String mode, String from, String to, int distance, String eta) {}
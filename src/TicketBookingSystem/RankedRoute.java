@@ -0,0 +1,11 @@
+package TicketBookingSystem;
+
+import java.util.List;
+
+/**
+ * One direct route in a ranked listing.
+ * @param mode "Plane", "Train" or "Bus".
+ * @param etaMinutes Parsed ETA, -1 if not parseable.
+ * @param fare Base fare from Utils.calculatePrice.
+ */
+record RankedRoute(String mode, String from, String to, int distance, String eta, int etaMinutes, double fare, List<String> providers) {}
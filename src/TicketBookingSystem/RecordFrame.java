@@ -0,0 +1,73 @@
+package TicketBookingSystem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Length and CRC32C framing for lines in the booking files (snapshots, partitions, journal).
+ * A framed line is  ~Length:Crc:Payload  where Length is the payload size in UTF-8 bytes (decimal)
+ * and Crc is the CRC32C of the payload bytes (8 hex digits). A line cut short by a crash or
+ * damaged on disk fails the check instead of being parsed as a different booking.
+ * Lines without the leading '~' were written before framing and are accepted unchecked.
+ */
+final class RecordFrame {
+    static final byte MARKER = '~';
+    static final int CORRUPT = -1;
+
+    private RecordFrame() {}
+
+    /** Returns the framed form of a payload line (no line terminator). */
+    static String frame(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length);
+        return (char) MARKER + Integer.toString(bytes.length) + ':' + String.format("%08x", crc.getValue()) + ':' + payload;
+    }
+
+    /** Returns true if the line carries a frame (as opposed to a legacy unframed line). */
+    static boolean isFramed(byte[] b, int start, int end) {
+        return end > start && b[start] == MARKER;
+    }
+
+    /**
+     * Checks one line (without terminator).
+     * @return The start of the payload: start itself for a legacy line, past the frame for a
+     *         framed line whose length and checksum match, or CORRUPT.
+     */
+    static int payloadStart(byte[] b, int start, int end) {
+        if (!isFramed(b, start, end)) return start;
+        int i = start + 1;
+        long length = 0; int digits = 0;
+        for (; i < end && b[i] != ':'; i++) {
+            int digit = b[i] - '0';
+            if (digit < 0 || digit > 9 || ++digits > 10) return CORRUPT;
+            length = length * 10 + digit;
+        }
+        if (digits == 0 || i == end) return CORRUPT;
+        i++;
+        long expected = 0;
+        int crcEnd = i + 8;
+        if (crcEnd >= end || b[crcEnd] != ':') return CORRUPT;
+        for (; i < crcEnd; i++) {
+            int digit = Character.digit(b[i], 16);
+            if (digit < 0) return CORRUPT;
+            expected = (expected << 4) | digit;
+        }
+        int payload = crcEnd + 1;
+        if (end - payload != length) return CORRUPT; // Torn or extended line
+        CRC32C crc = new CRC32C();
+        crc.update(b, payload, end - payload);
+        return crc.getValue() == expected ? payload : CORRUPT;
+    }
+
+    /**
+     * Checks a line read as a string.
+     * @return The payload (the line itself if unframed), or null if the frame does not match.
+     */
+    static String unframe(String line) {
+        if (line.isEmpty() || line.charAt(0) != MARKER) return line;
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int payload = payloadStart(bytes, 0, bytes.length);
+        return payload == CORRUPT ? null : RecordTokenizer.string(bytes, payload, bytes.length);
+    }
+}
@@ -0,0 +1,225 @@
+package TicketBookingSystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-level parser for the ':'-delimited bookings and users files. Fields are located by
+ * scanning the raw bytes once (no regex split, no per-field substrings), numbers are parsed
+ * straight from the bytes, and low-cardinality text (usernames, cities, classes, manager IDs,
+ * dates, providers) is resolved through an intern table that only allocates the first time a
+ * value is seen. Steady-state, a booking line costs its booking ID string and the record.
+ * Not thread-safe: use one tokenizer per thread.
+ */
+public class RecordTokenizer {
+    private static final byte DELIMITER = ':';
+    private static final int MAX_FIELDS = BookingRecord.FIELD_COUNT + 1; // One spare to detect extra fields
+    private static final int MAX_FAST_DIGITS = 15; // Below 2^53, so mantissa / 10^k rounds correctly
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+    /**
+     * Callback for lines read by {@link #forEachLine}; the bytes are only valid during the call.
+     * offset is the position of the line's first byte in the stream.
+     */
+    interface LineVisitor {
+        void visit(byte[] bytes, int start, int end, long offset, int lineNumber);
+    }
+
+    // Reusable field boundaries for the line being parsed
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final InternTable interned = new InternTable();
+    private byte[] upperScratch = new byte[32];
+
+    /**
+     * Parses one booking line (without the line terminator).
+     * Behaves like BookingRecord.parse: the booking ID is upper-cased and trailing empty fields are ignored.
+     * @throws NumberFormatException if price or row are not numeric.
+     * @throws IllegalArgumentException if the line does not have exactly 11 fields.
+     */
+    public BookingRecord parseBooking(byte[] b, int start, int end) {
+        int fields = locateFields(b, start, end, MAX_FIELDS);
+        if (fields != BookingRecord.FIELD_COUNT) {
+            throw new IllegalArgumentException("Expected " + BookingRecord.FIELD_COUNT + " parts, found " + fields);
+        }
+        return new BookingRecord(upperCaseString(b, fieldStart[0], fieldEnd[0]),
+                interned.get(b, fieldStart[1], fieldEnd[1]), interned.get(b, fieldStart[2], fieldEnd[2]),
+                interned.get(b, fieldStart[3], fieldEnd[3]), parseDouble(b, fieldStart[4], fieldEnd[4]),
+                interned.get(b, fieldStart[5], fieldEnd[5]), parseInt(b, fieldStart[6], fieldEnd[6]),
+                interned.get(b, fieldStart[7], fieldEnd[7]), interned.get(b, fieldStart[8], fieldEnd[8]),
+                interned.get(b, fieldStart[9], fieldEnd[9]), interned.get(b, fieldStart[10], fieldEnd[10]));
+    }
+
+    /**
+     * Returns the index of the first delimiter in a users file line (username:hash), or -1.
+     */
+    public static int indexOfDelimiter(byte[] b, int start, int end) {
+        for (int i = start; i < end; i++) if (b[i] == DELIMITER) return i;
+        return -1;
+    }
+
+    /** Returns true if the range is empty or only whitespace (like String.trim().isEmpty()). */
+    public static boolean isBlank(byte[] b, int start, int end) {
+        for (int i = start; i < end; i++) if ((b[i] & 0xFF) > ' ') return false;
+        return true;
+    }
+
+    /** Returns true if the range starts with the given ASCII prefix. */
+    public static boolean startsWith(byte[] b, int start, int end, String prefix) {
+        if (end - start < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) if (b[start + i] != prefix.charAt(i)) return false;
+        return true;
+    }
+
+    /** Decodes a UTF-8 byte range into a new string. */
+    public static String string(byte[] b, int start, int end) {
+        return new String(b, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Records the start/end of each delimited field and returns how many there are
+     * (stopping at maxFields), with trailing empty fields dropped as String.split does.
+     */
+    private int locateFields(byte[] b, int start, int end, int maxFields) {
+        while (end > start && b[end - 1] == DELIMITER) end--; // Trailing empty fields
+        int count = 0, fieldBegin = start;
+        for (int i = start; i <= end && count < maxFields; i++) {
+            if (i == end || b[i] == DELIMITER) {
+                fieldStart[count] = fieldBegin; fieldEnd[count] = i; count++;
+                fieldBegin = i + 1;
+            }
+        }
+        return count;
+    }
+
+    /** Parses a decimal integer (optional sign) without creating a string. */
+    static int parseInt(byte[] b, int start, int end) {
+        int i = start; boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) { negative = b[i] == '-'; i++; }
+        if (i == end) throw numberFormat(b, start, end);
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = b[i] - '0';
+            if (digit < 0 || digit > 9) throw numberFormat(b, start, end);
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) throw numberFormat(b, start, end);
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw numberFormat(b, start, end);
+        return (int) value;
+    }
+
+    /**
+     * Parses a plain decimal such as "1234.50" directly from the bytes. Values with up to 15
+     * digits are exact (one correctly rounded division); anything else (exponents, very long
+     * values, NaN) falls back to Double.parseDouble.
+     */
+    static double parseDouble(byte[] b, int start, int end) {
+        int i = start; boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) { negative = b[i] == '-'; i++; }
+        long mantissa = 0; int digits = 0, fractionDigits = -1;
+        for (; i < end; i++) {
+            byte c = b[i];
+            if (c == '.' && fractionDigits < 0) { fractionDigits = 0; continue; }
+            if (c < '0' || c > '9' || digits == MAX_FAST_DIGITS) return Double.parseDouble(string(b, start, end));
+            mantissa = mantissa * 10 + (c - '0'); digits++;
+            if (fractionDigits >= 0) fractionDigits++;
+        }
+        if (digits == 0) return Double.parseDouble(string(b, start, end)); // Throws NumberFormatException
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static NumberFormatException numberFormat(byte[] b, int start, int end) {
+        return new NumberFormatException("For input string: \"" + string(b, start, end) + "\"");
+    }
+
+    /** Builds the upper-cased string for a range, upper-casing ASCII into a scratch buffer instead of toUpperCase(). */
+    private String upperCaseString(byte[] b, int start, int end) {
+        int length = end - start;
+        if (upperScratch.length < length) upperScratch = new byte[Math.max(length, 2 * upperScratch.length)];
+        for (int i = 0; i < length; i++) {
+            byte c = b[start + i];
+            if (c < 0) return string(b, start, end).toUpperCase(); // Non-ASCII: let String handle it
+            upperScratch[i] = c >= 'a' && c <= 'z' ? (byte) (c - ('a' - 'A')) : c;
+        }
+        return new String(upperScratch, 0, length, StandardCharsets.ISO_8859_1); // Pure ASCII at this point
+    }
+
+    /**
+     * Open-addressing table from byte ranges to strings. Lookups hash and compare the bytes
+     * in place, so a value already in the table costs no allocation.
+     */
+    private static final class InternTable {
+        private static final int MAX_ENTRIES = 1 << 20; // Stop growing; beyond this, values are just decoded
+        private byte[][] keys = new byte[256][];
+        private String[] values = new String[256];
+        private int size;
+
+        String get(byte[] b, int start, int end) {
+            int hash = hash(b, start, end);
+            int mask = keys.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                byte[] key = keys[slot];
+                if (key == null) break;
+                if (Arrays.equals(key, 0, key.length, b, start, end)) return values[slot];
+            }
+            String value = string(b, start, end);
+            if (size >= MAX_ENTRIES) return value;
+            if (2 * (size + 1) > keys.length) grow();
+            insert(Arrays.copyOfRange(b, start, end), value, hash);
+            size++;
+            return value;
+        }
+
+        private void insert(byte[] key, String value, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = key; values[slot] = value;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys; String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][]; values = new String[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) insert(oldKeys[i], oldValues[i], hash(oldKeys[i], 0, oldKeys[i].length));
+            }
+        }
+
+        private static int hash(byte[] b, int start, int end) {
+            int h = 1;
+            for (int i = start; i < end; i++) h = 31 * h + b[i];
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Reads a stream line by line into one reusable, growable buffer, calling the visitor
+     * for each line with its byte range ('\n' or "\r\n" terminators removed).
+     */
+    static void forEachLine(InputStream in, LineVisitor visitor) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int filled = 0, lineNumber = 0;
+        long consumed = 0; // Stream position of buffer[0]
+        while (true) {
+            int read = in.read(buffer, filled, buffer.length - filled);
+            if (read < 0) break;
+            filled += read;
+            int lineStart = 0;
+            for (int i = 0; i < filled; i++) {
+                if (buffer[i] != '\n') continue;
+                visitor.visit(buffer, lineStart, i > lineStart && buffer[i - 1] == '\r' ? i - 1 : i, consumed + lineStart, ++lineNumber);
+                lineStart = i + 1;
+            }
+            // Keep the unfinished line at the front; grow only if a single line fills the buffer
+            System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+            filled -= lineStart;
+            consumed += lineStart;
+            if (filled == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        if (filled > 0) visitor.visit(buffer, 0, buffer[filled - 1] == '\r' ? filled - 1 : filled, consumed, ++lineNumber);
+    }
+}
@@ -0,0 +1,155 @@
+package TicketBookingSystem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Precompiled binary form of the three route files (routes.catalog), so startup maps one file
+ * instead of re-parsing the text. Layout (big-endian):
+ *   header (32 bytes): magic, version, CRC32C of airports.txt, train_stations.txt and
+ *                      bus_stations.txt, body length, CRC32C of the body, reserved
+ *   body:              CompiledRoutes.writeTo output
+ * The catalog is used only while all three source checksums match; otherwise (or if the
+ * catalog is missing, of another version or damaged) the text files are parsed, validated
+ * and the catalog is rewritten.
+ * Run with: java TicketBookingSystem.RouteCatalog   to rebuild it explicitly.
+ */
+public final class RouteCatalog {
+    static final String CATALOG_FILE = "routes.catalog";
+    private static final int MAGIC = 0x52434154; // "RCAT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SOURCES = 3;
+
+    private RouteCatalog() {}
+
+    /**
+     * Computes the CRC32C of each source file.
+     * @return The checksums, or null if any file is missing or unreadable (no catalog is used then).
+     */
+    static int[] sourceChecksums(String... files) {
+        int[] checksums = new int[files.length];
+        byte[] buffer = new byte[64 * 1024];
+        for (int i = 0; i < files.length; i++) {
+            CRC32C crc = new CRC32C();
+            try (InputStream in = Files.newInputStream(new File(files[i]).toPath())) {
+                int n;
+                while ((n = in.read(buffer)) > 0) crc.update(buffer, 0, n);
+            } catch (IOException e) {
+                return null;
+            }
+            checksums[i] = (int) crc.getValue();
+        }
+        return checksums;
+    }
+
+    /**
+     * Maps the catalog and decodes it.
+     * @param checksums Current source checksums (from sourceChecksums).
+     * @return The compiled routes, or null if the catalog is missing, stale or damaged.
+     */
+    static CompiledRoutes read(int[] checksums) {
+        File file = new File(CATALOG_FILE);
+        if (!file.exists()) return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) throw new IOException("bad size " + size);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+                System.out.println(Utils.GREY + "Route catalog is from another version; rebuilding." + Utils.RESET);
+                return null;
+            }
+            for (int i = 0; i < SOURCES; i++) {
+                if (map.getInt(8 + i * 4) != checksums[i]) {
+                    System.out.println(Utils.GREY + "Route files changed; rebuilding route catalog." + Utils.RESET);
+                    return null;
+                }
+            }
+            int bodyLength = map.getInt(20);
+            if (bodyLength != size - HEADER_SIZE) throw new IOException("truncated");
+            ByteBuffer body = map.slice(HEADER_SIZE, bodyLength);
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != map.getInt(24)) throw new IOException("checksum mismatch");
+            return CompiledRoutes.readFrom(body);
+        } catch (IOException | RuntimeException e) {
+            System.err.println(Utils.YELLOW + "Warning: Route catalog unusable (" + e.getMessage() + "); rebuilding." + Utils.RESET);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the catalog through a temp file and an atomic rename.
+     * A failure only costs the next startup a re-parse, so it is reported as a warning.
+     * @return true if the catalog was written.
+     */
+    static boolean write(CompiledRoutes routes, int[] checksums) {
+        File target = new File(CATALOG_FILE);
+        File tempFile = new File(CATALOG_FILE + ".tmp");
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(body)) {
+                routes.writeTo(out);
+            }
+            byte[] bytes = body.toByteArray();
+            CRC32C crc = new CRC32C();
+            crc.update(bytes, 0, bytes.length);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION);
+            for (int i = 0; i < SOURCES; i++) header.putInt(checksums[i]);
+            header.putInt(bytes.length).putInt((int) crc.getValue()).putInt(0);
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                out.write(header.array());
+                out.write(bytes);
+                out.getFD().sync();
+            }
+            StorageManager.replaceAtomically(tempFile, target);
+            return true;
+        } catch (IOException e) {
+            System.err.println(Utils.YELLOW + "Warning: Could not write route catalog: " + e.getMessage() + Utils.RESET);
+            tempFile.delete();
+            return false;
+        }
+    }
+
+    /**
+     * Parses and validates the route files and rebuilds the catalog unconditionally. Like a hot
+     * reload (see RouteReloader), any skipped entry or a file without entries is reported and
+     * exits with status 1 without writing the catalog.
+     */
+    public static void main(String[] args) {
+        int[] checksums = sourceChecksums(RouteDataManager.SOURCE_FILES);
+        if (checksums == null) {
+            System.err.println(Utils.RED_BOLD + "Error:" + Utils.RESET + Utils.RED + " Route files missing; nothing to compile." + Utils.RESET);
+            System.exit(1);
+        }
+        List<String> problems = new ArrayList<>();
+        CompiledRoutes routes = RouteDataManager.parseAndCompile(problems);
+        if (problems.isEmpty()) problems.addAll(RouteReloader.validate(routes));
+        if (!problems.isEmpty()) {
+            for (String problem : problems) System.err.println(problem);
+            System.err.println(Utils.RED_BOLD + "Error:" + Utils.RESET + Utils.RED + " " + problems.size() + " problem(s) in the route files; " + CATALOG_FILE + " not written." + Utils.RESET);
+            System.exit(1);
+        }
+        if (!write(routes, checksums)) System.exit(1);
+        CompiledRoutes check = read(checksums);
+        if (check == null || check.edgeCount() != routes.edgeCount() || check.cityCount() != routes.cityCount()) {
+            System.err.println(Utils.RED_BOLD + "Error:" + Utils.RESET + Utils.RED + " Route catalog failed to read back." + Utils.RESET);
+            System.exit(1);
+        }
+        System.out.println(Utils.GREEN + "Wrote " + CATALOG_FILE + ": " + routes.cityCount() + " cities, " + routes.edgeCount()
+                + " routes, " + new File(CATALOG_FILE).length() + " bytes." + Utils.RESET);
+    }
+}
@@ -11,30 +11,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-// --- Data Structures (Records inside the class or separate files) ---
-
-/**
- * Record to hold details of a single route segment.
- * @param destinationCity The name of the destination city.
- * @param distance The distance in kilometers. -1 if not applicable (e.g., NoBus).
- * @param eta The estimated time of arrival string (e.g., "2h30m"). "N/A" if not applicable.
- * @param providers List of provider names (e.g., airline codes, train names, bus operators).
- */
-record RouteDetail(String destinationCity, int distance, String eta, List<String> providers) {}
-
-/**
- * Record to hold information about a location (Airport, Bus Station, Train Station).
- * @param city The name of the city.
- * @param primaryName The primary name of the station/airport (e.g., "Indira Gandhi International Airport (DEL)").
- * @param alternateNames Additional names or codes associated with the location.
- * @param routes A map of routes originating from this location, keyed by destination city (UPPERCASE).
- * @param type The type of location ("Airport", "Bus Station", "Train Station").
- */
-record LocationInfo(String city, String primaryName, List<String> alternateNames, Map<String, RouteDetail> routes, String type) {}
-
-
 // --- RouteDataManager Class ---
 
 public class RouteDataManager {
@@ -43,62 +22,249 @@ public class RouteDataManager {
     private static final String AIRPORTS_FILE = "airports.txt";
     private static final String BUS_STATIONS_FILE = "bus_stations.txt";
     private static final String TRAIN_STATIONS_FILE = "train_stations.txt";
+    // Source files in CompiledRoutes.MODES order, checksummed by the route catalog
+    static final String[] SOURCE_FILES = {AIRPORTS_FILE, TRAIN_STATIONS_FILE, BUS_STATIONS_FILE};
+
+    // Mode indexes into CompiledRoutes.MODES
+    static final int PLANE = 0, TRAIN = 1, BUS = 2;
 
-    // Maps to store the loaded data, keyed by City name (UPPERCASE for consistency)
-    private Map<String, LocationInfo> airportData = new HashMap<>();
-    private Map<String, LocationInfo> busStationData = new HashMap<>();
-    private Map<String, LocationInfo> trainStationData = new HashMap<>();
+    // Current route data; replaced as a whole on reload, so readers never lock
+    private final AtomicReference<RouteSnapshot> snapshot = new AtomicReference<>();
+    private RouteReloader reloader;
 
     /**
      * Constructor: Loads all data when the manager is created.
      */
     public RouteDataManager() {
+        this(true);
+    }
+
+    /**
+     * @param loadNow false to defer loading to load(), so AppContext can run it alongside other startup work.
+     */
+    RouteDataManager(boolean loadNow) {
+        if (loadNow) loadAllData();
+    }
+
+    /** Loads the route data; for a manager constructed with loadNow = false. */
+    void load() {
         loadAllData();
     }
 
     /**
-     * Provides access to the loaded airport data.
-     * @return An unmodifiable view of the airport data map.
+     * Provides the airport data as a map, rebuilt from the compiled routes on each call.
+     * @return An unmodifiable map keyed by UPPERCASE city name.
      */
     public Map<String, LocationInfo> getAirportData() {
-        return Collections.unmodifiableMap(airportData);
+        return Collections.unmodifiableMap(getCompiledRoutes().toLocationMap(PLANE));
     }
 
     /**
-     * Provides access to the loaded bus station data.
-     * @return An unmodifiable view of the bus station data map.
+     * Provides the bus station data as a map, rebuilt from the compiled routes on each call.
+     * @return An unmodifiable map keyed by UPPERCASE city name.
      */
     public Map<String, LocationInfo> getBusStationData() {
-        return Collections.unmodifiableMap(busStationData);
+        return Collections.unmodifiableMap(getCompiledRoutes().toLocationMap(BUS));
     }
 
     /**
-     * Provides access to the loaded train station data.
-     * @return An unmodifiable view of the train station data map.
+     * Provides the train station data as a map, rebuilt from the compiled routes on each call.
+     * @return An unmodifiable map keyed by UPPERCASE city name.
      */
     public Map<String, LocationInfo> getTrainStationData() {
-        return Collections.unmodifiableMap(trainStationData);
+        return Collections.unmodifiableMap(getCompiledRoutes().toLocationMap(TRAIN));
+    }
+
+    /**
+     * Provides the current route snapshot. Callers that read several things (a menu flow, a booking)
+     * should take it once and use it throughout, so a concurrent reload cannot mix two versions.
+     */
+    RouteSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /** Provides the compiled form of all three networks, used by search, selection and display. */
+    CompiledRoutes getCompiledRoutes() {
+        return snapshot.get().routes();
+    }
+
+
+    /**
+     * Provides the intermodal route graph over all three networks, built by publish() with each snapshot.
+     * @return The route graph for multi-leg itinerary queries.
+     */
+    public RouteGraph getRouteGraph() {
+        return snapshot.get().graph();
+    }
+
+    /**
+     * Finds cities, airports and stations by prefix (autocomplete) or, failing that, by close spelling.
+     * Matches city names, primary and alternate names, and codes such as "DEL".
+     * @param query What the user typed.
+     * @param limit Maximum number of results.
+     * @return Matches, one per city, best first.
+     */
+    public List<LocationMatch> searchLocations(String query, int limit) {
+        return snapshot.get().locations().search(query, limit);
+    }
+
+    /**
+     * Resolves a city name, airport or station name, or code (e.g. "DEL") to its city.
+     * @return The city's display name, or null if the query does not name exactly one city.
+     */
+    public String resolveCity(String query) {
+        RouteSnapshot current = snapshot.get();
+        int city = current.locations().resolve(query);
+        return city < 0 ? null : current.routes().cityName(city);
+    }
+
+    /**
+     * Finds the routes run by a provider, or by every service of an operator.
+     * @param query A provider name ("IndiGo 6E-201", "Rajdhani Express") or its start ("IndiGo", "Air India"), any case.
+     * @return The matching routes across all modes, grouped by origin city.
+     */
+    public List<ProviderRoute> findRoutesByProvider(String query) {
+        return snapshot.get().providers().routes(query);
     }
 
+    /**
+     * Lists every direct route between two cities across all modes, with all of its providers.
+     * Cities may be given by name, station name or code; only the origin's own routes are read.
+     * @return The routes, plane then train then bus; empty if either city is unknown.
+     */
+    public List<ProviderRoute> findRoutesBetween(String fromCity, String toCity) {
+        RouteSnapshot current = snapshot.get();
+        CompiledRoutes compiledRoutes = current.routes();
+        int from = current.locations().resolve(fromCity), to = current.locations().resolve(toCity);
+        List<ProviderRoute> result = new ArrayList<>();
+        if (from < 0 || to < 0) return result;
+        for (int e = compiledRoutes.firstEdge(from); e < compiledRoutes.endEdge(from); e++) {
+            if (compiledRoutes.target(e) == to && compiledRoutes.available(e)) {
+                result.add(ProviderIndex.toRoute(compiledRoutes, e, String.join(", ", compiledRoutes.providers(e))));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ranks the direct routes from a city by duration, distance or fare.
+     * Reads presorted edge arrays, so the cost is the number of routes returned, not a sort.
+     * @param origin City name, station name or code.
+     * @param mode "Plane", "Train" or "Bus" (any case), or null for all modes.
+     * @param metric TIME (parsed ETA), DISTANCE or PRICE (base fare from Utils.calculatePrice).
+     * @param limit Maximum number of routes.
+     * @return The best routes first; empty if the city or mode is unknown.
+     */
+    public List<RankedRoute> rankRoutes(String origin, String mode, RouteGraph.Metric metric, int limit) {
+        RouteSnapshot current = snapshot.get();
+        int city = current.locations().resolve(origin);
+        int modeIndex = mode == null ? -1 : modeIndex(mode);
+        if (city < 0 || (mode != null && modeIndex < 0)) return new ArrayList<>();
+        return current.rankings().topRoutes(city, modeIndex, metric, limit);
+    }
+
+    /**
+     * Ranks the destinations reachable directly from a city, each by its best route over all modes.
+     * @return The best destinations first; empty if the city is unknown.
+     * @see #rankRoutes
+     */
+    public List<RankedRoute> rankDestinations(String origin, RouteGraph.Metric metric, int limit) {
+        RouteSnapshot current = snapshot.get();
+        int city = current.locations().resolve(origin);
+        if (city < 0) return new ArrayList<>();
+        return current.rankings().topDestinations(city, metric, limit);
+    }
+
+    private static int modeIndex(String mode) {
+        for (int i = 0; i < CompiledRoutes.MODES.length; i++) if (CompiledRoutes.MODES[i].equalsIgnoreCase(mode.trim())) return i;
+        return -1;
+    }
+
+    /**
+     * Publishes newly loaded routes as the next version. Only the constructor and the
+     * reloader thread call this, so versions are assigned without contention.
+     */
+    RouteSnapshot publish(CompiledRoutes routes, int[] checksums, String source, long loadNanos) {
+        RouteSnapshot previous = snapshot.get();
+        RouteSnapshot next = new RouteSnapshot(previous == null ? 1 : previous.version() + 1, routes, new RouteGraph(routes),
+                new LocationIndex(routes), new ProviderIndex(routes), new RouteRanking(routes), checksums, source, loadNanos, System.currentTimeMillis());
+        snapshot.set(next);
+        TrainStops.refresh(routes); // Train stop lists stay eligible only while the routes sold keep to them
+        return next;
+    }
+
+    /** Starts watching the route files and reloading them on change (once; later calls do nothing). */
+    public synchronized void startWatching() {
+        if (reloader != null) return;
+        try {
+            reloader = new RouteReloader(this);
+        } catch (IOException e) {
+            System.err.println("\033[1;33mWarning:\033[0m Route file watching unavailable: " + e.getMessage());
+        }
+    }
+
+    /** Stops the route file watcher, if running. */
+    public synchronized void stopWatching() {
+        if (reloader != null) reloader.close();
+        reloader = null;
+    }
 
     /**
      * Loads data from all configured files. Called by the constructor.
+     * Uses the binary route catalog while it matches the files' checksums, otherwise parses
+     * the text files and rewrites the catalog (see RouteCatalog).
      */
     private void loadAllData() {
         System.out.println("\033[0;90mLoading route data...\033[0m"); // Use grey for debug loading messages
-        airportData = loadLocationData(AIRPORTS_FILE, "Airport");
-        busStationData = loadLocationData(BUS_STATIONS_FILE, "Bus Station");
-        trainStationData = loadLocationData(TRAIN_STATIONS_FILE, "Train Station");
+        long start = System.nanoTime();
+        int[] checksums = RouteCatalog.sourceChecksums(SOURCE_FILES);
+        CompiledRoutes compiledRoutes = checksums == null ? null : RouteCatalog.read(checksums);
+        if (compiledRoutes != null) {
+            System.out.println("\033[0;90m -> Mapped " + RouteCatalog.CATALOG_FILE + ": " + compiledRoutes.cityCount() + " cities, "
+                    + compiledRoutes.edgeCount() + " routes in " + (System.nanoTime() - start) / 1000 + " us\033[0m");
+            publish(compiledRoutes, checksums, "catalog", System.nanoTime() - start);
+        } else {
+            compiledRoutes = parseAndCompile();
+            System.out.println("\033[0;90m -> Compiled " + compiledRoutes.cityCount() + " cities, " + compiledRoutes.edgeCount() + " routes\033[0m");
+            if (checksums != null) RouteCatalog.write(compiledRoutes, checksums);
+            publish(compiledRoutes, checksums, "text files", System.nanoTime() - start);
+        }
         System.out.println("\033[1;32mRoute data loaded.\033[0m");
     }
 
+    /**
+     * Parses the three text files, printing a warning for every malformed entry, and compiles them.
+     * @return The compiled routes (empty networks for missing files).
+     */
+    static CompiledRoutes parseAndCompile() {
+        return parseAndCompile(null);
+    }
+
+    /**
+     * Parses and compiles the three text files.
+     * @param problems Collects warnings and errors instead of printing them; null to print.
+     * @return The compiled routes (empty networks for missing files).
+     */
+    static CompiledRoutes parseAndCompile(List<String> problems) {
+        Map<String, LocationInfo> airportData = loadLocationData(AIRPORTS_FILE, "Airport", problems);
+        Map<String, LocationInfo> busStationData = loadLocationData(BUS_STATIONS_FILE, "Bus Station", problems);
+        Map<String, LocationInfo> trainStationData = loadLocationData(TRAIN_STATIONS_FILE, "Train Station", problems);
+        return CompiledRoutes.compile(List.of(airportData, trainStationData, busStationData));
+    }
+
+    private static void warn(List<String> problems, String message) {
+        if (problems == null) System.err.println(message);
+        else problems.add(message);
+    }
+
     /**
      * Generic method to load and parse data from a location file.
      * @param filename The name of the file to read.
      * @param type The type of location (e.g., "Airport", "Bus Station").
+     * @param problems Collects warnings instead of printing them; null to print.
      * @return A Map where the key is the city name (UPPERCASE) and the value is the LocationInfo.
      */
-    private Map<String, LocationInfo> loadLocationData(String filename, String type) {
+    private static Map<String, LocationInfo> loadLocationData(String filename, String type, List<String> problems) {
         Map<String, LocationInfo> dataMap = new HashMap<>();
         // Use try-with-resources for automatic file closing
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
@@ -113,7 +279,7 @@ public class RouteDataManager {
                 String[] parts = line.split("\\|");
                 // Basic validation: need at least city, primary name, and routes string
                 if (parts.length < 3) {
-                    System.err.println("\033[1;33mWarning:\033[0m Skipping malformed line #" + lineNumber + " in " + filename + ": Insufficient parts. Content: " + line + "\033[0m");
+                    warn(problems, "\033[1;33mWarning:\033[0m Skipping malformed line #" + lineNumber + " in " + filename + ": Insufficient parts. Content: " + line + "\033[0m");
                     continue;
                 }
 
@@ -127,21 +293,21 @@ public class RouteDataManager {
 
                 String routesString = parts[parts.length - 1].trim();
                 // *** Pass lineNumber to parseRoutes ***
-                Map<String, RouteDetail> routes = parseRoutes(routesString, filename, lineNumber);
+                Map<String, RouteDetail> routes = parseRoutes(routesString, filename, lineNumber, problems);
 
                 LocationInfo info = new LocationInfo(city, primaryName, alternateNames, routes, type);
                 // Store using uppercase city name for consistent lookups
                 dataMap.put(city.toUpperCase(), info);
             }
         } catch (FileNotFoundException e) {
-            System.err.println("\033[1;31mError:\033[0m File not found: " + filename);
+            warn(problems, "\033[1;31mError:\033[0m File not found: " + filename);
         } catch (IOException e) {
-            System.err.println("\033[1;31mError:\033[0m Failed to read " + type + " data from " + filename + ": " + e.getMessage());
+            warn(problems, "\033[1;31mError:\033[0m Failed to read " + type + " data from " + filename + ": " + e.getMessage());
         } catch (Exception e) { // Catch unexpected parsing errors
-            System.err.println("\033[1;31mError:\033[0m Unexpected error parsing " + filename + ": " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
+            warn(problems, "\033[1;31mError:\033[0m Unexpected error parsing " + filename + ": " + e.getMessage());
+            if (problems == null) e.printStackTrace(); // Print stack trace for debugging
         }
-        System.out.println("\033[0;90m -> Loaded " + dataMap.size() + " entries from " + filename + "\033[0m"); // Loading count
+        if (problems == null) System.out.println("\033[0;90m -> Loaded " + dataMap.size() + " entries from " + filename + "\033[0m"); // Loading count
         return dataMap;
     }
 
@@ -152,10 +318,11 @@ public class RouteDataManager {
      * @param routesString The string containing route information.
      * @param filename For error reporting.
      * @param lineNumber For error reporting. *** ADDED PARAMETER ***
+     * @param problems Collects warnings instead of printing them; null to print.
      * @return A Map where the key is the destination city (UPPERCASE) and the value is the RouteDetail.
      */
     // *** Updated method signature ***
-    private Map<String, RouteDetail> parseRoutes(String routesString, String filename, int lineNumber) {
+    private static Map<String, RouteDetail> parseRoutes(String routesString, String filename, int lineNumber, List<String> problems) {
         Map<String, RouteDetail> routes = new HashMap<>();
         if (routesString.isEmpty() || routesString.equalsIgnoreCase("N/A")) {
             return routes; // No routes defined for this location
@@ -171,7 +338,7 @@ public class RouteDataManager {
             String[] details = entry.split(":");
             if (details.length < 2) { // Must have at least Dest:Info
                 // *** Use lineNumber in error message ***
-                System.err.println("\033[1;33mWarning:\033[0m Skipping malformed route entry in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
+                warn(problems, "\033[1;33mWarning:\033[0m Skipping malformed route entry in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
                 continue;
             }
 
@@ -185,11 +352,11 @@ public class RouteDataManager {
                 try {
                     distance = Integer.parseInt(details[1].trim());
                     if (distance < 0) { // Optional: Validate distance is non-negative
-                        System.err.println("\033[1;33mWarning:\033[0m Skipping route due to negative distance in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
+                        warn(problems, "\033[1;33mWarning:\033[0m Skipping route due to negative distance in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
                         continue;
                     }
                 } catch (NumberFormatException e) {
-                    System.err.println("\033[1;33mWarning:\033[0m Skipping route due to invalid distance format in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
+                    warn(problems, "\033[1;33mWarning:\033[0m Skipping route due to invalid distance format in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
                     continue; // Skip this route if distance is not a number
                 }
                 eta = details[2].trim();
@@ -208,23 +375,24 @@ public class RouteDataManager {
                 try {
                     distance = Integer.parseInt(details[1].trim());
                     if (distance < 0) {
-                        System.err.println("\033[1;33mWarning:\033[0m Skipping route due to negative distance in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
+                        warn(problems, "\033[1;33mWarning:\033[0m Skipping route due to negative distance in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
                         continue;
                     }
                 } catch (NumberFormatException e) {
-                    System.err.println("\033[1;33mWarning:\033[0m Skipping route due to invalid distance format in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
+                    warn(problems, "\033[1;33mWarning:\033[0m Skipping route due to invalid distance format in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
                     continue;
                 }
                 eta = details[2].trim();
                 // providers list remains empty
             }
             else { // Includes cases with only Dest:Info where Info is not NoBus/NoTrain
-                System.err.println("\033[1;33mWarning:\033[0m Skipping unhandled route format in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
+                warn(problems, "\033[1;33mWarning:\033[0m Skipping unhandled route format in " + filename + " line #" + lineNumber + ": " + entry + "\033[0m");
                 continue; // Skip formats we don't understand
             }
 
             // Create the RouteDetail object
-            RouteDetail routeDetail = new RouteDetail(destination, distance, eta, providers);
+            int etaMinutes = distance < 0 ? -1 : Utils.parseEtaMinutes(eta); // Parsed once here, not on every display
+            RouteDetail routeDetail = new RouteDetail(destination, distance, eta, etaMinutes, providers);
             // Store using uppercase destination for consistent lookups
             routes.put(destination.toUpperCase(), routeDetail);
         }
@@ -238,71 +406,44 @@ public class RouteDataManager {
      * Displays all loaded airport information.
      */
     public void displayAllAirports() {
-        displayLocationInfo(airportData, "Airports");
+        displayLocationInfo(PLANE, "Airports");
     }
 
     /**
      * Displays all loaded bus station information.
      */
     public void displayAllBusStations() {
-        displayLocationInfo(busStationData, "Bus Stations");
+        displayLocationInfo(BUS, "Bus Stations");
     }
 
     /**
      * Displays all loaded train station information.
      */
     public void displayAllTrainStations() {
-        displayLocationInfo(trainStationData, "Train Stations");
+        displayLocationInfo(TRAIN, "Train Stations");
     }
 
     /**
-     * Helper method to format and print location information from a data map.
-     * @param data The map containing the location data (keyed by UPPERCASE city name).
+     * Helper method to format and print location information for one mode.
+     * City IDs are in alphabetical order, so walking them needs no sorting.
+     * @param mode The mode index (PLANE, TRAIN or BUS).
      * @param title The title to print for this section (e.g., "Airports").
      */
-    private void displayLocationInfo(Map<String, LocationInfo> data, String title) {
+    private void displayLocationInfo(int mode, String title) {
+        CompiledRoutes compiledRoutes = getCompiledRoutes();
         Utils.printBanner(title);
-        if (data == null || data.isEmpty()) {
-            System.out.println("\033[1;33mNo data loaded for " + title + ".\033[0m");
-            return;
-        }
-
-        // Sort cities alphabetically for consistent display order
-        List<String> sortedCityKeys = new ArrayList<>(data.keySet());
-        Collections.sort(sortedCityKeys);
-
-        for (String cityKey : sortedCityKeys) {
-            LocationInfo info = data.get(cityKey);
+        boolean any = false;
+        for (int city = 0; city < compiledRoutes.cityCount(); city++) {
+            if (!compiledRoutes.serves(city, mode)) continue;
+            any = true;
             // Use ANSI escape codes for better formatting/colors
-            System.out.println("\n\033[1;34mCity:\033[0m " + info.city()); // Blue bold for City
-            System.out.print("\033[1;34m" + info.type() + " Name(s):\033[0m " + info.primaryName()); // Blue bold for Type Name
-            if (!info.alternateNames().isEmpty()) {
-                System.out.print(" \033[0;90m| " + String.join(" | ", info.alternateNames()) + "\033[0m"); // Grey for alternate names
-            }
-            System.out.println(); // Newline after names
-
-            Map<String, RouteDetail> routes = info.routes();
-            if (routes == null || routes.isEmpty()) {
-                System.out.println("  \033[1;33mNo routes defined from this location.\033[0m"); // Yellow bold for warning
-            } else {
-                System.out.println("  \033[1;36mRoutes From This Location:\033[0m"); // Cyan bold for Routes
-
-                // Sort routes by destination city name for consistent output
-                List<RouteDetail> sortedRoutes = new ArrayList<>(routes.values());
-                sortedRoutes.sort((r1, r2) -> r1.destinationCity().compareToIgnoreCase(r2.destinationCity()));
-
-                for (RouteDetail route : sortedRoutes) {
-                    // Check for "Not Available" routes explicitly
-                    if (route.distance() == -1 && route.eta().equalsIgnoreCase("Not Available")) {
-                        System.out.printf("    - \033[1mTo %s:\033[0m \033[0;31mNot Available via this mode\033[0m\n", route.destinationCity()); // Red for N/A
-                    } else {
-                        // Format regular route details with colors
-                        System.out.printf("    - \033[1mTo %s:\033[0m Distance: \033[1;33m%d km\033[0m, ETA: \033[1;32m%s\033[0m, Providers: \033[0;35m%s\033[0m\n",
-                                route.destinationCity(), route.distance(), route.eta(),
-                                route.providers().isEmpty() ? "N/A" : String.join(", ", route.providers()));
-                    }
-                }
-            }
+            System.out.println("\n\033[1;34mCity:\033[0m " + compiledRoutes.cityName(city)); // Blue bold for City
+            System.out.print("\033[1;34m" + CompiledRoutes.LOCATION_TYPES[mode] + " Name(s):\033[0m " + compiledRoutes.primaryName(city, mode)); // Blue bold for Type Name
+            printAlternateNames(compiledRoutes, city, mode);
+            printRoutes(compiledRoutes, city, mode);
+        }
+        if (!any) {
+            System.out.println("\033[1;33mNo data loaded for " + title + ".\033[0m");
         }
     }
 
@@ -314,76 +455,150 @@ public class RouteDataManager {
      */
     public void displayInfoForCity(String city, Scanner sc) {
         Utils.clearScreen();
-        String searchKey = city.toUpperCase(); // Use uppercase for map lookup
+        RouteSnapshot current = snapshot.get();
+        CompiledRoutes compiledRoutes = current.routes();
+        int cityId = current.locations().resolve(city); // Also accepts station names and codes like "DEL"
+        if (cityId >= 0) city = compiledRoutes.cityName(cityId);
         Utils.printBanner("Information for " + city);
         boolean found = false;
 
-        // Check and display Airport info
-        LocationInfo airport = airportData.get(searchKey);
-        if (airport != null) {
-            found = true;
-            displaySingleLocation(airport);
-        } else {
-            System.out.println("\n\033[1;33mNo Airport data found for " + city + ".\033[0m");
-        }
-
-        // Check and display Bus Station info
-        LocationInfo busStation = busStationData.get(searchKey);
-        if (busStation != null) {
-            found = true;
-            displaySingleLocation(busStation);
-        } else {
-            System.out.println("\n\033[1;33mNo Bus Station data found for " + city + ".\033[0m");
-        }
-
-        // Check and display Train Station info
-        LocationInfo trainStation = trainStationData.get(searchKey);
-        if (trainStation != null) {
-            found = true;
-            displaySingleLocation(trainStation);
-        } else {
-            System.out.println("\n\033[1;33mNo Train Station data found for " + city + ".\033[0m");
+        // Airport, then Bus Station, then Train Station info
+        for (int mode : new int[]{PLANE, BUS, TRAIN}) {
+            if (cityId >= 0 && compiledRoutes.serves(cityId, mode)) {
+                found = true;
+                displaySingleLocation(compiledRoutes, cityId, mode);
+            } else {
+                System.out.println("\n\033[1;33mNo " + CompiledRoutes.LOCATION_TYPES[mode] + " data found for " + city + ".\033[0m");
+            }
         }
 
         // Message if no data found at all for the city
         if (!found) {
             System.out.println("\n\033[1;31mNo information found for city: " + city + "\033[0m");
+            printSuggestions(current.locations().search(city, 5));
         }
         Utils.pause(sc); // Pause after displaying information
     }
 
     /**
-     * Helper method to display the details of a single LocationInfo object.
+     * Prints "Did you mean" suggestions from a location search.
+     * @param matches Matches from searchLocations (or the index directly).
+     */
+    void printSuggestions(List<LocationMatch> matches) {
+        if (matches.isEmpty()) return;
+        System.out.println("\033[1;33mDid you mean:\033[0m");
+        for (LocationMatch m : matches) {
+            System.out.println("  - \033[1m" + m.city() + "\033[0m \033[0;90m(" + m.kind() + ": " + m.matched() + ")\033[0m");
+        }
+    }
+
+    /**
+     * Helper method to display the details of one city's location for one mode.
      * Used by displayInfoForCity.
-     * @param info The LocationInfo object to display.
+     * @param compiledRoutes The route version being displayed.
+     * @param city The city ID.
+     * @param mode The mode index.
      */
-    private void displaySingleLocation(LocationInfo info) {
-        System.out.println("\n\033[1;34m--- " + info.type() + " Information ---"); // Blue bold header
-        System.out.print("\033[1;34mName(s):\033[0m " + info.primaryName());
-        if (!info.alternateNames().isEmpty()) {
-            System.out.print(" \033[0;90m| " + String.join(" | ", info.alternateNames()) + "\033[0m"); // Grey alternates
+    private void displaySingleLocation(CompiledRoutes compiledRoutes, int city, int mode) {
+        System.out.println("\n\033[1;34m--- " + CompiledRoutes.LOCATION_TYPES[mode] + " Information ---"); // Blue bold header
+        System.out.print("\033[1;34mName(s):\033[0m " + compiledRoutes.primaryName(city, mode));
+        printAlternateNames(compiledRoutes, city, mode);
+        printRoutes(compiledRoutes, city, mode);
+    }
+
+    private void printAlternateNames(CompiledRoutes compiledRoutes, int city, int mode) {
+        List<String> alternates = compiledRoutes.alternateNames(city, mode);
+        if (!alternates.isEmpty()) {
+            System.out.print(" \033[0;90m| " + String.join(" | ", alternates) + "\033[0m"); // Grey for alternate names
         }
-        System.out.println(); // Newline
+        System.out.println(); // Newline after names
+    }
 
-        Map<String, RouteDetail> routes = info.routes();
-        if (routes == null || routes.isEmpty()) {
-            System.out.println("  \033[1;33mNo routes defined from this location.\033[0m"); // Yellow bold
-        } else {
-            System.out.println("  \033[1;36mRoutes From This Location:\033[0m"); // Cyan bold
-            // Sort routes by destination city name
-            List<RouteDetail> sortedRoutes = new ArrayList<>(routes.values());
-            sortedRoutes.sort((r1, r2) -> r1.destinationCity().compareToIgnoreCase(r2.destinationCity()));
-
-            for (RouteDetail route : sortedRoutes) {
-                if (route.distance() == -1 && route.eta().equalsIgnoreCase("Not Available")) {
-                    System.out.printf("    - \033[1mTo %s:\033[0m \033[0;31mNot Available via this mode\033[0m\n", route.destinationCity()); // Red N/A
-                } else {
-                    System.out.printf("    - \033[1mTo %s:\033[0m Distance: \033[1;33m%d km\033[0m, ETA: \033[1;32m%s\033[0m, Providers: \033[0;35m%s\033[0m\n", // Colors
-                            route.destinationCity(), route.distance(), route.eta(),
-                            route.providers().isEmpty() ? "N/A" : String.join(", ", route.providers()));
-                }
+    /** Prints a city's routes for one mode; the CSR row is already sorted by destination. */
+    private void printRoutes(CompiledRoutes compiledRoutes, int city, int mode) {
+        int first = compiledRoutes.firstEdge(city, mode), end = compiledRoutes.endEdge(city, mode);
+        if (first == end) {
+            System.out.println("  \033[1;33mNo routes defined from this location.\033[0m"); // Yellow bold for warning
+            return;
+        }
+        System.out.println("  \033[1;36mRoutes From This Location:\033[0m"); // Cyan bold for Routes
+        for (int e = first; e < end; e++) {
+            String destination = compiledRoutes.cityName(compiledRoutes.target(e));
+            // Check for "Not Available" routes explicitly
+            if (!compiledRoutes.available(e)) {
+                System.out.printf("    - \033[1mTo %s:\033[0m \033[0;31mNot Available via this mode\033[0m\n", destination); // Red for N/A
+            } else {
+                // Format regular route details with colors
+                List<String> providers = compiledRoutes.providers(e);
+                System.out.printf("    - \033[1mTo %s:\033[0m Distance: \033[1;33m%d km\033[0m, ETA: \033[1;32m%s\033[0m, Providers: \033[0;35m%s\033[0m\n",
+                        destination, compiledRoutes.distance(e), compiledRoutes.eta(e),
+                        providers.isEmpty() ? "N/A" : String.join(", ", providers));
+            }
+        }
+    }
+
+    /**
+     * Displays the routes run by a provider or operator, or the list of operators for a blank query.
+     * @param query Provider name or prefix (see findRoutesByProvider).
+     */
+    public void displayProviderRoutes(String query) {
+        if (query.isBlank()) {
+            Utils.printBanner("Operators");
+            for (Map.Entry<String, Integer> operator : snapshot.get().providers().operators().entrySet()) {
+                System.out.printf("  \033[1m%-28s\033[0m %4d route(s)%n", operator.getKey(), operator.getValue());
             }
+            return;
+        }
+        List<ProviderRoute> found = findRoutesByProvider(query);
+        Utils.printBanner("Routes Served by " + query);
+        if (found.isEmpty()) {
+            System.out.println("\033[1;33mNo provider name starts with '" + query + "'.\033[0m");
+            return;
+        }
+        printProviderRoutes(found);
+        System.out.println("\n\033[0;90m" + found.size() + " route(s).\033[0m");
+    }
+
+    /**
+     * Displays every direct route between two cities, all modes, with their providers.
+     */
+    public void displayRoutesBetween(String fromCity, String toCity) {
+        List<ProviderRoute> found = findRoutesBetween(fromCity, toCity);
+        Utils.printBanner("Direct Routes: " + fromCity + " -> " + toCity);
+        if (found.isEmpty()) {
+            System.out.println("\033[1;33mNo direct route found between " + fromCity + " and " + toCity + ".\033[0m");
+            return;
+        }
+        printProviderRoutes(found);
+    }
+
+    private void printProviderRoutes(List<ProviderRoute> found) {
+        for (ProviderRoute r : found) {
+            System.out.printf("  \033[1;34m%-5s\033[0m \033[1m%s -> %s\033[0m: \033[1;33m%d km\033[0m, ETA: \033[1;32m%s\033[0m, Providers: \033[0;35m%s\033[0m%n",
+                    r.mode(), r.from(), r.to(), r.distance(), r.eta(), r.providers().isEmpty() ? "N/A" : r.providers());
+        }
+    }
+
+    /**
+     * Displays the route data version, how it was loaded and the reload counters.
+     */
+    public void displayStatus() {
+        RouteSnapshot current = snapshot.get();
+        RouteReloader watcher;
+        synchronized (this) { watcher = reloader; }
+        Utils.printBanner("Route Data Status");
+        System.out.println("\033[1;34mVersion:\033[0m " + current.version() + " \033[0;90m(from " + current.source() + ")\033[0m");
+        System.out.println("\033[1;34mLoaded At:\033[0m " + new java.util.Date(current.loadedAtMillis()));
+        System.out.printf("\033[1;34mLoad Time:\033[0m %.2f ms%n", current.loadNanos() / 1e6);
+        System.out.println("\033[1;34mCities / Routes:\033[0m " + current.routes().cityCount() + " / " + current.routes().edgeCount());
+        if (watcher == null) {
+            System.out.println("\033[1;33mRoute files are not being watched.\033[0m");
+            return;
+        }
+        System.out.println("\033[1;34mReloads:\033[0m " + watcher.getReloadCount() + ", \033[1;34mRejected:\033[0m " + watcher.getRejectedCount());
+        if (watcher.getLastProblem() != null) {
+            System.out.println("\033[1;34mLast Rejection:\033[0m " + watcher.getLastProblem());
         }
     }
 
-} // End of RouteDataManager class
\ No newline at end of file
+} // End of RouteDataManager class
@@ -0,0 +1,13 @@
+package TicketBookingSystem;
+
+import java.util.List;
+
+/**
+ * Record to hold details of a single route segment.
+ * @param destinationCity The name of the destination city.
+ * @param distance The distance in kilometers. -1 if not applicable (e.g., NoBus).
+ * @param eta The estimated time of arrival string (e.g., "2h30m"). "N/A" if not applicable.
+ * @param etaMinutes The ETA parsed to minutes at load time, for sorting and sums. -1 if not applicable or not parseable.
+ * @param providers List of provider names (e.g., airline codes, train names, bus operators).
+ */
+record RouteDetail(String destinationCity, int distance, String eta, int etaMinutes, List<String> providers) {}
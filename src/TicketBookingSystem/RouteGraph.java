@@ -0,0 +1,292 @@
+package TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Intermodal itinerary search over the compiled route data (see CompiledRoutes).
+ * Nodes are cities (one node per city whatever modes serve it), edges are the direct routes of
+ * each mode and carry distance, parsed ETA, providers and the base price. Answers k-shortest
+ * itinerary queries (Yen's algorithm) so a trip may chain, for example, a bus to a rail hub,
+ * a train to an airport city and a flight. Each query first runs one backward Dijkstra from the
+ * destination; the exact remaining cost it yields guides every spur search as an A* heuristic,
+ * so the repeated searches of Yen's algorithm only expand nodes close to the best paths.
+ */
+public class RouteGraph {
+
+    /** What an itinerary is ranked by. */
+    public enum Metric { TIME, DISTANCE, PRICE }
+
+    private final CompiledRoutes routes;
+    private final double[] prices; // Base price per edge, -1 for unavailable routes
+
+    /** Builds the graph over the route data already loaded by the manager. */
+    public RouteGraph(RouteDataManager routes) {
+        this(routes.getCompiledRoutes());
+    }
+
+    RouteGraph(CompiledRoutes routes) {
+        this.routes = routes;
+        prices = new double[routes.edgeCount()];
+        for (int e = 0; e < prices.length; e++) {
+            prices[e] = routes.available(e) ? Utils.calculatePrice(CompiledRoutes.MODES[routes.mode(e)], routes.distance(e)) : -1;
+        }
+    }
+
+    public int cityCount() { return routes.cityCount(); }
+
+    /** Number of usable routes (NoBus / NoTrain markers excluded). */
+    public int routeCount() {
+        int count = 0;
+        for (int e = 0; e < routes.edgeCount(); e++) if (routes.available(e) && routes.source(e) != routes.target(e)) count++;
+        return count;
+    }
+
+    /** Returns the display name of a city (case-insensitive lookup), or null if no mode serves it. */
+    public String cityName(String city) {
+        int id = routes.cityId(city);
+        return id < 0 ? null : routes.cityName(id);
+    }
+
+    /** @return The cost of an edge under the metric, or -1 if the edge cannot be used. */
+    private double cost(int edge, Metric metric) {
+        if (!routes.available(edge) || routes.source(edge) == routes.target(edge)) return -1;
+        switch (metric) {
+            case TIME: return routes.etaMinutes(edge); // -1 if the ETA was not parseable
+            case DISTANCE: return routes.distance(edge);
+            default: return prices[edge];
+        }
+    }
+
+    /**
+     * Finds up to k loopless itineraries from origin to destination, best first.
+     * @param origin Origin city (case-insensitive).
+     * @param destination Destination city (case-insensitive).
+     * @param k Maximum number of itineraries to return.
+     * @param metric What to minimise.
+     * @return The itineraries found; empty if either city is unknown or unreachable.
+     */
+    public List<Itinerary> findItineraries(String origin, String destination, int k, Metric metric) {
+        int source = routes.cityId(origin);
+        int target = routes.cityId(destination);
+        if (source < 0 || target < 0 || source == target || k <= 0) return Collections.emptyList();
+
+        Search search = new Search(routes.cityCount(), routes.edgeCount(), metric);
+        search.distancesTo(target);
+        List<int[]> accepted = new ArrayList<>();
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        Set<String> seen = new HashSet<>();
+
+        int[] first = search.shortestPath(source, target);
+        if (first == null) return Collections.emptyList();
+        accepted.add(first);
+        seen.add(Arrays.toString(first));
+
+        while (accepted.size() < k) {
+            int[] previous = accepted.get(accepted.size() - 1);
+            // Deviate from the previous path at every node along it (Yen's spur paths)
+            for (int i = 0; i < previous.length; i++) {
+                int spurNode = i == 0 ? source : routes.target(previous[i - 1]);
+                search.clearBlocks();
+                for (int[] path : accepted) {
+                    if (path.length > i && samePrefix(path, previous, i)) search.blockEdge(path[i]);
+                }
+                search.blockNode(source);
+                for (int j = 0; j < i - 1; j++) search.blockNode(routes.target(previous[j]));
+                if (spurNode != source) search.unblockNode(spurNode);
+
+                int[] spur = search.shortestPath(spurNode, target);
+                if (spur == null) continue;
+                int[] path = Arrays.copyOf(previous, i + spur.length);
+                System.arraycopy(spur, 0, path, i, spur.length);
+                if (seen.add(Arrays.toString(path))) candidates.add(new Candidate(path, pathCost(path, metric)));
+            }
+            Candidate next = candidates.poll();
+            if (next == null) break;
+            accepted.add(next.edges);
+        }
+
+        List<Itinerary> result = new ArrayList<>(accepted.size());
+        for (int[] path : accepted) result.add(toItinerary(path));
+        return result;
+    }
+
+    private static boolean samePrefix(int[] a, int[] b, int length) {
+        for (int i = 0; i < length; i++) if (a[i] != b[i]) return false;
+        return true;
+    }
+
+    private double pathCost(int[] path, Metric metric) {
+        double total = 0;
+        for (int edge : path) total += cost(edge, metric);
+        return total;
+    }
+
+    private Itinerary toItinerary(int[] path) {
+        List<ItineraryLeg> legs = new ArrayList<>(path.length);
+        int distance = 0, minutes = 0;
+        double price = 0;
+        for (int edge : path) {
+            int eta = routes.etaMinutes(edge);
+            legs.add(new ItineraryLeg(CompiledRoutes.MODES[routes.mode(edge)], routes.cityName(routes.source(edge)), routes.cityName(routes.target(edge)),
+                    routes.distance(edge), eta, routes.eta(edge), routes.providers(edge), prices[edge]));
+            distance += routes.distance(edge);
+            minutes = minutes < 0 || eta < 0 ? -1 : minutes + eta;
+            price += prices[edge];
+        }
+        return new Itinerary(Collections.unmodifiableList(legs), distance, minutes, price);
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        final int[] edges;
+        final double cost;
+
+        Candidate(int[] edges, double cost) { this.edges = edges; this.cost = cost; }
+
+        @Override
+        public int compareTo(Candidate o) {
+            int c = Double.compare(cost, o.cost);
+            return c != 0 ? c : Integer.compare(edges.length, o.edges.length); // Fewer changes on ties
+        }
+    }
+
+    /**
+     * A* state reused across the spur searches of one query. Blocks and visits are
+     * tracked with generation stamps so nothing is cleared between searches.
+     */
+    private final class Search {
+        private final Metric metric;
+        private final double[] dist;
+        private final double[] toTarget; // Unblocked cost to the target, the A* heuristic
+        private final int[] viaEdge;
+        private final int[] visited, reached, nodeBlock, edgeBlock;
+        private int generation, blockGeneration;
+        private double[] heapCost = new double[64];
+        private int[] heapNode = new int[64];
+        private int heapSize;
+
+        Search(int nodes, int edges, Metric metric) {
+            this.metric = metric;
+            dist = new double[nodes];
+            toTarget = new double[nodes];
+            viaEdge = new int[nodes];
+            visited = new int[nodes];
+            reached = new int[nodes];
+            nodeBlock = new int[nodes];
+            edgeBlock = new int[edges];
+        }
+
+        void clearBlocks() { blockGeneration++; }
+        void blockNode(int node) { nodeBlock[node] = blockGeneration; }
+        void unblockNode(int node) { nodeBlock[node] = 0; }
+        void blockEdge(int edge) { edgeBlock[edge] = blockGeneration; }
+
+        /** Backward Dijkstra over incoming edges; nodes that cannot reach the target stay infinite. */
+        void distancesTo(int target) {
+            Arrays.fill(toTarget, Double.POSITIVE_INFINITY);
+            generation++;
+            heapSize = 0;
+            toTarget[target] = 0;
+            push(0, target);
+            while (heapSize > 0) {
+                double d = heapCost[0];
+                int v = pop();
+                if (visited[v] == generation) continue;
+                visited[v] = generation;
+                for (int i = routes.firstIncoming(v), end = routes.endIncoming(v); i < end; i++) {
+                    int edge = routes.incomingEdge(i);
+                    int u = routes.source(edge);
+                    double c = cost(edge, metric);
+                    if (c < 0 || visited[u] == generation) continue;
+                    if (d + c < toTarget[u]) {
+                        toTarget[u] = d + c;
+                        push(d + c, u);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Blocked nodes and edges only ever raise the true remaining cost, so toTarget stays
+         * an admissible and consistent heuristic for every spur search.
+         * @return Edge ids from source to target, or null if unreachable.
+         */
+        int[] shortestPath(int source, int target) {
+            if (toTarget[source] == Double.POSITIVE_INFINITY) return null;
+            generation++;
+            heapSize = 0;
+            dist[source] = 0;
+            reached[source] = generation;
+            viaEdge[source] = -1;
+            push(toTarget[source], source);
+            while (heapSize > 0) {
+                int u = pop();
+                if (visited[u] == generation) continue;
+                visited[u] = generation;
+                if (u == target) break;
+                double d = dist[u];
+                for (int edge = routes.firstEdge(u), end = routes.endEdge(u); edge < end; edge++) {
+                    if (blockGeneration > 0 && edgeBlock[edge] == blockGeneration) continue;
+                    int v = routes.target(edge);
+                    if (visited[v] == generation || (blockGeneration > 0 && nodeBlock[v] == blockGeneration)) continue;
+                    double c = cost(edge, metric);
+                    if (c < 0 || toTarget[v] == Double.POSITIVE_INFINITY) continue;
+                    double nd = d + c;
+                    if (reached[v] != generation || nd < dist[v]) {
+                        reached[v] = generation;
+                        dist[v] = nd;
+                        viaEdge[v] = edge;
+                        push(nd + toTarget[v], v);
+                    }
+                }
+            }
+            if (visited[target] != generation) return null;
+            int length = 0;
+            for (int n = target; viaEdge[n] >= 0; n = routes.source(viaEdge[n])) length++;
+            int[] path = new int[length];
+            for (int n = target; viaEdge[n] >= 0; n = routes.source(viaEdge[n])) path[--length] = viaEdge[n];
+            return path;
+        }
+
+        private void push(double cost, int node) {
+            if (heapSize == heapCost.length) {
+                heapCost = Arrays.copyOf(heapCost, heapSize * 2);
+                heapNode = Arrays.copyOf(heapNode, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapCost[parent] <= cost) break;
+                heapCost[i] = heapCost[parent];
+                heapNode[i] = heapNode[parent];
+                i = parent;
+            }
+            heapCost[i] = cost;
+            heapNode[i] = node;
+        }
+
+        private int pop() {
+            int top = heapNode[0];
+            double cost = heapCost[--heapSize];
+            int node = heapNode[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && heapCost[child + 1] < heapCost[child]) child++;
+                if (heapCost[child] >= cost) break;
+                heapCost[i] = heapCost[child];
+                heapNode[i] = heapNode[child];
+                i = child;
+            }
+            heapCost[i] = cost;
+            heapNode[i] = node;
+            return top;
+        }
+    }
+}
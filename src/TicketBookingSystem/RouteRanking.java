@@ -0,0 +1,112 @@
+package TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Direct routes from each city presorted by duration, distance and fare, built once per route
+ * snapshot. For every metric there is a permutation of the edge IDs that keeps each city's range
+ * (all modes) and each city-and-mode row of the CSR layout in place but orders it by that metric,
+ * usable routes first. A top-N listing then reads the first N entries of one range instead of
+ * sorting on every menu render.
+ */
+final class RouteRanking {
+    private static final RouteGraph.Metric[] METRICS = RouteGraph.Metric.values();
+
+    private final CompiledRoutes routes;
+    private final double[] fares;      // Base fare per edge, -1 for unavailable routes
+    private final int[][] byCity;      // [metric] edge IDs, each city's range sorted over all modes
+    private final int[][] byRow;       // [metric] edge IDs, each city-and-mode row sorted
+    private final int[][] cityUsable;  // [metric][city] number of usable routes at the start of its range
+    private final int[][] rowUsable;   // [metric][city * MODES + mode]
+
+    RouteRanking(CompiledRoutes routes) {
+        this.routes = routes;
+        int modes = CompiledRoutes.MODES.length;
+        fares = new double[routes.edgeCount()];
+        for (int e = 0; e < fares.length; e++) {
+            fares[e] = routes.available(e) ? Utils.calculatePrice(CompiledRoutes.MODES[routes.mode(e)], routes.distance(e)) : -1;
+        }
+        byCity = new int[METRICS.length][];
+        byRow = new int[METRICS.length][];
+        cityUsable = new int[METRICS.length][routes.cityCount()];
+        rowUsable = new int[METRICS.length][routes.cityCount() * modes];
+        for (RouteGraph.Metric metric : METRICS) {
+            int m = metric.ordinal();
+            byCity[m] = new int[routes.edgeCount()];
+            byRow[m] = new int[routes.edgeCount()];
+            for (int city = 0; city < routes.cityCount(); city++) {
+                cityUsable[m][city] = sortRange(byCity[m], routes.firstEdge(city), routes.endEdge(city), metric);
+                for (int mode = 0; mode < modes; mode++) {
+                    rowUsable[m][city * modes + mode] = sortRange(byRow[m], routes.firstEdge(city, mode), routes.endEdge(city, mode), metric);
+                }
+            }
+        }
+    }
+
+    /** Fills order[from, to) with those edge IDs sorted by the metric; returns how many are usable. */
+    private int sortRange(int[] order, int from, int to, RouteGraph.Metric metric) {
+        Integer[] edges = new Integer[to - from];
+        int usable = 0;
+        for (int e = from; e < to; e++) {
+            edges[e - from] = e;
+            if (value(e, metric) >= 0) usable++;
+        }
+        Arrays.sort(edges, Comparator.<Integer>comparingInt(e -> value(e, metric) < 0 ? 1 : 0)
+                .thenComparingDouble(e -> value(e, metric))
+                .thenComparingInt(routes::distance)
+                .thenComparingInt(e -> e));
+        for (int i = 0; i < edges.length; i++) order[from + i] = edges[i];
+        return usable;
+    }
+
+    /** The edge's value under the metric, or -1 if it cannot be ranked (unavailable, or ETA not parseable). */
+    private double value(int edge, RouteGraph.Metric metric) {
+        if (!routes.available(edge) || routes.source(edge) == routes.target(edge)) return -1;
+        switch (metric) {
+            case TIME: return routes.etaMinutes(edge);
+            case DISTANCE: return routes.distance(edge);
+            default: return fares[edge];
+        }
+    }
+
+    /**
+     * The best direct routes from a city.
+     * @param mode Mode index, or -1 for all modes.
+     * @return Up to limit routes, best first.
+     */
+    List<RankedRoute> topRoutes(int city, int mode, RouteGraph.Metric metric, int limit) {
+        int m = metric.ordinal();
+        int[] order = mode < 0 ? byCity[m] : byRow[m];
+        int first = mode < 0 ? routes.firstEdge(city) : routes.firstEdge(city, mode);
+        int usable = mode < 0 ? cityUsable[m][city] : rowUsable[m][city * CompiledRoutes.MODES.length + mode];
+        List<RankedRoute> result = new ArrayList<>();
+        for (int i = first; i < first + Math.min(limit, usable); i++) result.add(toRanked(order[i]));
+        return result;
+    }
+
+    /**
+     * The best destinations from a city over all modes: each destination once, by its best route.
+     * @return Up to limit routes, best first.
+     */
+    List<RankedRoute> topDestinations(int city, RouteGraph.Metric metric, int limit) {
+        int m = metric.ordinal();
+        int first = routes.firstEdge(city);
+        List<RankedRoute> result = new ArrayList<>();
+        List<Integer> seen = new ArrayList<>(); // Targets already listed; at most limit entries
+        for (int i = first; i < first + cityUsable[m][city] && result.size() < limit; i++) {
+            int edge = byCity[m][i];
+            if (seen.contains(routes.target(edge))) continue;
+            seen.add(routes.target(edge));
+            result.add(toRanked(edge));
+        }
+        return result;
+    }
+
+    private RankedRoute toRanked(int edge) {
+        return new RankedRoute(CompiledRoutes.MODES[routes.mode(edge)], routes.cityName(routes.source(edge)), routes.cityName(routes.target(edge)),
+                routes.distance(edge), routes.eta(edge), routes.etaMinutes(edge), fares[edge], routes.providers(edge));
+    }
+}
@@ -0,0 +1,143 @@
+package TicketBookingSystem;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the three route files and reloads them without a restart.
+ * A daemon thread waits for changes, lets the writer settle, then parses and validates the new
+ * files off the read path. A valid version is published through RouteDataManager.publish as a
+ * new immutable RouteSnapshot (and written to the route catalog); an invalid one, such as a file
+ * caught half-written or a malformed edit, is rejected and the current version stays in use.
+ */
+final class RouteReloader implements AutoCloseable {
+    // A change is reloaded once no route file has changed for this long
+    private static final long SETTLE_MILLIS = 300;
+
+    private final RouteDataManager manager;
+    private final WatchService watcher;
+    private final Thread thread;
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile String lastProblem;
+
+    RouteReloader(RouteDataManager manager) throws IOException {
+        this.manager = manager;
+        watcher = FileSystems.getDefault().newWatchService();
+        Path directory = Paths.get("").toAbsolutePath();
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::watch, "route-reloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    long getReloadCount() { return reloads.get(); }
+
+    long getRejectedCount() { return rejected.get(); }
+
+    /** The reason the most recent rejected reload was refused, or null if none was. */
+    String getLastProblem() { return lastProblem; }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!drain(watcher.take())) continue;
+                long quietUntil = System.currentTimeMillis() + SETTLE_MILLIS;
+                while (true) {
+                    long wait = quietUntil - System.currentTimeMillis();
+                    if (wait <= 0) break;
+                    WatchKey key = watcher.poll(wait, TimeUnit.MILLISECONDS);
+                    if (key == null) break;
+                    // Other files in the directory (the booking journal) change constantly; only route files extend the wait
+                    if (drain(key)) quietUntil = System.currentTimeMillis() + SETTLE_MILLIS;
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /** Consumes a key's events; returns true if any concerned a route file. */
+    private static boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (event.context() instanceof Path) {
+                String name = ((Path) event.context()).getFileName().toString();
+                relevant |= Arrays.asList(RouteDataManager.SOURCE_FILES).contains(name);
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Parses, validates and publishes the current route files.
+     * @return true if a new version was published.
+     */
+    boolean reload() {
+        long start = System.nanoTime();
+        int[] checksums = RouteCatalog.sourceChecksums(RouteDataManager.SOURCE_FILES);
+        if (checksums == null) return reject("a route file is missing or unreadable");
+        if (Arrays.equals(checksums, manager.getSnapshot().checksums())) return false; // Touched, not changed
+
+        List<String> problems = new ArrayList<>();
+        CompiledRoutes routes = RouteDataManager.parseAndCompile(problems);
+        if (problems.isEmpty()) problems.addAll(validate(routes));
+        if (!problems.isEmpty()) {
+            return reject(problems.size() + " problem(s), first: " + problems.get(0).replaceAll("\033\\[[0-9;]*m", ""));
+        }
+        if (!Arrays.equals(checksums, RouteCatalog.sourceChecksums(RouteDataManager.SOURCE_FILES))) {
+            return false; // Changed again while parsing; the next event reloads it
+        }
+        RouteSnapshot snapshot = manager.publish(routes, checksums, "reload", System.nanoTime() - start);
+        reloads.incrementAndGet();
+        RouteCatalog.write(routes, checksums);
+        System.out.println("\n" + Utils.GREY + String.format("Route data reloaded: version %d, %d cities, %d routes (%.1f ms)",
+                snapshot.version(), routes.cityCount(), routes.edgeCount(), snapshot.loadNanos() / 1e6) + Utils.RESET);
+        return true;
+    }
+
+    private boolean reject(String problem) {
+        rejected.incrementAndGet();
+        lastProblem = problem;
+        System.out.println("\n" + Utils.YELLOW + "Route files changed but were not reloaded (" + problem + "); keeping version "
+                + manager.getSnapshot().version() + "." + Utils.RESET);
+        return false;
+    }
+
+    /** Checks a parsed version beyond the per-line parse rules: every mode must still have locations. */
+    static List<String> validate(CompiledRoutes routes) {
+        List<String> problems = new ArrayList<>();
+        for (int mode = 0; mode < CompiledRoutes.MODES.length; mode++) {
+            boolean any = false;
+            for (int city = 0; city < routes.cityCount() && !any; city++) any = routes.serves(city, mode);
+            if (!any) problems.add("no " + CompiledRoutes.LOCATION_TYPES[mode] + " entries in " + RouteDataManager.SOURCE_FILES[mode]);
+        }
+        return problems;
+    }
+
+    @Override
+    public void close() {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            // Nothing to release
+        }
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,11 @@
+package TicketBookingSystem;
+
+/**
+ * Immutable version of the loaded route data, swapped in whole when the route files are reloaded.
+ * The route graph, the location and provider indexes and the route rankings are built with it, so they always agree with the routes.
+ * @param version Starts at 1 and increases with every published reload.
+ * @param checksums CRC32C of the source files it was built from (null if a file was missing).
+ * @param source How it was loaded ("catalog", "text files" or "reload").
+ * @param loadNanos How long loading (and for reloads, parsing and validating) took.
+ */
+record RouteSnapshot(long version, CompiledRoutes routes, RouteGraph graph, LocationIndex locations, ProviderIndex providers, RouteRanking rankings, int[] checksums, String source, long loadNanos, long loadedAtMillis) {}
@@ -0,0 +1,183 @@
+package TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.Set;
+
+/**
+ * Picks the best free seats for a party from a seat map, so users need not type each seat.
+ * Works on a row's free seats as one mask (bit c = column position c) taken from the seat words:
+ * runs of free seats are found by ANDing shifted copies of the mask, and the aisles, window and
+ * aisle columns of the SeatLayout are masks too. No Seat objects are created or visited.
+ * Search order for a party that sits together: the best run in one row between two aisles, then a
+ * run across an aisle, then the fewest consecutive rows that hold everyone.
+ */
+final class SeatAssigner {
+    /** Seat preferences; TOGETHER only matters for parties of two or more. */
+    enum Preference { WINDOW, AISLE, TOGETHER, FRONT }
+
+    private SeatAssigner() {}
+
+    /**
+     * Chooses seats for a party.
+     * WINDOW and AISLE rank seats (or runs) that include such a seat first; FRONT ranks rows first,
+     * otherwise rows only break ties. TOGETHER keeps the party in one run or as few rows as possible.
+     * @return Seat indices in seat order, or null if the map has fewer free seats than the party.
+     */
+    static int[] assign(SeatBitmap seats, int party, Set<Preference> preferences) {
+        SeatLayout layout = seats.layout();
+        if (party < 1 || layout.seatCount() - seats.reservedCount() < party) return null;
+        if (party == 1 || !preferences.contains(Preference.TOGETHER)) return bestSingles(seats, party, preferences);
+        if (party <= layout.columns()) {
+            int[] run = bestRun(seats, party, preferences, true);
+            if (run == null) run = bestRun(seats, party, preferences, false);
+            if (run != null) return run;
+        }
+        return fewestRows(seats, party, preferences);
+    }
+
+    /** Free column positions of a row (1-based), one bit each. */
+    private static long freeInRow(SeatBitmap seats, int row) {
+        SeatLayout layout = seats.layout();
+        return ~seats.bits((row - 1) * layout.columns(), layout.columns()) & layout.rowMask();
+    }
+
+    /**
+     * Rank of a seat block (lower is better): preferences missed and the row, in the order FRONT asks for,
+     * then the column.
+     */
+    private static long rank(SeatLayout layout, int row, long block, Set<Preference> preferences) {
+        int missed = 0;
+        if (preferences.contains(Preference.WINDOW) && (block & layout.windowColumns()) == 0) missed++;
+        if (preferences.contains(Preference.AISLE) && (block & layout.aisleColumns()) == 0) missed++;
+        long primary = preferences.contains(Preference.FRONT) ? (long) row * 4 + missed : (long) missed * 1024 + row;
+        return primary * 64 + Long.numberOfTrailingZeros(block);
+    }
+
+    /**
+     * The best run of party adjacent free seats in one row.
+     * @param withinSection true to refuse runs that cross an aisle.
+     */
+    private static int[] bestRun(SeatBitmap seats, int party, Set<Preference> preferences, boolean withinSection) {
+        SeatLayout layout = seats.layout();
+        long breaks = withinSection ? layout.aisleBreaks() : 0;
+        long bestRank = Long.MAX_VALUE;
+        int bestRow = -1, bestStart = -1;
+        for (int row = 1; row <= layout.rows(); row++) {
+            long free = freeInRow(seats, row);
+            // Bit p of starts: seats p .. p + party - 1 are free (and no aisle between them)
+            long starts = free;
+            for (int i = 1; i < party && starts != 0; i++) starts &= (free >>> i) & ~(breaks >>> (i - 1));
+            for (long candidates = starts; candidates != 0; candidates &= candidates - 1) {
+                int start = Long.numberOfTrailingZeros(candidates);
+                long rank = rank(layout, row, ((1L << party) - 1) << start, preferences);
+                if (rank < bestRank) { bestRank = rank; bestRow = row; bestStart = start; }
+            }
+        }
+        if (bestRow < 0) return null;
+        int[] result = new int[party];
+        for (int i = 0; i < party; i++) result[i] = (bestRow - 1) * layout.columns() + bestStart + i;
+        return result;
+    }
+
+    /** The party best-ranked free seats, each on its own merits. */
+    private static int[] bestSingles(SeatBitmap seats, int party, Set<Preference> preferences) {
+        SeatLayout layout = seats.layout();
+        long[] ranked = new long[layout.seatCount()];
+        int count = 0;
+        for (int row = 1; row <= layout.rows(); row++) {
+            for (long free = freeInRow(seats, row); free != 0; free &= free - 1) {
+                int column = Long.numberOfTrailingZeros(free);
+                ranked[count++] = rank(layout, row, 1L << column, preferences) * 4096 + (row - 1) * layout.columns() + column;
+            }
+        }
+        Arrays.sort(ranked, 0, count);
+        int[] result = new int[party];
+        for (int i = 0; i < party; i++) result[i] = (int) (ranked[i] % 4096);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * The fewest consecutive rows with enough free seats for the party (front-most if FRONT, else the
+     * ones with the most free seats to choose from), filled with the best-ranked seats in those rows.
+     */
+    private static int[] fewestRows(SeatBitmap seats, int party, Set<Preference> preferences) {
+        SeatLayout layout = seats.layout();
+        int[] free = new int[layout.rows() + 1];
+        for (int row = 1; row <= layout.rows(); row++) free[row] = Long.bitCount(freeInRow(seats, row));
+        for (int span = 1; span <= layout.rows(); span++) {
+            int bestFirst = -1;
+            long bestRank = Long.MAX_VALUE;
+            for (int first = 1; first + span - 1 <= layout.rows(); first++) {
+                int total = 0;
+                for (int row = first; row < first + span; row++) total += free[row];
+                if (total < party) continue;
+                long rank = preferences.contains(Preference.FRONT) ? first : first - (long) total * 64; // Most free seats, then front-most
+                if (rank < bestRank) { bestRank = rank; bestFirst = first; }
+            }
+            if (bestFirst < 0) continue;
+            long[] ranked = new long[layout.columns() * span];
+            int count = 0;
+            for (int row = bestFirst; row < bestFirst + span; row++) {
+                for (long bits = freeInRow(seats, row); bits != 0; bits &= bits - 1) {
+                    int column = Long.numberOfTrailingZeros(bits);
+                    ranked[count++] = rank(layout, row, 1L << column, preferences) * 4096 + (row - 1) * layout.columns() + column;
+                }
+            }
+            Arrays.sort(ranked, 0, count);
+            int[] result = new int[party];
+            for (int i = 0; i < party; i++) result[i] = (int) (ranked[i] % 4096);
+            Arrays.sort(result);
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * Assigns seats for a party on a trip and holds them. The seat map is the session's copy, so a
+     * pick can lose a race with another session; such a seat is marked taken in the copy, the seats
+     * already held for this pick are released, and the next best pick is tried.
+     * @return The holds, in seat order, or null if the trip has too few free seats.
+     */
+    static List<SeatHolds.Hold> holdBest(SeatHolds holds, TripKey trip, SeatBitmap seats, int party, Set<Preference> preferences) {
+        SeatLayout layout = seats.layout();
+        while (true) {
+            int[] pick = assign(seats, party, preferences);
+            if (pick == null) return null;
+            List<SeatHolds.Hold> held = new ArrayList<>();
+            for (int index : pick) {
+                SeatHolds.Hold hold = holds.place(trip, layout.rowOf(index), layout.columnOf(index));
+                seats.reserve(index);
+                if (hold == null) break;
+                held.add(hold);
+            }
+            if (held.size() == party) return held;
+            for (SeatHolds.Hold hold : held) { holds.release(hold); seats.release(layout.index(hold.row, hold.column)); }
+        }
+    }
+
+    /**
+     * Asks for seat preferences, e.g. "w f" for a window seat near the front.
+     * @param party Party size; "together" is only offered for two or more.
+     */
+    static Set<Preference> promptPreferences(Scanner sc, int party) {
+        String options = "w=window, a=aisle, f=front" + (party > 1 ? ", t=together" : "");
+        System.out.print(Utils.WHITE_BOLD + "Preferences (" + Utils.YELLOW_BOLD + options + Utils.WHITE_BOLD + "; Enter for none): " + Utils.RESET);
+        Set<Preference> preferences = EnumSet.noneOf(Preference.class);
+        for (String token : sc.nextLine().trim().toLowerCase(Locale.ROOT).split("[\\s,]+")) {
+            switch (token) {
+                case "w": case "window": preferences.add(Preference.WINDOW); break;
+                case "a": case "aisle": preferences.add(Preference.AISLE); break;
+                case "f": case "front": preferences.add(Preference.FRONT); break;
+                case "t": case "together": preferences.add(Preference.TOGETHER); break;
+                default: break;
+            }
+        }
+        return preferences;
+    }
+}
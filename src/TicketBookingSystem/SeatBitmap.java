@@ -0,0 +1,58 @@
+package TicketBookingSystem;
+
+/**
+ * Reserved/free state of every seat of a SeatLayout, one bit per seat index.
+ * Reserve, release and test are O(1). Not thread-safe: it is the per-session copy that the booking
+ * flow displays and selects from; the shared state is a ConcurrentSeatBitmap in SeatInventory.
+ */
+final class SeatBitmap {
+    private final SeatLayout layout;
+    private final long[] words;
+    private int reserved;
+
+    SeatBitmap(SeatLayout layout) {
+        this.layout = layout;
+        this.words = new long[(layout.seatCount() + 63) >>> 6];
+    }
+
+    /** Wraps seat words (bit i of words[w] = seat w * 64 + i), e.g. a snapshot of a ConcurrentSeatBitmap. */
+    SeatBitmap(SeatLayout layout, long[] words) {
+        this.layout = layout;
+        this.words = words;
+        for (long word : words) reserved += Long.bitCount(word);
+    }
+
+    SeatLayout layout() { return layout; }
+
+    boolean isReserved(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /** @return true if the seat was free. */
+    boolean reserve(int index) {
+        if (isReserved(index)) return false;
+        words[index >>> 6] |= 1L << index;
+        reserved++;
+        return true;
+    }
+
+    /** @return true if the seat was taken. */
+    boolean release(int index) {
+        if (!isReserved(index)) return false;
+        words[index >>> 6] &= ~(1L << index);
+        reserved--;
+        return true;
+    }
+
+    /** Reserved bits of seats [from, from + length) as the low bits of a long (length at most 64). */
+    long bits(int from, int length) {
+        int word = from >>> 6, shift = from & 63;
+        long value = words[word] >>> shift;
+        if (shift != 0 && word + 1 < words.length) value |= words[word + 1] << (64 - shift);
+        return length == 64 ? value : value & ((1L << length) - 1);
+    }
+
+    int reservedCount() { return reserved; }
+
+    SeatBitmap copy() { return new SeatBitmap(layout, words.clone()); }
+}
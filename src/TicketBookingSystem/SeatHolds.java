@@ -0,0 +1,177 @@
+package TicketBookingSystem;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-limited seat holds for the booking flow. Choosing a seat takes it in the SeatInventory at
+ * once and starts a hold. The seat is then confirmed into a booking or released by the session
+ * (back, payment failed). If neither happens, the expiry thread releases it once the hold's TTL has
+ * passed, so an abandoned session cannot keep a seat.
+ * Holds live in a hashed timer wheel: WHEEL_SLOTS buckets of one tick each. A hold goes into the
+ * bucket of its expiry tick; one due more than a revolution away stays there for extra turns. Each
+ * tick the expiry thread drains one bucket and releases the expired holds in bulk, so placing and
+ * expiring a hold are O(1) and nothing scans all holds. A hold leaves HELD exactly once, by
+ * compare-and-set to CONFIRMED, RELEASED or EXPIRED. Confirming therefore either wins the seat for the
+ * booking or finds the hold already expired. Sessions confirm before taking payment; a confirmed hold
+ * can still be released if the payment then fails.
+ * TTL in seconds: -Dseats.holdSeconds (default 300).
+ */
+final class SeatHolds implements AutoCloseable {
+    private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("seats.holdSeconds", 300));
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SLOTS = 512; // Power of two; one revolution is 512 ticks
+
+    /** One held seat. */
+    static final class Hold {
+        private static final int HELD = 0, CONFIRMED = 1, RELEASED = 2, EXPIRED = 3;
+
+        final TripKey trip;
+        final int row;
+        final String column;
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(HELD);
+
+        private Hold(TripKey trip, int row, String column, long deadlineTick) {
+            this.trip = trip;
+            this.row = row;
+            this.column = column;
+            this.deadlineTick = deadlineTick;
+        }
+
+        String getSeatId() { return row + column; }
+        boolean isHeld() { return state.get() == HELD; }
+    }
+
+    private final SeatInventory inventory;
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final List<Queue<Hold>> wheel;
+    private final long startNanos;
+    private final Thread thread;
+    private final AtomicLong expired = new AtomicLong();
+    private volatile boolean running = true;
+
+    SeatHolds(SeatInventory inventory) {
+        this(inventory, TTL_MILLIS, TICK_MILLIS);
+    }
+
+    SeatHolds(SeatInventory inventory, long ttlMillis, long tickMillis) {
+        this.inventory = inventory;
+        this.ttlMillis = ttlMillis;
+        this.tickMillis = tickMillis;
+        wheel = new ArrayList<>(WHEEL_SLOTS);
+        for (int i = 0; i < WHEEL_SLOTS; i++) wheel.add(new ConcurrentLinkedQueue<>());
+        startNanos = System.nanoTime();
+        thread = new Thread(this::expireLoop, "seat-hold-expiry");
+        thread.setDaemon(true); // Never keep the application alive
+        thread.start();
+    }
+
+    /**
+     * Takes the seat on the trip and starts a hold on it.
+     * @return The hold, or null if the seat is already taken or held (or not in the trip's layout).
+     */
+    Hold place(TripKey trip, int row, String column) {
+        if (!inventory.reserve(trip, row, column)) return null;
+        long deadlineTick = currentTick() + (ttlMillis + tickMillis - 1) / tickMillis;
+        Hold hold = new Hold(trip, row, column, deadlineTick);
+        wheel.get((int) (deadlineTick & (WHEEL_SLOTS - 1))).add(hold);
+        return hold;
+    }
+
+    /**
+     * Turns the hold into a booked seat: the seat stays taken in the inventory and the hold can no
+     * longer expire.
+     * @return false if the hold expired or was released first; the seat is not the caller's then.
+     */
+    boolean confirm(Hold hold) {
+        return hold.state.compareAndSet(Hold.HELD, Hold.CONFIRMED);
+    }
+
+    /**
+     * Confirms the holds of a multi-passenger booking all-or-nothing.
+     * @return false if any of them expired or was released first; every seat of the set is given back then.
+     */
+    boolean confirmAll(List<Hold> group) {
+        for (int i = 0; i < group.size(); i++) {
+            if (confirm(group.get(i))) continue;
+            releaseAll(group);
+            return false;
+        }
+        return true;
+    }
+
+    /** Gives back every seat of a set of holds; those already released or expired are skipped. */
+    void releaseAll(List<Hold> group) {
+        for (Hold hold : group) release(hold);
+    }
+
+    /**
+     * Gives the seat back (session abandoned the seat, or payment failed after confirming). Call only
+     * before the seat is booked. No-op if the hold was already released or expired.
+     */
+    void release(Hold hold) {
+        if (hold == null) return;
+        if (hold.state.compareAndSet(Hold.HELD, Hold.RELEASED) || hold.state.compareAndSet(Hold.CONFIRMED, Hold.RELEASED)) {
+            inventory.release(hold.trip, hold.row, hold.column);
+        }
+    }
+
+    /** The hold time as shown to users, e.g. "5 minutes". */
+    String ttlLabel() {
+        return ttlMillis % 60_000 == 0 ? ttlMillis / 60_000 + " minutes" : ttlMillis / 1000 + " seconds";
+    }
+
+    /** Number of holds released by expiry so far. */
+    long getExpiredCount() { return expired.get(); }
+
+    private long currentTick() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) / tickMillis;
+    }
+
+    private void expireLoop() {
+        long done = 0; // Ticks fully processed
+        while (running) {
+            long now = currentTick();
+            while (done < now) expire(++done);
+            try {
+                Thread.sleep(Math.max(1, (done + 1) * tickMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** Drains one bucket: drops settled holds, releases the expired ones, keeps those due in a later revolution. */
+    private void expire(long tick) {
+        for (Iterator<Hold> it = wheel.get((int) (tick & (WHEEL_SLOTS - 1))).iterator(); it.hasNext(); ) {
+            Hold hold = it.next();
+            if (!hold.isHeld()) {
+                it.remove();
+            } else if (hold.deadlineTick <= tick) {
+                it.remove();
+                if (hold.state.compareAndSet(Hold.HELD, Hold.EXPIRED)) {
+                    inventory.release(hold.trip, hold.row, hold.column);
+                    expired.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /** Stops the expiry thread. Holds still open keep their seats until the process exits. */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+}
@@ -0,0 +1,136 @@
+package TicketBookingSystem;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Seat occupancy per trip. Each trip that has had a booking gets a ConcurrentSeatBitmap of its
+ * layout, found through a ConcurrentHashMap on TripKey. Checking or changing a seat is O(1)
+ * however many bookings exist, a trip's seats never affect another trip's, and no plane or bus call takes a
+ * lock: concurrent sessions race on the seat's word with compare-and-set, and exactly one wins.
+ * Trips stay in the index once added (a few words each): dropping an empty one without a lock could
+ * lose a reservation made into it at the same moment.
+ * Trips of trains with a known stop list are the exception: a seat is taken only on the legs of the
+ * run the journey covers (see TrainStops), so it can be sold again for a later stretch of the same
+ * train. They go to a SegmentSeatMap per run, which is lock-free too. Other train trips are sold per
+ * city pair like planes and buses. Which stop list (if any) a train is sold on is fixed per train, date
+ * and class by the first reservation on any of its trips, so a route reload that changes the eligible
+ * lists never splits the bookings of one train between the two kinds of map.
+ * The booking managers keep it in step with their booking maps: loading, booking, cancelling,
+ * date changes, archiving and partition eviction all go through reserve and release.
+ */
+final class SeatInventory {
+    private final ConcurrentMap<TripKey, ConcurrentSeatBitmap> trips = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TripKey, SegmentSeatMap> trainRuns = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TripKey, String[]> trainStops = new ConcurrentHashMap<>(); // Train, date, class -> stops its seats are held on
+    private static final String[] PER_PAIR = new String[0]; // In trainStops: held in trips
+
+    /**
+     * Marks a seat taken on a trip.
+     * @return true if this call took it; false if it was already taken or is not part of the trip's layout.
+     */
+    boolean reserve(TripKey trip, int row, String column) {
+        SeatLayout layout = SeatLayout.of(trip.mode(), trip.seatClass());
+        int index = layout == null ? -1 : layout.index(row, column);
+        if (index < 0) return false;
+        TrainJourney journey = pin(trip);
+        if (journey != null) return run(journey, layout).reserve(index, journey.from(), journey.to());
+        ConcurrentSeatBitmap seats = trips.get(trip);
+        if (seats == null) seats = trips.computeIfAbsent(trip, k -> new ConcurrentSeatBitmap(layout));
+        return seats.tryReserve(index);
+    }
+
+    /** Frees a seat on a trip. */
+    void release(TripKey trip, int row, String column) {
+        TrainJourney journey = journey(trip);
+        if (journey != null) {
+            SegmentSeatMap run = trainRuns.get(journey.run());
+            int index = run == null ? -1 : run.layout().index(row, column);
+            if (index >= 0) run.release(index, journey.from(), journey.to());
+            return;
+        }
+        ConcurrentSeatBitmap seats = trips.get(trip);
+        if (seats == null) return;
+        int index = seats.layout().index(row, column);
+        if (index >= 0) seats.release(index);
+    }
+
+    /** @return true if the seat is taken on that trip. */
+    boolean isReserved(TripKey trip, int row, String column) {
+        TrainJourney journey = journey(trip);
+        if (journey != null) {
+            SegmentSeatMap run = trainRuns.get(journey.run());
+            int index = run == null ? -1 : run.layout().index(row, column);
+            return index >= 0 && run.isReserved(index, journey.from(), journey.to());
+        }
+        ConcurrentSeatBitmap seats = trips.get(trip);
+        if (seats == null) return false;
+        int index = seats.layout().index(row, column);
+        return index >= 0 && seats.isReserved(index);
+    }
+
+    /**
+     * A copy of the trip's seat map for display and seat selection, or null if the mode and class
+     * have no layout. Later bookings do not show up in the copy; reserve() is the final check.
+     */
+    SeatBitmap seatMap(TripKey trip) {
+        TrainJourney journey = journey(trip);
+        SegmentSeatMap run = journey == null ? null : trainRuns.get(journey.run());
+        if (run != null) return run.seatMap(journey.from(), journey.to());
+        ConcurrentSeatBitmap seats = trips.get(trip);
+        if (seats != null) return seats.snapshot();
+        SeatLayout layout = SeatLayout.of(trip.mode(), trip.seatClass());
+        return layout == null ? null : new SeatBitmap(layout);
+    }
+
+    /** Number of seats taken on a trip (for a train journey: taken on any of its legs). */
+    int reservedCount(TripKey trip) {
+        TrainJourney journey = journey(trip);
+        if (journey != null) {
+            SegmentSeatMap run = trainRuns.get(journey.run());
+            return run == null ? 0 : run.layout().seatCount() - run.freeSeats(journey.from(), journey.to());
+        }
+        ConcurrentSeatBitmap seats = trips.get(trip);
+        return seats == null ? 0 : seats.reservedCount();
+    }
+
+    /** @return true if the trip's seats are held per leg of its train run, so seats sold only for other stretches are free. */
+    boolean soldPerLeg(TripKey trip) {
+        return journey(trip) != null;
+    }
+
+    /** Number of trips in the index (every trip, or train run, that has had a booking). */
+    int tripCount() {
+        return trips.size() + trainRuns.size();
+    }
+
+    /**
+     * The journey a train trip's seats are held under. The stop list is fixed for the train, date and
+     * class by the first reservation on any of its trips; null for trips sold per city pair.
+     */
+    private TrainJourney pin(TripKey trip) {
+        if (!trip.mode().equals("TRAIN")) return null;
+        TripKey train = trainKey(trip);
+        String[] stops = trainStops.get(train);
+        if (stops == null) stops = trainStops.computeIfAbsent(train, k -> { String[] current = TrainStops.stopsOf(k.provider()); return current == null ? PER_PAIR : current; });
+        return TrainStops.journey(trip, stops);
+    }
+
+    /** The journey a trip's seats are held under; for a train never reserved on that date and class, what the current routes would give it. */
+    private TrainJourney journey(TripKey trip) {
+        if (!trip.mode().equals("TRAIN")) return null;
+        String[] stops = trainStops.get(trainKey(trip));
+        return stops == null ? TrainStops.journey(trip) : TrainStops.journey(trip, stops);
+    }
+
+    /** Key of a train on a date in a class, whatever the stretch (both directions share it). */
+    private static TripKey trainKey(TripKey trip) {
+        return new TripKey(trip.mode(), trip.provider(), null, null, trip.travelDate(), trip.seatClass());
+    }
+
+    /** The segment seat map of a train run, created on first use; runs stay in the index like trips. */
+    private SegmentSeatMap run(TrainJourney journey, SeatLayout layout) {
+        SegmentSeatMap run = trainRuns.get(journey.run());
+        return run != null ? run : trainRuns.computeIfAbsent(journey.run(), k -> new SegmentSeatMap(layout, journey.legs()));
+    }
+}
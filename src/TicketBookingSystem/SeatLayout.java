@@ -0,0 +1,82 @@
+package TicketBookingSystem;
+
+import java.util.Locale;
+
+/**
+ * Immutable seat layout of a cabin, coach or bus: rows, column letters and the aisles.
+ * There is one shared template per mode and class. Seats are numbered row-major,
+ * index = (row - 1) * columns + column position, which is also their bit in a SeatBitmap.
+ */
+final class SeatLayout {
+    static final SeatLayout PLANE_ECONOMY = new SeatLayout(10, "ABCDEFGHI", 2, 5);
+    static final SeatLayout PLANE_BUSINESS = new SeatLayout(8, "ABCD", 0, 2);
+    static final SeatLayout PLANE_FIRST = new SeatLayout(5, "AB", 0);
+    static final SeatLayout TRAIN = new SeatLayout(10, "ABCDE", 2);
+    static final SeatLayout BUS = new SeatLayout(10, "ABCD", 1);
+
+    private final int rows;
+    private final String columns; // Column letters, left to right
+    private final long aisles;    // Bit c set: aisle after column position c
+
+    private SeatLayout(int rows, String columns, int... aisleAfter) {
+        this.rows = rows;
+        this.columns = columns;
+        long mask = 0;
+        for (int c : aisleAfter) mask |= 1L << c;
+        this.aisles = mask;
+    }
+
+    /**
+     * The layout for a mode and class, or null for an unknown combination.
+     * Plane classes have their own cabins; every train class and the bus use one layout each.
+     */
+    static SeatLayout of(String mode, String seatClass) {
+        switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "plane":
+                switch (seatClass.trim().toLowerCase(Locale.ROOT)) {
+                    case "economy": return PLANE_ECONOMY;
+                    case "business": return PLANE_BUSINESS;
+                    case "first": return PLANE_FIRST;
+                    default: return null;
+                }
+            case "train": return TRAIN;
+            case "bus": return BUS;
+            default: return null;
+        }
+    }
+
+    int rows() { return rows; }
+    int columns() { return columns.length(); }
+    int seatCount() { return rows * columns.length(); }
+
+    /** Letter of a column position. */
+    char column(int position) { return columns.charAt(position); }
+
+    /** True if an aisle follows the column position. */
+    boolean aisleAfter(int position) { return (aisles & (1L << position)) != 0; }
+
+    /** Column positions (bit c) followed by an aisle. */
+    long aisleBreaks() { return aisles; }
+
+    /** Column positions (bit c) of the seats beside an aisle. */
+    long aisleColumns() { return (aisles | aisles << 1) & rowMask(); }
+
+    /** Column positions (bit c) of the window seats: the outermost columns. */
+    long windowColumns() { return 1L | 1L << (columns.length() - 1); }
+
+    /** One bit per column position. */
+    long rowMask() { return (1L << columns.length()) - 1; }
+
+    /** Seat index of a row (1-based) and column letter, or -1 if the layout has no such seat. */
+    int index(int row, String column) {
+        if (column == null || column.length() != 1 || row < 1 || row > rows) return -1;
+        int position = columns.indexOf(Character.toUpperCase(column.charAt(0)));
+        return position < 0 ? -1 : (row - 1) * columns.length() + position;
+    }
+
+    int rowOf(int index) { return index / columns.length() + 1; }
+    String columnOf(int index) { return String.valueOf(columns.charAt(index % columns.length())); }
+
+    /** Seat ID such as "5C". */
+    String seatId(int index) { return rowOf(index) + columnOf(index); }
+}
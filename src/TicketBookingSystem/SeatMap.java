@@ -1,55 +1,30 @@
 package TicketBookingSystem;
 
+/**
+ * Console rendering of a seat map, read straight from the seat bits.
+ * Column headers and aisles come from the map's SeatLayout, so one routine serves every mode and class.
+ */
 public class SeatMap {
-    public static void printPlane(String cls, boolean[][] seats) {
-        System.out.println("\n\033[1;36mSeat Map for Plane - " + cls + "\033[0m");
-        for (int i = 0; i < seats.length; i++) {
-            System.out.print("\033[1mRow " + (i + 1) + ":\033[0m ");
-            for (int j = 0; j < seats[i].length; j++) {
-                String seatStatus = seats[i][j] ? "\033[31mX\033[0m" : "\033[32mO\033[0m";
-                System.out.print(seatStatus + " ");
-                if ((cls.equalsIgnoreCase("Economy") && (j == 2 || j == 5)) ||
-                        (cls.equalsIgnoreCase("Business") && j == 0) ||
-                        (cls.equalsIgnoreCase("First") && j == 0)) {
-                    System.out.print("  ");
-                }
-            }
-            System.out.println();
+    static void print(SeatBitmap seats) {
+        SeatLayout layout = seats.layout();
+        StringBuilder out = new StringBuilder("     ");
+        for (int c = 0; c < layout.columns(); c++) {
+            out.append(Utils.YELLOW_BOLD).append(' ').append(layout.column(c)).append(' ').append(Utils.RESET);
+            if (layout.aisleAfter(c)) out.append("   ");
         }
-        System.out.println("\n\033[1mLegend:\033[0m");
-        System.out.println("\033[32mO\033[0m - Available");
-        System.out.println("\033[31mX\033[0m - Reserved");
-    }
-
-    public static void printTrain(boolean[][] seats) {
-        System.out.println("\n\033[1;36mSeat Map for Train:\033[0m");
-        for (int i = 0; i < seats.length; i++) {
-            System.out.print("\033[1mRow " + (i + 1) + ":\033[0m ");
-            for (int j = 0; j < seats[i].length; j++) {
-                String seatStatus = seats[i][j] ? "\033[31mX\033[0m" : "\033[32mO\033[0m";
-                System.out.print(seatStatus + " ");
-                if (j == 2) System.out.print("  ");
-            }
-            System.out.println();
-        }
-        System.out.println("\n\033[1mLegend:\033[0m");
-        System.out.println("\033[32mO\033[0m - Available");
-        System.out.println("\033[31mX\033[0m - Reserved");
-    }
-
-    public static void printBus(boolean[] seats) {
-        System.out.println("\n\033[1;36mSeat Map for Bus:\033[0m");
-        for (int i = 0; i < 10; i++) {
-            System.out.print("\033[1mRow " + (i + 1) + ":\033[0m ");
-            for (int j = 0; j < 4; j++) {
-                String seatStatus = seats[i * 4 + j] ? "\033[31mX\033[0m" : "\033[32mO\033[0m";
-                System.out.print(seatStatus + " ");
-                if (j == 1) System.out.print("  ");
+        out.append('\n');
+        for (int row = 1, index = 0; row <= layout.rows(); row++) {
+            out.append(Utils.YELLOW_BOLD).append(String.format("Row %2d:", row)).append(Utils.RESET);
+            for (int c = 0; c < layout.columns(); c++, index++) {
+                out.append(' ').append(seats.isReserved(index) ? Utils.RED + "X" : Utils.GREEN + "O").append(Utils.RESET)
+                        .append('(').append(row).append(layout.column(c)).append(')');
+                if (layout.aisleAfter(c)) out.append("  ");
             }
-            System.out.println();
+            out.append('\n');
         }
-        System.out.println("\n\033[1mLegend:\033[0m");
-        System.out.println("\033[32mO\033[0m - Available");
-        System.out.println("\033[31mX\033[0m - Reserved");
+        System.out.print(out);
+        System.out.println("\n" + Utils.BLUE_BOLD + "Seat Legend:" + Utils.RESET);
+        System.out.println(" " + Utils.GREEN + "O" + Utils.RESET + "(RowCol) - Available");
+        System.out.println(" " + Utils.RED + "X" + Utils.RESET + "(RowCol) - Reserved");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package TicketBookingSystem;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Many threads fighting over the seats of one hot flight (90 economy seats), comparing the lock-free
+ * ConcurrentSeatBitmap with a synchronized SeatBitmap and with the old unsynchronized check-then-set
+ * of Seat.isReserved()/reserve(). Two phases:
+ * churn    - each thread takes a random seat and gives it back again, for a fixed time;
+ * sell-out - all threads grab blocks of 3 adjacent seats (tryReserveAll) until the flight is full,
+ *            over and over.
+ * Both count double sales: a seat held by two threads at once.
+ * Run with: java TicketBookingSystem.SeatReservationBenchmark [threads] [millis] [rounds]
+ */
+public class SeatReservationBenchmark {
+    private static final SeatLayout LAYOUT = SeatLayout.PLANE_ECONOMY;
+    private static final int BLOCK = 3;
+
+    /** The operations being compared. */
+    private interface Seats {
+        boolean tryReserve(int index);
+        boolean release(int index);
+        boolean tryReserveAll(long[] mask);
+    }
+
+    private static Seats lockFree() {
+        ConcurrentSeatBitmap bits = new ConcurrentSeatBitmap(LAYOUT);
+        return new Seats() {
+            public boolean tryReserve(int index) { return bits.tryReserve(index); }
+            public boolean release(int index) { return bits.release(index); }
+            public boolean tryReserveAll(long[] mask) { return bits.tryReserveAll(mask); }
+        };
+    }
+
+    private static Seats locked() {
+        SeatBitmap bits = new SeatBitmap(LAYOUT);
+        return new Seats() {
+            public synchronized boolean tryReserve(int index) { return bits.reserve(index); }
+            public synchronized boolean release(int index) { return bits.release(index); }
+            public synchronized boolean tryReserveAll(long[] mask) {
+                for (int i = 0; i < LAYOUT.seatCount(); i++) if ((mask[i >>> 6] & (1L << i)) != 0 && bits.isReserved(i)) return false;
+                for (int i = 0; i < LAYOUT.seatCount(); i++) if ((mask[i >>> 6] & (1L << i)) != 0) bits.reserve(i);
+                return true;
+            }
+        };
+    }
+
+    /** The old pattern: test a plain flag, then set it. */
+    private static Seats unsynchronized() {
+        boolean[] reserved = new boolean[LAYOUT.seatCount()];
+        return new Seats() {
+            public boolean tryReserve(int index) {
+                if (reserved[index]) return false;
+                Thread.onSpinWait(); // Stands in for the work between the check and the reserve()
+                reserved[index] = true;
+                return true;
+            }
+            public boolean release(int index) { reserved[index] = false; return true; }
+            public boolean tryReserveAll(long[] mask) {
+                for (int i = 0; i < reserved.length; i++) if ((mask[i >>> 6] & (1L << i)) != 0 && reserved[i]) return false;
+                Thread.onSpinWait();
+                for (int i = 0; i < reserved.length; i++) if ((mask[i >>> 6] & (1L << i)) != 0) reserved[i] = true;
+                return true;
+            }
+        };
+    }
+
+    private interface Factory { Seats create(); }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        System.out.println(Utils.CYAN_BOLD + "Seat reservation benchmark: " + threads + " threads, one flight of " + LAYOUT.seatCount() + " seats" + Utils.RESET);
+
+        String[] names = {"CAS words", "synchronized", "unsynchronized"};
+        Factory[] factories = {SeatReservationBenchmark::lockFree, SeatReservationBenchmark::locked, SeatReservationBenchmark::unsynchronized};
+        for (int i = 0; i < names.length; i++) churn(names[i], factories[i], threads, millis / 4, false); // Warm-up
+
+        System.out.println(Utils.BLUE_BOLD + "\nChurn (reserve then release a random seat, " + millis + " ms):" + Utils.RESET);
+        for (int i = 0; i < names.length; i++) churn(names[i], factories[i], threads, millis, true);
+        System.out.println(Utils.BLUE_BOLD + "\nSell-out (blocks of " + BLOCK + " seats until full, " + rounds + " rounds):" + Utils.RESET);
+        for (int i = 0; i < names.length; i++) sellOut(names[i], factories[i], threads, rounds);
+    }
+
+    private static void churn(String name, Factory factory, int threads, long millis, boolean print) throws InterruptedException {
+        Seats seats = factory.create();
+        AtomicIntegerArray holders = new AtomicIntegerArray(LAYOUT.seatCount());
+        AtomicLong operations = new AtomicLong(), doubles = new AtomicLong();
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ops = 0;
+                while ((ops & 1023) != 0 || System.nanoTime() < deadline) {
+                    int seat = random.nextInt(LAYOUT.seatCount());
+                    if (seats.tryReserve(seat)) {
+                        if (holders.incrementAndGet(seat) > 1) doubles.incrementAndGet();
+                        holders.decrementAndGet(seat);
+                        seats.release(seat);
+                    }
+                    ops++;
+                }
+                operations.addAndGet(ops);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        if (print) System.out.printf("  %-15s %8.2f M attempts/s   double sales: %s%n", name, operations.get() / (millis * 1000.0), flag(doubles.get()));
+    }
+
+    private static void sellOut(String name, Factory factory, int threads, int rounds) throws Exception {
+        int blocksPerRow = LAYOUT.columns() / BLOCK;
+        long[][] masks = new long[LAYOUT.rows() * blocksPerRow][];
+        for (int row = 0; row < LAYOUT.rows(); row++) {
+            for (int b = 0; b < blocksPerRow; b++) {
+                long[] mask = new long[(LAYOUT.seatCount() + 63) >>> 6];
+                for (int c = 0; c < BLOCK; c++) {
+                    int index = row * LAYOUT.columns() + b * BLOCK + c;
+                    mask[index >>> 6] |= 1L << index;
+                }
+                masks[row * blocksPerRow + b] = mask;
+            }
+        }
+        Seats[] current = new Seats[1];
+        AtomicIntegerArray winners = new AtomicIntegerArray(masks.length);
+        AtomicLong doubles = new AtomicLong();
+        CyclicBarrier start = new CyclicBarrier(threads, () -> {
+            for (int i = 0; i < masks.length; i++) if (winners.getAndSet(i, 0) > 1) doubles.incrementAndGet();
+            current[0] = factory.create();
+        });
+        CyclicBarrier end = new CyclicBarrier(threads);
+        Thread[] workers = new Thread[threads];
+        long began = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    for (int r = 0; r < rounds; r++) {
+                        start.await();
+                        Seats seats = current[0];
+                        int offset = random.nextInt(masks.length);
+                        for (int i = 0; i < masks.length; i++) {
+                            int block = (offset + i) % masks.length;
+                            if (seats.tryReserveAll(masks[block])) winners.incrementAndGet(block);
+                        }
+                        end.await();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        for (int i = 0; i < masks.length; i++) if (winners.get(i) > 1) doubles.incrementAndGet();
+        double seconds = (System.nanoTime() - began) / 1e9;
+        System.out.printf("  %-15s %8.0f flights sold/s     double sales: %s%n", name, rounds / seconds, flag(doubles.get()));
+    }
+
+    private static String flag(long doubles) {
+        return doubles == 0 ? Utils.GREEN + "0" + Utils.RESET : Utils.RED_BOLD + doubles + Utils.RESET;
+    }
+}
@@ -0,0 +1,138 @@
+package TicketBookingSystem;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat occupancy of one train run, per leg, so a seat booked Kochi -> Kannur can be sold again
+ * Kannur -> Mumbai. Each seat has one word: bits 0-31 are its legs (bit l: taken on the stretch from
+ * stop l to stop l + 1) and bits 32-63 mark the first leg of each reservation. A journey over legs
+ * [from, to) fits a seat if the seat's leg bits in that range are clear; release only frees a
+ * reservation made for exactly that range, so it never frees legs another booking holds.
+ * For whole-coach questions ("which seats are free from A to B", "how many") the same state is
+ * kept leg-major as seat words, in a sparse table of range unions: level k, start l holds the
+ * seats taken on any leg in [l, l + 2^k). Any range [from, to) is the union of two entries
+ * (the power of two below its length, aligned at each end), so the occupied seats of a sub-journey
+ * cost two word reads and an OR per seat word, whatever the number of stops. A booking updates
+ * the entries overlapping its range: O(legs * log legs) bit updates.
+ * Lock-free like ConcurrentSeatBitmap: a seat's word changes by compare-and-set, so exactly one of two
+ * racing reservations wins. The thread that changed a seat then brings the table up to date, repeating
+ * until the seat's word stays put, so the table can trail the seat words for a moment. It only feeds
+ * seat maps and counts; reserve() is the final check.
+ */
+final class SegmentSeatMap {
+    private static final int STARTS = 32; // Bit of the first reservation start mark; legs use the bits below
+
+    private final SeatLayout layout;
+    private final int legs;
+    private final int words; // Seat words per leg
+    private final AtomicLongArray seatLegs; // Per seat: leg bits and reservation start marks
+    private final AtomicLongArray[] table; // table[k][l * words + w]: seats of word w taken on some leg in [l, l + 2^k)
+    private final AtomicInteger bookings = new AtomicInteger(); // Seat-journeys held
+
+    SegmentSeatMap(SeatLayout layout, int legs) {
+        if (legs < 1 || legs >= STARTS) throw new IllegalArgumentException("A train run needs 1 to " + (STARTS - 1) + " legs, not " + legs);
+        this.layout = layout;
+        this.legs = legs;
+        this.words = (layout.seatCount() + 63) >>> 6;
+        this.seatLegs = new AtomicLongArray(layout.seatCount());
+        int levels = 32 - Integer.numberOfLeadingZeros(legs);
+        table = new AtomicLongArray[levels];
+        for (int k = 0; k < levels; k++) table[k] = new AtomicLongArray((legs - (1 << k) + 1) * words);
+    }
+
+    SeatLayout layout() { return layout; }
+    int legs() { return legs; }
+
+    /** Bits of legs [from, to). */
+    private static long legMask(int from, int to) {
+        return (-1L >>> (64 - (to - from))) << from;
+    }
+
+    /** @return true if the seat is taken on any leg of [from, to). */
+    boolean isReserved(int seat, int from, int to) {
+        return (seatLegs.get(seat) & legMask(from, to)) != 0;
+    }
+
+    /** @return true if the seat was free on every leg of [from, to) and this call took them. */
+    boolean reserve(int seat, int from, int to) {
+        long mask = legMask(from, to), start = 1L << (STARTS + from);
+        long current;
+        do {
+            current = seatLegs.get(seat);
+            if ((current & mask) != 0) return false;
+        } while (!seatLegs.compareAndSet(seat, current, current | mask | start));
+        bookings.incrementAndGet();
+        update(seat, from, to);
+        return true;
+    }
+
+    /** @return true if the seat held a reservation of exactly [from, to) and this call freed it. */
+    boolean release(int seat, int from, int to) {
+        long mask = legMask(from, to), start = 1L << (STARTS + from);
+        long current;
+        do {
+            current = seatLegs.get(seat);
+            if (!holdsExactly(current, from, to)) return false;
+        } while (!seatLegs.compareAndSet(seat, current, current & ~mask & ~start));
+        bookings.decrementAndGet();
+        update(seat, from, to);
+        return true;
+    }
+
+    /** True if a seat word has a reservation starting at leg from and ending at leg to. */
+    private boolean holdsExactly(long word, int from, int to) {
+        long mask = legMask(from, to);
+        if ((word & mask) != mask || (word & (1L << (STARTS + from))) == 0) return false;
+        if (to - from > 1 && ((word >>> STARTS) & legMask(from + 1, to)) != 0) return false; // Another reservation starts inside
+        return to == legs || (word & (1L << to)) == 0 || (word & (1L << (STARTS + to))) != 0;
+    }
+
+    /** Recomputes the seat's bit in every table entry whose range overlaps [from, to), until the seat's word stays put. */
+    private void update(int seat, int from, int to) {
+        int word = seat >>> 6;
+        long bit = 1L << seat;
+        long legBits;
+        do {
+            legBits = seatLegs.get(seat);
+            for (int k = 0; k < table.length; k++) {
+                int span = 1 << k;
+                for (int l = Math.max(0, from - span + 1); l <= Math.min(to - 1, legs - span); l++) {
+                    setBit(table[k], l * words + word, bit, (legBits & legMask(l, l + span)) != 0);
+                }
+            }
+        } while (seatLegs.get(seat) != legBits); // Changed meanwhile: write the newer state
+    }
+
+    private static void setBit(AtomicLongArray array, int i, long bit, boolean set) {
+        long current;
+        do {
+            current = array.get(i);
+            if (((current & bit) != 0) == set) return;
+        } while (!array.compareAndSet(i, current, set ? current | bit : current & ~bit));
+    }
+
+    /** Seats of seat word w taken on some leg of [from, to): two table entries, one OR. */
+    private long occupied(int w, int from, int to) {
+        int k = 31 - Integer.numberOfLeadingZeros(to - from);
+        AtomicLongArray level = table[k];
+        return level.get(from * words + w) | level.get((to - (1 << k)) * words + w);
+    }
+
+    /** Seat map of the journey [from, to): a seat is reserved if it is taken on any of its legs. */
+    SeatBitmap seatMap(int from, int to) {
+        long[] map = new long[words];
+        for (int w = 0; w < words; w++) map[w] = occupied(w, from, to);
+        return new SeatBitmap(layout, map);
+    }
+
+    /** Number of seats free on every leg of [from, to). */
+    int freeSeats(int from, int to) {
+        int taken = 0;
+        for (int w = 0; w < words; w++) taken += Long.bitCount(occupied(w, from, to));
+        return layout.seatCount() - taken;
+    }
+
+    /** Number of seat-journeys booked on the run. */
+    int bookingCount() { return bookings.get(); }
+}
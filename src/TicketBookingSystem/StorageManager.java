@@ -1,72 +1,53 @@
 package TicketBookingSystem;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Handles saving and loading user credentials and booking data to/from files
- * for persistence across application sessions. Uses updated format with Provider.
+ * Handles saving and loading booking data to/from files for persistence across
+ * application sessions (user credentials are kept by UserStore). Uses updated format with Provider.
  */
 public class StorageManager {
-    private static final String USER_FILE = "users.txt";
-    private static final String BOOKINGS_FILE = "bookings.txt";
+    static final String BOOKINGS_FILE = "bookings.txt";
     private static final String DELIMITER = ":"; // File delimiter
+    // Header line recording the last journal sequence number folded into the snapshot
+    static final String SEQ_HEADER = "# seq=";
 
-    /** Saves user credentials. */
-    public static void saveUsers(HashMap<String, String> users) {
-        // Use try-with-resources for automatic closing
-        System.out.println(Utils.GREY + "Saving user data..." + Utils.RESET);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(USER_FILE))) {
-            if (users != null) { // Add null check
-                for (Map.Entry<String, String> entry : users.entrySet()) {
-                    writer.write(entry.getKey() + DELIMITER + entry.getValue());
-                    writer.newLine();
-                }
-            }
-            System.out.println(Utils.GREEN + "User data saved successfully to " + USER_FILE + "." + Utils.RESET);
-        } catch (IOException e) {
-            System.err.println(Utils.RED_BOLD + "Error saving user data to " + USER_FILE + ": " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
-        } catch (NullPointerException e) {
-            System.err.println(Utils.RED_BOLD + "Error: User map provided for saving was null." + Utils.RESET);
-        }
+    /** True when bookings are stored in bookings.bin (see BinaryBookingStore), enabled with -Dbookings.format=binary. */
+    static boolean isBinaryFormat() {
+        return "binary".equalsIgnoreCase(System.getProperty("bookings.format"));
     }
 
-    /** Loads user credentials. */
-    public static HashMap<String, String> loadUsers() {
-        HashMap<String, String> users = new HashMap<>();
-        File file = new File(USER_FILE);
-        if (!file.exists()) {
-            System.out.println(Utils.YELLOW + "User data file (" + USER_FILE + ") not found. Starting fresh." + Utils.RESET);
-            return users;
-        }
-
-        System.out.println(Utils.GREY + "Loading user data from " + USER_FILE + "..." + Utils.RESET);
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line; int lineNumber = 0;
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                if (line.trim().isEmpty() || line.startsWith("#")) continue;
-                String[] parts = line.split(DELIMITER, 2); // Split only on first delimiter
-                if (parts.length == 2 && !parts[0].trim().isEmpty() && !parts[1].trim().isEmpty()) {
-                    users.put(parts[0], parts[1]);
-                } else { System.err.println(Utils.YELLOW_BOLD + "Warning:" + Utils.YELLOW + " Skipping malformed line #" + lineNumber + " in " + USER_FILE + Utils.RESET); }
-            }
-            System.out.println(Utils.GREEN + "User data loaded successfully ("+users.size()+" users)." + Utils.RESET);
-        } catch (IOException e) { System.err.println(Utils.RED_BOLD + "Error loading user data: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET); }
-        return users;
+    /** True when bookings are stored in month partitions (see BookingPartitions), enabled with -Dbookings.format=partitioned. */
+    static boolean isPartitionedFormat() {
+        return "partitioned".equalsIgnoreCase(System.getProperty("bookings.format"));
     }
 
     /**
      * Saves all bookings using the updated format including the provider.
      * Format: BookingID:Username:Start:Dest:Price:SeatClass:Row:Col:VehicleID:Date:Provider
+     * The first line records the journal sequence number covered by this snapshot, so the
+     * journal can be truncated once the snapshot is written.
      */
-    public static void saveBookings(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+    public static synchronized void saveBookings(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        if (isBinaryFormat() || isPartitionedFormat()) {
+            // These formats are updated from the journal (and partitions may not all be in memory),
+            // so saving is just a checkpoint of the journal
+            System.out.println(Utils.GREY + "Saving bookings data..." + Utils.RESET);
+            BookingCheckpointer.checkpoint();
+            System.out.println(Utils.GREEN + "Bookings data saved successfully." + Utils.RESET);
+            return;
+        }
         System.out.println(Utils.GREY + "Saving bookings data..." + Utils.RESET);
-        int bookingsSaved = 0;
-        // Use try-with-resources
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(BOOKINGS_FILE))) {
+        List<BookingRecord> records = new ArrayList<>();
+        long snapshotSeq = BookingJournal.getLastSeq();
+        try {
             // Save Plane bookings from all plane manager objects
             if (planes != null) {
                 for (PlaneBooking plane : planes) {
@@ -77,13 +58,13 @@ public class StorageManager {
                             PlaneBooking.Booking booking = (PlaneBooking.Booking) entry.getValue(); // Cast to inner class
                             Seat seat = booking.getSeat();
                             // Join using the delimiter, including the provider
-                            String line = String.join(DELIMITER,
+                            BookingRecord record = new BookingRecord(
                                     bookingId, booking.getUsername(), booking.getStartCity(), booking.getDestCity(),
-                                    String.format("%.2f", booking.getPrice()), booking.getSeatClass(),
-                                    String.valueOf(seat.getRow()), seat.getColumn(), vehicleId, booking.getTravelDate(),
+                                    booking.getPrice(), booking.getSeatClass(),
+                                    seat.getRow(), seat.getColumn(), vehicleId, booking.getTravelDate(),
                                     booking.getProvider() // Save the actual provider
                             );
-                            writer.write(line); writer.newLine(); bookingsSaved++;
+                            records.add(record);
                         } catch (ClassCastException | NullPointerException e) { System.err.println(Utils.RED+"Error processing plane booking "+bookingId+": "+e.getMessage()+Utils.RESET); }
                     }
                 }
@@ -97,12 +78,12 @@ public class StorageManager {
                         try {
                             TrainBooking.Booking booking = (TrainBooking.Booking) entry.getValue();
                             Seat seat = booking.getSeat();
-                            String line = String.join(DELIMITER,
+                            BookingRecord record = new BookingRecord(
                                     bookingId, booking.getUsername(), booking.getStartCity(), booking.getDestCity(),
-                                    String.format("%.2f", booking.getPrice()), booking.getSeatClass(),
-                                    String.valueOf(seat.getRow()), seat.getColumn(), vehicleId, booking.getTravelDate(),
+                                    booking.getPrice(), booking.getSeatClass(),
+                                    seat.getRow(), seat.getColumn(), vehicleId, booking.getTravelDate(),
                                     booking.getProvider());
-                            writer.write(line); writer.newLine(); bookingsSaved++;
+                            records.add(record);
                         } catch (ClassCastException | NullPointerException e) { System.err.println(Utils.RED+"Error processing train booking "+bookingId+": "+e.getMessage()+Utils.RESET); }
                     }
                 }
@@ -116,95 +97,191 @@ public class StorageManager {
                         try {
                             BusBooking.Booking booking = (BusBooking.Booking) entry.getValue();
                             Seat seat = booking.getSeat();
-                            String line = String.join(DELIMITER,
+                            BookingRecord record = new BookingRecord(
                                     bookingId, booking.getUsername(), booking.getStartCity(), booking.getDestCity(),
-                                    String.format("%.2f", booking.getPrice()), booking.getSeatClass(), // Should be Standard
-                                    String.valueOf(seat.getRow()), seat.getColumn(), vehicleId, booking.getTravelDate(),
+                                    booking.getPrice(), booking.getSeatClass(), // Should be Standard
+                                    seat.getRow(), seat.getColumn(), vehicleId, booking.getTravelDate(),
                                     booking.getProvider());
-                            writer.write(line); writer.newLine(); bookingsSaved++;
+                            records.add(record);
                         } catch (ClassCastException | NullPointerException e) { System.err.println(Utils.RED+"Error processing bus booking "+bookingId+": "+e.getMessage()+Utils.RESET); }
                     }
                 }
             }
-            System.out.println(Utils.GREEN + "Bookings data saved successfully ("+bookingsSaved+" bookings)." + Utils.RESET);
-        } catch (IOException e) { System.err.println(Utils.RED_BOLD + "Error saving bookings: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET); }
-        catch (Exception e) { System.err.println(Utils.RED_BOLD + "Unexpected error during booking save: " + e.getMessage() + Utils.RESET); e.printStackTrace();}
+        } catch (Exception e) { System.err.println(Utils.RED_BOLD + "Unexpected error during booking save: " + e.getMessage() + Utils.RESET); e.printStackTrace(); return; }
+        // Written to a temp file and renamed over bookings.txt, so a crash never leaves a truncated file
+        if (!BookingCheckpointer.writeSnapshot(new File(BOOKINGS_FILE), snapshotSeq, records)) return;
+        System.out.println(Utils.GREEN + "Bookings data saved successfully ("+records.size()+" bookings)." + Utils.RESET);
+        // Everything up to snapshotSeq is now in the snapshot; drop it from the journal
+        BookingJournal.truncateThrough(snapshotSeq);
     }
 
     /**
-     * Loads bookings using the updated format including the provider.
+     * Loads bookings using the updated format including the provider, then replays
+     * any journal records written after the snapshot.
      * Format: BookingID:Username:Start:Dest:Price:SeatClass:Row:Col:VehicleID:Date:Provider
      */
     public static void loadBookings(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        long snapshotSeq = isBinaryFormat() ? loadBinarySnapshot(planes, trains, buses) : loadBookingSnapshot(planes, trains, buses);
+        BookingJournal.replay(snapshotSeq, planes, trains, buses);
+    }
+
+    /**
+     * Loads the bookings snapshot file into the manager objects (parsed in parallel, see ParallelBookingLoader).
+     * @return The journal sequence number the snapshot covers (0 if none recorded).
+     */
+    private static long loadBookingSnapshot(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
         File file = new File(BOOKINGS_FILE);
-        if (!file.exists()) { System.out.println(Utils.YELLOW + "Bookings file (" + BOOKINGS_FILE + ") not found. Starting fresh." + Utils.RESET); return; }
+        if (!file.exists()) { System.out.println(Utils.YELLOW + "Bookings file (" + BOOKINGS_FILE + ") not found. Starting fresh." + Utils.RESET); return 0; }
 
         System.out.println(Utils.GREY + "Loading bookings data from " + BOOKINGS_FILE + "..." + Utils.RESET);
-        int lineNumber = 0; int loadedCount = 0;
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                if (line.trim().isEmpty() || line.startsWith("#")) continue;
-
-                String[] parts = line.split(DELIMITER);
-                // Expecting 11 parts now
-                if (parts.length != 11) {
-                    System.err.println(Utils.YELLOW_BOLD + "Warning:" + Utils.YELLOW + " Skipping malformed line #" + lineNumber + " (Expected 11 parts, found " + parts.length + ")" + Utils.RESET);
-                    continue;
+        try {
+            return ParallelBookingLoader.load(file, planes, trains, buses);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error loading bookings: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return 0;
+        }
+    }
+
+    /**
+     * Loads live bookings from the binary booking file into the manager objects.
+     * @return The journal sequence number the binary file covers (0 if there is no file).
+     */
+    private static long loadBinarySnapshot(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        if (!new File(BinaryBookingStore.BINARY_FILE).exists()) {
+            System.out.println(Utils.YELLOW + "Binary bookings file (" + BinaryBookingStore.BINARY_FILE + ") not found. Starting fresh." + Utils.RESET);
+            return 0;
+        }
+        System.out.println(Utils.GREY + "Loading bookings data from " + BinaryBookingStore.BINARY_FILE + "..." + Utils.RESET);
+        try (BinaryBookingStore store = BinaryBookingStore.open(BinaryBookingStore.BINARY_FILE, BinaryBookingStore.DICT_FILE)) {
+            int loadedCount = store.loadInto(planes, trains, buses);
+            System.out.println(Utils.GREEN + "Bookings data loaded successfully (" + loadedCount + " bookings)." + Utils.RESET);
+            return store.getSnapshotSeq();
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error loading bookings: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return 0;
+        }
+    }
+
+    /**
+     * Replaces target with source using an atomic rename where the file system supports it.
+     */
+    static void replaceAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Adds a parsed booking to the manager object whose ID matches the record's vehicle ID.
+     * A booking whose seat another loaded booking already holds on that trip is reported and skipped.
+     * @return true if a matching manager was found and the booking was added.
+     */
+    static boolean applyBooking(BookingRecord record, List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        String transportType = record.transportType();
+        if (transportType == null) return false;
+        // Create Seat object (price here might be the final price paid)
+        Seat seat = new Seat(record.row(), record.column(), record.seatClass(), transportType, record.price());
+
+        // Find the correct manager object by its ID and add the booking
+        if (transportType.equals("Plane")) {
+            for (PlaneBooking plane : planes) {
+                if (plane.getFlightId().equals(record.vehicleId())) {
+                    return plane.addBooking(record.bookingId(), record.username(), record.startCity(), record.destCity(), record.price(), record.seatClass(), seat, record.travelDate(), record.provider()) || seatConflict(record);
+                }
+            }
+        } else if (transportType.equals("Train")) {
+            for (TrainBooking train : trains) {
+                if (train.getTrainId().equals(record.vehicleId())) {
+                    return train.addBooking(record.bookingId(), record.username(), record.startCity(), record.destCity(), record.price(), record.seatClass(), seat, record.travelDate(), record.provider()) || seatConflict(record);
                 }
+            }
+        } else if (transportType.equals("Bus")) {
+            for (BusBooking bus : buses) {
+                if (bus.getBusId().equals(record.vehicleId())) {
+                    return bus.addBooking(record.bookingId(), record.username(), record.startCity(), record.destCity(), record.price(), record.seatClass(), seat, record.travelDate(), record.provider()) || seatConflict(record);
+                }
+            }
+        }
+        return false;
+    }
 
-                try {
-                    // Parse all parts
-                    String bookingId = parts[0].toUpperCase(); String username = parts[1];
-                    String startCity = parts[2]; String destCity = parts[3];
-                    double price = Double.parseDouble(parts[4]); String seatClass = parts[5];
-                    int row = Integer.parseInt(parts[6]); String col = parts[7];
-                    String vehicleId = parts[8]; // ID of the *manager* object
-                    String travelDate = parts[9]; String provider = parts[10]; // The actual service provider
-
-                    String transportType = "";
-                    if (bookingId.startsWith("P")) transportType = "Plane";
-                    else if (bookingId.startsWith("T")) transportType = "Train";
-                    else if (bookingId.startsWith("B")) transportType = "Bus";
-                    else { System.err.println(Utils.YELLOW + "Warning: Unknown booking ID prefix on line #" + lineNumber + Utils.RESET); continue; }
-
-                    // Create Seat object (price here might be the final price paid)
-                    Seat seat = new Seat(row, col, seatClass, transportType, price);
-
-                    // Find the correct manager object by its ID and add the booking
-                    boolean bookingAdded = false;
-                    if (transportType.equals("Plane")) {
-                        for (PlaneBooking plane : planes) {
-                            if (plane.getFlightId().equals(vehicleId)) {
-                                plane.addBooking(bookingId, username, startCity, destCity, price, seatClass, seat, travelDate, provider);
-                                bookingAdded = true; break;
-                            }
-                        }
-                    } else if (transportType.equals("Train")) {
-                        for (TrainBooking train : trains) {
-                            if (train.getTrainId().equals(vehicleId)) {
-                                train.addBooking(bookingId, username, startCity, destCity, price, seatClass, seat, travelDate, provider);
-                                bookingAdded = true; break;
-                            }
-                        }
-                    } else if (transportType.equals("Bus")) {
-                        for (BusBooking bus : buses) {
-                            if (bus.getBusId().equals(vehicleId)) {
-                                bus.addBooking(bookingId, username, startCity, destCity, price, seatClass, seat, travelDate, provider);
-                                bookingAdded = true; break;
-                            }
-                        }
-                    }
+    /**
+     * Builds the persisted form of a booking held by any manager object.
+     * @return The booking record, or null if no manager holds the booking.
+     */
+    static BookingRecord findBookingRecord(String bookingId, List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        String mapKey = bookingId.toUpperCase();
+        for (PlaneBooking plane : planes) { PlaneBooking.Booking b = plane.getBookings().get(mapKey); if (b != null) return new BookingRecord(mapKey, b.getUsername(), b.getStartCity(), b.getDestCity(), b.getPrice(), b.getSeatClass(), b.getSeat().getRow(), b.getSeat().getColumn(), plane.getFlightId(), b.getTravelDate(), b.getProvider()); }
+        for (TrainBooking train : trains) { TrainBooking.Booking b = train.getBookings().get(mapKey); if (b != null) return new BookingRecord(mapKey, b.getUsername(), b.getStartCity(), b.getDestCity(), b.getPrice(), b.getSeatClass(), b.getSeat().getRow(), b.getSeat().getColumn(), train.getTrainId(), b.getTravelDate(), b.getProvider()); }
+        for (BusBooking bus : buses) { BusBooking.Booking b = bus.getBookings().get(mapKey); if (b != null) return new BookingRecord(mapKey, b.getUsername(), b.getStartCity(), b.getDestCity(), b.getPrice(), b.getSeatClass(), b.getSeat().getRow(), b.getSeat().getColumn(), bus.getBusId(), b.getTravelDate(), b.getProvider()); }
+        return null;
+    }
+
+    /**
+     * Builds a vehicle ID -> manager object map for bulk loads, so each booking finds its
+     * manager with one lookup instead of scanning the manager lists.
+     */
+    static Map<String, Object> indexManagers(List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        Map<String, Object> managers = new HashMap<>();
+        for (PlaneBooking plane : planes) managers.put(plane.getFlightId(), plane);
+        for (TrainBooking train : trains) managers.put(train.getTrainId(), train);
+        for (BusBooking bus : buses) managers.put(bus.getBusId(), bus);
+        return managers;
+    }
 
-                    if (bookingAdded) loadedCount++;
-                    else { System.err.println(Utils.YELLOW + "Warning: No matching manager vehicle found for ID '" + vehicleId + "' on line #" + lineNumber + "." + Utils.RESET); }
+    /**
+     * Adds a parsed booking to its manager object using a map from indexManagers.
+     * Bookings with no matching manager, or whose seat another loaded booking already holds on
+     * that trip, are reported and skipped.
+     * @return true if the booking was added.
+     */
+    static boolean applyBooking(BookingRecord record, Map<String, Object> managers) {
+        String transportType = record.transportType();
+        Object manager = managers.get(record.vehicleId());
+        Seat seat = new Seat(record.row(), record.column(), record.seatClass(), transportType, record.price());
+        boolean added;
+        if ("Plane".equals(transportType) && manager instanceof PlaneBooking plane) {
+            added = plane.addBooking(record.bookingId(), record.username(), record.startCity(), record.destCity(), record.price(), record.seatClass(), seat, record.travelDate(), record.provider());
+        } else if ("Train".equals(transportType) && manager instanceof TrainBooking train) {
+            added = train.addBooking(record.bookingId(), record.username(), record.startCity(), record.destCity(), record.price(), record.seatClass(), seat, record.travelDate(), record.provider());
+        } else if ("Bus".equals(transportType) && manager instanceof BusBooking bus) {
+            added = bus.addBooking(record.bookingId(), record.username(), record.startCity(), record.destCity(), record.price(), record.seatClass(), seat, record.travelDate(), record.provider());
+        } else {
+            System.err.println(Utils.YELLOW + "Warning: No matching manager vehicle found for ID '" + record.vehicleId() + "' (booking " + record.bookingId() + ")." + Utils.RESET);
+            return false;
+        }
+        return added || seatConflict(record);
+    }
 
-                } catch (NumberFormatException e) { System.err.println(Utils.YELLOW + "Warning: Skipping line #" + lineNumber + " due to number format error: " + e.getMessage() + Utils.RESET); }
-                catch (Exception e) { System.err.println(Utils.RED + "Error processing line #" + lineNumber + ": " + e.getMessage() + Utils.RESET); e.printStackTrace(); }
-            } // End while
-            System.out.println(Utils.GREEN + "Bookings data loaded successfully (" + loadedCount + " bookings)." + Utils.RESET);
-        } catch (IOException e) { System.err.println(Utils.RED_BOLD + "Error loading bookings: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET); }
+    /** Reports a stored booking whose seat is already held by another booking. @return false */
+    private static boolean seatConflict(BookingRecord record) {
+        System.err.println(Utils.YELLOW + "Warning: Skipping booking " + record.bookingId() + ": seat " + record.row() + record.column() + " on " + record.provider() + " (" + record.travelDate() + ") is already held by another booking." + Utils.RESET);
+        return false;
+    }
+
+    /**
+     * Removes a booking from whichever manager object holds it (no ownership check) and frees its seat.
+     * @return true if the booking was found and removed.
+     */
+    static boolean removeBooking(String bookingId, List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        for (PlaneBooking plane : planes) if (plane.removeBooking(bookingId) != null) return true;
+        for (TrainBooking train : trains) if (train.removeBooking(bookingId) != null) return true;
+        for (BusBooking bus : buses) if (bus.removeBooking(bookingId) != null) return true;
+        return false;
+    }
+
+    /**
+     * Updates the travel date of a booking held by any manager object, moving its seat to that date's trip.
+     * @return true if the booking was found and updated; false also if its seat is taken on the new date.
+     */
+    static boolean changeTravelDate(String bookingId, String newTravelDate, List<PlaneBooking> planes, List<TrainBooking> trains, List<BusBooking> buses) {
+        String mapKey = bookingId.toUpperCase();
+        for (PlaneBooking plane : planes) if (plane.getBookings().containsKey(mapKey)) return plane.moveBooking(mapKey, newTravelDate);
+        for (TrainBooking train : trains) if (train.getBookings().containsKey(mapKey)) return train.moveBooking(mapKey, newTravelDate);
+        for (BusBooking bus : buses) if (bus.getBookings().containsKey(mapKey)) return bus.moveBooking(mapKey, newTravelDate);
+        return false;
     }
 
 } // End of StorageManager class
\ No newline at end of file
@@ -4,57 +4,68 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.InputMismatchException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Predicate;
 
 /**
  * Manages bookings and seat layout for a specific train instance/slot.
  */
 public class TrainBooking {
-    private final CustomLinkedList<Seat> seats = new CustomLinkedList<>();
+    private SeatBitmap seats; private TripKey seatsTrip; private String seatsClass; // Seat map of the trip being booked (a copy from the inventory)
     private Map<String, Booking> bookings = new HashMap<>();
     private final String trainId;
     private final BookingSystem bookingSystem;
+    private final SeatInventory inventory; // Seat occupancy per trip, shared with the other managers
+    private final SeatHolds holds; // Time-limited holds on seats chosen in an unfinished booking
 
     public TrainBooking(String trainId, BookingSystem bookingSystem) {
         this.trainId = trainId;
         this.bookingSystem = bookingSystem;
+        this.inventory = bookingSystem.getSeatInventory();
+        this.holds = bookingSystem.getSeatHolds();
     }
 
-    private void initializeSeats(String seatClass, double finalSeatPrice) {
-        seats.clear(); int rows = 10; char[] columns = {'A', 'B', 'C', 'D', 'E'}; // Simplified
-        for (int r = 1; r <= rows; r++) for (char c : columns) seats.add(new Seat(r, String.valueOf(c), seatClass, "Train", finalSeatPrice));
-        markExistingBookings(seatClass);
+    private void initializeSeats(String seatClass, TripKey trip) {
+        seats = inventory.seatMap(trip); seatsTrip = trip; seatsClass = seatClass;
     }
 
-    private void markExistingBookings(String seatClass) {
-        for (Booking booked : this.bookings.values()) { if (booked.getSeatClass().equalsIgnoreCase(seatClass)) { Seat seatInLayout = findSeat(booked.getSeat().getRow(), booked.getSeat().getColumn()); if (seatInLayout != null && !seatInLayout.isReserved()) seatInLayout.reserve(); } }
+    private static TripKey tripOf(Booking booking) {
+        return new TripKey("Train", booking.getProvider(), booking.getStartCity(), booking.getDestCity(), booking.getTravelDate(), booking.getSeatClass());
     }
 
     public void displaySeats() {
-        if (seats.isEmpty()) { System.out.println(Utils.YELLOW + "No seats initialized." + Utils.RESET); return; }
-        String seatClass = seats.getHead().data.getSeatClass(); System.out.println("\n" + Utils.CYAN_BOLD + "Train Seat Layout - " + seatClass + " (Train ID: " + trainId + ")" + Utils.RESET); System.out.println(Utils.GREY + "(Simplified 5-column view)" + Utils.RESET);
-        char firstCol = ' '; char lastCol = ' '; if (!seats.isEmpty()) { firstCol = seats.getHead().data.getColumn().charAt(0); lastCol = firstCol; CustomLinkedList.Node<Seat> node = seats.getHead(); while(node != null && node.data.getRow() == seats.getHead().data.getRow()) { lastCol = node.data.getColumn().charAt(0); node = node.next; } } else { return; }
-        System.out.print("     "); for (char c = firstCol; c <= lastCol; c++) { System.out.print(Utils.YELLOW_BOLD + " " + c + " " + Utils.RESET); if (c == 'C') System.out.print("   "); } System.out.println();
-        CustomLinkedList.Node<Seat> temp = seats.getHead(); int currentRow = -1; StringBuilder rowDisplay = new StringBuilder();
-        while (temp != null) { Seat seat = temp.data; if (seat.getRow() != currentRow) { if (currentRow != -1) System.out.println(rowDisplay); rowDisplay = new StringBuilder(Utils.YELLOW_BOLD + String.format("Row %2d:", seat.getRow()) + Utils.RESET); currentRow = seat.getRow(); } rowDisplay.append(" ").append(seat.toString()); if (seat.getColumn().equalsIgnoreCase("C")) rowDisplay.append("  "); temp = temp.next; } if (!rowDisplay.isEmpty()) System.out.println(rowDisplay);
-        System.out.println("\n" + Utils.BLUE_BOLD + "Seat Legend:" + Utils.RESET); System.out.println(" " + Utils.GREEN + "O" + Utils.RESET + "(RowCol) - Available"); System.out.println(" " + Utils.RED + "X" + Utils.RESET + "(RowCol) - Reserved");
+        if (seats == null) { System.out.println(Utils.YELLOW + "No seats initialized." + Utils.RESET); return; }
+        System.out.println("\n" + Utils.CYAN_BOLD + "Train Seat Layout - " + seatsClass + " (Train ID: " + trainId + ")" + Utils.RESET); System.out.println(Utils.GREY + "(Simplified 5-column view)" + Utils.RESET);
+        SeatMap.print(seats);
+        System.out.println(Utils.GREY + "Free seats for this journey: " + (seats.layout().seatCount() - inventory.reservedCount(seatsTrip)) + (inventory.soldPerLeg(seatsTrip) ? " (seats sold only for other stretches of the train are free)" : "") + Utils.RESET);
     }
 
     public void book(Scanner sc, String username, String startCity, String destCity, double finalSeatPrice, String seatClass, String travelDate, String selectedProvider) {
-        initializeSeats(seatClass, finalSeatPrice);
-        if (seats.isEmpty()) { System.out.println(Utils.RED + "Failed to initialize seats." + Utils.RESET); return; }
+        TripKey trip = new TripKey("Train", selectedProvider, startCity, destCity, travelDate, seatClass); initializeSeats(seatClass, trip);
+        if (seats == null) { System.out.println(Utils.RED + "Failed to initialize seats." + Utils.RESET); return; }
         System.out.printf("\n" + Utils.BLUE_BOLD + "Booking Service: " + Utils.CYAN + "%s" + Utils.RESET + "\n", selectedProvider); System.out.printf(Utils.BLUE_BOLD + "Price (" + Utils.CYAN + "%s" + Utils.BLUE_BOLD + "/seat): Rs. " + Utils.GREEN_BOLD + "%.2f" + Utils.RESET + "\n", seatClass, finalSeatPrice); displaySeats();
-        Seat selectedSeat = null;
+        int party = GroupBooking.promptPartySize(sc, seats); if (party == 0) { System.out.println(Utils.YELLOW + "Cancelled." + Utils.RESET); return; }
+        if (party > 1) { String pnr = GroupBooking.book(sc, holds, trip, seats, "Train", seatClass, finalSeatPrice, party, this::removeBooking, seat -> { seat.reserve(); seats.reserve(seats.layout().index(seat.getRow(), seat.getColumn())); String bookingId = "T" + bookingSystem.getNextBookingId("T"); Booking newBooking = new Booking(username, startCity, destCity, seat.getPrice(), seat.getSeatClass(), seat, travelDate, selectedProvider); bookings.put(bookingId, newBooking);
+            return new BookingRecord(bookingId, username, startCity, destCity, seat.getPrice(), seat.getSeatClass(), seat.getRow(), seat.getColumn(), trainId, newBooking.getTravelDate(), newBooking.getProvider()); }); if (pnr != null) displaySeats(); return; }
+        Seat selectedSeat = null; SeatHolds.Hold hold = null;
         while (selectedSeat == null) {
-            System.out.println("\n" + Utils.YELLOW + "Example: 3 B" + Utils.RESET); System.out.print(Utils.WHITE_BOLD + "Enter row & seat (or 'back'): " + Utils.RESET); String inputLine = sc.nextLine().trim(); if (inputLine.equalsIgnoreCase("back")) { System.out.println(Utils.YELLOW + "Cancelled." + Utils.RESET); return; } String[] parts = inputLine.split("\\s+"); if (parts.length == 2) { try { int row = Integer.parseInt(parts[0]); String col = parts[1].toUpperCase(); Seat potSeat = findSeat(row, col); if (potSeat == null) System.out.println(Utils.RED + "Seat not found." + Utils.RESET); else if (potSeat.isReserved()) System.out.println(Utils.RED + "Seat reserved." + Utils.RESET); else if (!potSeat.getSeatClass().equalsIgnoreCase(seatClass)) System.out.println(Utils.RED + "Seat not in class." + Utils.RESET); else selectedSeat = potSeat; } catch (NumberFormatException e) { System.out.println(Utils.RED + "Invalid row format."+Utils.RESET);} catch (Exception e) { System.out.println(Utils.RED + "Invalid input." + Utils.RESET); } } else System.out.println(Utils.RED + "Invalid format." + Utils.RESET);
+            System.out.println("\n" + Utils.YELLOW + "Example: 3 B (or 'auto' to have the best free seat picked)" + Utils.RESET); System.out.print(Utils.WHITE_BOLD + "Enter row & seat (or 'auto' / 'back'): " + Utils.RESET); String inputLine = sc.nextLine().trim(); if (inputLine.equalsIgnoreCase("back")) { System.out.println(Utils.YELLOW + "Cancelled." + Utils.RESET); return; }
+            if (inputLine.equalsIgnoreCase("auto")) { List<SeatHolds.Hold> picked = SeatAssigner.holdBest(holds, trip, seats, 1, SeatAssigner.promptPreferences(sc, 1)); if (picked == null) { System.out.println(Utils.RED + "No free seats left." + Utils.RESET); return; } hold = picked.get(0); selectedSeat = new Seat(hold.row, hold.column, seatClass, "Train", finalSeatPrice); System.out.println(Utils.GREEN + "Assigned seat " + hold.getSeatId() + "." + Utils.RESET); continue; }
+            String[] parts = inputLine.split("\\s+"); if (parts.length == 2) { try { int row = Integer.parseInt(parts[0]); String col = parts[1].toUpperCase(); int index = seats.layout().index(row, col); if (index < 0) System.out.println(Utils.RED + "Seat not found." + Utils.RESET); else if (seats.isReserved(index)) System.out.println(Utils.RED + "Seat reserved." + Utils.RESET); else if ((hold = holds.place(trip, row, col)) == null) { seats.reserve(index); System.out.println(Utils.RED + "Seat was just taken by another booking." + Utils.RESET); } else selectedSeat = new Seat(row, col, seatClass, "Train", finalSeatPrice); } catch (NumberFormatException e) { System.out.println(Utils.RED + "Invalid row format."+Utils.RESET);} catch (Exception e) { System.out.println(Utils.RED + "Invalid input." + Utils.RESET); } } else System.out.println(Utils.RED + "Invalid format." + Utils.RESET);
         }
         System.out.printf(Utils.BLUE + "\nSelected Seat: " + Utils.MAGENTA_BOLD + "%s" + Utils.BLUE + ", Price: Rs. " + Utils.GREEN_BOLD + "%.2f" + Utils.RESET + "\n", selectedSeat.getSeatId(), selectedSeat.getPrice());
+        System.out.println(Utils.GREY + "(Seat held for you for " + holds.ttlLabel() + " while you complete the booking)" + Utils.RESET);
         String name = ""; while (name.isEmpty()) { System.out.print(Utils.WHITE_BOLD + "Passenger Name: " + Utils.RESET); name = sc.nextLine().trim(); if(name.isEmpty()) System.out.println(Utils.RED+"Name cannot be empty."+Utils.RESET);}
-        int age = Utils.getValidAge(sc); String gender = Utils.getValidGender(sc); String email = Utils.getValidEmail(sc); if (email == null) { System.out.println(Utils.YELLOW + "Booking cancelled." + Utils.RESET); return; }
-        boolean paymentOk = Utils.simulatePayment(sc, selectedSeat.getPrice());
-        if (paymentOk) { Passenger passenger = new Passenger(name, age, gender, email, selectedSeat); selectedSeat.reserve(); String bookingId = "T" + bookingSystem.getNextBookingId("T"); String mapKey = bookingId.toUpperCase(); Booking newBooking = new Booking(username, startCity, destCity, selectedSeat.getPrice(), seatClass, selectedSeat, travelDate, selectedProvider); bookings.put(mapKey, newBooking);
+        int age = Utils.getValidAge(sc); String gender = Utils.getValidGender(sc); String email = Utils.getValidEmail(sc); if (email == null) { holds.release(hold); System.out.println(Utils.YELLOW + "Booking cancelled." + Utils.RESET); return; }
+        if (!holds.confirm(hold)) { System.out.println(Utils.RED_BOLD + "\nThe hold on seat " + selectedSeat.getSeatId() + " expired; nothing was charged. Please book again." + Utils.RESET); return; } // Before charging
+        boolean paymentOk = Utils.simulatePayment(sc, selectedSeat.getPrice()); if (!paymentOk) holds.release(hold);
+        if (paymentOk) { Passenger passenger = new Passenger(name, age, gender, email, selectedSeat); String bookingId = "T" + bookingSystem.getNextBookingId("T"); String mapKey = bookingId.toUpperCase(); Booking newBooking = new Booking(username, startCity, destCity, selectedSeat.getPrice(), seatClass, selectedSeat, travelDate, selectedProvider); bookings.put(mapKey, newBooking);
+            if (!BookingJournal.recordBooking(new BookingRecord(mapKey, username, startCity, destCity, selectedSeat.getPrice(), seatClass, selectedSeat.getRow(), selectedSeat.getColumn(), trainId, newBooking.getTravelDate(), newBooking.getProvider()))) { removeBooking(mapKey); System.out.printf(Utils.RED_BOLD + "\nThe booking could not be saved, so it was not made. Rs. %.2f has been refunded." + Utils.RESET + "\n", selectedSeat.getPrice()); return; } // Frees the seat again
+            selectedSeat.reserve(); seats.reserve(seats.layout().index(selectedSeat.getRow(), selectedSeat.getColumn())); PassengerManifest.record(mapKey, List.of(mapKey), List.of(passenger));
             System.out.println("\n" + Utils.GREEN_BOLD + "================ BOOKING CONFIRMED ================" + Utils.RESET);
             System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.YELLOW_BOLD + "%s\n" + Utils.RESET, "Booking ID", bookingId); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.CYAN + "%s\n" + Utils.RESET, "Service", selectedProvider); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.MAGENTA + "%s\n" + Utils.RESET, "Passenger", name); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.MAGENTA + "%d\n" + Utils.RESET, "Age", age); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.MAGENTA + "%s\n" + Utils.RESET, "Gender", gender); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.MAGENTA + "%s\n" + Utils.RESET, "Email", email); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.CYAN + "%s -> %s\n" + Utils.RESET, "Route", startCity, destCity); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.CYAN + "%s\n" + Utils.RESET, "Class", seatClass); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.YELLOW_BOLD + "%s\n" + Utils.RESET, "Seat", selectedSeat.getSeatId()); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.CYAN + "%s\n" + Utils.RESET, "Travel Date", travelDate); System.out.printf(Utils.BLUE_BOLD + "%-15s: " + Utils.GREEN_BOLD + "Rs. %.2f\n" + Utils.RESET, "Amount Paid", selectedSeat.getPrice()); System.out.println(Utils.GREEN_BOLD + "===============================================" + Utils.RESET); displaySeats();
         } else { System.out.println(Utils.RED_BOLD + "\nBooking Failed (Payment Cancelled/Failed)." + Utils.RESET); }
@@ -66,20 +77,45 @@ public class TrainBooking {
         for (Map.Entry<String, Booking> entry : sortedBookings) { Booking booking = entry.getValue(); if (booking.getUsername().equals(username)) { if (!hasBookings) { output.append(header).append("\n").append(columns).append("\n").append(separator).append("\n"); hasBookings = true; } output.append(String.format(Utils.YELLOW_BOLD + "%-10s" + Utils.RESET + " | " + Utils.MAGENTA + "%-20s" + Utils.RESET + " | " + Utils.CYAN + "%-25.25s" + Utils.RESET + " | " + Utils.MAGENTA + "%-11s" + Utils.RESET + " | " + Utils.GREEN_BOLD + "Rs. %-7.2f" + Utils.RESET + " | " + Utils.YELLOW_BOLD + "%-8s" + Utils.RESET + " | " + Utils.MAGENTA + "%s" + Utils.RESET + "\n", entry.getKey(), booking.getStartCity() + "->" + booking.getDestCity(), booking.getProvider(), booking.getTravelDate(), booking.getPrice(), booking.getSeat().getSeatId(), booking.getSeatClass())); } } if (hasBookings) System.out.println(output); return hasBookings;
     }
 
-    public boolean cancelBooking(String bookingId, String username) {
-        String mapKey = bookingId.toUpperCase(); Booking booking = bookings.get(mapKey);
-        if (booking != null && (username == null || booking.getUsername().equals(username))) { // Admin check
-            bookings.remove(mapKey); Seat seatToUnreserve = findSeat(booking.getSeat().getRow(), booking.getSeat().getColumn()); if (seatToUnreserve != null && seatToUnreserve.isReserved()) { seatToUnreserve.unreserve(); System.out.println(Utils.GREY + "(Seat " + seatToUnreserve.getSeatId() + " marked available)" + Utils.RESET); } return true;
-        } else { return false; }
+    public boolean cancelBooking(String bookingId, String username) { return cancelBookings(List.of(bookingId), username); }
+
+    /** Cancels several bookings (the seats of a PNR) with one journal record, all or none; IDs no longer booked here are skipped. @return false if none is the user's booking or the cancellation could not be saved. */
+    public boolean cancelBookings(List<String> bookingIds, String username) {
+        Map<String, String> travelDates = new LinkedHashMap<>(); // Booking ID -> travel date
+        for (String bookingId : bookingIds) { Booking booking = bookings.get(bookingId.toUpperCase()); if (booking != null && (username == null || booking.getUsername().equals(username))) travelDates.put(bookingId.toUpperCase(), booking.getTravelDate()); } // Admin check
+        if (travelDates.isEmpty()) return false;
+        if (!BookingJournal.recordCancellations(travelDates)) { System.out.println(Utils.RED + "The cancellation of " + String.join(", ", travelDates.keySet()) + " could not be saved; nothing was cancelled." + Utils.RESET); return false; }
+        for (String mapKey : travelDates.keySet()) { Booking booking = bookings.remove(mapKey); inventory.release(tripOf(booking), booking.getSeat().getRow(), booking.getSeat().getColumn()); int index = seats != null && tripOf(booking).equals(seatsTrip) ? seats.layout().index(booking.getSeat().getRow(), booking.getSeat().getColumn()) : -1; if (index >= 0 && seats.release(index)) System.out.println(Utils.GREY + "(Seat " + booking.getSeat().getSeatId() + " marked available)" + Utils.RESET); }
+        return true;
     }
 
-    public void addBooking(String bookingId, String username, String startCity, String destCity, double price, String seatClass, Seat seat, String travelDate, String provider) {
-        seat.reserve(); Booking loadedBooking = new Booking(username, startCity, destCity, price, seatClass, seat, travelDate, provider); bookings.put(bookingId.toUpperCase(), loadedBooking);
+    /** Adds a stored booking (loading, replay); same ID replaces it. @return false if the seat is already taken on that trip (nothing added). */
+    public boolean addBooking(String bookingId, String username, String startCity, String destCity, double price, String seatClass, Seat seat, String travelDate, String provider) {
+        String mapKey = bookingId.toUpperCase(); removeBooking(mapKey); Booking loadedBooking = new Booking(username, startCity, destCity, price, seatClass, seat, travelDate, provider);
+        if (!inventory.reserve(tripOf(loadedBooking), seat.getRow(), seat.getColumn())) return false;
+        seat.reserve(); bookings.put(mapKey, loadedBooking); return true;
     }
 
-    public Map<String, Booking> getBookings() { return bookings; }
+    /** Removes a booking without an ownership check or journal entry (replay, archiving) and frees its seat. */
+    public Booking removeBooking(String bookingId) {
+        Booking removed = bookings.remove(bookingId.toUpperCase()); if (removed != null) inventory.release(tripOf(removed), removed.getSeat().getRow(), removed.getSeat().getColumn()); return removed;
+    }
+
+    /** Removes the bookings matching the filter (partition eviction) and frees their seats. */
+    public void removeBookingsIf(Predicate<Booking> filter) {
+        for (Iterator<Booking> it = bookings.values().iterator(); it.hasNext(); ) { Booking booking = it.next(); if (!filter.test(booking)) continue; it.remove(); inventory.release(tripOf(booking), booking.getSeat().getRow(), booking.getSeat().getColumn()); }
+    }
+
+    /** Moves a booking to another travel date, keeping its seat; false if unknown or the seat is taken on that date (nothing changes then). */
+    public boolean moveBooking(String bookingId, String newTravelDate) {
+        Booking booking = bookings.get(bookingId.toUpperCase()); if (booking == null) return false;
+        TripKey from = tripOf(booking); TripKey to = new TripKey("Train", booking.getProvider(), booking.getStartCity(), booking.getDestCity(), newTravelDate, booking.getSeatClass());
+        int row = booking.getSeat().getRow(); String column = booking.getSeat().getColumn();
+        if (!to.equals(from)) { if (!inventory.reserve(to, row, column)) return false; inventory.release(from, row, column); }
+        booking.setTravelDate(newTravelDate); return true;
+    }
 
-    private Seat findSeat(int row, String col) { CustomLinkedList.Node<Seat> temp = seats.getHead(); while (temp != null) { Seat seat = temp.data; if (seat.getRow() == row && seat.getColumn().equalsIgnoreCase(col)) return seat; temp = temp.next; } return null; }
+    public Map<String, Booking> getBookings() { return bookings; }
 
     public String getTrainId() { return trainId; }
 
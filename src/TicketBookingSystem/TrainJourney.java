@@ -0,0 +1,8 @@
+package TicketBookingSystem;
+
+/**
+ * A passenger's part of a train run. The run (one train, one direction, on a date, in a class) is
+ * keyed by a TripKey from its first to its last stop; the journey covers legs [from, to), leg l
+ * being the stretch from stop l to stop l + 1.
+ */
+record TrainJourney(TripKey run, int legs, int from, int to) {}
@@ -0,0 +1,134 @@
+package TicketBookingSystem;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stop lists of the trains, from train_stops.txt:  TrainName|Stop1|Stop2|...|StopN
+ * Bookings only name the train, so a list is used only when the name identifies one service: the name
+ * has a single list, and every city pair the current route snapshot sells for it lies on that list. Names
+ * that cover unrelated routes (e.g. "Duronto Express") and trips off the list keep a seat map per city pair,
+ * as before. A listed train's trips in either direction are matched to the run in that direction.
+ * At most MAX_STOPS stops per train. The file is read once, on first use; the eligible lists are rebuilt
+ * by refresh() each time RouteDataManager publishes routes, and swapped in whole.
+ */
+final class TrainStops {
+    static final String STOPS_FILE = "train_stops.txt";
+    static final int MAX_STOPS = 32; // SegmentSeatMap keeps a seat's legs and reservation starts in one long
+
+    private TrainStops() {}
+
+    /** Loaded when first read (class initialization runs once), then shared without locking. */
+    private static final class Loaded {
+        static final Map<String, String[]> STOPS_BY_TRAIN = load(STOPS_FILE); // Upper-case train name -> stops
+    }
+
+    // Lists that identify one service in the current routes; null until routes are first published
+    private static volatile Map<String, String[]> eligible;
+
+    /**
+     * The run and legs a train trip occupies under the current routes.
+     * @return The journey, or null if the trip is not a train trip on an eligible train (its seats are sold per city pair).
+     */
+    static TrainJourney journey(TripKey trip) {
+        return trip.mode().equals("TRAIN") ? journey(trip, stopsOf(trip.provider())) : null;
+    }
+
+    /**
+     * The stop list a train is sold per leg on under the current routes.
+     * @return The stops, or null if the train has no eligible list (its seats are sold per city pair).
+     */
+    static String[] stopsOf(String train) {
+        Map<String, String[]> current = eligible;
+        return current == null ? null : current.get(train);
+    }
+
+    /**
+     * The run and legs a train trip occupies on the given stop list.
+     * @return The journey, or null if there is no list or the trip's cities are not both on it.
+     */
+    static TrainJourney journey(TripKey trip, String[] stops) {
+        if (stops == null) return null;
+        int origin = indexOf(stops, trip.origin()), destination = indexOf(stops, trip.destination());
+        if (origin < 0 || destination < 0 || origin == destination) return null;
+        int last = stops.length - 1;
+        boolean forward = origin < destination;
+        TripKey run = new TripKey(trip.mode(), trip.provider(), forward ? stops[0] : stops[last], forward ? stops[last] : stops[0], trip.travelDate(), trip.seatClass());
+        return forward ? new TrainJourney(run, last, origin, destination) : new TrainJourney(run, last, last - origin, last - destination);
+    }
+
+    private static int indexOf(String[] stops, String city) {
+        for (int i = 0; i < stops.length; i++) if (stops[i].equals(city)) return i;
+        return -1;
+    }
+
+    /**
+     * Rebuilds the eligible lists from newly published routes: a list is dropped if its train is sold
+     * between two cities that are not both on it. A list is reported when it stops being eligible.
+     */
+    static synchronized void refresh(CompiledRoutes routes) {
+        Map<String, String[]> lists = Loaded.STOPS_BY_TRAIN, previous = eligible;
+        Map<String, String> offList = new HashMap<>(); // Train -> first city pair sold off its list
+        for (int city = 0; city < routes.cityCount(); city++) {
+            String from = routes.cityName(city).trim().toUpperCase(Locale.ROOT);
+            for (int e = routes.firstEdge(city, RouteDataManager.TRAIN); e < routes.endEdge(city, RouteDataManager.TRAIN); e++) {
+                if (!routes.available(e)) continue;
+                String to = routes.cityName(routes.target(e)).trim().toUpperCase(Locale.ROOT);
+                for (String provider : routes.providers(e)) {
+                    String train = provider.trim().toUpperCase(Locale.ROOT);
+                    String[] stops = lists.get(train);
+                    if (stops != null && (indexOf(stops, from) < 0 || indexOf(stops, to) < 0)) offList.putIfAbsent(train, from + " -> " + to);
+                }
+            }
+        }
+        Map<String, String[]> next = new HashMap<>(lists);
+        offList.forEach((train, pair) -> {
+            next.remove(train);
+            if (previous == null || previous.containsKey(train)) {
+                System.err.println(Utils.YELLOW + "Warning: Ignoring the stop list of " + train + " in " + STOPS_FILE + " (it is also sold " + pair + ", off the list)" + Utils.RESET);
+            }
+        });
+        eligible = Map.copyOf(next);
+    }
+
+    /** Reads the stop lists, dropping train names with more than one list (see the class comment). */
+    private static Map<String, String[]> load(String filename) {
+        Map<String, List<String[]>> lists = new HashMap<>();
+        if (!new File(filename).exists()) return Map.of();
+        int lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+                String[] parts = line.split("\\|");
+                if (parts.length < 3 || parts.length - 1 > MAX_STOPS) {
+                    System.err.println(Utils.YELLOW + "Warning: Skipping train stop list #" + lineNumber + " in " + filename + " (needs 2 to " + MAX_STOPS + " stops)" + Utils.RESET);
+                    continue;
+                }
+                String[] stops = new String[parts.length - 1];
+                for (int i = 0; i < stops.length; i++) stops[i] = parts[i + 1].trim().toUpperCase(Locale.ROOT);
+                lists.computeIfAbsent(parts[0].trim().toUpperCase(Locale.ROOT), k -> new ArrayList<>()).add(stops);
+            }
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error reading " + filename + ": " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+
+        Map<String, String[]> loaded = new HashMap<>();
+        lists.forEach((train, trainLists) -> {
+            if (trainLists.size() > 1) {
+                System.err.println(Utils.YELLOW + "Warning: Ignoring the stop lists of " + train + " in " + filename + " (several lists for one train name)" + Utils.RESET);
+                return;
+            }
+            loaded.put(train, trainLists.get(0));
+        });
+        return Map.copyOf(loaded);
+    }
+}
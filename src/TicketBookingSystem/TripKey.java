@@ -0,0 +1,22 @@
+package TicketBookingSystem;
+
+import java.util.Locale;
+
+/**
+ * Identifies one trip whose seats are sold independently: a service on a route, on a date, in a class.
+ * Text parts are trimmed and upper-cased, so keys built from user input and from stored records match.
+ */
+record TripKey(String mode, String provider, String origin, String destination, String travelDate, String seatClass) {
+    TripKey {
+        mode = normalize(mode);
+        provider = normalize(provider);
+        origin = normalize(origin);
+        destination = normalize(destination);
+        travelDate = normalize(travelDate);
+        seatClass = normalize(seatClass);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "N/A" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,18 +1,22 @@
 package TicketBookingSystem;
 
+import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class UserManager {
-    private HashMap<String, String> users = new HashMap<>();
+    // Credentials stay on disk; see UserStore. Null only if the store could not be opened.
+    private UserStore users;
 
     public UserManager() {
-        users = StorageManager.loadUsers();
+        System.out.println(Utils.GREY + "Loading user data..." + Utils.RESET);
+        try {
+            users = UserStore.open();
+            System.out.println(Utils.GREEN + "User data loaded successfully (" + users.size() + " users)." + Utils.RESET);
+        } catch (IOException e) { System.err.println(Utils.RED_BOLD + "Error loading user data: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET); }
     }
 
     public boolean register(String username, String password) {
@@ -28,8 +32,9 @@ public class UserManager {
         //     return false;
         // }
 
+        if (users == null) { System.err.println(Utils.RED_BOLD + "Error: User data is not available." + Utils.RESET); return false; }
         // Check if username already exists (case-sensitive)
-        if (users.containsKey(username)) {
+        if (users.contains(username)) {
             // Message handled by caller (Main.java)
             return false;
         }
@@ -40,15 +45,14 @@ public class UserManager {
             return false;
         }
 
-        users.put(username, hashedPassword);
-        StorageManager.saveUsers(users); // Save immediately
-        return true;
+        return users.add(username, hashedPassword); // Appended to the user log immediately
     }
 
     // login, hashPassword, getUsersMap, displayAllUsers methods remain the same...
     public boolean login(String username, String password) {
-        if (username == null || password == null || !users.containsKey(username)) { return false; }
-        String storedHash = users.get(username); String inputHash = hashPassword(password);
+        if (username == null || password == null || users == null) { return false; }
+        String storedHash = users.getHash(username); if (storedHash == null) { return false; }
+        String inputHash = hashPassword(password);
         if (inputHash == null || inputHash.isEmpty()) { System.err.println(Utils.RED + "Login failed: hashing error." + Utils.RESET); return false; }
         return java.util.Objects.equals(storedHash, inputHash);
     }
@@ -62,11 +66,22 @@ public class UserManager {
         } catch (NoSuchAlgorithmException e) { System.err.println(Utils.RED_BOLD + "CRITICAL ERROR: SHA-256 missing! " + e.getMessage() + Utils.RESET); return ""; }
     }
 
-    public HashMap<String, String> getUsersMap() { return users; }
+    /** Returns true if a user with this exact (case-sensitive) name is registered. */
+    public boolean userExists(String username) { return users != null && username != null && users.contains(username); }
+
+    /** Merges recent registrations into users.txt and closes the user files (call at exit). */
+    public void close() {
+        if (users == null) return;
+        try { users.close(); }
+        catch (IOException e) { System.err.println(Utils.RED_BOLD + "Error saving user data: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET); }
+    }
 
     public void displayAllUsers() {
-        if (users == null || users.isEmpty()) { System.out.println(Utils.YELLOW + "No registered users." + Utils.RESET); return; }
-        System.out.println(Utils.CYAN_BOLD + "\n--- Registered Users ---" + Utils.RESET); int count = 0; List<String> sortedUsernames = new ArrayList<>(users.keySet()); Collections.sort(sortedUsernames);
+        if (users == null || users.size() == 0) { System.out.println(Utils.YELLOW + "No registered users." + Utils.RESET); return; }
+        List<String> sortedUsernames = new ArrayList<>();
+        try { users.forEachUsername(sortedUsernames::add); }
+        catch (IOException e) { System.err.println(Utils.RED_BOLD + "Error reading user data: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET); return; }
+        System.out.println(Utils.CYAN_BOLD + "\n--- Registered Users ---" + Utils.RESET); int count = 0; Collections.sort(sortedUsernames);
         for (String username : sortedUsernames) { count++; System.out.printf(Utils.YELLOW_BOLD + "%d. " + Utils.MAGENTA + "%s\n" + Utils.RESET, count, username); }
         System.out.println(Utils.CYAN + "------------------------" + Utils.RESET); System.out.println(Utils.BLUE_BOLD + "Total Users: " + Utils.MAGENTA_BOLD + count + Utils.RESET);
     }
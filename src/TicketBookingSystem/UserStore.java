@@ -0,0 +1,387 @@
+package TicketBookingSystem;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Incremental storage for user credentials, replacing the full rewrite of users.txt on every
+ * registration.
+ *   users.txt - compacted base file, one framed username:hash line per user (see RecordFrame)
+ *   users.log - registrations since the last compaction, appended through a GroupCommitWriter
+ *   users.idx - open-addressing hash index over users.txt, memory-mapped. Each 16-byte slot
+ *               holds a 64-bit fingerprint of the username and the offset of its line.
+ * A registration appends one line to users.log, so it costs O(1) I/O, and concurrent signups
+ * share an fsync. Startup maps the index and reads only the short log. A credential in
+ * users.txt is read from disk when that user logs in. Once the log holds
+ * users.compactThreshold entries (default 1000), and at exit, it is merged into users.txt
+ * and the index is rebuilt. The index is also rebuilt whenever it does not match users.txt.
+ */
+public class UserStore implements Closeable {
+    static final String USER_FILE = "users.txt";
+    static final String LOG_FILE = "users.log";
+    static final String INDEX_FILE = "users.idx";
+    private static final byte DELIMITER = ':';
+
+    private static final int MAGIC = 0x534B5955; // "SKYU"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 16;
+    // Header field offsets
+    private static final int H_MAGIC = 0, H_VERSION = 4, H_SLOTS = 8, H_ENTRIES = 12, H_BASE_LENGTH = 16, H_BASE_MODIFIED = 24;
+
+    private static final int COMPACT_THRESHOLD = Integer.getInteger("users.compactThreshold", 1000);
+    private static final int LOG_BATCH_SIZE = 64;
+    private static final long LOG_MAX_WAIT_MICROS = 1000;
+
+    // Registrations since the last compaction (including ones still being committed)
+    private final Map<String, String> recent = new LinkedHashMap<>();
+    private FileChannel base; // users.txt, for reading single lines; null if there is no base file
+    private MappedByteBuffer index;
+    private int slotCount, baseCount;
+    private GroupCommitWriter logWriter;
+
+    private UserStore() {}
+
+    /** Opens the store, rebuilding the index if it is missing or stale and reading the registration log. */
+    public static UserStore open() throws IOException {
+        UserStore store = new UserStore();
+        store.openBase();
+        store.readLog();
+        return store;
+    }
+
+    // --- Lookup ---
+
+    /** Returns the stored password hash for a username, or null if there is no such user. */
+    public synchronized String getHash(String username) {
+        String hash = recent.get(username);
+        return hash != null ? hash : lookupBase(username);
+    }
+
+    public boolean contains(String username) { return getHash(username) != null; }
+
+    /** Number of registered users. */
+    public synchronized int size() { return baseCount + recent.size(); }
+
+    /** Streams all usernames (users.txt, then later registrations) without loading any credentials. */
+    public void forEachUsername(Consumer<String> visitor) throws IOException {
+        Map<String, String> pending;
+        synchronized (this) {
+            pending = new LinkedHashMap<>(recent);
+            File file = new File(USER_FILE);
+            if (file.exists()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    RecordTokenizer.forEachLine(in, (bytes, start, end, offset, lineNumber) -> {
+                        int sep = userLine(bytes, start, end);
+                        if (sep >= 0) {
+                            int payload = RecordFrame.payloadStart(bytes, start, end);
+                            String username = RecordTokenizer.string(bytes, payload, sep);
+                            if (!pending.containsKey(username)) visitor.accept(username);
+                        }
+                    });
+                }
+            }
+        }
+        pending.keySet().forEach(visitor);
+    }
+
+    // --- Registration ---
+
+    /**
+     * Adds a user, appending one line to users.log and waiting until it is on disk. The
+     * lock is released while waiting, so a burst of signups shares one fsync.
+     * @return false if the username is taken or the log could not be written (reported on stderr).
+     */
+    public boolean add(String username, String hash) {
+        CompletableFuture<Void> committed;
+        synchronized (this) {
+            if (getHash(username) != null) return false;
+            try {
+                if (logWriter == null) logWriter = new GroupCommitWriter(Paths.get(LOG_FILE), LOG_BATCH_SIZE, LOG_MAX_WAIT_MICROS);
+            } catch (IOException e) {
+                System.err.println(Utils.RED_BOLD + "Error opening " + LOG_FILE + ": " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+                return false;
+            }
+            recent.put(username, hash); // Claims the name so a concurrent registration fails
+            committed = logWriter.submit(RecordFrame.frame(username + (char) DELIMITER + hash));
+        }
+        try {
+            committed.join();
+        } catch (CompletionException e) {
+            synchronized (this) { recent.remove(username); }
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println(Utils.RED_BOLD + "Error saving user " + username + ": " + Utils.RESET + Utils.RED + cause.getMessage() + Utils.RESET);
+            return false;
+        }
+        synchronized (this) {
+            if (recent.size() >= COMPACT_THRESHOLD) compact();
+        }
+        return true;
+    }
+
+    // --- Compaction ---
+
+    /**
+     * Merges the registration log into users.txt (temp file, fsync, rename), rebuilds the
+     * index and empties the log. A crash part-way leaves users that are in both users.txt and
+     * the log, which is harmless: the next compaction writes each user once. users.txt is always
+     * reopened, the old one if the rename failed, and the log is only emptied once that worked.
+     */
+    public synchronized void compact() {
+        if (recent.isEmpty()) return;
+        File file = new File(USER_FILE), tempFile = new File(USER_FILE + ".tmp");
+        int written = 0;
+        try (FileOutputStream out = new FileOutputStream(tempFile);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            if (file.exists()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    int[] count = {0};
+                    RecordTokenizer.forEachLine(in, (bytes, start, end, offset, lineNumber) -> {
+                        if (userLine(bytes, start, end) < 0) return; // Damaged lines were reported when indexed
+                        int payload = RecordFrame.payloadStart(bytes, start, end);
+                        try { writer.write(RecordFrame.frame(RecordTokenizer.string(bytes, payload, end))); writer.newLine(); }
+                        catch (IOException e) { throw new UncheckedIOException(e); }
+                        count[0]++;
+                    });
+                    written = count[0];
+                }
+            }
+            for (Map.Entry<String, String> entry : recent.entrySet()) {
+                if (lookupBase(entry.getKey()) != null) continue; // Already merged before a crash
+                writer.write(RecordFrame.frame(entry.getKey() + (char) DELIMITER + entry.getValue())); writer.newLine();
+                written++;
+            }
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException | UncheckedIOException e) {
+            tempFile.delete();
+            System.err.println(Utils.RED_BOLD + "Error compacting user data: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return;
+        }
+
+        try {
+            closeBase();
+            boolean swapped = false;
+            try {
+                StorageManager.replaceAtomically(tempFile, file);
+                swapped = true;
+            } finally {
+                if (!swapped) tempFile.delete();
+                openBase(); // The new file if the rename worked, otherwise the old one; rebuilds the index
+            }
+            // users.txt now holds every logged user and is open again, so the log can start over
+            if (logWriter != null) logWriter.runExclusive(() -> truncate(new File(LOG_FILE)));
+            else truncate(new File(LOG_FILE));
+            recent.clear();
+            System.out.println(Utils.GREY + "Compacted user data (" + written + " users in " + USER_FILE + ")." + Utils.RESET);
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error compacting user data: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+        }
+    }
+
+    private static void truncate(File file) throws IOException {
+        if (!file.exists()) return;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    /** Compacts the log into users.txt and closes all files. */
+    @Override
+    public synchronized void close() throws IOException {
+        compact();
+        if (logWriter != null) { logWriter.close(); logWriter = null; }
+        closeBase();
+    }
+
+    // --- Base file and index ---
+
+    private void openBase() throws IOException {
+        File file = new File(USER_FILE);
+        baseCount = 0; slotCount = 0; index = null;
+        if (!file.exists()) {
+            System.out.println(Utils.YELLOW + "User data file (" + USER_FILE + ") not found. Starting fresh." + Utils.RESET);
+            return;
+        }
+        base = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        if (!mapIndex(base.size(), file.lastModified())) buildIndex();
+    }
+
+    private void closeBase() throws IOException {
+        index = null;
+        if (base != null) { base.close(); base = null; }
+    }
+
+    /** Maps users.idx if it describes the current users.txt (same length and modification time). */
+    private boolean mapIndex(long baseLength, long baseModified) throws IOException {
+        File file = new File(INDEX_FILE);
+        if (file.length() < HEADER_SIZE) return false;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int slots = mapped.getInt(H_SLOTS);
+            if (mapped.getInt(H_MAGIC) != MAGIC || mapped.getShort(H_VERSION) != VERSION || mapped.getLong(H_BASE_LENGTH) != baseLength
+                    || mapped.getLong(H_BASE_MODIFIED) != baseModified
+                    || Integer.bitCount(slots) != 1 || channel.size() != HEADER_SIZE + (long) slots * SLOT_SIZE) return false;
+            index = mapped; slotCount = slots; baseCount = mapped.getInt(H_ENTRIES);
+            return true;
+        }
+    }
+
+    /** Scans users.txt once and writes a fresh index (temp file and rename), then maps it. */
+    private void buildIndex() throws IOException {
+        long start = System.nanoTime();
+        long baseLength = base.size(), baseModified = new File(USER_FILE).lastModified();
+        // Offsets of user lines, collected first to size the table at no more than half full
+        long[] offsets = new long[1024];
+        int[] lines = {0};
+        try (InputStream in = new FileInputStream(USER_FILE)) {
+            long[][] holder = {offsets};
+            RecordTokenizer.forEachLine(in, (bytes, lineStart, end, offset, lineNumber) -> {
+                if (RecordTokenizer.isBlank(bytes, lineStart, end) || bytes[lineStart] == '#') return;
+                if (userLine(bytes, lineStart, end) < 0) {
+                    System.err.println(Utils.YELLOW_BOLD + "Warning:" + Utils.YELLOW + " Skipping malformed line #" + lineNumber + " in " + USER_FILE + Utils.RESET);
+                    return;
+                }
+                if (lines[0] == holder[0].length) holder[0] = java.util.Arrays.copyOf(holder[0], lines[0] * 2);
+                holder[0][lines[0]++] = offset;
+            });
+            offsets = holder[0];
+        }
+
+        int slots = Integer.highestOneBit(Math.max(16, lines[0] * 2 - 1)) << 1;
+        ByteBuffer table = ByteBuffer.allocate(HEADER_SIZE + slots * SLOT_SIZE);
+        index = null; slotCount = slots; baseCount = 0;
+        for (int i = 0; i < lines[0]; i++) {
+            String[] user = readUser(offsets[i]);
+            long fingerprint = fingerprint(user[0]);
+            int slot = findSlot(table, user[0], fingerprint);
+            if (table.getLong(slotOffset(slot)) == 0) baseCount++; // Otherwise a later duplicate line wins
+            table.putLong(slotOffset(slot), fingerprint).putLong(slotOffset(slot) + 8, offsets[i]);
+        }
+        table.putInt(H_MAGIC, MAGIC).putShort(H_VERSION, VERSION).putInt(H_SLOTS, slots).putInt(H_ENTRIES, baseCount).putLong(H_BASE_LENGTH, baseLength).putLong(H_BASE_MODIFIED, baseModified);
+
+        File tempFile = new File(INDEX_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (table.hasRemaining()) out.write(table);
+            out.force(true);
+        }
+        StorageManager.replaceAtomically(tempFile, new File(INDEX_FILE));
+        if (!mapIndex(baseLength, baseModified)) throw new IOException("Could not map rebuilt " + INDEX_FILE);
+        System.out.println(Utils.GREY + "Indexed " + baseCount + " users from " + USER_FILE + " in " + (System.nanoTime() - start) / 1_000_000 + " ms." + Utils.RESET);
+    }
+
+    /**
+     * Linear probe for a username: returns the slot holding it, or the empty slot where it
+     * would go. A fingerprint match is confirmed against the line in users.txt.
+     */
+    private int findSlot(ByteBuffer table, String username, long fingerprint) throws IOException {
+        int mask = slotCount - 1;
+        for (int slot = (int) fingerprint & mask; ; slot = (slot + 1) & mask) {
+            long stored = table.getLong(slotOffset(slot));
+            if (stored == 0) return slot;
+            if (stored == fingerprint && username.equals(readUser(table.getLong(slotOffset(slot) + 8))[0])) return slot;
+        }
+    }
+
+    private String lookupBase(String username) {
+        if (index == null) return null;
+        try {
+            long fingerprint = fingerprint(username);
+            int slot = findSlot(index, username, fingerprint);
+            if (index.getLong(slotOffset(slot)) == 0) return null;
+            return readUser(index.getLong(slotOffset(slot) + 8))[1];
+        } catch (IOException e) {
+            System.err.println(Utils.RED_BOLD + "Error reading user data: " + Utils.RESET + Utils.RED + e.getMessage() + Utils.RESET);
+            return null;
+        }
+    }
+
+    private static int slotOffset(int slot) { return HEADER_SIZE + slot * SLOT_SIZE; }
+
+    /** Reads the user line starting at an offset of users.txt as {username, hash}. */
+    private String[] readUser(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        while (true) {
+            buffer.clear();
+            int read = base.read(buffer, offset);
+            int end = 0;
+            while (end < Math.max(read, 0) && buffer.get(end) != '\n') end++;
+            if (end == buffer.capacity() && read == buffer.capacity()) { buffer = ByteBuffer.allocate(buffer.capacity() * 2); continue; }
+            byte[] bytes = buffer.array();
+            if (end > 0 && bytes[end - 1] == '\r') end--;
+            int sep = userLine(bytes, 0, end);
+            if (sep < 0) throw new IOException(USER_FILE + " changed under its index at offset " + offset);
+            int payload = RecordFrame.payloadStart(bytes, 0, end);
+            return new String[]{RecordTokenizer.string(bytes, payload, sep), RecordTokenizer.string(bytes, sep + 1, end)};
+        }
+    }
+
+    /**
+     * Checks a users file line (framed or legacy username:hash).
+     * @return The index of the delimiter between username and hash, or -1 if the line is not a valid user.
+     */
+    private static int userLine(byte[] bytes, int start, int end) {
+        if (RecordTokenizer.isBlank(bytes, start, end)) return -1;
+        int payload = RecordFrame.payloadStart(bytes, start, end);
+        if (payload == RecordFrame.CORRUPT || bytes[payload] == '#') return -1;
+        int sep = RecordTokenizer.indexOfDelimiter(bytes, payload, end); // Split only on first delimiter
+        return sep > payload && !RecordTokenizer.isBlank(bytes, payload, sep) && !RecordTokenizer.isBlank(bytes, sep + 1, end) ? sep : -1;
+    }
+
+    /** 64-bit FNV-1a of the UTF-8 username; never 0, which marks an empty slot. */
+    private static long fingerprint(String username) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : username.getBytes(StandardCharsets.UTF_8)) { hash ^= b & 0xFF; hash *= 0x100000001b3L; }
+        hash ^= hash >>> 32; // Mix high bits into the slot bits
+        return hash == 0 ? 1 : hash;
+    }
+
+    // --- Log ---
+
+    /** Reads users.log into memory; a torn last line from a crash mid-append is cut off. */
+    private void readLog() throws IOException {
+        File file = new File(LOG_FILE);
+        if (!file.exists()) return;
+        long[] validEnd = {0};
+        boolean[] damaged = {false};
+        try (InputStream in = new FileInputStream(file)) {
+            RecordTokenizer.forEachLine(in, (bytes, start, end, offset, lineNumber) -> {
+                int sep = userLine(bytes, start, end);
+                if (sep < 0) {
+                    if (!RecordTokenizer.isBlank(bytes, start, end)) damaged[0] = true;
+                    return;
+                }
+                if (damaged[0]) System.err.println(Utils.YELLOW + "Warning: Skipped damaged record(s) in " + LOG_FILE + " before line #" + lineNumber + Utils.RESET);
+                damaged[0] = false;
+                int payload = RecordFrame.payloadStart(bytes, start, end);
+                recent.put(RecordTokenizer.string(bytes, payload, sep), RecordTokenizer.string(bytes, sep + 1, end));
+                // end stops before a CRLF's '\r'; the valid bytes run through the '\n' after it
+                validEnd[0] = offset + (end - start) + (end < bytes.length && bytes[end] == '\r' ? 2 : 1);
+            });
+        }
+        if (validEnd[0] > file.length()) {
+            // The last record is complete but its newline is missing; add it before appending more
+            try (FileOutputStream out = new FileOutputStream(file, true)) { out.write('\n'); out.getFD().sync(); }
+        } else if (validEnd[0] < file.length()) {
+            // Nothing valid follows, so this is a torn append; keep new registrations on a clean line
+            long tornBytes = file.length() - validEnd[0];
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd[0]);
+                channel.force(true);
+            }
+            System.err.println(Utils.YELLOW + "Warning: Dropped a torn tail of " + tornBytes + " bytes from " + LOG_FILE + "." + Utils.RESET);
+        }
+        if (!recent.isEmpty()) System.out.println(Utils.GREY + "Read " + recent.size() + " recent registrations from " + LOG_FILE + "." + Utils.RESET);
+    }
+}
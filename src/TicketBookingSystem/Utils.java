@@ -145,6 +145,65 @@ public class Utils {
         return pricePerKm * distance;
     }
 
+    /**
+     * Parses a stored travel date (DD-MM-YYYY) without any console interaction.
+     * @param travelDate Date string as stored in bookings (may be "N/A").
+     * @return The parsed date, or null if the string is not a valid date.
+     */
+    public static LocalDate parseTravelDate(String travelDate) {
+        if (travelDate == null) return null;
+        try {
+            return LocalDate.parse(travelDate.trim(), DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Formats a date in the DD-MM-YYYY form used for stored travel dates.
+     * @param date The date to format.
+     * @return The formatted date string.
+     */
+    public static String formatTravelDate(LocalDate date) {
+        return date.format(DATE_FORMATTER);
+    }
+
+    /**
+     * Parses a route ETA such as "2h30m", "28h" or "45m" (an optional "d" part is accepted too).
+     * @param eta ETA string from the route files.
+     * @return Minutes, or -1 if the string is not in that form.
+     */
+    public static int parseEtaMinutes(String eta) {
+        if (eta == null) return -1;
+        String s = eta.trim().toLowerCase();
+        if (s.isEmpty()) return -1;
+        int total = 0, value = -1;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 100_000) return -1;
+            } else if (value >= 0 && (c == 'd' || c == 'h' || c == 'm')) {
+                total += value * (c == 'd' ? 1440 : c == 'h' ? 60 : 1);
+                value = -1;
+            } else if (c != ' ') {
+                return -1;
+            }
+        }
+        return value >= 0 ? -1 : total; // Trailing number without a unit
+    }
+
+    /**
+     * Formats minutes the way the route files write ETAs (e.g. "26h15m").
+     * @param minutes Travel time in minutes.
+     * @return The ETA string, or "N/A" for a negative value.
+     */
+    public static String formatEtaMinutes(int minutes) {
+        if (minutes < 0) return "N/A";
+        int h = minutes / 60, m = minutes % 60;
+        return h == 0 ? m + "m" : m == 0 ? h + "h" : h + "h" + m + "m";
+    }
+
     // --- Input Validation Helper Methods ---
 
     /**
@@ -301,7 +360,8 @@ public class Utils {
 
     /**
      * Simulates a payment process, prompting for method and dummy details.
-     * Includes an artificial delay to mimic processing.
+     * Includes an artificial delay to mimic processing: three steps of -Dpayment.delayMillis
+     * (default 500) and a short final pause.
      *
      * @param sc Scanner instance.
      * @param amount The amount to be "paid".
@@ -363,14 +423,15 @@ public class Utils {
         }
 
         // Simulate processing delay
+        long stepMillis = Long.getLong("payment.delayMillis", 500); // Read per payment so benchmarks can turn it off
         System.out.print("\n" + Utils.CYAN + "Processing payment..." + Utils.RESET);
         try {
             for (int i = 0; i < 3; i++) {
-                Thread.sleep(500); // Wait 0.5 seconds
+                Thread.sleep(stepMillis); // Wait 0.5 seconds by default
                 System.out.print(Utils.CYAN + "." + Utils.RESET);
             }
             System.out.println(); // Newline after dots
-            Thread.sleep(300); // Short final pause
+            Thread.sleep(stepMillis * 3 / 5); // Short final pause
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Set interrupt flag
             System.out.println("\n" + Utils.RED + "Payment processing interrupted." + Utils.RESET);